@@ -0,0 +1,65 @@
+package org.github.tigz.wallet;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application for benchmarks that need real beans and the in-memory H2 database.
+ * Per-operation logging, including the errors logged for every lock conflict and failed request, is turned down
+ * so that it does not dominate the measurements.
+ */
+public final class WalletBenchmarkContext {
+
+    private static final List<String> DEFAULT_ARGS = List.of(
+            "--spring.datasource.url=jdbc:h2:mem:walletbench;DB_CLOSE_DELAY=-1",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.org.github.tigz.wallet=WARN",
+            "--logging.level.org.hibernate.orm.jdbc.batch=OFF",
+            "--logging.level.org.apache.catalina.core=OFF",
+            "--logging.file.name="
+    );
+
+    private WalletBenchmarkContext() {
+    }
+
+    /**
+     * Starts the application context.
+     *
+     * Properties are passed as command line arguments so that they take precedence over application.properties.
+     *
+     * @param properties Additional properties in {@code key=value} form, overriding the defaults
+     * @return The running application context; the caller is responsible for closing it
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application context with the embedded web server on a random port,
+     * available afterwards as the {@code local.server.port} property.
+     *
+     * @param properties Additional properties in {@code key=value} form, overriding the defaults
+     * @return The running application context; the caller is responsible for closing it
+     */
+    public static ConfigurableApplicationContext startWithWebServer(String... properties) {
+        List<String> withPort = new ArrayList<>(List.of(properties));
+        withPort.add(0, "server.port=0");
+        return start(WebApplicationType.SERVLET, withPort.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> args = new ArrayList<>(DEFAULT_ARGS);
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(WalletApiApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,96 @@
+package org.github.tigz.wallet.common.model;
+
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the arithmetic of one withdrawal done with BigDecimal against the same steps done with {@link Money}:
+ * range check against the configured limits, sufficient-funds check, subtraction and DTO conversion.
+ * Run with {@code -Djmh.args="MoneyBenchmark -prof gc"} to see allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final String CUSTOMER_ID = "benchmark-customer";
+
+    private BigDecimal requestAmount;
+
+    private BigDecimal minDecimal;
+    private BigDecimal maxDecimal;
+    private BigDecimal balanceDecimal;
+
+    private Money minMoney;
+    private Money maxMoney;
+    private Money balanceMoney;
+
+    @Setup
+    public void setUp() {
+        requestAmount = new BigDecimal("12.34");
+        minDecimal = new BigDecimal("0.01");
+        maxDecimal = new BigDecimal("5000");
+        balanceDecimal = new BigDecimal("1000000.00");
+        minMoney = Money.valueOf("0.01");
+        maxMoney = Money.valueOf("5000");
+        balanceMoney = Money.valueOf("1000000.00");
+    }
+
+    @Benchmark
+    public WalletDTO bigDecimalWithdraw() {
+        BigDecimal amount = requestAmount;
+        if (amount.compareTo(minDecimal) < 0 || amount.compareTo(maxDecimal) > 0) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+        if (balanceDecimal.compareTo(amount) < 0) {
+            balanceDecimal = new BigDecimal("1000000.00");
+        }
+        balanceDecimal = balanceDecimal.subtract(amount);
+        return new WalletDTO(CUSTOMER_ID, balanceDecimal);
+    }
+
+    @Benchmark
+    public WalletDTO moneyWithdraw() {
+        Money amount = Money.of(requestAmount);
+        if (amount.isLessThan(minMoney) || amount.isGreaterThan(maxMoney)) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+        if (balanceMoney.isLessThan(amount)) {
+            balanceMoney = Money.valueOf("1000000.00");
+        }
+        balanceMoney = balanceMoney.minus(amount);
+        return new WalletDTO(CUSTOMER_ID, balanceMoney.toBigDecimal());
+    }
+
+    /**
+     * The Money path without the BigDecimal conversions at either edge, i.e. the cost of the
+     * arithmetic itself once amounts are held as minor units.
+     */
+    @Benchmark
+    public Money moneyArithmeticOnly() {
+        Money amount = minMoney.plus(Money.ofMinor(1233));
+        if (amount.isLessThan(minMoney) || amount.isGreaterThan(maxMoney)) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+        if (balanceMoney.isLessThan(amount)) {
+            balanceMoney = Money.valueOf("1000000.00");
+        }
+        balanceMoney = balanceMoney.minus(amount);
+        return balanceMoney;
+    }
+}
@@ -0,0 +1,78 @@
+package org.github.tigz.wallet.common.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of a transaction history page as JSON, the default response format, versus the compact
+ * CBOR format served for {@code application/cbor}. The encoded size of each page is printed at the end of its trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"1", "20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageDTO<TransactionDTO> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = "cbor".equals(format) ? CompactBinaryConfig.cborObjectMapper(Jackson2ObjectMapperBuilder.json()) : Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+        List<TransactionDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new TransactionDTO(1_000_000L + i, "mobile-customer-0042", BigDecimal.valueOf(1000 + i * 37L, 2),
+                    timestamp.plusSeconds(i * 17L)));
+        }
+        page = new PageDTO<>(content, 3, pageSize, pageSize * 50L, 50);
+        encoded = objectMapper.writeValueAsBytes(page);
+    }
+
+    @TearDown
+    public void reportSize() {
+        System.out.printf("Payload bytes: format=%s, pageSize=%d, bytes=%d%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageDTO<TransactionDTO> decode() throws IOException {
+        return objectMapper.readValue(encoded, new TypeReference<>() {
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search time of the person name index for a top-20 prefix query of one, two and three letters, and the cost of
+ * re-indexing a renamed person. The approximate heap held per indexed person is printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonSearchIndexBenchmark {
+
+    private static final int PERSONS = 200_000;
+    private static final String[] SYLLABLES = {"an", "be", "car", "da", "el", "fi", "go", "har", "is", "jo", "ka", "li",
+            "mo", "na", "ol", "pe", "ri", "sa", "to", "vi", "wil", "ya", "zo"};
+
+    @Param({"1", "2", "3"})
+    public int prefixLength;
+
+    private PersonSearchIndex index;
+    private PersonDTO[] persons;
+    private String[] prefixes;
+    private long heapBytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long before = usedHeap();
+        index = new PersonSearchIndex();
+        persons = new PersonDTO[PERSONS];
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < PERSONS; i++) {
+            persons[i] = new PersonDTO(UUID.randomUUID(), "Mx", name(random), name(random), "1990-01-01", createdAt.plusSeconds(i));
+            index.put(persons[i]);
+        }
+        heapBytes = usedHeap() - before;
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = name(random).toLowerCase();
+            prefixes[i] = name.substring(0, Math.min(prefixLength, name.length()));
+        }
+    }
+
+    @TearDown
+    public void reportSize() {
+        System.out.printf("Index heap: persons=%d, bytes=%d, bytesPerPerson=%d%n", index.size(), heapBytes, heapBytes / PERSONS);
+    }
+
+    @Benchmark
+    public List<PersonDTO> search() {
+        return index.search(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 20);
+    }
+
+    @Benchmark
+    public void reindex() {
+        PersonDTO person = persons[ThreadLocalRandom.current().nextInt(PERSONS)];
+        index.put(person);
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,138 @@
+package org.github.tigz.wallet.modules.wallet.controller;
+
+import org.github.tigz.wallet.WalletBenchmarkContext;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+import org.github.tigz.wallet.modules.wallet.service.WalletService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end HTTP load against the wallet API, comparing Tomcat's platform thread pool with virtual threads
+ * (the {@code virtual} profile, which also turns on database admission control).
+ * 48 client threads withdraw from one hot wallet, so optimistic lock retries pile up, while 16 client threads read
+ * random cold wallets. Tomcat's platform pool is shrunk to 16 threads so that this load exhausts it, as a larger
+ * production load would exhaust the default 200. Run with both modes to compare throughput and, from the sample
+ * time mode, p99 latency of the cold reads queued behind the hot writers. Non-2xx responses are counted as
+ * {@code failures}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WalletApiLoadBenchmark {
+
+    public enum ThreadModel {
+        PLATFORM, VIRTUAL
+    }
+
+    private static final String HOT_CUSTOMER_ID = "load-hot";
+    private static final int COLD_CUSTOMERS = 1_000;
+    private static final BigDecimal TOP_UP_BALANCE = new BigDecimal("1000000000.00");
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadModel threadModel;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    /**
+     * Per-thread count of requests that did not return a 2xx status.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failures = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = threadModel == ThreadModel.VIRTUAL
+                ? WalletBenchmarkContext.startWithWebServer("spring.profiles.active=virtual")
+                : WalletBenchmarkContext.startWithWebServer("server.tomcat.threads.max=16");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/wallet/";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<FundsOperation> seed = new ArrayList<>(COLD_CUSTOMERS + 1);
+        seed.add(FundsOperation.add(HOT_CUSTOMER_ID, new BigDecimal("10")));
+        for (int i = 0; i < COLD_CUSTOMERS; i++) {
+            seed.add(FundsOperation.add("load-cold-" + i, new BigDecimal("10")));
+        }
+        context.getBean(WalletService.class).applyOperations(seed);
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        jdbcTemplate.update("UPDATE wallets SET balance = ? WHERE customer_id LIKE 'load-%'", TOP_UP_BALANCE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(48)
+    public int withdrawHot(Failures failures) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + HOT_CUSTOMER_ID + "/withdraw"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 0.01}"))
+                .build();
+        return send(request, failures);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public int getWalletCold(Failures failures) throws IOException, InterruptedException {
+        String customerId = "load-cold-" + ThreadLocalRandom.current().nextInt(COLD_CUSTOMERS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + customerId)).GET().build();
+        return send(request, failures);
+    }
+
+    private int send(HttpRequest request, Failures failures) throws IOException, InterruptedException {
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status < 200 || status >= 300) {
+            failures.failures++;
+        }
+        return status;
+    }
+}
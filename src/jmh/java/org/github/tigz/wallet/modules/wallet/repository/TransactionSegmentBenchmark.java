@@ -0,0 +1,87 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode time of a month of cold ledger rows sealed into a {@link TransactionSegment}: a full scan, reported per row,
+ * and one random wallet's history. The file size and bytes per transaction are printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSegmentBenchmark {
+
+    private static final int WALLETS = 10_000;
+    private static final int ROWS = 1_000_000;
+
+    private Path file;
+    private TransactionSegment segment;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        LocalDate periodStart = LocalDate.of(2024, 3, 1);
+        List<LedgerRow> rows = new ArrayList<>(ROWS);
+        long id = 1;
+        for (long walletId = 1; walletId <= WALLETS; walletId++) {
+            LocalDateTime timestamp = periodStart.atStartOfDay();
+            for (int i = 0; i < ROWS / WALLETS; i++) {
+                timestamp = timestamp.plusNanos(random.nextLong(1_000_000_000L * 3600) / 1_000 * 1_000);
+                boolean credit = random.nextInt(4) == 0;
+                rows.add(new LedgerRow(id, walletId, credit ? Transaction.TransactionType.CREDIT : Transaction.TransactionType.DEBIT,
+                        Money.ofMinor(credit ? 1_000 + random.nextInt(100_000) : 10 + random.nextInt(5_000)), timestamp,
+                        random.nextInt(10) == 0 ? id + 1 : null));
+                id += 1 + random.nextInt(WALLETS / 10);
+            }
+        }
+        file = Files.createTempFile("transactions-", ".seg");
+        TransactionSegment.write(file, periodStart, rows.iterator());
+        segment = TransactionSegment.open(file);
+    }
+
+    @TearDown
+    public void reportSize() throws IOException {
+        System.out.printf("Segment bytes: rows=%d, wallets=%d, bytes=%d, bytesPerTransaction=%.2f%n", segment.getRowCount(),
+                segment.getWalletCount(), segment.getSize(), (double) segment.getSize() / segment.getRowCount());
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void scan(Blackhole blackhole) {
+        segment.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<LedgerRow> readWallet() {
+        return segment.read(1 + ThreadLocalRandom.current().nextInt(WALLETS));
+    }
+}
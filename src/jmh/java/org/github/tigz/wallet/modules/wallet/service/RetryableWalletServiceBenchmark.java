@@ -0,0 +1,73 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.WalletBenchmarkContext;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the {@code @Retryable} proxy around {@link RetryableWalletService}.
+ * All three variants read a wallet that is already in the balance cache, so no database work hides the difference:
+ * the WalletService bean on its own, a plain RetryableWalletService instance, and the proxied bean the controller uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetryableWalletServiceBenchmark {
+
+    private static final String CUSTOMER_ID = "bench-proxy";
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private RetryableWalletService unproxiedService;
+    private RetryableWalletService proxiedService;
+
+    @Setup
+    public void startContext() {
+        context = WalletBenchmarkContext.start();
+        walletService = context.getBean(WalletService.class);
+        proxiedService = context.getBean(RetryableWalletService.class);
+        unproxiedService = new RetryableWalletService(walletService, context.getBean(CustomerLaneExecutor.class),
+                context.getBean(LedgerGroupCommitter.class), context.getBean(WalletOperationMetrics.class), context.getBean(IdempotencyStore.class),
+                context.getBean(InMemoryWalletEngine.class));
+
+        proxiedService.addFunds(CUSTOMER_ID, new BigDecimal("100"));
+        proxiedService.getWallet(CUSTOMER_ID);
+    }
+
+    @TearDown
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public WalletDTO walletService() {
+        return walletService.getWallet(CUSTOMER_ID);
+    }
+
+    @Benchmark
+    public WalletDTO retryableWithoutProxy() {
+        return unproxiedService.getWallet(CUSTOMER_ID);
+    }
+
+    @Benchmark
+    public WalletDTO retryableProxy() {
+        return proxiedService.getWallet(CUSTOMER_ID);
+    }
+}
@@ -0,0 +1,92 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.WalletBenchmarkContext;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of credits to a single hot wallet as its balance is split across more shard rows.
+ * With no shards every credit updates the wallet row; with N shards each credit updates one of N rows, so concurrent
+ * writers stop queueing on one lock. A fixed 16 writers are used rather than one per CPU, since writers blocked on a
+ * row lock hold no CPU and the contention shows up even on small machines. As in {@link WalletServiceBenchmark}, the service is called without the retry
+ * facade and lock conflicts are reported as the {@code conflicts} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedWalletBenchmark {
+
+    private static final String CUSTOMER_ID = "bench-sharded";
+    private static final BigDecimal ADD_AMOUNT = new BigDecimal("10");
+
+    @Param({"0", "4", "16"})
+    public int shards;
+
+    @Param({"JPA", "CONDITIONAL_UPDATE"})
+    public WalletConfig.Engine engine;
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+
+    /**
+     * Per-thread count of credits that failed with a lock conflict.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = WalletBenchmarkContext.start("wallet.engine=" + engine);
+        walletService = context.getBean(WalletService.class);
+        walletService.addFunds(CUSTOMER_ID, ADD_AMOUNT);
+        walletService.setShards(CUSTOMER_ID, shards);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public WalletDTO addFundsContended(Conflicts conflicts) {
+        try {
+            return walletService.addFunds(CUSTOMER_ID, ADD_AMOUNT);
+        } catch (ConcurrencyFailureException e) {
+            conflicts.conflicts++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the entity to DTO conversions in {@link WalletService}, which run once per wallet response and once
+ * per row of every transaction history page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletMappingBenchmark {
+
+    private WalletService walletService;
+    private Wallet wallet;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        WalletConfig walletConfig = new WalletConfig();
+        walletService = new WalletService(null, null, walletConfig,
+                new WalletBalanceCache(walletConfig, new SimpleMeterRegistry()), null, null, null, null);
+        wallet = new Wallet("benchmark-customer", Money.valueOf("1234.56"));
+        transaction = new Transaction(wallet, Money.valueOf("12.34"), Transaction.TransactionType.CREDIT);
+        transaction.setId(42L);
+    }
+
+    @Benchmark
+    public WalletDTO walletToDTO() {
+        return walletService.convertToDTO(wallet);
+    }
+
+    @Benchmark
+    public TransactionDTO transactionToDTO() {
+        return walletService.convertToDTO(transaction);
+    }
+}
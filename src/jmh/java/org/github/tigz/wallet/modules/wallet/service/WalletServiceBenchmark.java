@@ -0,0 +1,167 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.WalletBenchmarkContext;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link WalletService#addFunds} and {@link WalletService#withdrawFunds} against the in-memory H2 database.
+ * Each operation runs on one thread and on one thread per CPU, with either every thread hitting the same wallet
+ * ({@code HOT}) or picking one of many wallets at random ({@code COLD}), for each engine.
+ * The service is called directly, without the retry facade, so lock conflicts are not retried; they are reported
+ * as the {@code conflicts} secondary result instead of failing the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletServiceBenchmark {
+
+    public enum Distribution {
+        HOT, COLD
+    }
+
+    private static final int COLD_CUSTOMERS = 10_000;
+    private static final int SEED_CHUNK_SIZE = 500;
+    private static final BigDecimal ADD_AMOUNT = new BigDecimal("10");
+    private static final BigDecimal WITHDRAW_AMOUNT = new BigDecimal("0.01");
+    private static final BigDecimal TOP_UP_BALANCE = new BigDecimal("1000000000.00");
+
+    @Param({"HOT", "COLD"})
+    public Distribution distribution;
+
+    @Param({"JPA", "CONDITIONAL_UPDATE", "EVENT_SOURCED"})
+    public WalletConfig.Engine engine;
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private JdbcTemplate jdbcTemplate;
+    private String[] customerIds;
+
+    /**
+     * Per-thread count of operations that failed with a lock conflict.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = WalletBenchmarkContext.start("wallet.engine=" + engine);
+        walletService = context.getBean(WalletService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        int customers = distribution == Distribution.HOT ? 1 : COLD_CUSTOMERS;
+        customerIds = new String[customers];
+        List<FundsOperation> seed = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < customers; i++) {
+            customerIds[i] = "bench-" + distribution.name().toLowerCase() + "-" + i;
+            seed.add(FundsOperation.add(customerIds[i], ADD_AMOUNT));
+            if (seed.size() == SEED_CHUNK_SIZE || i == customers - 1) {
+                walletService.applyOperations(seed);
+                seed.clear();
+            }
+        }
+    }
+
+    /**
+     * Resets every benchmark wallet to a large balance so withdrawals never run dry mid-run.
+     * The event-sourced engine reads balances from the ledger, so its wallets are reset by snapshotting them at the
+     * large balance on top of every ledger row written so far.
+     */
+    @Setup(Level.Iteration)
+    public void topUp() {
+        if (engine == WalletConfig.Engine.EVENT_SOURCED) {
+            jdbcTemplate.update("MERGE INTO wallet_snapshots (wallet_id, balance, transaction_count, last_transaction_id, taken_at)"
+                    + " KEY (wallet_id) SELECT id, ?, 0, (SELECT COALESCE(MAX(id), 0) FROM transaction), CURRENT_TIMESTAMP"
+                    + " FROM wallets WHERE customer_id LIKE 'bench-%'", TOP_UP_BALANCE);
+            return;
+        }
+        jdbcTemplate.update("UPDATE wallets SET balance = ? WHERE customer_id LIKE 'bench-%'", TOP_UP_BALANCE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WalletDTO addFunds(Conflicts conflicts) {
+        return add(conflicts);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public WalletDTO addFundsContended(Conflicts conflicts) {
+        return add(conflicts);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WalletDTO withdrawFunds(Conflicts conflicts) {
+        return withdraw(conflicts);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public WalletDTO withdrawFundsContended(Conflicts conflicts) {
+        return withdraw(conflicts);
+    }
+
+    private WalletDTO add(Conflicts conflicts) {
+        try {
+            return walletService.addFunds(nextCustomerId(), ADD_AMOUNT);
+        } catch (ConcurrencyFailureException e) {
+            conflicts.conflicts++;
+            return null;
+        }
+    }
+
+    private WalletDTO withdraw(Conflicts conflicts) {
+        try {
+            return walletService.withdrawFunds(nextCustomerId(), WITHDRAW_AMOUNT);
+        } catch (ConcurrencyFailureException e) {
+            conflicts.conflicts++;
+            return null;
+        }
+    }
+
+    private String nextCustomerId() {
+        return customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+    }
+}
@@ -0,0 +1,125 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.WalletBenchmarkContext;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link WalletService#transfer} under many-to-many traffic: every call moves funds between two
+ * distinct wallets picked at random from a pool, in a random direction, so concurrent transfers regularly cross
+ * each other. The pool size sets the contention, from every thread fighting over the same pair ({@code 2}) to
+ * mostly disjoint pairs ({@code 1000}).
+ * The service is called directly, without the retry facade, so a transfer that loses on a lock is not retried;
+ * lock conflicts and lock wait timeouts are reported as the {@code conflicts} secondary result. Ordered locking
+ * should keep that at zero: transfers wait for each other rather than deadlock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletTransferBenchmark {
+
+    private static final BigDecimal SEED_AMOUNT = new BigDecimal("10");
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("0.01");
+    private static final BigDecimal TOP_UP_BALANCE = new BigDecimal("1000000000.00");
+
+    @Param({"2", "16", "1000"})
+    public int wallets;
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private JdbcTemplate jdbcTemplate;
+    private String[] customerIds;
+
+    /**
+     * Per-thread count of transfers that failed on a lock.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = WalletBenchmarkContext.start();
+        walletService = context.getBean(WalletService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        customerIds = new String[wallets];
+        List<FundsOperation> seed = new ArrayList<>(wallets);
+        for (int i = 0; i < wallets; i++) {
+            customerIds[i] = "transfer-bench-" + wallets + "-" + i;
+            seed.add(FundsOperation.add(customerIds[i], SEED_AMOUNT));
+        }
+        walletService.applyOperations(seed);
+    }
+
+    /**
+     * Resets every benchmark wallet to a large balance so transfers never run dry mid-run.
+     */
+    @Setup(Level.Iteration)
+    public void topUp() {
+        jdbcTemplate.update("UPDATE wallets SET balance = ? WHERE customer_id LIKE 'transfer-bench-%'", TOP_UP_BALANCE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransferDTO transfer(Conflicts conflicts) {
+        return randomTransfer(conflicts);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TransferDTO transferContended(Conflicts conflicts) {
+        return randomTransfer(conflicts);
+    }
+
+    private TransferDTO randomTransfer(Conflicts conflicts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(customerIds.length);
+        int to = (from + 1 + random.nextInt(customerIds.length - 1)) % customerIds.length;
+        try {
+            return walletService.transfer(customerIds[from], customerIds[to], TRANSFER_AMOUNT);
+        } catch (ConcurrencyFailureException e) {
+            conflicts.conflicts++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.github.tigz.wallet.common.dto;
+
+import java.util.List;
+
+public class SliceDTO<T> {
+    private List<T> content;
+    private int pageNumber;
+    private int pageSize;
+    private boolean hasNext;
+
+    public SliceDTO() {
+    }
+
+    public SliceDTO(List<T> content, int pageNumber, int pageSize, boolean hasNext) {
+        this.content = content;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public void setPageNumber(int pageNumber) {
+        this.pageNumber = pageNumber;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
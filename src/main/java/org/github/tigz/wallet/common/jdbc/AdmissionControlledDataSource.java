@@ -0,0 +1,155 @@
+package org.github.tigz.wallet.common.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits how many threads may hold a database connection at once, queueing the rest on a fair semaphore.
+ * With virtual threads there is no request thread pool to bound concurrency, so thousands of requests can reach
+ * the connection pool together. Waiting here parks a virtual thread cheaply and fails fast with a
+ * {@link SQLTransientConnectionException} once the admission timeout passes, instead of piling every request into
+ * the pool's own wait queue. The permit is released when the connection is closed.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long timeoutNanos;
+
+    /**
+     * Constructs a new AdmissionControlledDataSource.
+     *
+     * @param targetDataSource The data source to admit callers to, normally the connection pool
+     * @param limit The maximum number of connections held at once
+     * @param timeout How long a caller waits for admission before failing
+     */
+    public AdmissionControlledDataSource(DataSource targetDataSource, int limit, Duration timeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return admitted(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return admitted(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of callers currently holding a connection through this data source.
+     *
+     * @return The number of permits in use
+     */
+    public int getActive() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Returns an estimate of the number of callers waiting for admission.
+     *
+     * @return The number of queued callers
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        "Timed out after %d ms waiting for database admission (limit %d)",
+                        TimeUnit.NANOSECONDS.toMillis(timeoutNanos), limit));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for database admission", e);
+        }
+    }
+
+    private Connection admitted(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ReleasingInvocationHandler(connection));
+    }
+
+    /**
+     * Passes every call through to the pooled connection and gives the permit back on the first close.
+     */
+    private final class ReleasingInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingInvocationHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
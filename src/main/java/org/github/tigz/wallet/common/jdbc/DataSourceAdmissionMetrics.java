@@ -0,0 +1,55 @@
+package org.github.tigz.wallet.common.jdbc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Publishes gauges for every {@link AdmissionControlledDataSource}, tagged by data source bean name:
+ * <ul>
+ *     <li>{@code wallet.db.admission.active}: callers holding a connection</li>
+ *     <li>{@code wallet.db.admission.waiting}: callers queued for admission</li>
+ *     <li>{@code wallet.db.admission.limit}: the configured admission limit</li>
+ * </ul>
+ * The connection pool behind it publishes its own {@code hikaricp.connections.*} metrics.
+ */
+@Component
+public class DataSourceAdmissionMetrics implements MeterBinder {
+
+    private final Map<String, DataSource> dataSources;
+
+    /**
+     * Constructs a new DataSourceAdmissionMetrics.
+     *
+     * @param dataSources The application's data sources by bean name
+     */
+    @Autowired
+    public DataSourceAdmissionMetrics(Map<String, DataSource> dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof AdmissionControlledDataSource admission) {
+                Gauge.builder("wallet.db.admission.active", admission, AdmissionControlledDataSource::getActive)
+                        .description("Callers holding a database connection")
+                        .tag("name", name)
+                        .register(registry);
+                Gauge.builder("wallet.db.admission.waiting", admission, AdmissionControlledDataSource::getWaiting)
+                        .description("Callers waiting for database admission")
+                        .tag("name", name)
+                        .register(registry);
+                Gauge.builder("wallet.db.admission.limit", admission, AdmissionControlledDataSource::getLimit)
+                        .description("Maximum callers holding a database connection at once")
+                        .tag("name", name)
+                        .register(registry);
+            }
+        });
+    }
+}
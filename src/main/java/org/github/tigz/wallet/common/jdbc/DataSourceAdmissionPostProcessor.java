@@ -0,0 +1,44 @@
+package org.github.tigz.wallet.common.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application's DataSource in an {@link AdmissionControlledDataSource} when
+ * {@code wallet.dbAdmissionLimit} is greater than zero. Callers wait at most {@code wallet.dbAdmissionTimeout}
+ * (default 5 seconds) for admission.
+ */
+@Component
+public class DataSourceAdmissionPostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceAdmissionPostProcessor.class);
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private int limit;
+    private Duration timeout = DEFAULT_TIMEOUT;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.limit = binder.bind("wallet.db-admission-limit", Integer.class).orElse(0);
+        this.timeout = binder.bind("wallet.db-admission-timeout", Duration.class).orElse(DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (limit <= 0 || !(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource) {
+            return bean;
+        }
+        logger.info("Database admission control enabled for {}: limit={}, timeout={}", beanName, limit, timeout);
+        return new AdmissionControlledDataSource(dataSource, limit, timeout);
+    }
+}
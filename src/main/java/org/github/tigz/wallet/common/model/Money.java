@@ -0,0 +1,123 @@
+package org.github.tigz.wallet.common.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money held as a whole number of minor units (pence).
+ * Matches the DECIMAL(19, 2) columns used for balances and ledger amounts. Arithmetic and
+ * comparisons work on a primitive long, so the wallet hot path does not allocate a BigDecimal per step.
+ * Serializes to JSON as a plain decimal number, the same shape as the BigDecimal it replaces.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Number of decimal places in an amount.
+     */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an amount from a number of minor units.
+     *
+     * @param minorUnits The amount in pence
+     * @return The amount
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts a decimal amount exactly.
+     *
+     * @param amount The decimal amount
+     * @return The amount
+     * @throws IllegalArgumentException if the amount has more than two decimal places or does not fit in a long of pence
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places and fit in the supported range: " + amount, e);
+        }
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "10"} or {@code "0.01"}.
+     * Also lets Spring bind configuration properties directly to Money.
+     *
+     * @param amount The decimal amount as text
+     * @return The amount
+     */
+    public static Money valueOf(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    /**
+     * Converts this amount to a BigDecimal with a scale of two.
+     *
+     * @return The decimal amount
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && minorUnits == other.minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
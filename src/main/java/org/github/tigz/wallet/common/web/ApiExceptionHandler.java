@@ -0,0 +1,40 @@
+package org.github.tigz.wallet.common.web;
+
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns the exceptions the services use for bad requests into client errors, as RFC 9457 problem details.
+ * Validation failures, including malformed amounts, cursors, sizes, formats and reused idempotency keys, are
+ * thrown as {@link IllegalArgumentException} and answered with 400; a missing wallet is answered with 404, and a
+ * withdrawal or transfer larger than the balance with 409. Anything else is left to Spring's default handling.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleInvalidRequest(IllegalArgumentException e) {
+        logger.debug("Rejected invalid request: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(WalletNotFoundException.class)
+    public ProblemDetail handleWalletNotFound(WalletNotFoundException e) {
+        logger.debug("Wallet not found: customerId={}", e.getCustomerId());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ProblemDetail handleInsufficientFunds(InsufficientFundsException e) {
+        logger.debug("Insufficient funds: customerId={}", e.getCustomerId());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+}
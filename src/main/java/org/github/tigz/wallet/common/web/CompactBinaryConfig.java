@@ -0,0 +1,56 @@
+package org.github.tigz.wallet.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Serves API payloads as CBOR to clients that ask for {@code application/cbor}, and accepts CBOR request bodies.
+ * The CBOR representation uses the {@link CompactBinaryModule}: amounts in minor units and timestamps in epoch
+ * milliseconds. JSON stays the default, since the converter only replaces Spring's own CBOR converter, which sits
+ * after the JSON one. The mapper is built from Spring Boot's JSON mapper builder, so {@code spring.jackson.*} settings
+ * and customizers apply to CBOR too.
+ */
+@Configuration
+public class CompactBinaryConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder;
+
+    /**
+     * Constructs a new CompactBinaryConfig.
+     *
+     * @param jackson2ObjectMapperBuilder Spring Boot's builder, carrying the {@code spring.jackson.*} settings and
+     * every registered customizer and module
+     */
+    public CompactBinaryConfig(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        this.jackson2ObjectMapperBuilder = jackson2ObjectMapperBuilder;
+    }
+
+    /**
+     * Creates the mapper used for CBOR payloads from a JSON mapper builder, keeping everything the builder configures
+     * apart from the compact representation of amounts and timestamps.
+     *
+     * @param builder The builder to configure; Spring Boot's builder for the mapper the application serves with
+     * @return The CBOR ObjectMapper
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory())
+                .modulesToInstall(modules -> modules.add(new CompactBinaryModule(ZoneId.systemDefault())))
+                .build();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter compact = new MappingJackson2CborHttpMessageConverter(
+                cborObjectMapper(jackson2ObjectMapperBuilder));
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(compact);
+    }
+}
@@ -0,0 +1,82 @@
+package org.github.tigz.wallet.common.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.github.tigz.wallet.common.model.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Jackson module for the compact binary representation of API payloads.
+ * Every amount, whether a {@link BigDecimal} or {@link Money}, is written as an integer number of minor units, and
+ * every {@link LocalDateTime} as epoch milliseconds in the server's time zone, so a payload carries fixed-width
+ * integers instead of decimal and date strings. Reading accepts the same representation.
+ */
+public class CompactBinaryModule extends SimpleModule {
+
+    private final ZoneId zone;
+
+    /**
+     * Constructs the module for timestamps in the given time zone.
+     *
+     * @param zone The zone that {@link LocalDateTime} values are recorded in
+     */
+    public CompactBinaryModule(ZoneId zone) {
+        super("CompactBinaryModule");
+        this.zone = zone;
+        addSerializer(BigDecimal.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(BigDecimal value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(Money.of(value).getMinorUnits());
+            }
+        });
+        addSerializer(Money.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(value.getMinorUnits());
+            }
+        });
+        addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(value.atZone(CompactBinaryModule.this.zone).toInstant().toEpochMilli());
+            }
+        });
+        addDeserializer(BigDecimal.class, new JsonDeserializer<>() {
+            @Override
+            public BigDecimal deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return Money.ofMinor(readLong(parser, context, BigDecimal.class)).toBigDecimal();
+            }
+        });
+        addDeserializer(Money.class, new JsonDeserializer<>() {
+            @Override
+            public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return Money.ofMinor(readLong(parser, context, Money.class));
+            }
+        });
+        addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(readLong(parser, context, LocalDateTime.class)), CompactBinaryModule.this.zone);
+            }
+        });
+    }
+
+    private static long readLong(JsonParser parser, DeserializationContext context, Class<?> type) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw context.wrongTokenException(parser, type, JsonToken.VALUE_NUMBER_INT,
+                    "Amounts are minor units and timestamps are epoch milliseconds");
+        }
+        return parser.getLongValue();
+    }
+}
@@ -1,12 +1,22 @@
 package org.github.tigz.wallet.modules.person.controller;
 
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.github.tigz.wallet.modules.person.dto.PersonImportResultDTO;
+import org.github.tigz.wallet.modules.person.service.PersonExportService;
+import org.github.tigz.wallet.modules.person.service.PersonImportService;
 import org.github.tigz.wallet.modules.person.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,17 +24,89 @@ import java.util.UUID;
 @RequestMapping("/api/persons")
 public class PersonController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final PersonService personService;
+    private final PersonExportService personExportService;
+    private final PersonImportService personImportService;
 
     @Autowired
-    public PersonController(PersonService personService) {
+    public PersonController(PersonService personService, PersonExportService personExportService,
+                            PersonImportService personImportService) {
         this.personService = personService;
+        this.personExportService = personExportService;
+        this.personImportService = personImportService;
     }
 
+    /**
+     * Retrieves a page of persons, oldest first, using an opaque cursor.
+     * Pass the nextCursor or prevCursor from a previous response to move through the list.
+     *
+     * @param cursor The cursor from a previous page, or absent for the first page
+     * @param size The maximum number of persons to return
+     * @return ResponseEntity containing a CursorPageDTO of PersonDTO objects
+     */
     @GetMapping
-    public ResponseEntity<List<PersonDTO>> getAllPersons() {
-        List<PersonDTO> persons = personService.getAllPersons();
-        return ResponseEntity.ok(persons);
+    public ResponseEntity<CursorPageDTO<PersonDTO>> getPersons(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Size must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(personService.getPersonsByCursor(cursor, size));
+    }
+
+    /**
+     * Streams every person, oldest first, as NDJSON.
+     * Rows are written as they are read from the database, so the response is never built in memory.
+     *
+     * @return ResponseEntity whose body writes the persons to the response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPersons() {
+        StreamingResponseBody body = personExportService::export;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("persons.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Finds persons whose first or last name starts with each word of a query, without touching the database.
+     *
+     * @param q One or more name prefixes, e.g. "jo" or "jo sm"
+     * @param limit The maximum number of persons to return
+     * @return ResponseEntity containing the matching persons
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PersonDTO>> searchPersons(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException(String.format("Limit must be between 1 and %d", MAX_SEARCH_RESULTS));
+        }
+        return ResponseEntity.ok(personService.searchPersons(q, limit));
+    }
+
+    /**
+     * Creates persons in bulk from a CSV or NDJSON upload, chosen by its Content-Type.
+     * The upload is read and written in chunks as it arrives, so it is never held in memory as a whole. Invalid
+     * rows are skipped and reported by line number.
+     *
+     * @param contentType The Content-Type of the upload, text/csv or application/x-ndjson
+     * @param body The upload
+     * @return ResponseEntity containing the numbers of persons imported and rejected, and the row errors
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping("/import")
+    public ResponseEntity<PersonImportResultDTO> importPersons(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                               InputStream body) throws IOException {
+        PersonImportService.Format format = PersonImportService.Format.of(contentType);
+        return ResponseEntity.ok(personImportService.importPersons(body, format));
     }
 
     @GetMapping("/{id}")
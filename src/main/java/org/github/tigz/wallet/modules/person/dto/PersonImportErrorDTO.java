@@ -0,0 +1,30 @@
+package org.github.tigz.wallet.modules.person.dto;
+
+public class PersonImportErrorDTO {
+    private long line;
+    private String message;
+
+    public PersonImportErrorDTO() {
+    }
+
+    public PersonImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,52 @@
+package org.github.tigz.wallet.modules.person.dto;
+
+import java.util.List;
+
+public class PersonImportResultDTO {
+    private long imported;
+    private long rejected;
+    private List<PersonImportErrorDTO> errors;
+    private boolean errorsTruncated;
+
+    public PersonImportResultDTO() {
+    }
+
+    public PersonImportResultDTO(long imported, long rejected, List<PersonImportErrorDTO> errors, boolean errorsTruncated) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<PersonImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<PersonImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
@@ -1,11 +1,58 @@
 package org.github.tigz.wallet.modules.person.repository;
 
+import jakarta.persistence.QueryHint;
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
 import org.github.tigz.wallet.modules.person.model.Person;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PersonRepository extends JpaRepository<Person, UUID> {
-}
\ No newline at end of file
+
+    /**
+     * Rows fetched per round trip when streaming every person.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Returns the oldest persons, oldest first.
+     */
+    List<Person> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    /**
+     * Returns the persons created after a keyset position, oldest first.
+     */
+    @Query("SELECT p FROM Person p WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)"
+            + " ORDER BY p.createdAt ASC, p.id ASC")
+    List<Person> findAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Returns the persons created before a keyset position, newest first.
+     */
+    @Query("SELECT p FROM Person p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)"
+            + " ORDER BY p.createdAt DESC, p.id DESC")
+    List<Person> findBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Streams every person, oldest first, from a forward-only cursor. Rows are read straight into DTOs, so nothing is
+     * added to the persistence context and memory use does not grow with the number of rows. Must be consumed inside
+     * a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.github.tigz.wallet.modules.person.dto.PersonDTO(p.id, p.title, p.firstName, p.lastName, p.dob, p.createdAt)"
+            + " FROM Person p ORDER BY p.createdAt ASC, p.id ASC")
+    Stream<PersonDTO> streamAll();
+}
@@ -0,0 +1,71 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import org.github.tigz.wallet.modules.person.model.Person;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the list of persons, used for keyset pagination.
+ * Persons are ordered oldest first by (created_at, id). A cursor names the boundary row and the
+ * direction to read from it. Clients see it only as an opaque URL-safe string.
+ *
+ * @param direction Whether to read newer (NEXT) or older (PREV) persons than the boundary
+ * @param createdAt The created_at of the boundary row
+ * @param id The id of the boundary row
+ */
+public record PersonCursor(Direction direction, LocalDateTime createdAt, UUID id) {
+
+    /**
+     * The direction to read from the boundary row.
+     */
+    public enum Direction {
+        NEXT, PREV
+    }
+
+    public static PersonCursor next(Person person) {
+        return new PersonCursor(Direction.NEXT, person.getCreatedAt(), person.getId());
+    }
+
+    public static PersonCursor prev(Person person) {
+        return new PersonCursor(Direction.PREV, person.getCreatedAt(), person.getId());
+    }
+
+    /**
+     * Encodes this cursor as an opaque token.
+     *
+     * @return The URL-safe token
+     */
+    public String encode() {
+        String raw = direction.name().charAt(0) + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PersonCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Direction direction = switch (parts[0]) {
+                case "N" -> Direction.NEXT;
+                case "P" -> Direction.PREV;
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+            return new PersonCursor(direction, LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.github.tigz.wallet.modules.person.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Service class for streaming every person as NDJSON.
+ * Rows are read from a forward-only cursor and written to the output as they arrive, so neither the persons nor
+ * the response are ever held in memory as a whole, however many there are.
+ */
+@Service
+public class PersonExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonExportService.class);
+
+    private final PersonRepository personRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new PersonExportService.
+     *
+     * @param personRepository The repository for person data
+     * @param objectMapper The mapper that writes each person
+     */
+    @Autowired
+    public PersonExportService(PersonRepository personRepository, ObjectMapper objectMapper) {
+        this.personRepository = personRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every person, oldest first, to an output stream, one JSON object per line. The cursor stays open, and
+     * with it the read-only transaction, until the last row has been written.
+     *
+     * @param outputStream The stream to write to; flushed but not closed
+     * @return The number of persons written
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows;
+        try (Stream<PersonDTO> stream = personRepository.streamAll()) {
+            rows = stream.mapToLong(person -> {
+                try {
+                    objectMapper.writeValue(generator, person);
+                    generator.writeRaw('\n');
+                    return 1;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+        logger.info("Exported persons: rows={}", rows);
+        return rows;
+    }
+}
@@ -0,0 +1,343 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.github.tigz.wallet.modules.person.dto.PersonImportErrorDTO;
+import org.github.tigz.wallet.modules.person.dto.PersonImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service class for importing persons in bulk from CSV or NDJSON.
+ * The upload is read one line at a time and each row is validated as it arrives. Valid rows are written with JDBC
+ * batch inserts, {@link #CHUNK_SIZE} rows per transaction, so memory use is bounded by one chunk however large the
+ * upload. A row that fails validation is reported by its line number and skipped; a chunk the database rejects is
+ * reported row by row and the import continues with the next chunk.
+ */
+@Service
+public class PersonImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonImportService.class);
+
+    /**
+     * Rows inserted per JDBC batch and transaction.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    /**
+     * The most row errors listed in a result; any further errors are only counted.
+     */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO persons (id, title, first_name, last_name, dob, created_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String[] CSV_COLUMNS = {"title", "firstName", "lastName", "dob"};
+    private static final int MAX_TITLE_LENGTH = 50;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonSearchIndex personSearchIndex;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The formats persons can be imported from.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line.
+         */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+        /**
+         * Comma-separated values with a header row naming the columns.
+         */
+        CSV(MediaType.parseMediaType("text/csv"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Finds the format of a request body from its content type.
+         *
+         * @param contentType The Content-Type of the upload
+         * @return The matching format
+         * @throws IllegalArgumentException if the content type is not supported
+         */
+        public static Format of(String contentType) {
+            MediaType mediaType = contentType != null ? MediaType.parseMediaType(contentType) : null;
+            for (Format format : values()) {
+                if (format.mediaType.isCompatibleWith(mediaType)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType
+                    + ". Use application/x-ndjson or text/csv");
+        }
+    }
+
+    /**
+     * A row that failed validation.
+     */
+    private static final class InvalidRowException extends Exception {
+        InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Tracks the outcome of one import.
+     */
+    private static final class Progress {
+        private long imported;
+        private long rejected;
+        private final List<PersonImportErrorDTO> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new PersonImportErrorDTO(line, message));
+            }
+        }
+
+        PersonImportResultDTO toResult() {
+            return new PersonImportResultDTO(imported, rejected, errors, rejected > errors.size());
+        }
+    }
+
+    /**
+     * Constructs a new PersonImportService.
+     *
+     * @param jdbcTemplate The template rows are batch inserted through
+     * @param transactionManager The transaction manager used for each chunk
+     * @param personSearchIndex The name index imported persons are added to
+     * @param objectMapper The mapper that reads NDJSON rows
+     */
+    @Autowired
+    public PersonImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               PersonSearchIndex personSearchIndex, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.personSearchIndex = personSearchIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports every valid row of an upload.
+     *
+     * @param inputStream The upload, in UTF-8; read to the end but not closed
+     * @param format The format of the upload
+     * @return The number of persons imported and rejected, with the first {@link #MAX_REPORTED_ERRORS} row errors
+     * @throws IOException if the upload cannot be read
+     * @throws IllegalArgumentException if a CSV upload has no valid header row
+     */
+    public PersonImportResultDTO importPersons(InputStream inputStream, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Progress progress = new Progress();
+        List<PersonDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        int[] csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = csvHeader(line);
+                continue;
+            }
+            try {
+                chunk.add(validate(format == Format.CSV ? fromCsv(line, csvColumns) : fromNdjson(line)));
+                chunkLines.add(lineNumber);
+            } catch (InvalidRowException e) {
+                progress.reject(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                insertChunk(chunk, chunkLines, progress);
+            }
+        }
+        if (format == Format.CSV && csvColumns == null) {
+            throw new IllegalArgumentException("CSV import requires a header row");
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkLines, progress);
+        }
+        logger.info("Imported persons: format={}, imported={}, rejected={}", format, progress.imported, progress.rejected);
+        return progress.toResult();
+    }
+
+    private void insertChunk(List<PersonDTO> chunk, List<Long> chunkLines, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (statement, person) -> {
+                    statement.setObject(1, person.getId());
+                    statement.setString(2, person.getTitle());
+                    statement.setString(3, person.getFirstName());
+                    statement.setString(4, person.getLastName());
+                    statement.setString(5, person.getDob());
+                    statement.setTimestamp(6, Timestamp.valueOf(person.getCreatedAt()));
+                });
+                chunk.forEach(personSearchIndex::putAfterCommit);
+            });
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to import chunk of {} persons: {}", chunk.size(), e.getMessage());
+            for (Long chunkLine : chunkLines) {
+                progress.reject(chunkLine, "Chunk rejected by the database");
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private PersonDTO validate(PersonDTO person) throws InvalidRowException {
+        person.setTitle(required("title", person.getTitle(), MAX_TITLE_LENGTH));
+        person.setFirstName(required("firstName", person.getFirstName(), MAX_NAME_LENGTH));
+        person.setLastName(required("lastName", person.getLastName(), MAX_NAME_LENGTH));
+        String dob = required("dob", person.getDob(), 10);
+        try {
+            if (LocalDate.parse(dob).isAfter(LocalDate.now())) {
+                throw new InvalidRowException("dob must not be in the future");
+            }
+        } catch (DateTimeParseException e) {
+            throw new InvalidRowException("dob must be an ISO date (yyyy-MM-dd)");
+        }
+        person.setDob(dob);
+        person.setId(UUID.randomUUID());
+        person.setCreatedAt(LocalDateTime.now());
+        return person;
+    }
+
+    private static String required(String field, String value, int maxLength) throws InvalidRowException {
+        if (value == null || value.isBlank()) {
+            throw new InvalidRowException(field + " is required");
+        }
+        String trimmed = value.strip();
+        if (trimmed.length() > maxLength) {
+            throw new InvalidRowException(String.format("%s must be at most %d characters", field, maxLength));
+        }
+        return trimmed;
+    }
+
+    private PersonDTO fromNdjson(String line) throws InvalidRowException {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRowException("Malformed JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new InvalidRowException("Row must be a JSON object");
+        }
+        return new PersonDTO(null, text(node, "title"), text(node, "firstName"), text(node, "lastName"),
+                text(node, "dob"), null);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    /**
+     * Maps the columns of a CSV header to the positions of {@link #CSV_COLUMNS}, ignoring case and unknown columns.
+     */
+    private static int[] csvHeader(String line) {
+        List<String> header;
+        try {
+            header = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        } catch (InvalidRowException e) {
+            throw new IllegalArgumentException("Malformed CSV header: " + e.getMessage());
+        }
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).strip().equalsIgnoreCase(CSV_COLUMNS[i])) {
+                    columns[i] = j;
+                }
+            }
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("CSV header must include " + String.join(",", CSV_COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private static PersonDTO fromCsv(String line, int[] columns) throws InvalidRowException {
+        List<String> values = splitCsv(line);
+        String[] fields = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = columns[i] < values.size() ? values.get(columns[i]) : null;
+        }
+        return new PersonDTO(null, fields[0], fields[1], fields[2], fields[3], null);
+    }
+
+    /**
+     * Splits one CSV line into values. Values may be quoted, with quotes inside them doubled; line breaks inside
+     * values are not supported.
+     */
+    private static List<String> splitCsv(String line) throws InvalidRowException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && value.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (wasQuoted) {
+                throw new InvalidRowException("Unexpected character after a quoted value");
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidRowException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,227 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.github.tigz.wallet.modules.person.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process prefix index over the words of every person's first and last name.
+ * Each word is folded to lower case without accents and stored in a sorted map as {@code word + '\0' + id}, so the
+ * persons with a word starting with a prefix are one contiguous range: a search seeks to the prefix and walks only
+ * as far as the results it returns, whatever the number of persons. Searching for several words returns the persons
+ * who have, for every word, a name word starting with it.
+ * <p>
+ * The index is loaded from the database when the application starts, and every write in this process goes through
+ * {@link #putAfterCommit(PersonDTO)} or {@link #removeAfterCommit(UUID)}. Each person costs one small record plus
+ * one map entry per name word, and names are bounded by their columns, so memory grows linearly with the number of
+ * persons.
+ */
+@Component
+public class PersonSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonSearchIndex.class);
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s\\-'.,]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final char KEY_SEPARATOR = '\0';
+    private static final char KEY_END = Character.MAX_VALUE;
+
+    private record IndexedPerson(UUID id, String title, String firstName, String lastName, String dob,
+                                 LocalDateTime createdAt, List<String> words) {
+
+        PersonDTO toDTO() {
+            return new PersonDTO(id, title, firstName, lastName, dob, createdAt);
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, IndexedPerson> byWord = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<UUID, IndexedPerson> byId = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new, empty PersonSearchIndex.
+     */
+    public PersonSearchIndex() {
+    }
+
+    /**
+     * Constructs a new PersonSearchIndex holding every person in the database.
+     *
+     * @param personRepository The repository persons are streamed from
+     * @param transactionManager The transaction manager used for the initial read
+     */
+    @Autowired
+    public PersonSearchIndex(PersonRepository personRepository, PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<PersonDTO> persons = personRepository.streamAll()) {
+                persons.forEach(this::put);
+            }
+        });
+        logger.info("Person search index loaded: persons={}, words={}", byId.size(), byWord.size());
+    }
+
+    /**
+     * Returns the persons matching every word of a query, ordered by the matching name word and then by id.
+     *
+     * @param query One or more name prefixes, in any case and with or without accents
+     * @param limit The most persons to return
+     * @return The matching persons
+     * @throws IllegalArgumentException if the query has no words
+     */
+    public List<PersonDTO> search(String query, int limit) {
+        List<String> prefixes = words(query);
+        if (prefixes.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain at least one name prefix");
+        }
+        // Walk the range of the longest prefix, the narrowest one, and check the others against each candidate
+        String driving = prefixes.stream().max((a, b) -> Integer.compare(a.length(), b.length())).orElseThrow();
+        Map<UUID, PersonDTO> results = new LinkedHashMap<>();
+        for (IndexedPerson person : byWord.subMap(driving, driving + KEY_END).values()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (!results.containsKey(person.id()) && matchesAll(person, prefixes)) {
+                results.put(person.id(), person.toDTO());
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Adds or replaces a person once the current transaction commits, or immediately outside a transaction.
+     *
+     * @param person The person as saved
+     */
+    public void putAfterCommit(PersonDTO person) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(person);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(person);
+            }
+        });
+    }
+
+    /**
+     * Removes a person once the current transaction commits, or immediately outside a transaction.
+     *
+     * @param id The ID of the person
+     */
+    public void removeAfterCommit(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(id);
+            }
+        });
+    }
+
+    /**
+     * Gets the number of persons in the index.
+     *
+     * @return The number of indexed persons
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Adds or replaces a person.
+     *
+     * @param person The person to index
+     */
+    public synchronized void put(PersonDTO person) {
+        List<String> words = new ArrayList<>(words(person.getFirstName()));
+        for (String word : words(person.getLastName())) {
+            if (!words.contains(word)) {
+                words.add(word);
+            }
+        }
+        IndexedPerson indexed = new IndexedPerson(person.getId(), person.getTitle(), person.getFirstName(),
+                person.getLastName(), person.getDob(), person.getCreatedAt(), List.copyOf(words));
+        IndexedPerson previous = byId.put(indexed.id(), indexed);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (String word : indexed.words()) {
+            byWord.put(key(word, indexed.id()), indexed);
+        }
+    }
+
+    /**
+     * Removes a person, if indexed.
+     *
+     * @param id The ID of the person
+     */
+    public synchronized void remove(UUID id) {
+        IndexedPerson previous = byId.remove(id);
+        if (previous != null) {
+            unlink(previous);
+        }
+    }
+
+    private void unlink(IndexedPerson person) {
+        for (String word : person.words()) {
+            byWord.remove(key(word, person.id()));
+        }
+    }
+
+    private static boolean matchesAll(IndexedPerson person, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (person.words().stream().noneMatch(word -> word.startsWith(prefix))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String word, UUID id) {
+        return word + KEY_SEPARATOR + id;
+    }
+
+    /**
+     * Splits a name into its words, folded to lower case with accents removed.
+     */
+    static List<String> words(String name) {
+        if (name == null) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -1,12 +1,16 @@
 package org.github.tigz.wallet.modules.person.service;
 
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.modules.person.dto.PersonDTO;
 import org.github.tigz.wallet.modules.person.model.Person;
 import org.github.tigz.wallet.modules.person.repository.PersonRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,17 +20,69 @@ import java.util.stream.Collectors;
 public class PersonService {
 
     private final PersonRepository personRepository;
+    private final PersonSearchIndex personSearchIndex;
 
     @Autowired
-    public PersonService(PersonRepository personRepository) {
+    public PersonService(PersonRepository personRepository, PersonSearchIndex personSearchIndex) {
         this.personRepository = personRepository;
+        this.personSearchIndex = personSearchIndex;
     }
 
+    /**
+     * Retrieves one page of persons using keyset pagination.
+     * Persons are ordered oldest first. Each page seeks directly to its boundary row through the
+     * (created_at, id) index and runs no COUNT query, so deep pages cost the same as the first.
+     *
+     * @param cursor The opaque cursor from a previous page, or null for the first page
+     * @param size The maximum number of persons to return
+     * @return CursorPageDTO containing PersonDTO objects and the cursors of adjacent pages
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
     @Transactional(readOnly = true)
-    public List<PersonDTO> getAllPersons() {
-        return personRepository.findAll().stream()
+    public CursorPageDTO<PersonDTO> getPersonsByCursor(String cursor, int size) {
+        PersonCursor position = cursor != null && !cursor.isBlank() ? PersonCursor.decode(cursor) : null;
+        Limit limit = Limit.of(size + 1);
+        List<Person> persons;
+        boolean hasNext;
+        boolean hasPrev;
+        if (position == null) {
+            persons = personRepository.findAllByOrderByCreatedAtAscIdAsc(limit);
+            hasNext = persons.size() > size;
+            hasPrev = false;
+        } else if (position.direction() == PersonCursor.Direction.NEXT) {
+            persons = personRepository.findAfter(position.createdAt(), position.id(), limit);
+            hasNext = persons.size() > size;
+            hasPrev = true;
+        } else {
+            persons = personRepository.findBefore(position.createdAt(), position.id(), limit);
+            hasPrev = persons.size() > size;
+            hasNext = true;
+        }
+
+        List<Person> page = new ArrayList<>(persons.subList(0, Math.min(size, persons.size())));
+        if (position != null && position.direction() == PersonCursor.Direction.PREV) {
+            Collections.reverse(page);
+        }
+
+        String nextCursor = hasNext && !page.isEmpty() ? PersonCursor.next(page.get(page.size() - 1)).encode() : null;
+        String prevCursor = hasPrev && !page.isEmpty() ? PersonCursor.prev(page.get(0)).encode() : null;
+        List<PersonDTO> personDTOs = page.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        return new CursorPageDTO<>(personDTOs, size, nextCursor, prevCursor);
+    }
+
+    /**
+     * Finds persons by the start of their first or last name, from the in-memory search index.
+     * Every word of the query must start one of the words of the person's names.
+     *
+     * @param query One or more name prefixes
+     * @param limit The most persons to return
+     * @return The matching persons, ordered by the matching name
+     * @throws IllegalArgumentException if the query has no words
+     */
+    public List<PersonDTO> searchPersons(String query, int limit) {
+        return personSearchIndex.search(query, limit);
     }
 
     @Transactional(readOnly = true)
@@ -38,7 +94,9 @@ public class PersonService {
     public PersonDTO createPerson(PersonDTO personDTO) {
         Person person = convertToEntity(personDTO);
         Person savedPerson = personRepository.save(person);
-        return convertToDTO(savedPerson);
+        PersonDTO savedPersonDTO = convertToDTO(savedPerson);
+        personSearchIndex.putAfterCommit(savedPersonDTO);
+        return savedPersonDTO;
     }
 
     @Transactional
@@ -47,7 +105,9 @@ public class PersonService {
                 .map(existingPerson -> {
                     updatePersonFromDTO(existingPerson, personDTO);
                     Person updatedPerson = personRepository.save(existingPerson);
-                    return convertToDTO(updatedPerson);
+                    PersonDTO updatedPersonDTO = convertToDTO(updatedPerson);
+                    personSearchIndex.putAfterCommit(updatedPersonDTO);
+                    return updatedPersonDTO;
                 });
     }
 
@@ -55,6 +115,7 @@ public class PersonService {
     public boolean deletePerson(UUID id) {
         if (personRepository.existsById(id)) {
             personRepository.deleteById(id);
+            personSearchIndex.removeAfterCommit(id);
             return true;
         }
         return false;
@@ -1,5 +1,8 @@
 package org.github.tigz.wallet.modules.wallet.config;
 
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.LedgerIdGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,51 +10,423 @@ import org.springframework.retry.annotation.EnableRetry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "wallet")
 @EnableRetry
 public class WalletConfig {
-    private BigDecimal minAddAmount;
-    private BigDecimal maxAddAmount;
-    private BigDecimal minWithdrawAmount;
-    private BigDecimal maxWithdrawAmount;
+    private Money minAddAmount;
+    private Money maxAddAmount;
+    private Money minWithdrawAmount;
+    private Money maxWithdrawAmount;
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.OPTIMISTIC;
+    private Engine engine = Engine.JPA;
+    private int stripes;
+    private int groupCommitMaxBatchSize = 256;
+    private int batchChunkSize = 500;
+    private int batchMaxOperations = 50000;
+    private boolean cacheEnabled = true;
+    private long cacheMaxSize = 100_000;
+    private Duration cacheTtl = Duration.ofSeconds(60);
+    private int retryMaxAttempts = 5;
+    private Duration retryInitialInterval = Duration.ofMillis(10);
+    private Duration retryMaxInterval = Duration.ofMillis(200);
+    private long idempotencyCacheMaxSize = 100_000;
+    private Duration idempotencyKeyTtl = Duration.ofHours(24);
+    private Duration idempotencyExpiryInterval = Duration.ofMinutes(10);
+    private int snapshotInterval = 100;
+    private String journalDirectory = "data/journal";
+    private DataSize journalSegmentSize = DataSize.ofMegabytes(64);
+    private long journalCheckpointInterval = 100_000;
+    private int sequencerQueueCapacity = 65_536;
+    private int maxShardsPerWallet = 64;
+    private int archiveAfterMonths = 3;
+    private Duration archiveInterval = Duration.ofHours(1);
+    private int archiveBatchSize = 1000;
+    private String segmentDirectory = "";
+    private int segmentAfterMonths = 12;
+
+    /**
+     * How concurrent fund operations against the same wallet are scheduled.
+     */
+    public enum ConcurrencyMode {
+        /**
+         * Operations run on the request thread and rely on optimistic locking plus retries.
+         */
+        OPTIMISTIC,
+        /**
+         * Operations for the same customer are queued behind a single writer lane,
+         * while different customers are spread across lanes and run in parallel.
+         */
+        STRIPED,
+        /**
+         * Operations are queued per lane like {@link #STRIPED}, and each lane drains whatever has
+         * queued up into one transaction with batched ledger inserts, acknowledging every caller
+         * once that transaction commits.
+         */
+        GROUP_COMMIT
+    }
+
+    /**
+     * How single add and withdraw operations are applied to the wallet row.
+     */
+    public enum Engine {
+        /**
+         * Load the wallet entity, check and change the balance in Java, and rely on {@code @Version}
+         * to detect concurrent writers.
+         */
+        JPA,
+        /**
+         * Apply the change with one conditional UPDATE that returns the new balance, so there is no
+         * read-modify-write window and insufficient funds are detected from the affected row count.
+         */
+        CONDITIONAL_UPDATE,
+        /**
+         * Treat the ledger as the source of truth: each operation locks the wallet row without updating it and
+         * only appends a ledger row, and balances are folded from the latest snapshot plus the rows after it.
+         * Snapshots are compacted in the background every {@code snapshotInterval} rows.
+         */
+        EVENT_SOURCED,
+        /**
+         * Keep every balance in memory and apply all operations on a single sequencer thread, acknowledging them once
+         * they are forced to a memory-mapped journal. The wallet and ledger tables are projected from the journal
+         * in the background, and the in-memory state is rebuilt from the last checkpoint plus the journal on startup.
+         * Ignores {@code concurrencyMode}.
+         */
+        IN_MEMORY
+    }
 
     @Bean
     public Logger walletOperationsLogger() {
         return LoggerFactory.getLogger("WalletOperations");
     }
 
-    public BigDecimal getMinAddAmount() {
+    /**
+     * With the {@link Engine#EVENT_SOURCED} engine, ledger row ids are taken from {@code transaction_seq} one at a time
+     * as each row is written, rather than handed out from blocks of 50 reserved in advance. A writer holds its
+     * wallet's row lock when it takes the id, so a wallet's rows commit in id order even across several instances,
+     * which snapshot compaction relies on. Costs one sequence call per ledger row.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer ledgerIdCustomizer() {
+        return properties -> properties.put(LedgerIdGenerator.POOLED_SETTING, engine != Engine.EVENT_SOURCED);
+    }
+
+    public Money getMinAddAmount() {
         return minAddAmount;
     }
 
-    public void setMinAddAmount(BigDecimal minAddAmount) {
+    public void setMinAddAmount(Money minAddAmount) {
         this.minAddAmount = minAddAmount;
     }
 
-    public BigDecimal getMaxAddAmount() {
+    public Money getMaxAddAmount() {
         return maxAddAmount;
     }
 
-    public void setMaxAddAmount(BigDecimal maxAddAmount) {
+    public void setMaxAddAmount(Money maxAddAmount) {
         this.maxAddAmount = maxAddAmount;
     }
 
-    public BigDecimal getMinWithdrawAmount() {
+    public Money getMinWithdrawAmount() {
         return minWithdrawAmount;
     }
 
-    public void setMinWithdrawAmount(BigDecimal minWithdrawAmount) {
+    public void setMinWithdrawAmount(Money minWithdrawAmount) {
         this.minWithdrawAmount = minWithdrawAmount;
     }
 
-    public BigDecimal getMaxWithdrawAmount() {
+    public Money getMaxWithdrawAmount() {
         return maxWithdrawAmount;
     }
 
-    public void setMaxWithdrawAmount(BigDecimal maxWithdrawAmount) {
+    public void setMaxWithdrawAmount(Money maxWithdrawAmount) {
         this.maxWithdrawAmount = maxWithdrawAmount;
     }
-}
\ No newline at end of file
+
+    public ConcurrencyMode getConcurrencyMode() {
+        return concurrencyMode;
+    }
+
+    public void setConcurrencyMode(ConcurrencyMode concurrencyMode) {
+        this.concurrencyMode = concurrencyMode;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Number of writer lanes used in {@link ConcurrencyMode#STRIPED} and {@link ConcurrencyMode#GROUP_COMMIT} modes.
+     * A value of zero or less means one lane per available processor.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * Maximum number of queued operations committed together in {@link ConcurrencyMode#GROUP_COMMIT} mode.
+     */
+    public int getGroupCommitMaxBatchSize() {
+        return groupCommitMaxBatchSize;
+    }
+
+    public void setGroupCommitMaxBatchSize(int groupCommitMaxBatchSize) {
+        this.groupCommitMaxBatchSize = groupCommitMaxBatchSize;
+    }
+
+    /**
+     * Number of operations from a bulk request applied per transaction.
+     */
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    /**
+     * Maximum number of operations accepted in a single bulk request.
+     */
+    public int getBatchMaxOperations() {
+        return batchMaxOperations;
+    }
+
+    public void setBatchMaxOperations(int batchMaxOperations) {
+        this.batchMaxOperations = batchMaxOperations;
+    }
+
+    /**
+     * Whether wallet balances are served from the in-process near-cache.
+     */
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * How long a cached balance may be served after it was written, bounding staleness
+     * from writers outside this process.
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Maximum number of attempts for a wallet service call that keeps hitting conflicts, including the first.
+     */
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    /**
+     * Ceiling of the first retry backoff for a customer without recent conflicts. Doubles with each retry.
+     */
+    public Duration getRetryInitialInterval() {
+        return retryInitialInterval;
+    }
+
+    public void setRetryInitialInterval(Duration retryInitialInterval) {
+        this.retryInitialInterval = retryInitialInterval;
+    }
+
+    /**
+     * Upper bound of a single retry backoff, however hot the wallet.
+     */
+    public Duration getRetryMaxInterval() {
+        return retryMaxInterval;
+    }
+
+    public void setRetryMaxInterval(Duration retryMaxInterval) {
+        this.retryMaxInterval = retryMaxInterval;
+    }
+
+    /**
+     * Most idempotency records kept in memory; older ones are looked up in the database.
+     */
+    public long getIdempotencyCacheMaxSize() {
+        return idempotencyCacheMaxSize;
+    }
+
+    public void setIdempotencyCacheMaxSize(long idempotencyCacheMaxSize) {
+        this.idempotencyCacheMaxSize = idempotencyCacheMaxSize;
+    }
+
+    /**
+     * How long a resent request with the same idempotency key is answered from the original outcome.
+     */
+    public Duration getIdempotencyKeyTtl() {
+        return idempotencyKeyTtl;
+    }
+
+    public void setIdempotencyKeyTtl(Duration idempotencyKeyTtl) {
+        this.idempotencyKeyTtl = idempotencyKeyTtl;
+    }
+
+    /**
+     * How often expired idempotency records are deleted from the database.
+     */
+    public Duration getIdempotencyExpiryInterval() {
+        return idempotencyExpiryInterval;
+    }
+
+    public void setIdempotencyExpiryInterval(Duration idempotencyExpiryInterval) {
+        this.idempotencyExpiryInterval = idempotencyExpiryInterval;
+    }
+
+    /**
+     * Number of ledger rows a wallet may accumulate beyond its snapshot before it is compacted into a new one,
+     * in {@link Engine#EVENT_SOURCED} mode. Bounds the rows summed by every balance read.
+     */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Directory holding the journal segments and checkpoint of the {@link Engine#IN_MEMORY} engine.
+     */
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * Size of each memory-mapped journal segment file. A single entry must fit in one segment.
+     */
+    public DataSize getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    public void setJournalSegmentSize(DataSize journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+    }
+
+    /**
+     * Number of journal entries after which the {@link Engine#IN_MEMORY} engine checkpoints every account,
+     * bounding replay on startup and letting older segments be deleted.
+     */
+    public long getJournalCheckpointInterval() {
+        return journalCheckpointInterval;
+    }
+
+    public void setJournalCheckpointInterval(long journalCheckpointInterval) {
+        this.journalCheckpointInterval = journalCheckpointInterval;
+    }
+
+    /**
+     * Capacity of the ring of operations waiting for the {@link Engine#IN_MEMORY} sequencer. Callers block once it is full.
+     */
+    public int getSequencerQueueCapacity() {
+        return sequencerQueueCapacity;
+    }
+
+    public void setSequencerQueueCapacity(int sequencerQueueCapacity) {
+        this.sequencerQueueCapacity = sequencerQueueCapacity;
+    }
+
+    /**
+     * Upper bound on the number of shard rows a single wallet's balance can be split across.
+     */
+    public int getMaxShardsPerWallet() {
+        return maxShardsPerWallet;
+    }
+
+    public void setMaxShardsPerWallet(int maxShardsPerWallet) {
+        this.maxShardsPerWallet = maxShardsPerWallet;
+    }
+
+    /**
+     * Number of whole calendar months kept in the hot {@code transaction} table besides the current one. Older months
+     * are moved to {@code transaction_archive}.
+     */
+    public int getArchiveAfterMonths() {
+        return archiveAfterMonths;
+    }
+
+    public void setArchiveAfterMonths(int archiveAfterMonths) {
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    /**
+     * How often the background thread archives, and seals, closed months. Zero disables it.
+     */
+    public Duration getArchiveInterval() {
+        return archiveInterval;
+    }
+
+    public void setArchiveInterval(Duration archiveInterval) {
+        this.archiveInterval = archiveInterval;
+    }
+
+    /**
+     * Number of ledger rows moved to the archive per transaction, bounding how long each batch holds its locks.
+     */
+    public int getArchiveBatchSize() {
+        return archiveBatchSize;
+    }
+
+    public void setArchiveBatchSize(int archiveBatchSize) {
+        this.archiveBatchSize = archiveBatchSize;
+    }
+
+    /**
+     * Directory holding the sealed segment files of the cold tier. Empty keeps every month in the database.
+     */
+    public String getSegmentDirectory() {
+        return segmentDirectory;
+    }
+
+    public void setSegmentDirectory(String segmentDirectory) {
+        this.segmentDirectory = segmentDirectory;
+    }
+
+    /**
+     * Number of whole calendar months kept in the database besides the current one when a segment directory is set.
+     * Older archived months are sealed into segment files. Must not be less than {@code archiveAfterMonths}.
+     */
+    public int getSegmentAfterMonths() {
+        return segmentAfterMonths;
+    }
+
+    public void setSegmentAfterMonths(int segmentAfterMonths) {
+        this.segmentAfterMonths = segmentAfterMonths;
+    }
+}
@@ -0,0 +1,65 @@
+package org.github.tigz.wallet.modules.wallet.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.github.tigz.wallet.modules.wallet.service.ContentionAwareBackOffPolicy;
+import org.github.tigz.wallet.modules.wallet.service.CustomerConflictTracker;
+import org.github.tigz.wallet.modules.wallet.service.WalletRetryListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retry policy for wallet service calls, applied through {@code @Retryable(interceptor = "walletRetryInterceptor")}.
+ * Only optimistic lock conflicts and other transient data access failures are retried; validation errors,
+ * missing wallets and insufficient funds fail straight away. Retries back off with a
+ * {@link ContentionAwareBackOffPolicy}.
+ */
+@Configuration
+public class WalletRetryConfig {
+
+    private static final Map<Class<? extends Throwable>, Boolean> RETRYABLE_EXCEPTIONS = Map.of(
+            OptimisticLockingFailureException.class, true,
+            TransientDataAccessException.class, true
+    );
+
+    /**
+     * Builds the retry template. Any other {@link RetryListener} beans are registered after the wallet's own
+     * listener, as they would be for a plain {@code @Retryable}.
+     */
+    @Bean
+    public RetryTemplate walletRetryTemplate(WalletConfig walletConfig, CustomerConflictTracker customerConflictTracker,
+                                             MeterRegistry meterRegistry, ObjectProvider<RetryListener> retryListeners) {
+        BinaryExceptionClassifier retryableClassifier = new BinaryExceptionClassifier(RETRYABLE_EXCEPTIONS, false, true);
+
+        List<RetryListener> listeners = new ArrayList<>();
+        listeners.add(new WalletRetryListener(retryableClassifier, customerConflictTracker, meterRegistry,
+                walletConfig.getRetryMaxAttempts()));
+        retryListeners.orderedStream().forEach(listeners::add);
+
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new SimpleRetryPolicy(walletConfig.getRetryMaxAttempts(), retryableClassifier));
+        retryTemplate.setBackOffPolicy(new ContentionAwareBackOffPolicy(customerConflictTracker,
+                walletConfig.getRetryInitialInterval(), walletConfig.getRetryMaxInterval()));
+        retryTemplate.setListeners(listeners.toArray(RetryListener[]::new));
+        return retryTemplate;
+    }
+
+    @Bean
+    public RetryOperationsInterceptor walletRetryInterceptor(RetryTemplate walletRetryTemplate) {
+        return RetryInterceptorBuilder.stateless()
+                .retryOperations(walletRetryTemplate)
+                .build();
+    }
+}
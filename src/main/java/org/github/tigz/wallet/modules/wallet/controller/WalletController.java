@@ -1,17 +1,32 @@
 package org.github.tigz.wallet.modules.wallet.controller;
 
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.common.dto.SliceDTO;
+import org.github.tigz.wallet.modules.wallet.dto.BatchResultDTO;
+import org.github.tigz.wallet.modules.wallet.dto.FundsOperationDTO;
+import org.github.tigz.wallet.modules.wallet.dto.StatementSummaryDTO;
 import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
 import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
 import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.github.tigz.wallet.modules.wallet.service.StatementSummaryService;
+import org.github.tigz.wallet.modules.wallet.service.TransactionExportService;
+import org.github.tigz.wallet.modules.wallet.service.WalletBatchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * REST controller for managing wallet operations.
@@ -24,48 +39,104 @@ public class WalletController {
 
     private static final Logger logger = LoggerFactory.getLogger(WalletController.class);
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final RetryableWalletService retryableWalletService;
+    private final WalletBatchService walletBatchService;
+    private final TransactionExportService transactionExportService;
+    private final StatementSummaryService statementSummaryService;
 
     /**
-     * Constructs a new WalletController with the specified RetryableWalletService.
+     * Constructs a new WalletController with the specified services.
      *
      * @param retryableWalletService The service to handle wallet operations with retry capability
+     * @param walletBatchService The service to handle bulk fund operations
+     * @param transactionExportService The service to stream full transaction histories
+     * @param statementSummaryService The service to summarise credits and debits from the daily rollups
      */
     @Autowired
-    public WalletController(RetryableWalletService retryableWalletService) {
+    public WalletController(RetryableWalletService retryableWalletService, WalletBatchService walletBatchService,
+                            TransactionExportService transactionExportService, StatementSummaryService statementSummaryService) {
         this.retryableWalletService = retryableWalletService;
+        this.walletBatchService = walletBatchService;
+        this.transactionExportService = transactionExportService;
+        this.statementSummaryService = statementSummaryService;
     }
 
     /**
      * Handles the request to add funds to a customer's wallet.
+     * A request resent with the same Idempotency-Key is answered with the original result and not applied again.
      *
      * @param customerId The ID of the customer
+     * @param idempotencyKey The client's key for this operation, if any
      * @param request The request containing the amount to add
      * @return ResponseEntity containing the updated WalletDTO
      */
     @PostMapping("/{customerId}/add")
-    public ResponseEntity<WalletDTO> addFunds(@PathVariable String customerId, @RequestBody FundsRequest request) {
-        logger.debug("Adding funds for customer: {}, amount: {}", customerId, request.getAmount());
-        WalletDTO updatedWallet = retryableWalletService.addFunds(customerId, request.getAmount());
+    public ResponseEntity<WalletDTO> addFunds(@PathVariable String customerId,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                              @RequestBody FundsRequest request) {
+        logger.debug("Adding funds for customer: {}, amount: {}, idempotencyKey: {}", customerId, request.getAmount(), idempotencyKey);
+        WalletDTO updatedWallet = retryableWalletService.addFunds(customerId, request.getAmount(), idempotencyKey);
         logger.debug("Funds added successfully. Updated balance: {}", updatedWallet.getBalance());
         return ResponseEntity.ok(updatedWallet);
     }
 
     /**
      * Handles the request to withdraw funds from a customer's wallet.
+     * A request resent with the same Idempotency-Key is answered with the original result and not applied again.
      *
      * @param customerId The ID of the customer
+     * @param idempotencyKey The client's key for this operation, if any
      * @param request The request containing the amount to withdraw
      * @return ResponseEntity containing the updated WalletDTO
      */
     @PostMapping("/{customerId}/withdraw")
-    public ResponseEntity<WalletDTO> withdrawFunds(@PathVariable String customerId, @RequestBody FundsRequest request) {
-        logger.debug("Withdrawing funds for customer: {}, amount: {}", customerId, request.getAmount());
-        WalletDTO updatedWallet = retryableWalletService.withdrawFunds(customerId, request.getAmount());
+    public ResponseEntity<WalletDTO> withdrawFunds(@PathVariable String customerId,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                   @RequestBody FundsRequest request) {
+        logger.debug("Withdrawing funds for customer: {}, amount: {}, idempotencyKey: {}", customerId, request.getAmount(), idempotencyKey);
+        WalletDTO updatedWallet = retryableWalletService.withdrawFunds(customerId, request.getAmount(), idempotencyKey);
         logger.debug("Funds withdrawn successfully. Updated balance: {}", updatedWallet.getBalance());
         return ResponseEntity.ok(updatedWallet);
     }
 
+    /**
+     * Handles the request to move funds from one customer's wallet to another's in a single transaction.
+     *
+     * @param request The request containing both customers and the amount
+     * @return ResponseEntity containing a TransferDTO with both updated wallets
+     */
+    @PostMapping("/transfer")
+    public ResponseEntity<TransferDTO> transfer(@RequestBody TransferRequest request) {
+        logger.debug("Transferring funds from customer: {} to customer: {}, amount: {}",
+                request.getFromCustomerId(), request.getToCustomerId(), request.getAmount());
+        if (request.getFromCustomerId() == null || request.getToCustomerId() == null) {
+            throw new IllegalArgumentException("Both fromCustomerId and toCustomerId are required");
+        }
+        TransferDTO transfer = retryableWalletService.transfer(request.getFromCustomerId(), request.getToCustomerId(), request.getAmount());
+        logger.debug("Transfer completed. Debit transaction: {}, credit transaction: {}",
+                transfer.getDebitTransactionId(), transfer.getCreditTransactionId());
+        return ResponseEntity.ok(transfer);
+    }
+
+    /**
+     * Handles a bulk request of add and withdraw operations across many customers.
+     * Each operation is reported individually; a failed operation does not fail the request.
+     *
+     * @param request The request containing the operations to apply, in order
+     * @return ResponseEntity containing a BatchResultDTO with one result per operation
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> applyBatch(@RequestBody BatchRequest request) {
+        logger.debug("Applying batch of {} operations", request.getOperations() != null ? request.getOperations().size() : 0);
+        BatchResultDTO result = walletBatchService.applyBatch(request.getOperations());
+        logger.debug("Batch applied. Succeeded: {}, failed: {}", result.getSucceeded(), result.getFailed());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Retrieves a paginated list of transactions for a customer's wallet.
      *
@@ -81,6 +152,91 @@ public class WalletController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Retrieves a page of transactions for a customer's wallet without total counts.
+     *
+     * @param customerId The ID of the customer
+     * @param pageable The pagination information
+     * @return ResponseEntity containing a SliceDTO of TransactionDTO objects
+     */
+    @GetMapping("/{customerId}/transactions/slice")
+    public ResponseEntity<SliceDTO<TransactionDTO>> getTransactionSlice(@PathVariable String customerId, Pageable pageable) {
+        logger.debug("Fetching transaction slice for customer: {}, page: {}, size: {}", customerId, pageable.getPageNumber(), pageable.getPageSize());
+        SliceDTO<TransactionDTO> transactions = retryableWalletService.getTransactionSlice(customerId, pageable);
+        logger.debug("Retrieved {} transactions for customer: {}, hasNext: {}", transactions.getContent().size(), customerId, transactions.isHasNext());
+        return ResponseEntity.ok(transactions);
+    }
+
+    /**
+     * Retrieves a page of a customer's transactions, newest first, using an opaque cursor.
+     * Pass the nextCursor or prevCursor from a previous response to move through the history.
+     *
+     * @param customerId The ID of the customer
+     * @param cursor The cursor from a previous page, or absent for the newest page
+     * @param size The maximum number of transactions to return
+     * @return ResponseEntity containing a CursorPageDTO of TransactionDTO objects
+     */
+    @GetMapping("/{customerId}/transactions/cursor")
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactionsByCursor(@PathVariable String customerId,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Size must be between 1 and %d", MAX_CURSOR_PAGE_SIZE));
+        }
+        logger.debug("Fetching transactions by cursor for customer: {}, size: {}", customerId, size);
+        CursorPageDTO<TransactionDTO> transactions = retryableWalletService.getTransactionsByCursor(customerId, cursor, size);
+        logger.debug("Retrieved {} transactions by cursor for customer: {}", transactions.getContent().size(), customerId);
+        return ResponseEntity.ok(transactions);
+    }
+
+    /**
+     * Streams a customer's complete transaction history, oldest first, as NDJSON or CSV.
+     * Rows are written as they are read from the database, so the response is never built in memory.
+     *
+     * @param customerId The ID of the customer
+     * @param format The export format, ndjson or csv
+     * @return ResponseEntity whose body writes the history to the response
+     */
+    @GetMapping("/{customerId}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable String customerId,
+                                                                    @RequestParam(defaultValue = "ndjson") String format) {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.of(format);
+        long walletId = transactionExportService.findWalletId(customerId);
+        logger.debug("Exporting transactions for customer: {}, format: {}", customerId, exportFormat);
+        StreamingResponseBody body = outputStream -> transactionExportService.export(walletId, customerId, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(customerId + "-transactions." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Summarises a customer's credits and debits over a range of days, in total and per day, week, month or year.
+     * Answered from the daily rollups, so a year-long summary reads at most a few hundred rows however busy the wallet.
+     *
+     * @param customerId The ID of the customer
+     * @param from The first day of the range, defaulting to 30 days before {@code to}
+     * @param to The last day of the range, defaulting to today
+     * @param granularity The periods to break the range down into: day (default), week, month or year
+     * @return ResponseEntity containing the StatementSummaryDTO
+     */
+    @GetMapping("/{customerId}/summary")
+    public ResponseEntity<StatementSummaryDTO> getSummary(@PathVariable String customerId,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @RequestParam(defaultValue = "day") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        logger.debug("Summarising statement for customer: {}, from: {}, to: {}, granularity: {}", customerId, start, end, granularity);
+        StatementSummaryDTO summary = statementSummaryService.summarize(customerId, start, end,
+                StatementSummaryService.Granularity.of(granularity));
+        logger.debug("Summarised {} periods for customer: {}", summary.getPeriods().size(), customerId);
+        return ResponseEntity.ok(summary);
+    }
+
     /**
      * Retrieves the wallet information for a specific customer.
      *
@@ -95,6 +251,25 @@ public class WalletController {
         return ResponseEntity.ok(wallet);
     }
 
+    /**
+     * Splits a hot wallet's balance across a number of shard rows, so concurrent credits stop contending on one row,
+     * or folds the shards back into the wallet with a count of 0. The balance is unchanged either way.
+     *
+     * @param customerId The ID of the customer
+     * @param request The request containing the number of shards
+     * @return ResponseEntity containing the WalletDTO
+     */
+    @PutMapping("/{customerId}/shards")
+    public ResponseEntity<WalletDTO> setShards(@PathVariable String customerId, @RequestBody ShardsRequest request) {
+        logger.debug("Resharding wallet for customer: {}, shards: {}", customerId, request.getShards());
+        if (request.getShards() == null) {
+            throw new IllegalArgumentException("shards is required");
+        }
+        WalletDTO wallet = retryableWalletService.setShards(customerId, request.getShards());
+        logger.debug("Resharded wallet for customer: {}. Current balance: {}", customerId, wallet.getBalance());
+        return ResponseEntity.ok(wallet);
+    }
+
     /**
      * Inner class to represent the JSON request body for fund operations.
      */
@@ -109,4 +284,67 @@ public class WalletController {
             this.amount = amount;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Inner class to represent the JSON request body for transfers.
+     */
+    private static class TransferRequest {
+        private String fromCustomerId;
+        private String toCustomerId;
+        private BigDecimal amount;
+
+        public String getFromCustomerId() {
+            return fromCustomerId;
+        }
+
+        public void setFromCustomerId(String fromCustomerId) {
+            this.fromCustomerId = fromCustomerId;
+        }
+
+        public String getToCustomerId() {
+            return toCustomerId;
+        }
+
+        public void setToCustomerId(String toCustomerId) {
+            this.toCustomerId = toCustomerId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * Inner class to represent the JSON request body for bulk fund operations.
+     */
+    private static class BatchRequest {
+        private List<FundsOperationDTO> operations;
+
+        public List<FundsOperationDTO> getOperations() {
+            return operations;
+        }
+
+        public void setOperations(List<FundsOperationDTO> operations) {
+            this.operations = operations;
+        }
+    }
+
+    /**
+     * Inner class to represent the JSON request body for resharding a wallet.
+     */
+    private static class ShardsRequest {
+        private Integer shards;
+
+        public Integer getShards() {
+            return shards;
+        }
+
+        public void setShards(Integer shards) {
+            this.shards = shards;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import java.util.List;
+
+public class BatchResultDTO {
+    private List<FundsOperationResultDTO> results;
+    private int succeeded;
+    private int failed;
+
+    public BatchResultDTO() {
+    }
+
+    public BatchResultDTO(List<FundsOperationResultDTO> results, int succeeded, int failed) {
+        this.results = results;
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    public List<FundsOperationResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<FundsOperationResultDTO> results) {
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,44 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+
+import java.math.BigDecimal;
+
+public class FundsOperationDTO {
+    private String customerId;
+    private FundsOperation.Type type;
+    private BigDecimal amount;
+
+    public FundsOperationDTO() {
+    }
+
+    public FundsOperationDTO(String customerId, FundsOperation.Type type, BigDecimal amount) {
+        this.customerId = customerId;
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public FundsOperation.Type getType() {
+        return type;
+    }
+
+    public void setType(FundsOperation.Type type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,74 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+
+import java.math.BigDecimal;
+
+public class FundsOperationResultDTO {
+    private int index;
+    private String customerId;
+    private FundsOperation.Type type;
+    private boolean success;
+    private BigDecimal balance;
+    private String error;
+
+    public FundsOperationResultDTO() {
+    }
+
+    public FundsOperationResultDTO(int index, String customerId, FundsOperation.Type type, boolean success, BigDecimal balance, String error) {
+        this.index = index;
+        this.customerId = customerId;
+        this.type = type;
+        this.success = success;
+        this.balance = balance;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public FundsOperation.Type getType() {
+        return type;
+    }
+
+    public void setType(FundsOperation.Type type) {
+        this.type = type;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,77 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The credits and debits of a wallet over one day, week, month or year of a statement summary.
+ */
+public class PeriodSummaryDTO {
+    private LocalDate start;
+    private LocalDate end;
+    private BigDecimal creditTotal;
+    private long creditCount;
+    private BigDecimal debitTotal;
+    private long debitCount;
+
+    public PeriodSummaryDTO() {
+    }
+
+    public PeriodSummaryDTO(LocalDate start, LocalDate end, BigDecimal creditTotal, long creditCount,
+                            BigDecimal debitTotal, long debitCount) {
+        this.start = start;
+        this.end = end;
+        this.creditTotal = creditTotal;
+        this.creditCount = creditCount;
+        this.debitTotal = debitTotal;
+        this.debitCount = debitCount;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDate start) {
+        this.start = start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDate end) {
+        this.end = end;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+
+    public void setCreditCount(long creditCount) {
+        this.creditCount = creditCount;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+
+    public void setDebitCount(long debitCount) {
+        this.debitCount = debitCount;
+    }
+}
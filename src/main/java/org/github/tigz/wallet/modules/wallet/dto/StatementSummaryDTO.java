@@ -0,0 +1,109 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A customer's credits and debits over a range of days, in total and per period. Only periods with at least one
+ * transaction are listed.
+ */
+public class StatementSummaryDTO {
+    private String customerId;
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;
+    private BigDecimal creditTotal;
+    private long creditCount;
+    private BigDecimal debitTotal;
+    private long debitCount;
+    private List<PeriodSummaryDTO> periods;
+
+    public StatementSummaryDTO() {
+    }
+
+    public StatementSummaryDTO(String customerId, LocalDate from, LocalDate to, String granularity, BigDecimal creditTotal,
+                               long creditCount, BigDecimal debitTotal, long debitCount, List<PeriodSummaryDTO> periods) {
+        this.customerId = customerId;
+        this.from = from;
+        this.to = to;
+        this.granularity = granularity;
+        this.creditTotal = creditTotal;
+        this.creditCount = creditCount;
+        this.debitTotal = debitTotal;
+        this.debitCount = debitCount;
+        this.periods = periods;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+
+    public void setCreditCount(long creditCount) {
+        this.creditCount = creditCount;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+
+    public void setDebitCount(long debitCount) {
+        this.debitCount = debitCount;
+    }
+
+    public List<PeriodSummaryDTO> getPeriods() {
+        return periods;
+    }
+
+    public void setPeriods(List<PeriodSummaryDTO> periods) {
+        this.periods = periods;
+    }
+}
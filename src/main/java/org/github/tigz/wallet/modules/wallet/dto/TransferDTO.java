@@ -0,0 +1,65 @@
+package org.github.tigz.wallet.modules.wallet.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The result of a transfer: both wallets straight after it, and the linked ledger rows it wrote.
+ */
+public class TransferDTO {
+    private WalletDTO from;
+    private WalletDTO to;
+    private BigDecimal amount;
+    private Long debitTransactionId;
+    private Long creditTransactionId;
+
+    public TransferDTO() {
+    }
+
+    public TransferDTO(WalletDTO from, WalletDTO to, BigDecimal amount, Long debitTransactionId, Long creditTransactionId) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.debitTransactionId = debitTransactionId;
+        this.creditTransactionId = creditTransactionId;
+    }
+
+    public WalletDTO getFrom() {
+        return from;
+    }
+
+    public void setFrom(WalletDTO from) {
+        this.from = from;
+    }
+
+    public WalletDTO getTo() {
+        return to;
+    }
+
+    public void setTo(WalletDTO to) {
+        this.to = to;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Long getDebitTransactionId() {
+        return debitTransactionId;
+    }
+
+    public void setDebitTransactionId(Long debitTransactionId) {
+        this.debitTransactionId = debitTransactionId;
+    }
+
+    public Long getCreditTransactionId() {
+        return creditTransactionId;
+    }
+
+    public void setCreditTransactionId(Long creditTransactionId) {
+        this.creditTransactionId = creditTransactionId;
+    }
+}
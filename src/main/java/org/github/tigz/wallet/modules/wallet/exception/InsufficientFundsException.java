@@ -0,0 +1,29 @@
+package org.github.tigz.wallet.modules.wallet.exception;
+
+/**
+ * Thrown when a withdrawal is larger than the wallet's balance.
+ * Extends {@link IllegalStateException} so that callers handling the broader case keep working.
+ */
+public class InsufficientFundsException extends IllegalStateException {
+
+    private final String customerId;
+
+    /**
+     * Constructs a new InsufficientFundsException for the specified customer.
+     *
+     * @param customerId The ID of the customer whose balance is too low
+     */
+    public InsufficientFundsException(String customerId) {
+        super("Insufficient funds for withdrawal");
+        this.customerId = customerId;
+    }
+
+    /**
+     * Gets the ID of the customer whose balance was too low.
+     *
+     * @return The customer ID
+     */
+    public String getCustomerId() {
+        return customerId;
+    }
+}
@@ -0,0 +1,28 @@
+package org.github.tigz.wallet.modules.wallet.exception;
+
+/**
+ * Thrown when an operation requires an existing wallet but none exists for the customer.
+ */
+public class WalletNotFoundException extends RuntimeException {
+
+    private final String customerId;
+
+    /**
+     * Constructs a new WalletNotFoundException for the specified customer.
+     *
+     * @param customerId The ID of the customer without a wallet
+     */
+    public WalletNotFoundException(String customerId) {
+        super("Wallet not found for customer: " + customerId);
+        this.customerId = customerId;
+    }
+
+    /**
+     * Gets the ID of the customer whose wallet was not found.
+     *
+     * @return The customer ID
+     */
+    public String getCustomerId() {
+        return customerId;
+    }
+}
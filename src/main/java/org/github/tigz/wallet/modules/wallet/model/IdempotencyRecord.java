@@ -0,0 +1,154 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+import org.github.tigz.wallet.common.model.Money;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * The outcome of a fund operation sent with an {@code Idempotency-Key} header.
+ * This class is mapped to the "idempotency_keys" table in the database and is written in the same
+ * transaction as the wallet change it describes, so a key is recorded if and only if its operation was applied.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    @Id
+    @Column(name = "customer_id")
+    private String customerId;
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType operation;
+
+    @Column(nullable = false)
+    private Money amount;
+
+    @Column(nullable = false)
+    private Money balance;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Composite primary key: idempotency keys are scoped to a customer.
+     */
+    public static class Key implements Serializable {
+
+        private String customerId;
+        private String idempotencyKey;
+
+        /**
+         * Default constructor for JPA.
+         */
+        public Key() {
+        }
+
+        public Key(String customerId, String idempotencyKey) {
+            this.customerId = customerId;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        public String getCustomerId() {
+            return customerId;
+        }
+
+        public String getIdempotencyKey() {
+            return idempotencyKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key other
+                    && Objects.equals(customerId, other.customerId)
+                    && Objects.equals(idempotencyKey, other.idempotencyKey));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, idempotencyKey);
+        }
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public IdempotencyRecord() {
+    }
+
+    /**
+     * Constructs a new IdempotencyRecord for an operation that has just been applied.
+     *
+     * @param customerId The ID of the customer
+     * @param idempotencyKey The key sent by the client
+     * @param operation Whether the operation credited or debited the wallet
+     * @param amount The amount of the operation
+     * @param balance The wallet balance straight after the operation
+     */
+    public IdempotencyRecord(String customerId, String idempotencyKey, Transaction.TransactionType operation,
+                             Money amount, Money balance) {
+        this.customerId = customerId;
+        this.idempotencyKey = idempotencyKey;
+        this.operation = operation;
+        this.amount = amount;
+        this.balance = balance;
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(customerId, idempotencyKey);
+    }
+
+    /**
+     * Records are only ever inserted, so a new instance is persisted without first looking for an existing row.
+     * A concurrent insert of the same key then fails on the primary key instead of being merged.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Transaction.TransactionType getOperation() {
+        return operation;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,48 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The position up to which an in-memory engine journal has been projected into the database.
+ * This class is mapped to the "journal_projections" table in the database.
+ */
+@Entity
+@Table(name = "journal_projections")
+public class JournalProjection {
+
+    @Id
+    @Column(name = "journal_id")
+    private String journalId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public JournalProjection() {
+    }
+
+    /**
+     * Constructs a new JournalProjection.
+     *
+     * @param journalId The ID of the journal
+     * @param lastSequence The sequence number of the last projected entry
+     */
+    public JournalProjection(String journalId, long lastSequence) {
+        this.journalId = journalId;
+        this.lastSequence = lastSequence;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+}
@@ -0,0 +1,17 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the id of a ledger row, generated by {@link LedgerIdGenerator}.
+ */
+@IdGeneratorType(LedgerIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface LedgerId {
+}
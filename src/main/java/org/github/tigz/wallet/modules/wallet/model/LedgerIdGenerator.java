@@ -0,0 +1,47 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.OptimizerDescriptor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generates {@link Transaction} ids from {@code transaction_seq}, which is incremented by {@link #INCREMENT_SIZE}.
+ * Ids are normally handed out from a block of that many reserved with one sequence call, so ledger inserts can be
+ * batched. When {@link #POOLED_SETTING} is false, every id is taken from the sequence as its row is written instead.
+ */
+public class LedgerIdGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Hibernate setting turning pooled allocation off, true by default.
+     */
+    public static final String POOLED_SETTING = "wallet.ledger.pooledIds";
+
+    static final int INCREMENT_SIZE = 50;
+
+    private boolean pooled = true;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object setting = serviceRegistry.requireService(ConfigurationService.class).getSettings().get(POOLED_SETTING);
+        pooled = setting == null || Boolean.parseBoolean(setting.toString());
+        parameters.setProperty(SEQUENCE_PARAM, "transaction_seq");
+        parameters.setProperty(INCREMENT_PARAM, Integer.toString(INCREMENT_SIZE));
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    protected OptimizerDescriptor determineOptimizationStrategy(Properties parameters, int incrementSize) {
+        return pooled ? super.determineOptimizationStrategy(parameters, incrementSize) : StandardOptimizerDescriptor.NONE;
+    }
+
+    @Override
+    protected int determineAdjustedIncrementSize(OptimizerDescriptor optimizationStrategy, int incrementSize) {
+        // The sequence keeps its increment either way; unpooled ids just skip the rest of each block
+        return incrementSize;
+    }
+}
@@ -1,8 +1,10 @@
 package org.github.tigz.wallet.modules.wallet.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+import org.github.tigz.wallet.common.model.Money;
+
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Represents a transaction entity in the system.
@@ -13,7 +15,7 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @LedgerId
     private Long id;
 
     @ManyToOne
@@ -21,7 +23,7 @@ public class Transaction {
     private Wallet wallet;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -30,6 +32,9 @@ public class Transaction {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime timestamp;
 
+    @Column(name = "counterpart_id")
+    private Long counterpartId;
+
     /**
      * Enum representing the type of transaction.
      */
@@ -50,11 +55,12 @@ public class Transaction {
      * @param amount The amount of the transaction
      * @param type The type of the transaction (CREDIT or DEBIT)
      */
-    public Transaction(Wallet wallet, BigDecimal amount, TransactionType type) {
+    public Transaction(Wallet wallet, Money amount, TransactionType type) {
         this.wallet = wallet;
         this.amount = amount;
         this.type = type;
-        this.timestamp = LocalDateTime.now();
+        // Stored at the column's microsecond precision so keyset cursors round-trip exactly
+        this.timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     /**
@@ -98,7 +104,7 @@ public class Transaction {
      *
      * @return The transaction amount
      */
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -107,7 +113,7 @@ public class Transaction {
      *
      * @param amount The transaction amount
      */
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -146,4 +152,22 @@ public class Transaction {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the ID of the other side of a transfer: the credit for a debit, or the debit for a credit.
+     *
+     * @return The counterpart transaction's ID, or null if this transaction is not part of a transfer
+     */
+    public Long getCounterpartId() {
+        return counterpartId;
+    }
+
+    /**
+     * Sets the ID of the other side of a transfer.
+     *
+     * @param counterpartId The counterpart transaction's ID
+     */
+    public void setCounterpartId(Long counterpartId) {
+        this.counterpartId = counterpartId;
+    }
+}
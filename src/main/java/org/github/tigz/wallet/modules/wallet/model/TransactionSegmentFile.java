@@ -0,0 +1,75 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A sealed segment file of archived ledger rows.
+ * This class is mapped to the "transaction_segments" table in the database. The file itself lives in the configured
+ * segment directory under {@link #getFileName()}.
+ */
+@Entity
+@Table(name = "transaction_segments")
+public class TransactionSegmentFile {
+
+    @Id
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    @Column(name = "byte_size", nullable = false)
+    private long byteSize;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public TransactionSegmentFile() {
+    }
+
+    /**
+     * Constructs a new TransactionSegmentFile for a segment just written.
+     *
+     * @param fileName The name of the file in the segment directory
+     * @param periodStart The first day of the month whose rows the segment holds
+     * @param rowCount The number of rows in the segment
+     * @param byteSize The size of the file in bytes
+     */
+    public TransactionSegmentFile(String fileName, LocalDate periodStart, long rowCount, long byteSize) {
+        this.fileName = fileName;
+        this.periodStart = periodStart;
+        this.rowCount = rowCount;
+        this.byteSize = byteSize;
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
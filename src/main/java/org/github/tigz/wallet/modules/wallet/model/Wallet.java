@@ -1,7 +1,7 @@
 package org.github.tigz.wallet.modules.wallet.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+import org.github.tigz.wallet.common.model.Money;
 
 /**
  * Represents a wallet entity in the system.
@@ -19,7 +19,13 @@ public class Wallet {
     private String customerId;
 
     @Column(nullable = false)
-    private BigDecimal balance;
+    private Money balance;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    @Column(nullable = false)
+    private int shardCount;
 
     @Version
     private Long version;
@@ -36,7 +42,7 @@ public class Wallet {
      * @param customerId The unique identifier for the customer
      * @param balance The initial balance of the wallet
      */
-    public Wallet(String customerId, BigDecimal balance) {
+    public Wallet(String customerId, Money balance) {
         this.customerId = customerId;
         this.balance = balance;
     }
@@ -82,7 +88,7 @@ public class Wallet {
      *
      * @return The wallet's balance
      */
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
@@ -91,10 +97,58 @@ public class Wallet {
      *
      * @param balance The new balance
      */
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
+    /**
+     * Gets the number of transactions recorded against this wallet.
+     * Maintained in the same transaction as each ledger insert.
+     *
+     * @return The transaction count
+     */
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Sets the number of transactions recorded against this wallet.
+     *
+     * @param transactionCount The transaction count
+     */
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    /**
+     * Gets the number of shards the wallet's balance is split across, or 0 if it is not sharded.
+     * A sharded wallet keeps a zero balance on this row: its balance is the sum of its shards, and its transaction
+     * count is this row's count plus theirs.
+     *
+     * @return The number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Sets the number of shards the wallet's balance is split across.
+     *
+     * @param shardCount The number of shards, or 0 for none
+     */
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Whether the wallet's balance is split across shards.
+     *
+     * @return true if the wallet has at least one shard
+     */
+    public boolean isSharded() {
+        return shardCount > 0;
+    }
+
     /**
      * Gets the version of the wallet entity.
      * This is used for optimistic locking in JPA.
@@ -0,0 +1,125 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+import org.github.tigz.wallet.common.model.Money;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A wallet's credit and debit totals for one day.
+ * This class is mapped to the "wallet_daily_rollups" table in the database and is updated in the same transaction as
+ * every ledger row it counts. A sharded wallet's day is spread across several slots, one per shard, so concurrent
+ * writers do not all update the same rollup row.
+ */
+@Entity
+@Table(name = "wallet_daily_rollups")
+@IdClass(WalletDailyRollup.Key.class)
+public class WalletDailyRollup {
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "slot")
+    private int slot;
+
+    @Column(nullable = false)
+    private Money creditTotal;
+
+    @Column(nullable = false)
+    private long creditCount;
+
+    @Column(nullable = false)
+    private Money debitTotal;
+
+    @Column(nullable = false)
+    private long debitCount;
+
+    /**
+     * Composite primary key: one row per wallet, day and slot.
+     */
+    public static class Key implements Serializable {
+
+        private Long walletId;
+        private LocalDate day;
+        private int slot;
+
+        /**
+         * Default constructor for JPA.
+         */
+        public Key() {
+        }
+
+        public Key(Long walletId, LocalDate day, int slot) {
+            this.walletId = walletId;
+            this.day = day;
+            this.slot = slot;
+        }
+
+        public Long getWalletId() {
+            return walletId;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key other
+                    && Objects.equals(walletId, other.walletId)
+                    && Objects.equals(day, other.day)
+                    && slot == other.slot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(walletId, day, slot);
+        }
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public WalletDailyRollup() {
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public Money getCreditTotal() {
+        return creditTotal;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+
+    public Money getDebitTotal() {
+        return debitTotal;
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+}
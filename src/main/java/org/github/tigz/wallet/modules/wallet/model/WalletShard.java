@@ -0,0 +1,95 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+import org.github.tigz.wallet.common.model.Money;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One sub-balance of a sharded wallet.
+ * This class is mapped to the "wallet_shards" table in the database. Credits land on a single shard row, so writers to
+ * a hot wallet spread across its shards instead of all queueing on the wallet row; the wallet's balance is the sum of
+ * its shards.
+ */
+@Entity
+@Table(name = "wallet_shards")
+@IdClass(WalletShard.Key.class)
+public class WalletShard {
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Id
+    @Column(name = "shard")
+    private int shard;
+
+    @Column(nullable = false)
+    private Money balance;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    /**
+     * Composite primary key: shards are numbered from 0 within their wallet.
+     */
+    public static class Key implements Serializable {
+
+        private Long walletId;
+        private int shard;
+
+        /**
+         * Default constructor for JPA.
+         */
+        public Key() {
+        }
+
+        public Key(Long walletId, int shard) {
+            this.walletId = walletId;
+            this.shard = shard;
+        }
+
+        public Long getWalletId() {
+            return walletId;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key other
+                    && Objects.equals(walletId, other.walletId)
+                    && shard == other.shard);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(walletId, shard);
+        }
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public WalletShard() {
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+}
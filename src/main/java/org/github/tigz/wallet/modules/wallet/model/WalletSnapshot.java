@@ -0,0 +1,75 @@
+package org.github.tigz.wallet.modules.wallet.model;
+
+import jakarta.persistence.*;
+import org.github.tigz.wallet.common.model.Money;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The folded state of a wallet's ledger up to and including one transaction.
+ * This class is mapped to the "wallet_snapshots" table in the database. With the event-sourced engine a wallet's
+ * balance is its snapshot plus every ledger row written after {@link #getLastTransactionId()}.
+ */
+@Entity
+@Table(name = "wallet_snapshots")
+public class WalletSnapshot {
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Money balance;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public WalletSnapshot() {
+    }
+
+    /**
+     * Constructs a new WalletSnapshot of a wallet's ledger.
+     *
+     * @param walletId The ID of the wallet
+     * @param balance The balance after the last folded transaction
+     * @param transactionCount The number of folded transactions
+     * @param lastTransactionId The ID of the last folded transaction
+     */
+    public WalletSnapshot(Long walletId, Money balance, long transactionCount, long lastTransactionId) {
+        this.walletId = walletId;
+        this.balance = balance;
+        this.transactionCount = transactionCount;
+        this.lastTransactionId = lastTransactionId;
+        this.takenAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+}
@@ -0,0 +1,9 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.JournalProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalProjectionRepository extends JpaRepository<JournalProjection, String> {
+}
@@ -0,0 +1,122 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import jakarta.persistence.Query;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A ledger row as plain values, detached from any persistence context. Rows of every tier are exported in this form,
+ * and rows read from segment files are turned into {@link Transaction} entities from it.
+ */
+public final class LedgerRow implements TransactionRepository.ExportRow {
+
+    /**
+     * The columns {@link #of(Object[])} expects, in order, as selected from either ledger table.
+     */
+    static final String COLUMNS = "id, wallet_id, amount, type, created_at, counterpart_id";
+
+    private final long id;
+    private final long walletId;
+    private final Transaction.TransactionType type;
+    private final Money amount;
+    private final LocalDateTime timestamp;
+    private final Long counterpartId;
+
+    /**
+     * Constructs a new LedgerRow.
+     *
+     * @param id The ID of the transaction
+     * @param walletId The ID of the wallet
+     * @param type The type of the transaction
+     * @param amount The amount of the transaction
+     * @param timestamp The time the transaction was created
+     * @param counterpartId The ID of the other side of a transfer, or null
+     */
+    public LedgerRow(long id, long walletId, Transaction.TransactionType type, Money amount, LocalDateTime timestamp,
+                     Long counterpartId) {
+        this.id = id;
+        this.walletId = walletId;
+        this.type = type;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.counterpartId = counterpartId;
+    }
+
+    /**
+     * Declares the types of the {@link #COLUMNS} selected by a native query, so its rows can be read with
+     * {@link #of(Object[])}.
+     */
+    @SuppressWarnings("unchecked")
+    static NativeQuery<Object[]> typed(Query query) {
+        return query.unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("wallet_id", Long.class)
+                .addScalar("amount", BigDecimal.class)
+                .addScalar("type", String.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("counterpart_id", Long.class);
+    }
+
+    /**
+     * Reads a row of {@link #COLUMNS} from a query declared with {@link #typed(Query)}.
+     */
+    static LedgerRow of(Object[] columns) {
+        return new LedgerRow((Long) columns[0], (Long) columns[1], Transaction.TransactionType.valueOf((String) columns[3]),
+                Money.of((BigDecimal) columns[2]), (LocalDateTime) columns[4], (Long) columns[5]);
+    }
+
+    /**
+     * Creates a detached transaction entity with this row's values.
+     *
+     * @param wallet The wallet the row belongs to
+     * @return The transaction
+     */
+    public Transaction toTransaction(Wallet wallet) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setWallet(wallet);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setTimestamp(timestamp);
+        transaction.setCounterpartId(counterpartId);
+        return transaction;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public long getWalletId() {
+        return walletId;
+    }
+
+    @Override
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+
+    @Override
+    public BigDecimal getAmount() {
+        return amount.toBigDecimal();
+    }
+
+    public Money getMoney() {
+        return amount;
+    }
+
+    @Override
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public Long getCounterpartId() {
+        return counterpartId;
+    }
+}
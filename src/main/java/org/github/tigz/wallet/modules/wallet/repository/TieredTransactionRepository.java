@@ -0,0 +1,65 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * History queries over every tier of the ledger: the hot {@code transaction} table holding recent months,
+ * {@code transaction_archive} holding the closed months moved there by {@link #archiveBatch}, and the segment files
+ * older archived months are sealed into by {@link TransactionSegmentStore}.
+ * A wallet's rows in each tier are all older than its rows in the tier before, so newest-first reads are answered from
+ * the hot table alone and only continue into older tiers once the newer ones run out.
+ */
+public interface TieredTransactionRepository {
+
+    /**
+     * Returns a page of a wallet's history with its total, counting both tiers.
+     */
+    Page<Transaction> findByWallet(Wallet wallet, Pageable pageable);
+
+    /**
+     * Returns a page of a wallet's history without a total. Unsorted pages are ordered oldest first.
+     */
+    Slice<Transaction> findSliceByWallet(Wallet wallet, Pageable pageable);
+
+    /**
+     * Returns a wallet's newest rows, newest first.
+     */
+    List<Transaction> findLatestByWallet(Wallet wallet, Limit limit);
+
+    /**
+     * Returns the rows of a wallet older than a keyset position, newest first.
+     */
+    List<Transaction> findOlderByWallet(Wallet wallet, LocalDateTime timestamp, long id, Limit limit);
+
+    /**
+     * Returns the rows of a wallet newer than a keyset position, oldest first.
+     */
+    List<Transaction> findNewerByWallet(Wallet wallet, LocalDateTime timestamp, long id, Limit limit);
+
+    /**
+     * Streams a wallet's whole ledger, oldest first: its segment rows, then both tables read by one statement from a
+     * forward-only cursor. Nothing is added to the persistence context, so memory use does not grow with the number
+     * of rows. Must be consumed inside a transaction.
+     */
+    Stream<TransactionRepository.ExportRow> streamExportRowsByWalletId(long walletId);
+
+    /**
+     * Moves up to {@code limit} of the oldest hot rows created before the cutoff into the archive. Must be called
+     * within a transaction, so the rows are copied and deleted atomically.
+     *
+     * @param cutoff The creation time before which rows are archived
+     * @param snapshottedOnly Whether to leave rows not yet folded into their wallet's snapshot in the hot table
+     * @param limit The most rows to move
+     * @return The number of rows moved
+     */
+    int archiveBatch(LocalDateTime cutoff, boolean snapshottedOnly, int limit);
+}
@@ -0,0 +1,450 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Routes history queries across the tiers of the ledger: the hot and archive tables, and the cold segment files of
+ * {@link TransactionSegmentStore}. The tables are read with native queries mapped onto {@link Transaction}, segments
+ * are decoded into detached entities, and a read continues into the next tier from where the previous one ran out,
+ * keyed on the last row it returned. Every read runs inside {@link TransactionSegmentStore#read}, so it sees the
+ * segments and the tables consistently.
+ * <p>
+ * Offset pages ordered by time are read the same way, newest-first pages starting in the hot tier and oldest-first
+ * ones in the segments; a tier is only counted when a page starts beyond its end. Pages sorted by any other property
+ * cannot be split by tier and are read from the union of both tables. They are refused once the wallet has rows in
+ * segments, which would have to be decoded and sorted in memory in full for every page.
+ */
+public class TieredTransactionRepositoryImpl implements TieredTransactionRepository {
+
+    private static final String HOT = "transaction";
+    private static final String ARCHIVE = "transaction_archive";
+
+    private static final String OLDER = " AND (created_at < :timestamp OR (created_at = :timestamp AND id < :id))";
+    private static final String NEWER = " AND (created_at > :timestamp OR (created_at = :timestamp AND id > :id))";
+    private static final String NEWEST_FIRST = "created_at DESC, id DESC";
+    private static final String OLDEST_FIRST = "created_at ASC, id ASC";
+
+    private static final Comparator<LedgerRow> ROW_ORDER = Comparator.comparing(LedgerRow::getTimestamp).thenComparing(LedgerRow::getId);
+
+    /**
+     * Sortable {@link Transaction} properties and their columns.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "timestamp", "created_at",
+            "amount", "amount",
+            "type", "type",
+            "counterpartId", "counterpart_id");
+
+    private final EntityManager entityManager;
+    private final TransactionSegmentStore transactionSegmentStore;
+
+    /**
+     * A keyset position in a wallet's history.
+     */
+    private record Position(LocalDateTime timestamp, long id) {
+
+        static Position of(Transaction transaction) {
+            return new Position(transaction.getTimestamp(), transaction.getId());
+        }
+
+        static Position of(LedgerRow row) {
+            return new Position(row.getTimestamp(), row.getId());
+        }
+
+        boolean isBefore(Position other) {
+            int byTime = timestamp.compareTo(other.timestamp);
+            return byTime < 0 || (byTime == 0 && id < other.id);
+        }
+    }
+
+    /**
+     * One tier of a wallet's history, in the order of the page being read.
+     */
+    private interface Tier {
+        List<Transaction> select(long offset, int limit);
+
+        long count();
+    }
+
+    /**
+     * Constructs a new TieredTransactionRepositoryImpl.
+     *
+     * @param entityManager The entity manager both tables are queried through
+     * @param transactionSegmentStore The store of cold segment files
+     */
+    @Autowired
+    public TieredTransactionRepositoryImpl(EntityManager entityManager, TransactionSegmentStore transactionSegmentStore) {
+        this.entityManager = entityManager;
+        this.transactionSegmentStore = transactionSegmentStore;
+    }
+
+    @Override
+    public Page<Transaction> findByWallet(Wallet wallet, Pageable pageable) {
+        return transactionSegmentStore.read(segments -> {
+            List<Transaction> rows = findPage(wallet, segments, pageable.getSort(), pageable.isPaged() ? pageable.getOffset() : 0,
+                    pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+            return new PageImpl<>(rows, pageable, count(HOT, wallet) + count(ARCHIVE, wallet) + coldCount(segments, wallet));
+        });
+    }
+
+    @Override
+    public Slice<Transaction> findSliceByWallet(Wallet wallet, Pageable pageable) {
+        return transactionSegmentStore.read(segments -> {
+            if (pageable.isUnpaged()) {
+                return new SliceImpl<>(findPage(wallet, segments, pageable.getSort(), 0, Integer.MAX_VALUE), pageable, false);
+            }
+            int size = pageable.getPageSize();
+            List<Transaction> rows = findPage(wallet, segments, pageable.getSort(), pageable.getOffset(), size + 1);
+            boolean hasNext = rows.size() > size;
+            return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+        });
+    }
+
+    @Override
+    public List<Transaction> findLatestByWallet(Wallet wallet, Limit limit) {
+        return transactionSegmentStore.read(segments -> newestFirst(wallet, segments, null, max(limit)));
+    }
+
+    @Override
+    public List<Transaction> findOlderByWallet(Wallet wallet, LocalDateTime timestamp, long id, Limit limit) {
+        return transactionSegmentStore.read(segments -> newestFirst(wallet, segments, new Position(timestamp, id), max(limit)));
+    }
+
+    @Override
+    public List<Transaction> findNewerByWallet(Wallet wallet, LocalDateTime timestamp, long id, Limit limit) {
+        int max = max(limit);
+        return transactionSegmentStore.read(segments -> {
+            Position after = new Position(timestamp, id);
+            List<Transaction> rows = new ArrayList<>();
+            if (precedesRows(HOT, wallet, after)) {
+                if (!segments.isEmpty() && precedesRows(ARCHIVE, wallet, after)) {
+                    rows.addAll(coldOldestFirst(wallet, segments, after, max));
+                }
+                if (rows.size() < max) {
+                    Position from = rows.isEmpty() ? after : Position.of(rows.get(rows.size() - 1));
+                    rows.addAll(select(ARCHIVE, wallet, NEWER, from, OLDEST_FIRST, 0, max - rows.size()));
+                }
+            }
+            if (rows.size() < max) {
+                Position from = rows.isEmpty() ? after : Position.of(rows.get(rows.size() - 1));
+                rows.addAll(select(HOT, wallet, NEWER, from, OLDEST_FIRST, 0, max - rows.size()));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public Stream<TransactionRepository.ExportRow> streamExportRowsByWalletId(long walletId) {
+        return transactionSegmentStore.stream(segments -> {
+            // Executed here, while no month can be sealed; its cursor keeps seeing the rows as of now
+            Stream<Object[]> tables = LedgerRow.typed(entityManager.createNativeQuery("SELECT " + LedgerRow.COLUMNS
+                            + " FROM " + ARCHIVE + " WHERE wallet_id = :walletId UNION ALL SELECT " + LedgerRow.COLUMNS
+                            + " FROM " + HOT + " WHERE wallet_id = :walletId ORDER BY id"))
+                    .setParameter("walletId", walletId)
+                    .setFetchSize(TransactionRepository.EXPORT_FETCH_SIZE)
+                    .getResultStream();
+            Stream<LedgerRow> cold = segments.stream().flatMap(segment -> segment.read(walletId).stream()
+                    .sorted(Comparator.comparing(LedgerRow::getId)));
+            return Stream.<TransactionRepository.ExportRow>concat(cold, tables.map(LedgerRow::of));
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int archiveBatch(LocalDateTime cutoff, boolean snapshottedOnly, int limit) {
+        String candidates = snapshottedOnly
+                ? "SELECT t.id FROM transaction t JOIN wallet_snapshots s ON s.wallet_id = t.wallet_id"
+                        + " WHERE t.created_at < :cutoff AND t.id <= s.last_transaction_id ORDER BY t.id"
+                : "SELECT id FROM transaction WHERE created_at < :cutoff ORDER BY id";
+        List<Long> ids = ((List<Number>) entityManager.createNativeQuery(candidates)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList()).stream().map(Number::longValue).toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.createNativeQuery("INSERT INTO " + ARCHIVE + " (" + LedgerRow.COLUMNS + ") SELECT " + LedgerRow.COLUMNS
+                        + " FROM " + HOT + " WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return entityManager.createNativeQuery("DELETE FROM " + HOT + " WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Reads newest first from the hot tier, continuing into the archive and then the segments only as each runs out.
+     */
+    private List<Transaction> newestFirst(Wallet wallet, List<TransactionSegment> segments, Position before, int limit) {
+        List<Transaction> rows = new ArrayList<>(select(HOT, wallet, before != null ? OLDER : "", before, NEWEST_FIRST, 0, limit));
+        if (rows.size() < limit) {
+            Position after = rows.isEmpty() ? before : Position.of(rows.get(rows.size() - 1));
+            rows.addAll(select(ARCHIVE, wallet, after != null ? OLDER : "", after, NEWEST_FIRST, 0, limit - rows.size()));
+        }
+        if (rows.size() < limit && !segments.isEmpty()) {
+            Position after = rows.isEmpty() ? before : Position.of(rows.get(rows.size() - 1));
+            rows.addAll(coldNewestFirst(wallet, segments, after, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    /**
+     * Reads a wallet's segment rows older than a position, newest first, decoding segments from the newest month
+     * back until the rest are all older than enough rows already found.
+     */
+    private static List<Transaction> coldNewestFirst(Wallet wallet, List<TransactionSegment> segments, Position before, int limit) {
+        List<LedgerRow> rows = new ArrayList<>();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            TransactionSegment segment = segments.get(i);
+            if (rows.size() >= limit && i + 1 < segments.size() && segment.getPeriodStart().isBefore(segments.get(i + 1).getPeriodStart())) {
+                break;
+            }
+            if (before != null && segment.getPeriodStart().atStartOfDay().isAfter(before.timestamp())) {
+                continue;
+            }
+            for (LedgerRow row : segment.read(wallet.getId())) {
+                if (before == null || Position.of(row).isBefore(before)) {
+                    rows.add(row);
+                }
+            }
+        }
+        rows.sort(ROW_ORDER.reversed());
+        return toTransactions(wallet, rows, 0, limit);
+    }
+
+    /**
+     * Reads a wallet's segment rows newer than a position, oldest first, decoding segments from the oldest month that
+     * can hold any until the rest are all newer than enough rows already found.
+     */
+    private static List<Transaction> coldOldestFirst(Wallet wallet, List<TransactionSegment> segments, Position after, int limit) {
+        List<LedgerRow> rows = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            TransactionSegment segment = segments.get(i);
+            if (rows.size() >= limit && i > 0 && segment.getPeriodStart().isAfter(segments.get(i - 1).getPeriodStart())) {
+                break;
+            }
+            if (!segment.getPeriodStart().plusMonths(1).atStartOfDay().isAfter(after.timestamp())) {
+                continue;
+            }
+            for (LedgerRow row : segment.read(wallet.getId())) {
+                if (after.isBefore(Position.of(row))) {
+                    rows.add(row);
+                }
+            }
+        }
+        rows.sort(ROW_ORDER);
+        return toTransactions(wallet, rows, 0, limit);
+    }
+
+    /**
+     * Whether a position lies before a wallet's oldest row in a table, so that rows newer than it may be in an older
+     * tier.
+     */
+    private boolean precedesRows(String table, Wallet wallet, Position position) {
+        List<Transaction> oldest = select(table, wallet, "", null, OLDEST_FIRST, 0, 1);
+        return oldest.isEmpty() || position.isBefore(Position.of(oldest.get(0)));
+    }
+
+    private List<Transaction> findPage(Wallet wallet, List<TransactionSegment> segments, Sort sort, long offset, int limit) {
+        String orderBy = orderBy(sort);
+        Sort.Direction direction = timeDirection(sort);
+        if (direction == null) {
+            if (coldCount(segments, wallet) > 0) {
+                throw new IllegalArgumentException("Transactions of a wallet with sealed history can only be sorted by timestamp and id, in one direction");
+            }
+            return selectUnion(wallet, orderBy, offset, limit);
+        }
+
+        Comparator<Transaction> comparator = comparator(sort);
+        Tier hot = tableTier(HOT, wallet, orderBy);
+        Tier archive = tableTier(ARCHIVE, wallet, orderBy);
+        Tier cold = new Tier() {
+            @Override
+            public List<Transaction> select(long offset, int limit) {
+                return coldRows(wallet, segments, comparator, offset, limit);
+            }
+
+            @Override
+            public long count() {
+                return coldCount(segments, wallet);
+            }
+        };
+        List<Transaction> rows = new ArrayList<>();
+        long remaining = offset;
+        for (Tier tier : direction.isDescending() ? List.of(hot, archive, cold) : List.of(cold, archive, hot)) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            List<Transaction> selected = tier.select(remaining, limit - rows.size());
+            remaining = rows.isEmpty() && selected.isEmpty() ? Math.max(0, remaining - tier.count()) : 0;
+            rows.addAll(selected);
+        }
+        return rows;
+    }
+
+    private Tier tableTier(String table, Wallet wallet, String orderBy) {
+        return new Tier() {
+            @Override
+            public List<Transaction> select(long offset, int limit) {
+                return TieredTransactionRepositoryImpl.this.select(table, wallet, "", null, orderBy, offset, limit);
+            }
+
+            @Override
+            public long count() {
+                return TieredTransactionRepositoryImpl.this.count(table, wallet);
+            }
+        };
+    }
+
+    private static List<Transaction> coldRows(Wallet wallet, List<TransactionSegment> segments, Comparator<Transaction> comparator,
+                                              long offset, int limit) {
+        List<Transaction> rows = new ArrayList<>();
+        for (TransactionSegment segment : segments) {
+            for (LedgerRow row : segment.read(wallet.getId())) {
+                rows.add(row.toTransaction(wallet));
+            }
+        }
+        rows.sort(comparator);
+        return window(rows, offset, limit);
+    }
+
+    private static long coldCount(List<TransactionSegment> segments, Wallet wallet) {
+        long count = 0;
+        for (TransactionSegment segment : segments) {
+            count += segment.count(wallet.getId());
+        }
+        return count;
+    }
+
+    private static List<Transaction> toTransactions(Wallet wallet, List<LedgerRow> rows, long offset, int limit) {
+        return window(rows, offset, limit).stream().map(row -> row.toTransaction(wallet)).toList();
+    }
+
+    private static <T> List<T> window(List<T> rows, long offset, int limit) {
+        int from = (int) Math.min(offset, rows.size());
+        return rows.subList(from, (int) Math.min(rows.size(), from + (long) limit));
+    }
+
+    /**
+     * Translates a sort into an ORDER BY clause, ending on the id so that pages are stable. Unsorted is oldest first.
+     *
+     * @throws IllegalArgumentException if a property cannot be sorted on
+     */
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return OLDEST_FIRST;
+        }
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Transactions cannot be sorted by " + order.getProperty());
+            }
+            if (!orderBy.isEmpty()) {
+                orderBy.append(", ");
+            }
+            orderBy.append(column).append(order.isDescending() ? " DESC" : " ASC");
+        }
+        if (sort.getOrderFor("id") == null) {
+            orderBy.append(", id ASC");
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * The in-memory equivalent of {@link #orderBy(Sort)} for a sort by time and id, for rows decoded from segments.
+     */
+    private static Comparator<Transaction> comparator(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Comparator.comparing(Transaction::getTimestamp).thenComparing(Transaction::getId);
+        }
+        Comparator<Transaction> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Transaction> next = order.getProperty().equals("id")
+                    ? Comparator.comparing(Transaction::getId)
+                    : Comparator.comparing(Transaction::getTimestamp);
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return sort.getOrderFor("id") == null ? comparator.thenComparing(Transaction::getId) : comparator;
+    }
+
+    /**
+     * Returns the direction of a sort that only orders by time and id, in which case every archived row of a wallet
+     * comes before or after all of its hot rows; otherwise null.
+     */
+    private static Sort.Direction timeDirection(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.Direction.ASC;
+        }
+        Sort.Direction direction = null;
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("timestamp") && !order.getProperty().equals("id")) {
+                return null;
+            }
+            if (direction != null && direction != order.getDirection()) {
+                return null;
+            }
+            direction = order.getDirection();
+        }
+        return direction;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> select(String table, Wallet wallet, String keyset, Position position, String orderBy,
+                                     long offset, int limit) {
+        Query query = entityManager.createNativeQuery("SELECT " + LedgerRow.COLUMNS + " FROM " + table
+                        + " WHERE wallet_id = :walletId" + keyset + " ORDER BY " + orderBy, Transaction.class)
+                .setParameter("walletId", wallet.getId());
+        if (position != null) {
+            query.setParameter("timestamp", position.timestamp()).setParameter("id", position.id());
+        }
+        return page(query, offset, limit).getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> selectUnion(Wallet wallet, String orderBy, long offset, int limit) {
+        Query query = entityManager.createNativeQuery("SELECT " + LedgerRow.COLUMNS + " FROM " + HOT + " WHERE wallet_id = :walletId"
+                        + " UNION ALL SELECT " + LedgerRow.COLUMNS + " FROM " + ARCHIVE + " WHERE wallet_id = :walletId"
+                        + " ORDER BY " + orderBy, Transaction.class)
+                .setParameter("walletId", wallet.getId());
+        return page(query, offset, limit).getResultList();
+    }
+
+    private static Query page(Query query, long offset, int limit) {
+        query.setFirstResult(Math.toIntExact(offset));
+        if (limit < Integer.MAX_VALUE) {
+            query.setMaxResults(limit);
+        }
+        return query;
+    }
+
+    private long count(String table, Wallet wallet) {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM " + table + " WHERE wallet_id = :walletId")
+                .setParameter("walletId", wallet.getId())
+                .getSingleResult()).longValue();
+    }
+
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+}
@@ -1,13 +1,32 @@
 package org.github.tigz.wallet.modules.wallet.repository;
 
 import org.github.tigz.wallet.modules.wallet.model.Transaction;
-import org.github.tigz.wallet.modules.wallet.model.Wallet;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByWallet(Wallet wallet, Pageable pageable);
-}
\ No newline at end of file
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TieredTransactionRepository {
+
+    /**
+     * Rows fetched per round trip when streaming a ledger for export.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * A ledger row as exported, read as plain values rather than managed entities.
+     */
+    interface ExportRow {
+        Long getId();
+
+        Transaction.TransactionType getType();
+
+        BigDecimal getAmount();
+
+        LocalDateTime getTimestamp();
+
+        Long getCounterpartId();
+    }
+}
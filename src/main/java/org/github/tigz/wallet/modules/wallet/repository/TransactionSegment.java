@@ -0,0 +1,372 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable file of ledger rows from one calendar month, stored column by column with delta and varint encoding,
+ * and read through a memory mapping.
+ * Rows are grouped into one block per wallet, ordered by (created_at, id). A block holds each column in turn:
+ * timestamps as microseconds, the first absolute and the rest as deltas; ids as the first id and then signed deltas;
+ * amounts in minor units, with debits stored as their one's complement so the sign carries the type; and counterpart
+ * ids as their signed distance from the row's own id, zero for none. Unsigned values are LEB128 varints and signed ones
+ * are zigzag varints. The index after the last block lists every wallet's id, block offset and row count, with ids and
+ * offsets delta-encoded against the previous wallet, and a fixed footer points at the index.
+ * <p>
+ * The index is decoded into arrays when the file is opened, so finding a wallet is a binary search and reading it
+ * decodes only its own block. Instances are safe to share between threads.
+ */
+public final class TransactionSegment {
+
+    private static final int MAGIC = 0x57534547;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int FOOTER_SIZE = 20;
+
+    private final Path file;
+    private final LocalDate periodStart;
+    private final MappedByteBuffer buffer;
+    private final long[] walletIds;
+    private final int[] offsets;
+    private final int[] counts;
+    private final long rowCount;
+
+    private TransactionSegment(Path file, LocalDate periodStart, MappedByteBuffer buffer, long[] walletIds, int[] offsets,
+                               int[] counts, long rowCount) {
+        this.file = file;
+        this.periodStart = periodStart;
+        this.buffer = buffer;
+        this.walletIds = walletIds;
+        this.offsets = offsets;
+        this.counts = counts;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Writes rows to a new segment file. The file is written beside its final name, forced to disk and then moved
+     * into place, so a segment file either exists complete or not at all.
+     *
+     * @param file The file to create
+     * @param periodStart The first day of the month the rows belong to
+     * @param rows The rows, ordered by wallet id, timestamp and id
+     * @return The number of rows written
+     * @throws IllegalArgumentException if the rows are out of order
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public static long write(Path file, LocalDate periodStart, Iterator<LedgerRow> rows) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(periodStart.toEpochDay());
+            output.write(header.array());
+
+            Encoder block = new Encoder();
+            Encoder index = new Encoder();
+            List<LedgerRow> walletRows = new ArrayList<>();
+            long offset = HEADER_SIZE;
+            long previousWalletId = 0;
+            long previousOffset = 0;
+            long written = 0;
+            int wallets = 0;
+            LedgerRow previous = null;
+            while (rows.hasNext() || !walletRows.isEmpty()) {
+                LedgerRow row = rows.hasNext() ? rows.next() : null;
+                if (row != null && previous != null && compare(previous, row) >= 0) {
+                    throw new IllegalArgumentException("Segment rows must be ordered by wallet, timestamp and id");
+                }
+                previous = row != null ? row : previous;
+                if (row != null && (walletRows.isEmpty() || walletRows.get(0).getWalletId() == row.getWalletId())) {
+                    walletRows.add(row);
+                    continue;
+                }
+
+                encodeBlock(walletRows, block);
+                long walletId = walletRows.get(0).getWalletId();
+                index.writeVarint(walletId - previousWalletId);
+                index.writeVarint(offset - previousOffset);
+                index.writeVarint(walletRows.size());
+                previousWalletId = walletId;
+                previousOffset = offset;
+                offset += block.size();
+                written += walletRows.size();
+                wallets++;
+                block.writeTo(output);
+                walletRows.clear();
+                if (row != null) {
+                    walletRows.add(row);
+                }
+            }
+
+            Encoder indexHeader = new Encoder();
+            indexHeader.writeVarint(wallets);
+            indexHeader.writeTo(output);
+            index.writeTo(output);
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE).putLong(offset).putLong(written).putInt(MAGIC);
+            output.write(footer.array());
+            output.flush();
+            channel.force(true);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write transaction segment " + file, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // Left for the next write of the same file to truncate
+            }
+        }
+    }
+
+    /**
+     * Maps a segment file and decodes its index.
+     *
+     * @param file The segment file
+     * @return The opened segment
+     * @throws IllegalStateException if the file is not a complete segment
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static TransactionSegment open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Not a transaction segment: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt((int) size - 4) != MAGIC) {
+                throw new IllegalStateException("Not a transaction segment: " + file);
+            }
+            LocalDate periodStart = LocalDate.ofEpochDay(buffer.getLong(8));
+            int indexOffset = Math.toIntExact(buffer.getLong((int) size - FOOTER_SIZE));
+            long rowCount = buffer.getLong((int) size - FOOTER_SIZE + 8);
+
+            Decoder index = new Decoder(buffer, indexOffset);
+            int wallets = Math.toIntExact(index.readVarint());
+            long[] walletIds = new long[wallets];
+            int[] offsets = new int[wallets];
+            int[] counts = new int[wallets];
+            long walletId = 0;
+            long offset = 0;
+            for (int i = 0; i < wallets; i++) {
+                walletId += index.readVarint();
+                offset += index.readVarint();
+                walletIds[i] = walletId;
+                offsets[i] = Math.toIntExact(offset);
+                counts[i] = Math.toIntExact(index.readVarint());
+            }
+            return new TransactionSegment(file, periodStart, buffer, walletIds, offsets, counts, rowCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transaction segment " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the first day of the month whose rows this segment holds.
+     *
+     * @return The period start
+     */
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getWalletCount() {
+        return walletIds.length;
+    }
+
+    public long getSize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Counts a wallet's rows from the index, without decoding them.
+     *
+     * @param walletId The ID of the wallet
+     * @return The number of rows the wallet has in this segment
+     */
+    public int count(long walletId) {
+        int slot = Arrays.binarySearch(walletIds, walletId);
+        return slot >= 0 ? counts[slot] : 0;
+    }
+
+    /**
+     * Decodes a wallet's rows.
+     *
+     * @param walletId The ID of the wallet
+     * @return The wallet's rows, ordered by timestamp and id
+     */
+    public List<LedgerRow> read(long walletId) {
+        int slot = Arrays.binarySearch(walletIds, walletId);
+        if (slot < 0) {
+            return List.of();
+        }
+        List<LedgerRow> rows = new ArrayList<>(counts[slot]);
+        decodeBlock(walletId, offsets[slot], counts[slot], rows::add);
+        return rows;
+    }
+
+    /**
+     * Decodes every row in the segment, wallet by wallet.
+     *
+     * @param consumer Receives each row
+     */
+    public void forEach(Consumer<LedgerRow> consumer) {
+        for (int slot = 0; slot < walletIds.length; slot++) {
+            decodeBlock(walletIds[slot], offsets[slot], counts[slot], consumer);
+        }
+    }
+
+    private void decodeBlock(long walletId, int offset, int count, Consumer<LedgerRow> consumer) {
+        Decoder decoder = new Decoder(buffer, offset);
+        long[] micros = new long[count];
+        long[] ids = new long[count];
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = i == 0 ? decoder.readVarint() : value + decoder.readVarint();
+            micros[i] = value;
+        }
+        for (int i = 0; i < count; i++) {
+            value = i == 0 ? decoder.readVarint() : value + decoder.readZigzag();
+            ids[i] = value;
+        }
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = decoder.readZigzag();
+        }
+        for (int i = 0; i < count; i++) {
+            long distance = decoder.readZigzag();
+            long amount = amounts[i];
+            consumer.accept(new LedgerRow(ids[i], walletId,
+                    amount >= 0 ? Transaction.TransactionType.CREDIT : Transaction.TransactionType.DEBIT,
+                    Money.ofMinor(amount >= 0 ? amount : ~amount), fromMicros(micros[i]),
+                    distance == 0 ? null : ids[i] + distance));
+        }
+    }
+
+    private static void encodeBlock(List<LedgerRow> rows, Encoder block) {
+        long previous = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            long micros = toMicros(rows.get(i).getTimestamp());
+            block.writeVarint(i == 0 ? micros : micros - previous);
+            previous = micros;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            long id = rows.get(i).getId();
+            if (i == 0) {
+                block.writeVarint(id);
+            } else {
+                block.writeZigzag(id - previous);
+            }
+            previous = id;
+        }
+        for (LedgerRow row : rows) {
+            long minorUnits = row.getMoney().getMinorUnits();
+            block.writeZigzag(row.getType() == Transaction.TransactionType.CREDIT ? minorUnits : ~minorUnits);
+        }
+        for (LedgerRow row : rows) {
+            block.writeZigzag(row.getCounterpartId() == null ? 0 : row.getCounterpartId() - row.getId());
+        }
+    }
+
+    private static int compare(LedgerRow first, LedgerRow second) {
+        int byWallet = Long.compare(first.getWalletId(), second.getWalletId());
+        if (byWallet != 0) {
+            return byWallet;
+        }
+        int byTime = first.getTimestamp().compareTo(second.getTimestamp());
+        return byTime != 0 ? byTime : Long.compare(first.getId(), second.getId());
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Growable buffer of varints.
+     */
+    private static final class Encoder extends ByteArrayOutputStream {
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            super.writeTo(output);
+            reset();
+        }
+    }
+
+    /**
+     * Reads varints from a position in a shared buffer with absolute gets, so readers never move the buffer itself.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        Decoder(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        long readZigzag() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.TransactionSegmentFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TransactionSegmentFileRepository extends JpaRepository<TransactionSegmentFile, String> {
+
+    List<TransactionSegmentFile> findAllByOrderByPeriodStartAscFileNameAsc();
+}
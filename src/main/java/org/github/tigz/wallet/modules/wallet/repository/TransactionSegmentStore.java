@@ -0,0 +1,230 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import jakarta.persistence.EntityManager;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.model.TransactionSegmentFile;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The cold tier of the ledger: {@link TransactionSegment} files in {@code wallet.segmentDirectory}, registered in the
+ * {@code transaction_segments} table and kept open for the life of the application.
+ * Sealing a month writes its archived rows to a new segment, then deletes them from {@code transaction_archive} and
+ * registers the file in one transaction. Readers see the registered segments and the tables consistently: sealing
+ * commits under the write side of a lock whose read side is held by {@link #read(Function)} for the duration of a
+ * query, and by {@link #stream(Function)} only while a stream's queries are opened, so a sealed row is never seen in
+ * both tiers or in neither. Archive batches moving rows from the hot table are committed through
+ * {@link #write(Supplier)} under the same write side, so a read spanning both tables never sees a batch half moved.
+ * Registered segments are immutable and never removed, so a stream keeps reading the ones
+ * it was opened with however long its client takes, without holding up sealing or other readers.
+ * <p>
+ * Segments are disabled when no directory is configured; the application then refuses to start if any are registered.
+ */
+@Component
+public class TransactionSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSegmentStore.class);
+
+    private static final Comparator<TransactionSegment> SEGMENT_ORDER = Comparator.comparing(TransactionSegment::getPeriodStart)
+            .thenComparing(segment -> segment.getFile().getFileName().toString());
+
+    private final EntityManager entityManager;
+    private final TransactionSegmentFileRepository transactionSegmentFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Path directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile List<TransactionSegment> segments;
+
+    /**
+     * Constructs a new TransactionSegmentStore and opens every registered segment.
+     *
+     * @param entityManager The entity manager archived rows are read and deleted through
+     * @param transactionSegmentFileRepository The repository of registered segments
+     * @param walletConfig The configuration for wallet operations
+     * @param transactionManager The transaction manager used for sealing transactions
+     * @throws IllegalStateException if segments are registered but no segment directory is configured, or if months
+     *                               would be due for sealing before they are due for archiving
+     * @throws UncheckedIOException if a registered segment cannot be opened
+     */
+    @Autowired
+    public TransactionSegmentStore(EntityManager entityManager, TransactionSegmentFileRepository transactionSegmentFileRepository,
+                                   WalletConfig walletConfig, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionSegmentFileRepository = transactionSegmentFileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        String configured = walletConfig.getSegmentDirectory();
+        this.directory = configured == null || configured.isBlank() ? null : Path.of(configured);
+        if (directory != null && walletConfig.getSegmentAfterMonths() < walletConfig.getArchiveAfterMonths()) {
+            throw new IllegalStateException(String.format("wallet.segmentAfterMonths (%d) must not be less than wallet.archiveAfterMonths (%d)",
+                    walletConfig.getSegmentAfterMonths(), walletConfig.getArchiveAfterMonths()));
+        }
+
+        List<TransactionSegmentFile> files = transactionSegmentFileRepository.findAllByOrderByPeriodStartAscFileNameAsc();
+        if (directory == null) {
+            if (!files.isEmpty()) {
+                throw new IllegalStateException(files.size() + " transaction segments are registered but wallet.segmentDirectory is not set");
+            }
+            this.segments = List.of();
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create segment directory " + directory, e);
+        }
+        this.segments = files.stream().map(file -> TransactionSegment.open(directory.resolve(file.getFileName()))).toList();
+        logger.info("Transaction segments enabled: directory={}, segments={}", directory, segments.size());
+    }
+
+    /**
+     * Whether a segment directory is configured.
+     *
+     * @return true if months can be sealed into segments
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Runs a read against the registered segments, with no month being sealed until it returns. Any queries of the
+     * ledger tables that must agree with the segments belong inside the reader.
+     *
+     * @param reader Receives the segments, oldest month first
+     * @return The reader's result
+     */
+    public <T> T read(Function<List<TransactionSegment>, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(segments);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Opens a stream over the registered segments, with no month being sealed while it is opened. Like
+     * {@link #read(Function)}, but for lazy streams whose rows are only read as they are consumed: the reader must
+     * execute its queries of the ledger tables before returning, so that they and the segments it was given agree
+     * however long the stream stays open. No lock is held once the reader returns.
+     *
+     * @param reader Receives the segments, oldest month first, and opens the stream
+     * @return The reader's stream
+     */
+    public <T> Stream<T> stream(Function<List<TransactionSegment>, Stream<T>> reader) {
+        return read(reader);
+    }
+
+    /**
+     * Runs a change that moves rows between the ledger tables, with no read in progress until it returns. The writer
+     * must commit its own transaction before returning.
+     *
+     * @param writer Makes and commits the change
+     * @return The writer's result
+     */
+    public <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Seals every archived row created before the cutoff into segments, one per calendar month.
+     *
+     * @param cutoff The creation time before which archived rows are sealed
+     * @return The number of rows sealed
+     */
+    public long sealBefore(LocalDateTime cutoff) {
+        if (directory == null) {
+            return 0;
+        }
+        long sealed = 0;
+        LocalDateTime oldest;
+        while ((oldest = oldestArchivedBefore(cutoff)) != null) {
+            LocalDate periodStart = oldest.toLocalDate().withDayOfMonth(1);
+            LocalDateTime end = periodStart.plusMonths(1).atStartOfDay();
+            sealed += seal(periodStart, end.isAfter(cutoff) ? cutoff : end);
+        }
+        return sealed;
+    }
+
+    private LocalDateTime oldestArchivedBefore(LocalDateTime cutoff) {
+        return (LocalDateTime) entityManager.createNativeQuery("SELECT MIN(created_at) AS oldest FROM transaction_archive WHERE created_at < :cutoff")
+                .unwrap(NativeQuery.class)
+                .addScalar("oldest", LocalDateTime.class)
+                .setParameter("cutoff", cutoff)
+                .getSingleResult();
+    }
+
+    private long seal(LocalDate periodStart, LocalDateTime end) {
+        LocalDateTime start = periodStart.atStartOfDay();
+        String fileName = String.format("transactions-%s-%d.seg", YearMonth.from(periodStart), System.currentTimeMillis());
+        Path file = directory.resolve(fileName);
+        long written = readOnlyTransactionTemplate.execute(status -> {
+            try (Stream<Object[]> rows = LedgerRow.typed(entityManager.createNativeQuery("SELECT " + LedgerRow.COLUMNS
+                            + " FROM transaction_archive WHERE created_at >= :start AND created_at < :end ORDER BY wallet_id, created_at, id"))
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .setFetchSize(TransactionRepository.EXPORT_FETCH_SIZE)
+                    .getResultStream()) {
+                return TransactionSegment.write(file, periodStart, rows.map(LedgerRow::of).iterator());
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            TransactionSegment segment = TransactionSegment.open(file);
+            transactionTemplate.executeWithoutResult(status -> {
+                int deleted = entityManager.createNativeQuery("DELETE FROM transaction_archive WHERE created_at >= :start AND created_at < :end")
+                        .setParameter("start", start)
+                        .setParameter("end", end)
+                        .executeUpdate();
+                if (deleted != written) {
+                    throw new IllegalStateException(String.format("Sealed %d rows into %s but %d were archived", written, fileName, deleted));
+                }
+                transactionSegmentFileRepository.save(new TransactionSegmentFile(fileName, periodStart, written, segment.getSize()));
+            });
+            List<TransactionSegment> sealed = new ArrayList<>(segments);
+            sealed.add(segment);
+            sealed.sort(SEGMENT_ORDER);
+            segments = List.copyOf(sealed);
+            logger.info("Sealed transaction segment: file={}, rows={}, wallets={}, bytes={}", fileName, written,
+                    segment.getWalletCount(), segment.getSize());
+            return written;
+        } catch (RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // An unregistered file is never read
+            }
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.WalletDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WalletDailyRollupRepository extends JpaRepository<WalletDailyRollup, WalletDailyRollup.Key> {
+
+    /**
+     * A wallet's totals for one day, with its slots added together.
+     */
+    interface DailyTotals {
+        LocalDate getRollupDate();
+
+        BigDecimal getCreditTotal();
+
+        Long getCreditCount();
+
+        BigDecimal getDebitTotal();
+
+        Long getDebitCount();
+    }
+
+    /**
+     * Adds to the totals of an existing rollup row.
+     *
+     * @return 1, or 0 if there is no row yet for the wallet, day and slot
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet_daily_rollups SET credit_total = credit_total + :creditTotal, credit_count = credit_count + :creditCount,"
+            + " debit_total = debit_total + :debitTotal, debit_count = debit_count + :debitCount"
+            + " WHERE wallet_id = :walletId AND rollup_date = :day AND slot = :slot", nativeQuery = true)
+    int addToRollup(@Param("walletId") Long walletId, @Param("day") LocalDate day, @Param("slot") int slot,
+                    @Param("creditTotal") BigDecimal creditTotal, @Param("creditCount") long creditCount,
+                    @Param("debitTotal") BigDecimal debitTotal, @Param("debitCount") long debitCount);
+
+    /**
+     * Starts the rollup row of a wallet, day and slot. Fails on the primary key if a concurrent writer started it first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet_daily_rollups (wallet_id, rollup_date, slot, credit_total, credit_count, debit_total, debit_count)"
+            + " VALUES (:walletId, :day, :slot, :creditTotal, :creditCount, :debitTotal, :debitCount)", nativeQuery = true)
+    void insertRollup(@Param("walletId") Long walletId, @Param("day") LocalDate day, @Param("slot") int slot,
+                      @Param("creditTotal") BigDecimal creditTotal, @Param("creditCount") long creditCount,
+                      @Param("debitTotal") BigDecimal debitTotal, @Param("debitCount") long debitCount);
+
+    /**
+     * Reads a wallet's daily totals over an inclusive range of days, oldest first, touching one row per day and slot.
+     */
+    @Query(value = "SELECT rollup_date AS rollupDate, SUM(credit_total) AS creditTotal, SUM(credit_count) AS creditCount,"
+            + " SUM(debit_total) AS debitTotal, SUM(debit_count) AS debitCount FROM wallet_daily_rollups"
+            + " WHERE wallet_id = :walletId AND rollup_date BETWEEN :from AND :to GROUP BY rollup_date ORDER BY rollup_date", nativeQuery = true)
+    List<DailyTotals> findDailyTotals(@Param("walletId") Long walletId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
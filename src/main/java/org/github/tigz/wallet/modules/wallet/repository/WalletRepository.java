@@ -1,12 +1,83 @@
 package org.github.tigz.wallet.modules.wallet.repository;
 
+import jakarta.persistence.LockModeType;
 import org.github.tigz.wallet.modules.wallet.model.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
     Optional<Wallet> findByCustomerId(String customerId);
-}
\ No newline at end of file
+
+    List<Wallet> findByCustomerIdIn(Collection<String> customerIds);
+
+    /**
+     * The wallet row as left by a conditional balance update.
+     */
+    interface BalanceUpdate {
+        Long getId();
+
+        BigDecimal getBalance();
+
+        Long getVersion();
+    }
+
+    /**
+     * Atomically credits a wallet and counts the ledger row, returning the updated row.
+     * Empty if the customer has no wallet or its balance is sharded.
+     */
+    @Transactional
+    @Query(value = "SELECT id, balance, version FROM FINAL TABLE ("
+            + "UPDATE wallets SET balance = balance + :amount, transaction_count = transaction_count + 1, version = version + 1"
+            + " WHERE customer_id = :customerId AND shard_count = 0)", nativeQuery = true)
+    Optional<BalanceUpdate> creditBalance(@Param("customerId") String customerId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Atomically debits a wallet only if it holds at least the amount, returning the updated row.
+     * Empty if the customer has no wallet, the balance is insufficient or the balance is sharded.
+     */
+    @Transactional
+    @Query(value = "SELECT id, balance, version FROM FINAL TABLE ("
+            + "UPDATE wallets SET balance = balance - :amount, transaction_count = transaction_count + 1, version = version + 1"
+            + " WHERE customer_id = :customerId AND shard_count = 0 AND balance >= :amount)", nativeQuery = true)
+    Optional<BalanceUpdate> debitBalanceIfSufficient(@Param("customerId") String customerId, @Param("amount") BigDecimal amount);
+
+    boolean existsByCustomerId(String customerId);
+
+    /**
+     * Resolves customers to wallet ids in ascending id order, the order in which their rows must be locked.
+     */
+    @Query("SELECT w.id FROM Wallet w WHERE w.customerId IN :customerIds ORDER BY w.id")
+    List<Long> findIdsByCustomerIdIn(@Param("customerIds") Collection<String> customerIds);
+
+    /**
+     * Loads a wallet and holds a row lock on it until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Loads a customer's wallet and holds a row lock on it until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.customerId = :customerId")
+    Optional<Wallet> findByCustomerIdForUpdate(@Param("customerId") String customerId);
+
+    /**
+     * Loads the wallets of several customers in ascending id order, holding a row lock on each until the
+     * transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.customerId IN :customerIds ORDER BY w.id")
+    List<Wallet> findByCustomerIdInForUpdate(@Param("customerIds") Collection<String> customerIds);
+}
@@ -0,0 +1,94 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.WalletShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Shard rows are only ever read and written through these statements, never as managed entities, so a statement
+ * never races a stale copy held in the persistence context.
+ */
+@Repository
+public interface WalletShardRepository extends JpaRepository<WalletShard, WalletShard.Key> {
+
+    /**
+     * The balance and ledger row count of one shard.
+     */
+    interface ShardBalance {
+        Integer getShard();
+
+        BigDecimal getBalance();
+
+        Long getTransactionCount();
+    }
+
+    /**
+     * The balances and ledger row counts of all of a wallet's shards, summed.
+     */
+    interface ShardTotals {
+        Long getShards();
+
+        BigDecimal getBalance();
+
+        Long getTransactionCount();
+    }
+
+    /**
+     * Credits one shard and counts the ledger row.
+     *
+     * @return 1, or 0 if the shard no longer exists because the wallet has been resharded
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet_shards SET balance = balance + :amount, transaction_count = transaction_count + 1"
+            + " WHERE wallet_id = :walletId AND shard = :shard", nativeQuery = true)
+    int creditShard(@Param("walletId") Long walletId, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    /**
+     * Debits one shard and counts the ledger row, only if that shard alone holds at least the amount.
+     *
+     * @return 1, or 0 if the shard holds too little or no longer exists
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet_shards SET balance = balance - :amount, transaction_count = transaction_count + 1"
+            + " WHERE wallet_id = :walletId AND shard = :shard AND balance >= :amount", nativeQuery = true)
+    int debitShardIfSufficient(@Param("walletId") Long walletId, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    /**
+     * Sums the shards of a wallet without locking them.
+     */
+    @Query(value = "SELECT COUNT(*) AS shards, COALESCE(SUM(balance), 0) AS balance,"
+            + " COALESCE(SUM(transaction_count), 0) AS transactionCount FROM wallet_shards WHERE wallet_id = :walletId",
+            nativeQuery = true)
+    ShardTotals sumByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Reads every shard of a wallet in shard order, holding a row lock on each until the transaction ends.
+     */
+    @Query(value = "SELECT shard, balance, transaction_count AS transactionCount FROM wallet_shards"
+            + " WHERE wallet_id = :walletId ORDER BY shard FOR UPDATE", nativeQuery = true)
+    List<ShardBalance> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    /**
+     * Overwrites the balance of a shard locked by the caller, adding to its ledger row count.
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet_shards SET balance = :balance, transaction_count = transaction_count + :transactions"
+            + " WHERE wallet_id = :walletId AND shard = :shard", nativeQuery = true)
+    int setShardBalance(@Param("walletId") Long walletId, @Param("shard") int shard, @Param("balance") BigDecimal balance,
+                        @Param("transactions") long transactions);
+
+    @Modifying
+    @Query(value = "INSERT INTO wallet_shards (wallet_id, shard, balance, transaction_count)"
+            + " VALUES (:walletId, :shard, :balance, 0)", nativeQuery = true)
+    void insertShard(@Param("walletId") Long walletId, @Param("shard") int shard, @Param("balance") BigDecimal balance);
+
+    @Modifying
+    @Query(value = "DELETE FROM wallet_shards WHERE wallet_id = :walletId", nativeQuery = true)
+    int deleteByWalletId(@Param("walletId") Long walletId);
+}
@@ -0,0 +1,52 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.modules.wallet.model.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, Long> {
+
+    /**
+     * A wallet's ledger folded from its snapshot onwards.
+     */
+    interface LedgerState {
+        Long getWalletId();
+
+        BigDecimal getBalance();
+
+        Long getTransactionCount();
+
+        /**
+         * Ledger rows written since the snapshot, i.e. not yet folded into it.
+         */
+        Long getUnsnapshotted();
+
+        /**
+         * Highest ledger row id folded into this state, zero if the wallet has no rows.
+         */
+        Long getLastTransactionId();
+    }
+
+    /**
+     * Folds the ledger rows written after each wallet's snapshot onto it, in one statement so the snapshot and the
+     * rows are read consistently. Wallets without a snapshot are folded from zero.
+     */
+    @Query(value = "SELECT w.id AS walletId,"
+            + " COALESCE(s.balance, 0) + COALESCE(SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END), 0) AS balance,"
+            + " COALESCE(s.transaction_count, 0) + COUNT(t.id) AS transactionCount,"
+            + " COUNT(t.id) AS unsnapshotted,"
+            + " COALESCE(MAX(t.id), s.last_transaction_id, 0) AS lastTransactionId"
+            + " FROM wallets w"
+            + " LEFT JOIN wallet_snapshots s ON s.wallet_id = w.id"
+            + " LEFT JOIN transaction t ON t.wallet_id = w.id AND t.id > COALESCE(s.last_transaction_id, 0)"
+            + " WHERE w.id IN (:walletIds)"
+            + " GROUP BY w.id, s.balance, s.transaction_count, s.last_transaction_id", nativeQuery = true)
+    List<LedgerState> findLedgerStates(@Param("walletIds") Collection<Long> walletIds);
+}
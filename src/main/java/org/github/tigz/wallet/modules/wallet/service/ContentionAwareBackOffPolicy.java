@@ -0,0 +1,92 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter, stretched for customers whose operations keep conflicting.
+ * The ceiling for retry {@code n} is {@code initialInterval * 2^n}, multiplied by up to
+ * {@code 1 + CONTENTION_SCALE} as the customer's conflict rate approaches 1, and capped at {@code maxInterval}.
+ * The actual sleep is drawn uniformly between zero and that ceiling, so writers that collided once do not
+ * wake up together and collide again.
+ * The customer is read from the {@link #CUSTOMER_ID_ATTRIBUTE} of the retry context; without one, the plain
+ * exponential ceiling is used.
+ */
+public class ContentionAwareBackOffPolicy implements BackOffPolicy {
+
+    /**
+     * Retry context attribute holding the ID of the customer the operation is for.
+     */
+    public static final String CUSTOMER_ID_ATTRIBUTE = "wallet.customerId";
+
+    private static final double CONTENTION_SCALE = 4.0;
+
+    private final CustomerConflictTracker conflictTracker;
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * Constructs a new ContentionAwareBackOffPolicy.
+     *
+     * @param conflictTracker The source of per-customer conflict rates
+     * @param initialInterval The ceiling of the first backoff for a customer with no recent conflicts
+     * @param maxInterval The upper bound of any single backoff
+     */
+    public ContentionAwareBackOffPolicy(CustomerConflictTracker conflictTracker, Duration initialInterval, Duration maxInterval) {
+        this.conflictTracker = conflictTracker;
+        this.initialIntervalMillis = Math.max(1, initialInterval.toMillis());
+        this.maxIntervalMillis = Math.max(initialIntervalMillis, maxInterval.toMillis());
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new CustomerBackOffContext((String) context.getAttribute(CUSTOMER_ID_ATTRIBUTE));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        CustomerBackOffContext context = (CustomerBackOffContext) backOffContext;
+        long ceiling = ceilingMillis(context.customerId, context.retries++);
+        try {
+            sleeper.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while backing off", e);
+        }
+    }
+
+    /**
+     * Computes the longest backoff allowed before a retry.
+     *
+     * @param customerId The ID of the customer, or null
+     * @param retry The zero-based number of the retry about to happen
+     * @return The backoff ceiling in milliseconds
+     */
+    long ceilingMillis(String customerId, int retry) {
+        double exponential = initialIntervalMillis * Math.pow(2, retry);
+        double contention = 1.0 + CONTENTION_SCALE * conflictTracker.conflictRate(customerId);
+        return (long) Math.min(maxIntervalMillis, exponential * contention);
+    }
+
+    private static final class CustomerBackOffContext implements BackOffContext {
+
+        private final String customerId;
+        private int retries;
+
+        private CustomerBackOffContext(String customerId) {
+            this.customerId = customerId;
+        }
+    }
+}
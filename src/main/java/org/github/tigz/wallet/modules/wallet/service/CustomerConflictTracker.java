@@ -0,0 +1,79 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Tracks how often each customer's wallet operations hit a retryable conflict.
+ * The rate is an exponentially weighted moving average of conflicts per attempt, so it rises quickly while a wallet
+ * is hot and decays again once attempts start succeeding. Only customers that have conflicted at least once are
+ * tracked, and idle entries expire.
+ */
+@Component
+public class CustomerConflictTracker {
+
+    private static final double SMOOTHING = 0.2;
+    private static final long MAX_TRACKED_CUSTOMERS = 100_000;
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(5);
+
+    private final Cache<String, ConflictRate> rates = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_CUSTOMERS)
+            .expireAfterAccess(IDLE_EXPIRY)
+            .build();
+
+    /**
+     * Records an attempt that failed with a retryable conflict.
+     *
+     * @param customerId The ID of the customer, or null if the operation is not tied to one customer
+     */
+    public void recordConflict(String customerId) {
+        if (customerId != null) {
+            rates.get(customerId, id -> new ConflictRate()).update(1.0);
+        }
+    }
+
+    /**
+     * Records an attempt that succeeded.
+     *
+     * @param customerId The ID of the customer, or null if the operation is not tied to one customer
+     */
+    public void recordSuccess(String customerId) {
+        if (customerId == null) {
+            return;
+        }
+        ConflictRate rate = rates.getIfPresent(customerId);
+        if (rate != null) {
+            rate.update(0.0);
+        }
+    }
+
+    /**
+     * Returns the recent conflict rate for a customer.
+     *
+     * @param customerId The ID of the customer, or null
+     * @return A value between 0 (no recent conflicts) and 1 (every recent attempt conflicted)
+     */
+    public double conflictRate(String customerId) {
+        if (customerId == null) {
+            return 0.0;
+        }
+        ConflictRate rate = rates.getIfPresent(customerId);
+        return rate != null ? rate.get() : 0.0;
+    }
+
+    private static final class ConflictRate {
+
+        private double value;
+
+        synchronized void update(double sample) {
+            value += SMOOTHING * (sample - value);
+        }
+
+        synchronized double get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Schedules wallet mutations so that operations for the same customer never race each other.
+ * In {@link WalletConfig.ConcurrencyMode#STRIPED} mode each customer is hashed onto one of a fixed
+ * number of single-threaded lanes, so writes to a hot wallet queue up instead of colliding on the
+ * wallet version, while different customers still run in parallel across lanes.
+ * In {@link WalletConfig.ConcurrencyMode#OPTIMISTIC} mode tasks simply run on the calling thread.
+ */
+@Component
+public class CustomerLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerLaneExecutor.class);
+
+    private static final ThreadLocal<Boolean> IN_LANE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * Constructs a new CustomerLaneExecutor using the configured concurrency mode.
+     *
+     * @param walletConfig The configuration for wallet operations
+     */
+    @Autowired
+    public CustomerLaneExecutor(WalletConfig walletConfig) {
+        if (walletConfig.getConcurrencyMode() == WalletConfig.ConcurrencyMode.STRIPED) {
+            int stripes = stripeCount(walletConfig);
+            this.lanes = new ThreadPoolExecutor[stripes];
+            for (int i = 0; i < stripes; i++) {
+                String name = "wallet-lane-" + i;
+                lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        IN_LANE.set(Boolean.TRUE);
+                        runnable.run();
+                    }, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            logger.info("Striped wallet writes enabled with {} lanes", stripes);
+        } else {
+            this.lanes = null;
+        }
+    }
+
+    /**
+     * Runs the task for the given customer, waiting for it to complete.
+     * Tasks for the same customer are executed one at a time in submission order.
+     *
+     * @param customerId The ID of the customer whose wallet the task touches
+     * @param task The task to run
+     * @param <T> The type of the task result
+     * @return The result of the task
+     */
+    public <T> T execute(String customerId, Supplier<T> task) {
+        if (lanes == null || IN_LANE.get()) {
+            return task.get();
+        }
+
+        Future<T> future = lanes[laneIndex(customerId, lanes.length)].submit(task::get);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Wallet operation failed for customer: " + customerId, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for wallet operation for customer: " + customerId, e);
+        }
+    }
+
+    /**
+     * Indicates whether mutations are being serialized through writer lanes.
+     *
+     * @return true in striped mode
+     */
+    public boolean isStriped() {
+        return lanes != null;
+    }
+
+    /**
+     * Returns the number of tasks waiting behind the running task on every lane.
+     *
+     * @return The total lane backlog, always 0 outside striped mode
+     */
+    public int getQueuedTasks() {
+        if (lanes == null) {
+            return 0;
+        }
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    /**
+     * Resolves the configured number of lanes.
+     *
+     * @param walletConfig The configuration for wallet operations
+     * @return The number of lanes to create
+     */
+    static int stripeCount(WalletConfig walletConfig) {
+        return walletConfig.getStripes() > 0 ? walletConfig.getStripes() : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Maps a customer onto a lane, so that every operation for that customer lands on the same lane.
+     *
+     * @param customerId The ID of the customer
+     * @param laneCount The number of lanes
+     * @return The lane index
+     */
+    static int laneIndex(String customerId, int laneCount) {
+        int hash = customerId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (lanes == null) {
+            return;
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
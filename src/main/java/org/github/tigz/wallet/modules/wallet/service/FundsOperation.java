@@ -0,0 +1,72 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import java.math.BigDecimal;
+
+/**
+ * A single credit or debit request against a customer's wallet.
+ * Used to hand several fund operations to {@link WalletService#applyOperations} at once.
+ */
+public class FundsOperation {
+
+    /**
+     * The kind of fund operation.
+     */
+    public enum Type {
+        ADD, WITHDRAW
+    }
+
+    private final String customerId;
+    private final Type type;
+    private final BigDecimal amount;
+    private final String idempotencyKey;
+
+    /**
+     * Constructs a new FundsOperation.
+     *
+     * @param customerId The ID of the customer
+     * @param type Whether funds are added or withdrawn
+     * @param amount The amount to add or withdraw
+     */
+    public FundsOperation(String customerId, Type type, BigDecimal amount) {
+        this(customerId, type, amount, null);
+    }
+
+    /**
+     * Constructs a new FundsOperation that is applied at most once per idempotency key.
+     *
+     * @param customerId The ID of the customer
+     * @param type Whether funds are added or withdrawn
+     * @param amount The amount to add or withdraw
+     * @param idempotencyKey The client's key for the operation, or null if it may be applied again
+     */
+    public FundsOperation(String customerId, Type type, BigDecimal amount, String idempotencyKey) {
+        this.customerId = customerId;
+        this.type = type;
+        this.amount = amount;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public static FundsOperation add(String customerId, BigDecimal amount) {
+        return new FundsOperation(customerId, Type.ADD, amount);
+    }
+
+    public static FundsOperation withdraw(String customerId, BigDecimal amount) {
+        return new FundsOperation(customerId, Type.WITHDRAW, amount);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,56 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+
+/**
+ * The outcome of one {@link FundsOperation} applied as part of a batch.
+ * Holds either the wallet state straight after the operation, or the exception that rejected it.
+ */
+public class FundsOperationResult {
+
+    private final FundsOperation operation;
+    private final WalletDTO wallet;
+    private final RuntimeException error;
+
+    private FundsOperationResult(FundsOperation operation, WalletDTO wallet, RuntimeException error) {
+        this.operation = operation;
+        this.wallet = wallet;
+        this.error = error;
+    }
+
+    public static FundsOperationResult success(FundsOperation operation, WalletDTO wallet) {
+        return new FundsOperationResult(operation, wallet, null);
+    }
+
+    public static FundsOperationResult failure(FundsOperation operation, RuntimeException error) {
+        return new FundsOperationResult(operation, null, error);
+    }
+
+    public FundsOperation getOperation() {
+        return operation;
+    }
+
+    public WalletDTO getWallet() {
+        return wallet;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the resulting wallet, or rethrows the exception that rejected the operation.
+     *
+     * @return WalletDTO representing the wallet after the operation
+     */
+    public WalletDTO getOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return wallet;
+    }
+}
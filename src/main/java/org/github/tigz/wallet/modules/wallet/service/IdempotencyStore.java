@@ -0,0 +1,173 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.model.IdempotencyRecord;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the outcome of fund operations sent with an {@code Idempotency-Key}, so that a resent request gets
+ * the original response instead of being applied again.
+ * Records live in the {@code idempotency_keys} table, written in the same transaction as the wallet change, with the
+ * most recently used ones also held in a bounded in-memory cache that is filled after commit. A background thread
+ * deletes records older than {@code wallet.idempotencyKeyTtl}. Cache statistics are published as {@code cache.*}
+ * metrics with {@code cache=idempotencyKeys}.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    /**
+     * The longest idempotency key accepted, matching the width of the {@code idempotency_key} column.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Cache<IdempotencyRecord.Key, IdempotencyRecord> cache;
+    private final WalletConfig walletConfig;
+    private final ScheduledExecutorService expiryExecutor;
+
+    /**
+     * Constructs a new IdempotencyStore and starts the background expiry of old records.
+     *
+     * @param idempotencyRecordRepository The repository for idempotency records
+     * @param walletConfig The configuration for wallet operations
+     * @param meterRegistry The registry to publish cache statistics to
+     */
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository, WalletConfig walletConfig,
+                            MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.walletConfig = walletConfig;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(walletConfig.getIdempotencyCacheMaxSize())
+                .expireAfterWrite(walletConfig.getIdempotencyKeyTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotencyKeys");
+
+        this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wallet-idempotency-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = walletConfig.getIdempotencyExpiryInterval().toMillis();
+        expiryExecutor.scheduleWithFixedDelay(this::expire, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks that a client-supplied key can be stored.
+     *
+     * @param idempotencyKey The key sent by the client
+     * @throws IllegalArgumentException if the key is blank or too long
+     */
+    public static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format("Idempotency key must be between 1 and %d characters", MAX_KEY_LENGTH));
+        }
+    }
+
+    /**
+     * Looks up the outcome of an earlier operation sent with the same key.
+     *
+     * @param customerId The ID of the customer
+     * @param idempotencyKey The key sent by the client
+     * @param operation Whether the request credits or debits the wallet
+     * @param amount The amount of the request
+     * @return WalletDTO as returned by the original operation, or empty if the key has not been used
+     * @throws IllegalArgumentException if the key was used for a different operation or amount
+     */
+    public Optional<WalletDTO> replay(String customerId, String idempotencyKey, Transaction.TransactionType operation,
+                                      BigDecimal amount) {
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(customerId, idempotencyKey);
+        IdempotencyRecord record = cache.getIfPresent(key);
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(key).orElse(null);
+            if (record == null) {
+                return Optional.empty();
+            }
+            cache.put(key, record);
+        }
+
+        if (record.getOperation() != operation || amount == null || record.getAmount().toBigDecimal().compareTo(amount) != 0) {
+            throw new IllegalArgumentException("Idempotency key " + idempotencyKey + " was already used for a different request");
+        }
+        logger.debug("Replaying {} for idempotency key: customerId={}, key={}", operation, customerId, idempotencyKey);
+        return Optional.of(new WalletDTO(customerId, record.getBalance().toBigDecimal()));
+    }
+
+    /**
+     * Saves the record of an operation applied in the current transaction, and caches it once the transaction
+     * commits. The insert is flushed with the rest of the transaction, so a concurrent request that applied the same
+     * key first makes this transaction fail on the primary key and roll back.
+     *
+     * @param customerId The ID of the customer
+     * @param idempotencyKey The key sent by the client
+     * @param operation Whether the operation credited or debited the wallet
+     * @param amount The amount of the operation
+     * @param balance The wallet balance straight after the operation
+     */
+    public void record(String customerId, String idempotencyKey, Transaction.TransactionType operation,
+                       Money amount, Money balance) {
+        IdempotencyRecord record = new IdempotencyRecord(customerId, idempotencyKey, operation, amount, balance);
+        idempotencyRecordRepository.save(record);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(record.getId(), record);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(record.getId(), record);
+            }
+        });
+    }
+
+    /**
+     * Deletes records created before the cutoff, from both the cache and the database.
+     *
+     * @param cutoff The creation time before which records are deleted
+     * @return The number of database rows deleted
+     */
+    public int expireBefore(LocalDateTime cutoff) {
+        cache.asMap().values().removeIf(record -> record.getCreatedAt().isBefore(cutoff));
+        return idempotencyRecordRepository.deleteCreatedBefore(cutoff);
+    }
+
+    private void expire() {
+        try {
+            int deleted = expireBefore(LocalDateTime.now().minus(walletConfig.getIdempotencyKeyTtl()));
+            if (deleted > 0) {
+                logger.info("Expired {} idempotency records", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to expire idempotency records: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,690 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.model.IdempotencyRecord;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link WalletConfig.Engine#IN_MEMORY} engine: every balance lives in memory and the database is only a
+ * projection of it.
+ * <p>
+ * Customers are numbered in the order they are first seen, and balances and ledger counts are kept in primitive
+ * {@code long[]} tables indexed by that number. All mutations are queued on a bounded ring of
+ * {@code wallet.sequencerQueueCapacity} commands and applied one at a time by a single sequencer thread, so there is
+ * nothing to lock or retry. The sequencer takes whatever has queued up, up to {@code wallet.groupCommitMaxBatchSize}
+ * commands, appends an entry per applied mutation to the memory-mapped {@link WalletJournal}, forces the journal once
+ * for the whole batch and only then acknowledges the callers.
+ * <p>
+ * A projector thread writes journaled entries into the {@code wallets} and {@code transaction} tables through
+ * {@link JournalProjector}, so history reads lag slightly behind the engine while balance reads do not. Every
+ * {@code wallet.journalCheckpointInterval} entries the sequencer saves a checkpoint of every account and deletes the
+ * journal segments that are both checkpointed and projected. On startup the engine loads the checkpoint, replays the
+ * journal after it, and re-queues any entries that were journaled but not yet projected. A journal that has never
+ * been projected is first seeded with the wallets already in the database, so switching an existing database to this
+ * engine keeps its balances.
+ */
+@Component
+public class InMemoryWalletEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryWalletEngine.class);
+
+    private static final VarHandle LONG_ARRAY = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int INITIAL_ACCOUNTS = 1024;
+
+    private final WalletConfig walletConfig;
+    private final JournalProjector journalProjector;
+    private final IdempotencyStore idempotencyStore;
+    private final WalletJournal journal;
+    private final BlockingQueue<Command> ring;
+    private final BlockingQueue<List<JournalEntry>> projectionQueue = new LinkedBlockingQueue<>();
+    private final Map<String, Integer> accountIndex = new ConcurrentHashMap<>();
+    private final Map<IdempotencyRecord.Key, JournalEntry> unprojectedKeys = new ConcurrentHashMap<>();
+    private final int maxBatchSize;
+
+    // Written by the sequencer only; balances are published to readers through release/acquire array access
+    private volatile long[] balances = new long[INITIAL_ACCOUNTS];
+    private long[] transactionCounts = new long[INITIAL_ACCOUNTS];
+    private String[] customerIds = new String[INITIAL_ACCOUNTS];
+    private int accountCount;
+    private long lastSequence;
+    private long checkpointSequence;
+
+    private volatile long lastJournaledSequence;
+    private volatile long projectedSequence;
+    private volatile boolean running;
+    private volatile boolean projecting;
+    private Thread sequencer;
+    private Thread projector;
+
+    /**
+     * A mutation waiting for the sequencer.
+     */
+    private record Command(JournalEntry.Type type, String customerId, String counterpartCustomerId, Money amount,
+                           String idempotencyKey, CompletableFuture<JournalEntry> result) {
+    }
+
+    /**
+     * Queued by {@link #stop(boolean)} to wake the sequencer once everything queued before it has been applied. The
+     * sequencer is never interrupted, since an interrupt would close the journal's channels mid-write.
+     */
+    private static final Command STOP = new Command(null, null, null, null, null, new CompletableFuture<>());
+
+    /**
+     * Constructs a new InMemoryWalletEngine. With the in-memory engine configured, recovers its state from the journal
+     * and starts the sequencer and projector threads; otherwise the engine stays disabled.
+     *
+     * @param walletConfig The configuration for wallet operations
+     * @param journalProjector The projector writing journal entries into the database
+     * @param idempotencyStore The store of outcomes of operations sent with an idempotency key
+     * @param meterRegistry The registry to publish engine metrics to
+     */
+    @Autowired
+    public InMemoryWalletEngine(WalletConfig walletConfig, JournalProjector journalProjector, IdempotencyStore idempotencyStore,
+                                MeterRegistry meterRegistry) {
+        this.walletConfig = walletConfig;
+        this.journalProjector = journalProjector;
+        this.idempotencyStore = idempotencyStore;
+        this.maxBatchSize = Math.max(1, walletConfig.getGroupCommitMaxBatchSize());
+
+        if (walletConfig.getEngine() != WalletConfig.Engine.IN_MEMORY) {
+            this.journal = null;
+            this.ring = null;
+            return;
+        }
+
+        this.ring = new ArrayBlockingQueue<>(walletConfig.getSequencerQueueCapacity());
+        this.journal = WalletJournal.open(Path.of(walletConfig.getJournalDirectory()), (int) walletConfig.getJournalSegmentSize().toBytes());
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+
+        Gauge.builder("wallet.lanes.queued", ring, BlockingQueue::size)
+                .description("Wallet operations waiting for the in-memory sequencer")
+                .tag("mode", "sequencer")
+                .register(meterRegistry);
+        Gauge.builder("wallet.journal.unprojected", this, InMemoryWalletEngine::getUnprojectedEntries)
+                .description("Journal entries not yet projected into the database")
+                .register(meterRegistry);
+
+        running = true;
+        projecting = true;
+        sequencer = new Thread(this::runSequencer, "wallet-sequencer");
+        sequencer.setDaemon(true);
+        sequencer.start();
+        projector = new Thread(this::runProjector, "wallet-journal-projector");
+        projector.setDaemon(true);
+        projector.start();
+        logger.info("In-memory wallet engine started: journal={}, accounts={}, lastSequence={}, projectedSequence={}",
+                walletConfig.getJournalDirectory(), accountCount, lastSequence, projectedSequence);
+    }
+
+    /**
+     * Indicates whether wallet operations should be routed to this engine.
+     *
+     * @return true when the in-memory engine is configured
+     */
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Credits a customer's wallet, creating it on first use.
+     *
+     * @param customerId The ID of the customer
+     * @param amount The amount to add
+     * @param idempotencyKey The client's key for the operation, or null to always apply it
+     * @return WalletDTO representing the wallet straight after the operation
+     * @throws IllegalArgumentException if the amount is null or outside the allowed range, or the key was used
+     * for a different request
+     */
+    public WalletDTO addFunds(String customerId, BigDecimal amount, String idempotencyKey) {
+        Money credit = validateAmount(amount, walletConfig.getMinAddAmount(), walletConfig.getMaxAddAmount());
+        JournalEntry entry = submit(new Command(JournalEntry.Type.CREDIT, customerId, null, credit, validKey(idempotencyKey),
+                new CompletableFuture<>()));
+        return new WalletDTO(customerId, entry.balance().toBigDecimal());
+    }
+
+    /**
+     * Debits a customer's wallet.
+     *
+     * @param customerId The ID of the customer
+     * @param amount The amount to withdraw
+     * @param idempotencyKey The client's key for the operation, or null to always apply it
+     * @return WalletDTO representing the wallet straight after the operation
+     * @throws IllegalArgumentException if the amount is null or outside the allowed range, or the key was used
+     * for a different request
+     * @throws WalletNotFoundException if the wallet is not found
+     * @throws InsufficientFundsException if there are insufficient funds
+     */
+    public WalletDTO withdrawFunds(String customerId, BigDecimal amount, String idempotencyKey) {
+        Money debit = validateAmount(amount, walletConfig.getMinWithdrawAmount(), walletConfig.getMaxWithdrawAmount());
+        JournalEntry entry = submit(new Command(JournalEntry.Type.DEBIT, customerId, null, debit, validKey(idempotencyKey),
+                new CompletableFuture<>()));
+        return new WalletDTO(customerId, entry.balance().toBigDecimal());
+    }
+
+    /**
+     * Moves funds between two customers' wallets as one journal entry. The ledger rows only get their IDs when the
+     * entry is projected, so the result carries none.
+     *
+     * @param fromCustomerId The ID of the customer to debit
+     * @param toCustomerId The ID of the customer to credit
+     * @param amount The amount to transfer
+     * @return TransferDTO with both wallets straight after the transfer
+     * @throws IllegalArgumentException if the amount is null or outside the withdrawal range, or both customers are the same
+     * @throws WalletNotFoundException if either wallet is not found
+     * @throws InsufficientFundsException if the source wallet has insufficient funds
+     */
+    public TransferDTO transfer(String fromCustomerId, String toCustomerId, BigDecimal amount) {
+        if (fromCustomerId.equals(toCustomerId)) {
+            throw new IllegalArgumentException("Cannot transfer funds to the same wallet");
+        }
+        Money debit = validateAmount(amount, walletConfig.getMinWithdrawAmount(), walletConfig.getMaxWithdrawAmount());
+        JournalEntry entry = submit(new Command(JournalEntry.Type.TRANSFER, fromCustomerId, toCustomerId, debit, null,
+                new CompletableFuture<>()));
+        return new TransferDTO(new WalletDTO(fromCustomerId, entry.balance().toBigDecimal()),
+                new WalletDTO(toCustomerId, entry.counterpartBalance().toBigDecimal()), debit.toBigDecimal(), null, null);
+    }
+
+    /**
+     * Applies a batch of fund operations in order. Every valid operation is queued before waiting for any of them,
+     * so the batch shares journal forces with itself and with concurrent callers.
+     *
+     * @param operations The operations to apply, in order
+     * @return One result per operation, in the same order
+     */
+    public List<FundsOperationResult> applyOperations(List<FundsOperation> operations) {
+        List<CompletableFuture<JournalEntry>> futures = new ArrayList<>(operations.size());
+        for (FundsOperation operation : operations) {
+            CompletableFuture<JournalEntry> future = new CompletableFuture<>();
+            try {
+                boolean add = operation.getType() == FundsOperation.Type.ADD;
+                Money amount = add
+                        ? validateAmount(operation.getAmount(), walletConfig.getMinAddAmount(), walletConfig.getMaxAddAmount())
+                        : validateAmount(operation.getAmount(), walletConfig.getMinWithdrawAmount(), walletConfig.getMaxWithdrawAmount());
+                enqueue(new Command(add ? JournalEntry.Type.CREDIT : JournalEntry.Type.DEBIT, operation.getCustomerId(), null,
+                        amount, validKey(operation.getIdempotencyKey()), future));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            futures.add(future);
+        }
+
+        List<FundsOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            FundsOperation operation = operations.get(i);
+            try {
+                JournalEntry entry = await(futures.get(i), operation.getCustomerId());
+                results.add(FundsOperationResult.success(operation, new WalletDTO(operation.getCustomerId(), entry.balance().toBigDecimal())));
+            } catch (IllegalArgumentException | IllegalStateException | WalletNotFoundException e) {
+                results.add(FundsOperationResult.failure(operation, e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reads a customer's balance without queueing behind the sequencer. The balance may include a mutation that is
+     * still being journaled, but never one that was rejected.
+     *
+     * @param customerId The ID of the customer
+     * @return WalletDTO representing the customer's wallet
+     * @throws WalletNotFoundException if the wallet is not found
+     */
+    public WalletDTO getWallet(String customerId) {
+        Integer account = accountIndex.get(customerId);
+        if (account == null) {
+            throw new WalletNotFoundException(customerId);
+        }
+        long minorUnits = (long) LONG_ARRAY.getAcquire(balances, (int) account);
+        return new WalletDTO(customerId, Money.ofMinor(minorUnits).toBigDecimal());
+    }
+
+    /**
+     * Gets the number of journaled entries not yet written to the database, which history reads do not see yet.
+     *
+     * @return The projection lag in entries
+     */
+    public long getUnprojectedEntries() {
+        return lastJournaledSequence - projectedSequence;
+    }
+
+    /**
+     * Stops the engine abruptly, the way a crash would: queued operations fail without being applied, no checkpoint is
+     * written and the journal is left exactly as the last force left it. Used to test recovery.
+     */
+    public void halt() {
+        stop(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop(true);
+    }
+
+    private JournalEntry submit(Command command) {
+        enqueue(command);
+        return await(command.result(), command.customerId());
+    }
+
+    private void enqueue(Command command) {
+        if (!running) {
+            throw new IllegalStateException("In-memory wallet engine is shut down");
+        }
+        try {
+            ring.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing wallet operation for customer: " + command.customerId(), e);
+        }
+        // The sequencer may have stopped between the check and the put, in which case nothing will take the command
+        if (!running && ring.remove(command)) {
+            throw new IllegalStateException("In-memory wallet engine is shut down");
+        }
+    }
+
+    private JournalEntry await(CompletableFuture<JournalEntry> result, String customerId) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Wallet operation failed for customer: " + customerId, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet operation for customer: " + customerId, e);
+        }
+    }
+
+    private void runSequencer() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+        List<JournalEntry> entries = new ArrayList<>(maxBatchSize);
+        List<Object> outcomes = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        try {
+            while (!stopping) {
+                try {
+                    batch.add(ring.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                ring.drainTo(batch, maxBatchSize - 1);
+                stopping = batch.remove(STOP);
+
+                for (Command command : batch) {
+                    try {
+                        JournalEntry entry = apply(command);
+                        if (entry.sequence() > 0) {
+                            entries.add(entry);
+                        }
+                        outcomes.add(entry);
+                    } catch (RuntimeException e) {
+                        outcomes.add(e);
+                    }
+                }
+
+                try {
+                    journal.force();
+                } catch (RuntimeException e) {
+                    // Memory is already ahead of the journal, so nothing can be acknowledged safely from here on
+                    logger.error("Failed to force wallet journal, stopping the in-memory engine", e);
+                    batch.forEach(command -> command.result().completeExceptionally(e));
+                    running = false;
+                    break;
+                }
+                lastJournaledSequence = lastSequence;
+                for (int i = 0; i < batch.size(); i++) {
+                    Object outcome = outcomes.get(i);
+                    if (outcome instanceof JournalEntry entry) {
+                        batch.get(i).result().complete(entry);
+                    } else {
+                        batch.get(i).result().completeExceptionally((RuntimeException) outcome);
+                    }
+                }
+                if (!entries.isEmpty()) {
+                    projectionQueue.add(new ArrayList<>(entries));
+                }
+                batch.clear();
+                entries.clear();
+                outcomes.clear();
+
+                if (lastSequence - checkpointSequence >= walletConfig.getJournalCheckpointInterval()) {
+                    try {
+                        checkpoint();
+                    } catch (RuntimeException e) {
+                        // The journal still holds every entry, so recovery only has more to replay
+                        logger.warn("Failed to checkpoint wallet journal, will retry at the next interval", e);
+                    }
+                }
+            }
+        } finally {
+            // Whatever stopped the loop, no caller may be left waiting on a command that will never be applied
+            running = false;
+            ring.drainTo(batch);
+            IllegalStateException shutdown = new IllegalStateException("In-memory wallet engine is shut down");
+            batch.forEach(command -> command.result().completeExceptionally(shutdown));
+        }
+    }
+
+    /**
+     * Applies one command to the in-memory tables and appends its journal entry, or returns the original entry of an
+     * idempotent resend. The entry is appended before any table is changed, so a rejected append changes nothing.
+     */
+    private JournalEntry apply(Command command) {
+        if (command.idempotencyKey() != null) {
+            JournalEntry original = replay(command);
+            if (original != null) {
+                return original;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long amount = command.amount().getMinorUnits();
+        switch (command.type()) {
+            case CREDIT -> {
+                Integer existing = accountIndex.get(command.customerId());
+                long balance = Math.addExact(existing != null ? balances[existing] : 0, amount);
+                JournalEntry entry = JournalEntry.credit(lastSequence + 1, now, command.customerId(), command.amount(),
+                        Money.ofMinor(balance), command.idempotencyKey());
+                journal.append(entry);
+                applied(entry);
+                return entry;
+            }
+            case DEBIT -> {
+                int account = existingAccount(command.customerId());
+                if (balances[account] < amount) {
+                    throw new InsufficientFundsException(command.customerId());
+                }
+                JournalEntry entry = JournalEntry.debit(lastSequence + 1, now, command.customerId(), command.amount(),
+                        Money.ofMinor(balances[account] - amount), command.idempotencyKey());
+                journal.append(entry);
+                applied(entry);
+                return entry;
+            }
+            default -> {
+                int source = existingAccount(command.customerId());
+                int target = existingAccount(command.counterpartCustomerId());
+                if (balances[source] < amount) {
+                    throw new InsufficientFundsException(command.customerId());
+                }
+                JournalEntry entry = JournalEntry.transfer(lastSequence + 1, now, command.customerId(), command.counterpartCustomerId(),
+                        command.amount(), Money.ofMinor(balances[source] - amount), Money.ofMinor(Math.addExact(balances[target], amount)));
+                journal.append(entry);
+                applied(entry);
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Finds the outcome of an earlier command with the same idempotency key: first among entries not yet projected,
+     * then in the {@link IdempotencyStore}, which the projector fills before those entries are forgotten here.
+     * A stored outcome is answered with an entry of sequence 0, which is never journaled.
+     */
+    private JournalEntry replay(Command command) {
+        Transaction.TransactionType type = command.type() == JournalEntry.Type.CREDIT
+                ? Transaction.TransactionType.CREDIT
+                : Transaction.TransactionType.DEBIT;
+        JournalEntry original = unprojectedKeys.get(new IdempotencyRecord.Key(command.customerId(), command.idempotencyKey()));
+        if (original != null) {
+            if (original.type() != command.type() || !original.amount().equals(command.amount())) {
+                throw new IllegalArgumentException("Idempotency key " + command.idempotencyKey() + " was already used for a different request");
+            }
+            return original;
+        }
+        Optional<WalletDTO> stored = idempotencyStore.replay(command.customerId(), command.idempotencyKey(), type,
+                command.amount().toBigDecimal());
+        return stored.map(wallet -> new JournalEntry(0, null, command.type(), command.customerId(), command.amount(),
+                        Money.of(wallet.getBalance()), null, null, command.idempotencyKey()))
+                .orElse(null);
+    }
+
+    /**
+     * Brings the in-memory tables up to date with a journaled entry.
+     */
+    private void applied(JournalEntry entry) {
+        setBalance(account(entry.customerId()), entry.balance());
+        if (entry.counterpartCustomerId() != null) {
+            setBalance(account(entry.counterpartCustomerId()), entry.counterpartBalance());
+        }
+        if (entry.idempotencyKey() != null) {
+            unprojectedKeys.put(new IdempotencyRecord.Key(entry.customerId(), entry.idempotencyKey()), entry);
+        }
+        lastSequence = entry.sequence();
+    }
+
+    private void setBalance(int account, Money balance) {
+        LONG_ARRAY.setRelease(balances, account, balance.getMinorUnits());
+        transactionCounts[account]++;
+    }
+
+    private int existingAccount(String customerId) {
+        Integer account = accountIndex.get(customerId);
+        if (account == null) {
+            throw new WalletNotFoundException(customerId);
+        }
+        return account;
+    }
+
+    /**
+     * Returns the customer's account number, allocating the next one on first use. The tables are grown and
+     * republished before the number becomes visible to readers.
+     */
+    private int account(String customerId) {
+        Integer existing = accountIndex.get(customerId);
+        if (existing != null) {
+            return existing;
+        }
+        int account = accountCount++;
+        if (account == customerIds.length) {
+            int capacity = customerIds.length * 2;
+            transactionCounts = Arrays.copyOf(transactionCounts, capacity);
+            customerIds = Arrays.copyOf(customerIds, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+        }
+        customerIds[account] = customerId;
+        accountIndex.put(customerId, account);
+        return account;
+    }
+
+    /**
+     * Saves every account's state at the last journaled entry, then drops the journal segments no longer needed
+     * for either recovery or projection.
+     */
+    private void checkpoint() {
+        List<WalletJournal.AccountState> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(new WalletJournal.AccountState(customerIds[i], Money.ofMinor(balances[i]), transactionCounts[i]));
+        }
+        journal.writeCheckpoint(new WalletJournal.Checkpoint(lastSequence, accounts));
+        checkpointSequence = lastSequence;
+        int deleted = journal.deleteSegmentsThrough(Math.min(checkpointSequence, projectedSequence));
+        logger.info("Wallet journal checkpointed: sequence={}, accounts={}, segmentsDeleted={}", checkpointSequence, accountCount, deleted);
+    }
+
+    /**
+     * Loads the checkpoint, or seeds a new one from the database, replays the journal after it and queues every entry
+     * not yet projected.
+     */
+    private void recover() {
+        WalletJournal.Checkpoint checkpoint = journal.readCheckpoint();
+        if (checkpoint == null && journalProjector.getProjectedSequence(journal.getId()) == 0) {
+            // A journal that has never been projected starts from the wallets already in the database, saved at once
+            // as its first checkpoint so that later restarts do not read them again over projected entries
+            checkpoint = new WalletJournal.Checkpoint(0, journalProjector.loadAccounts());
+            journal.writeCheckpoint(checkpoint);
+        }
+        if (checkpoint != null) {
+            for (WalletJournal.AccountState state : checkpoint.accounts()) {
+                int account = account(state.customerId());
+                balances[account] = state.balance().getMinorUnits();
+                transactionCounts[account] = state.transactionCount();
+            }
+            checkpointSequence = checkpoint.sequence();
+        }
+        lastSequence = checkpointSequence;
+        projectedSequence = journalProjector.getProjectedSequence(journal.getId());
+        if (projectedSequence + 1 < journal.getFirstSequence()) {
+            throw new IllegalStateException("Wallet journal " + journal.getId() + " starts at entry " + journal.getFirstSequence()
+                    + " but the database has only been projected up to entry " + projectedSequence);
+        }
+
+        List<JournalEntry> unprojected = new ArrayList<>();
+        journal.replay(Math.min(checkpointSequence, projectedSequence), entry -> {
+            if (entry.sequence() > checkpointSequence) {
+                applied(entry);
+            }
+            if (entry.sequence() > projectedSequence) {
+                unprojected.add(entry);
+                if (entry.idempotencyKey() != null) {
+                    unprojectedKeys.put(new IdempotencyRecord.Key(entry.customerId(), entry.idempotencyKey()), entry);
+                }
+            }
+        });
+        lastJournaledSequence = lastSequence;
+        if (!unprojected.isEmpty()) {
+            projectionQueue.add(unprojected);
+        }
+        logger.info("In-memory wallet engine recovered: checkpointSequence={}, replayedTo={}, unprojected={}",
+                checkpointSequence, lastSequence, unprojected.size());
+    }
+
+    private void runProjector() {
+        List<JournalEntry> entries = new ArrayList<>();
+        while (projecting || !projectionQueue.isEmpty()) {
+            if (entries.isEmpty()) {
+                try {
+                    List<JournalEntry> next = projectionQueue.poll(100, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        continue;
+                    }
+                    entries.addAll(next);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                List<List<JournalEntry>> more = new ArrayList<>();
+                projectionQueue.drainTo(more);
+                more.forEach(entries::addAll);
+            }
+            try {
+                journalProjector.project(journal.getId(), entries);
+            } catch (RuntimeException e) {
+                // Entries must be projected in order, so the same run is retried until it goes through
+                logger.warn("Failed to project {} wallet journal entries, retrying: {}", entries.size(), e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                continue;
+            }
+            projectedSequence = entries.get(entries.size() - 1).sequence();
+            for (JournalEntry entry : entries) {
+                if (entry.idempotencyKey() != null) {
+                    unprojectedKeys.remove(new IdempotencyRecord.Key(entry.customerId(), entry.idempotencyKey()), entry);
+                }
+            }
+            entries.clear();
+        }
+    }
+
+    private void stop(boolean graceful) {
+        if (journal == null || !running && !projecting) {
+            return;
+        }
+        running = false;
+        wakeSequencer();
+        joinQuietly(sequencer);
+        if (graceful) {
+            journal.force();
+            if (lastSequence > checkpointSequence) {
+                checkpoint();
+            }
+            projecting = false;
+            joinQuietly(projector);
+            journal.close();
+        } else {
+            // A projection already running is left to commit or roll back as a whole
+            projectionQueue.clear();
+            projecting = false;
+            joinQuietly(projector);
+        }
+        logger.info("In-memory wallet engine stopped: lastSequence={}, projectedSequence={}, graceful={}",
+                lastSequence, projectedSequence, graceful);
+    }
+
+    /**
+     * Queues {@link #STOP} behind every command already queued, waiting for room while the sequencer drains the ring.
+     */
+    private void wakeSequencer() {
+        try {
+            while (sequencer.isAlive() && !ring.offer(STOP, 100, TimeUnit.MILLISECONDS)) {
+                // The ring is full; the sequencer frees room with every batch it takes
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String validKey(String idempotencyKey) {
+        if (idempotencyKey != null) {
+            IdempotencyStore.validateKey(idempotencyKey);
+        }
+        return idempotencyKey;
+    }
+
+    private static Money validateAmount(BigDecimal amount, Money min, Money max) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        Money money = Money.of(amount);
+        if (money.isLessThan(min) || money.isGreaterThan(max)) {
+            throw new IllegalArgumentException(String.format("Amount must be between £%s and £%s", min, max));
+        }
+        return money;
+    }
+}
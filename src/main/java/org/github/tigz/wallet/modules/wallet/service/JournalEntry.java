@@ -0,0 +1,47 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * One applied mutation in the in-memory engine's journal, carrying the balances it left behind so that replay and
+ * projection never have to recompute them.
+ * For a {@link Type#TRANSFER} the customer is the debited side and the counterpart the credited side; other entries
+ * have no counterpart.
+ *
+ * @param sequence The position of the entry in the journal, starting at 1 with no gaps
+ * @param timestamp When the mutation was applied
+ * @param type The kind of mutation
+ * @param customerId The customer credited or debited, or the source of a transfer
+ * @param amount The amount of the mutation
+ * @param balance The customer's balance straight after the mutation
+ * @param counterpartCustomerId The target of a transfer, otherwise null
+ * @param counterpartBalance The target's balance straight after a transfer, otherwise null
+ * @param idempotencyKey The client's key for a credit or debit, or null
+ */
+public record JournalEntry(long sequence, LocalDateTime timestamp, Type type, String customerId, Money amount, Money balance,
+                           String counterpartCustomerId, Money counterpartBalance, String idempotencyKey) {
+
+    /**
+     * The kind of mutation recorded by a journal entry.
+     */
+    public enum Type {
+        CREDIT, DEBIT, TRANSFER
+    }
+
+    public static JournalEntry credit(long sequence, LocalDateTime timestamp, String customerId, Money amount, Money balance,
+                                      String idempotencyKey) {
+        return new JournalEntry(sequence, timestamp, Type.CREDIT, customerId, amount, balance, null, null, idempotencyKey);
+    }
+
+    public static JournalEntry debit(long sequence, LocalDateTime timestamp, String customerId, Money amount, Money balance,
+                                     String idempotencyKey) {
+        return new JournalEntry(sequence, timestamp, Type.DEBIT, customerId, amount, balance, null, null, idempotencyKey);
+    }
+
+    public static JournalEntry transfer(long sequence, LocalDateTime timestamp, String fromCustomerId, String toCustomerId,
+                                        Money amount, Money fromBalance, Money toBalance) {
+        return new JournalEntry(sequence, timestamp, Type.TRANSFER, fromCustomerId, amount, fromBalance, toCustomerId, toBalance, null);
+    }
+}
@@ -0,0 +1,179 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.JournalProjection;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.github.tigz.wallet.modules.wallet.repository.JournalProjectionRepository;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
+import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import org.github.tigz.wallet.modules.wallet.repository.WalletSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes journal entries of the in-memory engine into the {@code wallets} and {@code transaction} tables, so that
+ * history queries, exports and anything else reading the database see the engine's mutations.
+ * Each call projects a run of consecutive entries in one transaction together with the journal's projected position,
+ * so entries are projected exactly once even when a restarted engine replays some of them again. Wallet balances are
+ * copied from the entries rather than recomputed, and the daily rollups are updated in the same transaction.
+ */
+@Component
+public class JournalProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalProjector.class);
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final JournalProjectionRepository journalProjectionRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final WalletRollups walletRollups;
+    private final WalletSnapshotRepository walletSnapshotRepository;
+
+    /**
+     * Constructs a new JournalProjector.
+     *
+     * @param walletRepository The repository for wallet data
+     * @param transactionRepository The repository for transaction data
+     * @param journalProjectionRepository The repository of projected journal positions
+     * @param idempotencyStore The store of outcomes of operations sent with an idempotency key
+     * @param walletRollups The daily credit and debit totals kept in step with every ledger insert
+     * @param walletSnapshotRepository The repository for snapshots of the event-sourced engine
+     */
+    @Autowired
+    public JournalProjector(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                            JournalProjectionRepository journalProjectionRepository, IdempotencyStore idempotencyStore,
+                            WalletRollups walletRollups, WalletSnapshotRepository walletSnapshotRepository) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.journalProjectionRepository = journalProjectionRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.walletRollups = walletRollups;
+        this.walletSnapshotRepository = walletSnapshotRepository;
+    }
+
+    /**
+     * Reads every wallet's balance and transaction count, to seed an engine whose journal has never written to the
+     * database. Projected entries overwrite wallet balances, so an engine that started from zero would lose them.
+     *
+     * @return The state of every wallet
+     * @throws IllegalStateException if a wallet is sharded or the event-sourced engine has written snapshots, since
+     * the wallet row then does not hold the whole balance
+     */
+    @Transactional(readOnly = true)
+    public List<WalletJournal.AccountState> loadAccounts() {
+        if (walletSnapshotRepository.count() > 0) {
+            throw new IllegalStateException("The database holds event-sourced wallet snapshots, whose balances are not on the wallet rows");
+        }
+        List<WalletJournal.AccountState> accounts = new ArrayList<>();
+        for (Wallet wallet : walletRepository.findAll()) {
+            if (wallet.isSharded()) {
+                throw new IllegalStateException("Wallet for customer " + wallet.getCustomerId() + " is sharded; unshard wallets before switching to the in-memory engine");
+            }
+            accounts.add(new WalletJournal.AccountState(wallet.getCustomerId(), wallet.getBalance(), wallet.getTransactionCount()));
+        }
+        return accounts;
+    }
+
+    /**
+     * Gets the sequence of the last entry of a journal projected into the database.
+     *
+     * @param journalId The ID of the journal
+     * @return The last projected sequence, or 0 if nothing has been projected
+     */
+    public long getProjectedSequence(String journalId) {
+        return journalProjectionRepository.findById(journalId)
+                .map(JournalProjection::getLastSequence)
+                .orElse(0L);
+    }
+
+    /**
+     * Projects entries that directly follow the journal's projected position. Entries at or before it are skipped.
+     *
+     * @param journalId The ID of the journal
+     * @param entries The entries to project, in sequence order
+     */
+    @Transactional
+    public void project(String journalId, List<JournalEntry> entries) {
+        JournalProjection projection = journalProjectionRepository.findById(journalId)
+                .orElseGet(() -> new JournalProjection(journalId, 0));
+        long lastSequence = projection.getLastSequence();
+
+        Set<String> customerIds = new HashSet<>();
+        for (JournalEntry entry : entries) {
+            customerIds.add(entry.customerId());
+            if (entry.counterpartCustomerId() != null) {
+                customerIds.add(entry.counterpartCustomerId());
+            }
+        }
+        Map<String, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByCustomerIdIn(customerIds)) {
+            wallets.put(wallet.getCustomerId(), wallet);
+        }
+
+        int projected = 0;
+        List<Transaction> ledgerRows = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            if (entry.sequence() <= lastSequence) {
+                continue;
+            }
+            if (entry.sequence() != lastSequence + 1) {
+                throw new IllegalStateException("Journal " + journalId + " entry " + entry.sequence() + " does not follow " + lastSequence);
+            }
+            Wallet wallet = wallet(wallets, entry.customerId());
+            if (entry.type() == JournalEntry.Type.TRANSFER) {
+                Transaction debitRow = ledgerRow(wallet, entry, entry.balance(), Transaction.TransactionType.DEBIT);
+                Transaction creditRow = ledgerRow(wallet(wallets, entry.counterpartCustomerId()), entry,
+                        entry.counterpartBalance(), Transaction.TransactionType.CREDIT);
+                transactionRepository.save(debitRow);
+                creditRow.setCounterpartId(debitRow.getId());
+                transactionRepository.save(creditRow);
+                debitRow.setCounterpartId(creditRow.getId());
+                ledgerRows.add(debitRow);
+                ledgerRows.add(creditRow);
+            } else {
+                Transaction.TransactionType type = entry.type() == JournalEntry.Type.CREDIT
+                        ? Transaction.TransactionType.CREDIT
+                        : Transaction.TransactionType.DEBIT;
+                Transaction ledgerRow = ledgerRow(wallet, entry, entry.balance(), type);
+                transactionRepository.save(ledgerRow);
+                ledgerRows.add(ledgerRow);
+                if (entry.idempotencyKey() != null) {
+                    idempotencyStore.record(entry.customerId(), entry.idempotencyKey(), type, entry.amount(), entry.balance());
+                }
+            }
+            lastSequence = entry.sequence();
+            projected++;
+        }
+
+        walletRollups.recordAll(ledgerRows);
+        projection.setLastSequence(lastSequence);
+        journalProjectionRepository.save(projection);
+        logger.debug("Journal projected: journalId={}, entries={}, lastSequence={}", journalId, projected, lastSequence);
+    }
+
+    private Wallet wallet(Map<String, Wallet> wallets, String customerId) {
+        return wallets.computeIfAbsent(customerId, id -> walletRepository.save(new Wallet(id, Money.ZERO)));
+    }
+
+    /**
+     * Creates the ledger row of an entry and brings the wallet row up to the balance the entry left behind.
+     */
+    private Transaction ledgerRow(Wallet wallet, JournalEntry entry, Money balance, Transaction.TransactionType type) {
+        wallet.setBalance(balance);
+        wallet.setTransactionCount(wallet.getTransactionCount() + 1);
+        Transaction transaction = new Transaction(wallet, entry.amount(), type);
+        transaction.setTimestamp(entry.timestamp());
+        return transaction;
+    }
+}
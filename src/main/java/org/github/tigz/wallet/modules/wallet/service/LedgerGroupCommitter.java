@@ -0,0 +1,164 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for fund operations.
+ * In {@link WalletConfig.ConcurrencyMode#GROUP_COMMIT} mode, callers enqueue operations onto a
+ * lane chosen by customer ID. Each lane has one flusher thread. It takes everything queued since its
+ * last commit, up to the configured batch size, and applies it through
+ * {@link WalletService#applyOperations} in a single transaction, so the ledger inserts go out as one
+ * JDBC batch. Callers are released only after the transaction for their batch has committed.
+ */
+@Component
+public class LedgerGroupCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerGroupCommitter.class);
+
+    private final WalletService walletService;
+    private final int maxBatchSize;
+    private final List<BlockingQueue<PendingOperation>> queues = new ArrayList<>();
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private record PendingOperation(FundsOperation operation, CompletableFuture<FundsOperationResult> result) {
+    }
+
+    /**
+     * Constructs a new LedgerGroupCommitter, starting one flusher per lane in group-commit mode.
+     *
+     * @param walletService The service used to apply each batch
+     * @param walletConfig The configuration for wallet operations
+     */
+    @Autowired
+    public LedgerGroupCommitter(WalletService walletService, WalletConfig walletConfig) {
+        this.walletService = walletService;
+        this.maxBatchSize = Math.max(1, walletConfig.getGroupCommitMaxBatchSize());
+
+        if (walletConfig.getConcurrencyMode() == WalletConfig.ConcurrencyMode.GROUP_COMMIT) {
+            int stripes = CustomerLaneExecutor.stripeCount(walletConfig);
+            for (int i = 0; i < stripes; i++) {
+                BlockingQueue<PendingOperation> queue = new LinkedBlockingQueue<>();
+                Thread flusher = new Thread(() -> runFlusher(queue), "wallet-group-commit-" + i);
+                flusher.setDaemon(true);
+                queues.add(queue);
+                flushers.add(flusher);
+                flusher.start();
+            }
+            logger.info("Group commit enabled with {} lanes, maxBatchSize={}", stripes, maxBatchSize);
+        }
+    }
+
+    /**
+     * Indicates whether fund operations should be routed through the group committer.
+     *
+     * @return true in group-commit mode
+     */
+    public boolean isEnabled() {
+        return !queues.isEmpty();
+    }
+
+    /**
+     * Queues an operation and waits until the batch containing it has committed.
+     *
+     * @param operation The operation to apply
+     * @return WalletDTO representing the wallet straight after the operation
+     * @throws IllegalArgumentException if the amount is null or outside the allowed range
+     * @throws org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException if there are insufficient funds
+     * @throws org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException if withdrawing from a missing wallet
+     */
+    public WalletDTO submit(FundsOperation operation) {
+        if (!running) {
+            throw new IllegalStateException("Group committer is shut down");
+        }
+
+        CompletableFuture<FundsOperationResult> result = new CompletableFuture<>();
+        queues.get(CustomerLaneExecutor.laneIndex(operation.getCustomerId(), queues.size()))
+                .add(new PendingOperation(operation, result));
+        try {
+            return result.get().getOrThrow();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Group commit failed for customer: " + operation.getCustomerId(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit for customer: " + operation.getCustomerId(), e);
+        }
+    }
+
+    /**
+     * Returns the number of operations queued for the next batch on every lane.
+     *
+     * @return The total queued operations, always 0 outside group-commit mode
+     */
+    public int getQueuedOperations() {
+        int queued = 0;
+        for (BlockingQueue<PendingOperation> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    private void runFlusher(BlockingQueue<PendingOperation> queue) {
+        List<PendingOperation> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            flush(batch);
+            batch.clear();
+        }
+
+        queue.drainTo(batch);
+        IllegalStateException shutdown = new IllegalStateException("Group committer is shut down");
+        batch.forEach(pending -> pending.result().completeExceptionally(shutdown));
+    }
+
+    private void flush(List<PendingOperation> batch) {
+        List<FundsOperation> operations = new ArrayList<>(batch.size());
+        for (PendingOperation pending : batch) {
+            operations.add(pending.operation());
+        }
+
+        try {
+            List<FundsOperationResult> results = walletService.applyOperations(operations);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} operations failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.interrupt();
+        }
+        for (Thread flusher : flushers) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package org.github.tigz.wallet.modules.wallet.service;
 
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.common.dto.SliceDTO;
 import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
 import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -11,48 +16,201 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+/**
+ * Entry point for wallet operations from the controllers. Routes writes through the configured concurrency mode
+ * and retries calls that fail with a conflict, using the policy defined in
+ * {@link org.github.tigz.wallet.modules.wallet.config.WalletRetryConfig}.
+ * Every attempt is timed through {@link WalletOperationMetrics}, so conflicting attempts show up as
+ * {@code lock_conflict} outcomes alongside the attempt that finally succeeded.
+ * With the {@link InMemoryWalletEngine} enabled, writes and balance reads go to it instead, and only history reads
+ * still come from the database.
+ */
 @Service
 public class RetryableWalletService {
 
     private static final Logger logger = LoggerFactory.getLogger(RetryableWalletService.class);
 
     private final WalletService walletService;
+    private final CustomerLaneExecutor customerLaneExecutor;
+    private final LedgerGroupCommitter ledgerGroupCommitter;
+    private final WalletOperationMetrics walletOperationMetrics;
+    private final IdempotencyStore idempotencyStore;
+    private final InMemoryWalletEngine inMemoryWalletEngine;
 
     @Autowired
-    public RetryableWalletService(WalletService walletService) {
+    public RetryableWalletService(WalletService walletService, CustomerLaneExecutor customerLaneExecutor,
+                                  LedgerGroupCommitter ledgerGroupCommitter, WalletOperationMetrics walletOperationMetrics,
+                                  IdempotencyStore idempotencyStore, InMemoryWalletEngine inMemoryWalletEngine) {
         this.walletService = walletService;
+        this.customerLaneExecutor = customerLaneExecutor;
+        this.ledgerGroupCommitter = ledgerGroupCommitter;
+        this.walletOperationMetrics = walletOperationMetrics;
+        this.idempotencyStore = idempotencyStore;
+        this.inMemoryWalletEngine = inMemoryWalletEngine;
     }
 
-    @Retryable(maxAttempts = 3)
+    @Retryable(interceptor = "walletRetryInterceptor")
     public WalletDTO addFunds(String customerId, BigDecimal amount) {
         logger.debug("Attempting to add funds (creating wallet if not exists): customerId={}, amount={}", customerId, amount);
-        WalletDTO result = walletService.addFunds(customerId, amount);
+        WalletDTO result = walletOperationMetrics.record("addFunds", customerId,
+                () -> applyOnce(FundsOperation.add(customerId, amount), () -> walletService.addFunds(customerId, amount)));
         logger.debug("Funds added successfully: customerId={}, newBalance={}", customerId, result.getBalance());
         return result;
     }
 
-    @Retryable(maxAttempts = 3)
+    /**
+     * Adds funds at most once per idempotency key. A request whose key was already used returns the original result,
+     * including when a concurrent request with the same key wins the race to apply it.
+     */
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public WalletDTO addFunds(String customerId, BigDecimal amount, String idempotencyKey) {
+        logger.debug("Attempting to add funds (creating wallet if not exists): customerId={}, amount={}", customerId, amount);
+        WalletDTO result = walletOperationMetrics.record("addFunds", customerId,
+                () -> applyOnce(new FundsOperation(customerId, FundsOperation.Type.ADD, amount, idempotencyKey),
+                        () -> walletService.addFunds(customerId, amount, idempotencyKey)));
+        logger.debug("Funds added successfully: customerId={}, newBalance={}", customerId, result.getBalance());
+        return result;
+    }
+
+    @Retryable(interceptor = "walletRetryInterceptor")
     public WalletDTO withdrawFunds(String customerId, BigDecimal amount) {
         logger.debug("Attempting to withdraw funds: customerId={}, amount={}", customerId, amount);
-        WalletDTO result = walletService.withdrawFunds(customerId, amount);
+        WalletDTO result = walletOperationMetrics.record("withdrawFunds", customerId,
+                () -> applyOnce(FundsOperation.withdraw(customerId, amount), () -> walletService.withdrawFunds(customerId, amount)));
+        logger.debug("Funds withdrawn successfully: customerId={}, newBalance={}", customerId, result.getBalance());
+        return result;
+    }
+
+    /**
+     * Withdraws funds at most once per idempotency key. A request whose key was already used returns the original
+     * result, including when a concurrent request with the same key wins the race to apply it.
+     */
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public WalletDTO withdrawFunds(String customerId, BigDecimal amount, String idempotencyKey) {
+        logger.debug("Attempting to withdraw funds: customerId={}, amount={}", customerId, amount);
+        WalletDTO result = walletOperationMetrics.record("withdrawFunds", customerId,
+                () -> applyOnce(new FundsOperation(customerId, FundsOperation.Type.WITHDRAW, amount, idempotencyKey),
+                        () -> walletService.withdrawFunds(customerId, amount, idempotencyKey)));
         logger.debug("Funds withdrawn successfully: customerId={}, newBalance={}", customerId, result.getBalance());
         return result;
     }
 
-    @Retryable(maxAttempts = 3)
+    /**
+     * Transfers funds between two wallets in one transaction. Runs on the calling thread rather than a writer lane,
+     * since it touches two customers; lock timeouts and conflicts with lane writers are retried like any other.
+     */
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public TransferDTO transfer(String fromCustomerId, String toCustomerId, BigDecimal amount) {
+        logger.debug("Attempting transfer: from={}, to={}, amount={}", fromCustomerId, toCustomerId, amount);
+        TransferDTO result = walletOperationMetrics.record("transfer", fromCustomerId,
+                () -> inMemoryWalletEngine.isEnabled()
+                        ? inMemoryWalletEngine.transfer(fromCustomerId, toCustomerId, amount)
+                        : walletService.transfer(fromCustomerId, toCustomerId, amount));
+        logger.debug("Transfer completed: from={}, to={}, fromBalance={}", fromCustomerId, toCustomerId, result.getFrom().getBalance());
+        return result;
+    }
+
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public List<FundsOperationResult> applyOperations(List<FundsOperation> operations) {
+        logger.debug("Applying batch of fund operations: size={}", operations.size());
+        List<FundsOperationResult> results = walletOperationMetrics.record("applyOperations", null,
+                () -> inMemoryWalletEngine.isEnabled()
+                        ? inMemoryWalletEngine.applyOperations(operations)
+                        : walletService.applyOperations(operations));
+        logger.debug("Batch of fund operations applied: size={}", operations.size());
+        return results;
+    }
+
+    @Retryable(interceptor = "walletRetryInterceptor")
     public PageDTO<TransactionDTO> getTransactions(String customerId, Pageable pageable) {
         logger.debug("Fetching transactions: customerId={}, page={}, size={}", customerId, pageable.getPageNumber(), pageable.getPageSize());
-        PageDTO<TransactionDTO> result = walletService.getTransactions(customerId, pageable);
+        PageDTO<TransactionDTO> result = walletOperationMetrics.record("getTransactions", customerId,
+                () -> walletService.getTransactions(customerId, pageable));
         logger.debug("Transactions fetched: customerId={}, totalElements={}", customerId, result.getTotalElements());
         return result;
     }
 
-    @Retryable(maxAttempts = 3)
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public SliceDTO<TransactionDTO> getTransactionSlice(String customerId, Pageable pageable) {
+        logger.debug("Fetching transaction slice: customerId={}, page={}, size={}", customerId, pageable.getPageNumber(), pageable.getPageSize());
+        SliceDTO<TransactionDTO> result = walletOperationMetrics.record("getTransactionSlice", customerId,
+                () -> walletService.getTransactionSlice(customerId, pageable));
+        logger.debug("Transaction slice fetched: customerId={}, hasNext={}", customerId, result.isHasNext());
+        return result;
+    }
+
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public CursorPageDTO<TransactionDTO> getTransactionsByCursor(String customerId, String cursor, int size) {
+        logger.debug("Fetching transactions by cursor: customerId={}, cursor={}, size={}", customerId, cursor, size);
+        CursorPageDTO<TransactionDTO> result = walletOperationMetrics.record("getTransactionsByCursor", customerId,
+                () -> walletService.getTransactionsByCursor(customerId, cursor, size));
+        logger.debug("Transactions fetched by cursor: customerId={}, count={}", customerId, result.getContent().size());
+        return result;
+    }
+
+    @Retryable(interceptor = "walletRetryInterceptor")
     public WalletDTO getWallet(String customerId) {
         logger.debug("Fetching wallet: customerId={}", customerId);
-        WalletDTO result = walletService.getWallet(customerId);
+        WalletDTO result = walletOperationMetrics.record("getWallet", customerId,
+                () -> inMemoryWalletEngine.isEnabled() ? inMemoryWalletEngine.getWallet(customerId) : walletService.getWallet(customerId));
         logger.debug("Wallet fetched: customerId={}, balance={}", customerId, result.getBalance());
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Splits a wallet's balance across shard rows, or folds them back with a count of 0. Runs on the calling thread:
+     * it locks the wallet row, so lane writers and shard writers simply wait for it, and any that read the old layout
+     * fail and are retried.
+     */
+    @Retryable(interceptor = "walletRetryInterceptor")
+    public WalletDTO setShards(String customerId, int shardCount) {
+        logger.debug("Resharding wallet: customerId={}, shards={}", customerId, shardCount);
+        if (inMemoryWalletEngine.isEnabled()) {
+            throw new IllegalArgumentException("Sharded balances are not supported by the IN_MEMORY engine");
+        }
+        WalletDTO result = walletOperationMetrics.record("setShards", customerId, () -> walletService.setShards(customerId, shardCount));
+        logger.debug("Wallet resharded: customerId={}, shards={}", customerId, shardCount);
+        return result;
+    }
+
+    /**
+     * Routes a single fund operation through the configured concurrency mode. With an idempotency key, an earlier
+     * outcome is answered from the {@link IdempotencyStore} before queueing, and a duplicate key rejected by the
+     * database means a concurrent request applied it first, so its outcome is returned instead.
+     * The in-memory engine checks idempotency keys on its sequencer, so operations are handed to it directly.
+     */
+    private WalletDTO applyOnce(FundsOperation operation, Supplier<WalletDTO> apply) {
+        String customerId = operation.getCustomerId();
+        String idempotencyKey = operation.getIdempotencyKey();
+        if (inMemoryWalletEngine.isEnabled()) {
+            return operation.getType() == FundsOperation.Type.ADD
+                    ? inMemoryWalletEngine.addFunds(customerId, operation.getAmount(), idempotencyKey)
+                    : inMemoryWalletEngine.withdrawFunds(customerId, operation.getAmount(), idempotencyKey);
+        }
+        Transaction.TransactionType type = operation.getType() == FundsOperation.Type.ADD
+                ? Transaction.TransactionType.CREDIT
+                : Transaction.TransactionType.DEBIT;
+        if (idempotencyKey != null) {
+            IdempotencyStore.validateKey(idempotencyKey);
+            Optional<WalletDTO> replay = idempotencyStore.replay(customerId, idempotencyKey, type, operation.getAmount());
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
+
+        try {
+            return ledgerGroupCommitter.isEnabled()
+                    ? ledgerGroupCommitter.submit(operation)
+                    : customerLaneExecutor.execute(customerId, apply);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return idempotencyStore.replay(customerId, idempotencyKey, type, operation.getAmount()).orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.dto.PeriodSummaryDTO;
+import org.github.tigz.wallet.modules.wallet.dto.StatementSummaryDTO;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.repository.WalletDailyRollupRepository;
+import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service class for summarising a customer's credits and debits over a range of days.
+ * Summaries are answered from the daily rollups maintained alongside the ledger, so their cost grows with the number
+ * of days covered rather than the number of transactions in them.
+ */
+@Service
+public class StatementSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementSummaryService.class);
+
+    /**
+     * The longest range a single summary may cover, in days.
+     */
+    static final long MAX_RANGE_DAYS = 3660;
+
+    private final WalletRepository walletRepository;
+    private final WalletDailyRollupRepository walletDailyRollupRepository;
+
+    /**
+     * The periods a summary can be broken down into. Weeks start on Monday; every period is clipped to the summary's
+     * range, so the first and last may be partial.
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH, YEAR;
+
+        /**
+         * Parses a granularity name, ignoring case.
+         *
+         * @param name The name of the granularity
+         * @return The matching granularity
+         * @throws IllegalArgumentException if the granularity is not supported
+         */
+        public static Granularity of(String name) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(name)) {
+                    return granularity;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported granularity: " + name + ". Use day, week, month or year");
+        }
+
+        /**
+         * Returns the first day of the period containing a day.
+         */
+        LocalDate periodStart(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+            };
+        }
+
+        /**
+         * Returns the last day of the period starting on a day.
+         */
+        LocalDate periodEnd(LocalDate start) {
+            return switch (this) {
+                case DAY -> start;
+                case WEEK -> start.plusDays(6);
+                case MONTH -> start.with(TemporalAdjusters.lastDayOfMonth());
+                case YEAR -> start.with(TemporalAdjusters.lastDayOfYear());
+            };
+        }
+    }
+
+    /**
+     * Constructs a new StatementSummaryService.
+     *
+     * @param walletRepository The repository for wallet data
+     * @param walletDailyRollupRepository The repository of daily credit and debit totals
+     */
+    @Autowired
+    public StatementSummaryService(WalletRepository walletRepository, WalletDailyRollupRepository walletDailyRollupRepository) {
+        this.walletRepository = walletRepository;
+        this.walletDailyRollupRepository = walletDailyRollupRepository;
+    }
+
+    /**
+     * Summarises a customer's credits and debits over an inclusive range of days.
+     *
+     * @param customerId The ID of the customer
+     * @param from The first day of the range
+     * @param to The last day of the range
+     * @param granularity The periods to break the range down into
+     * @return StatementSummaryDTO with the totals of the range and of each period with any transactions
+     * @throws IllegalArgumentException if the range is reversed or longer than {@value #MAX_RANGE_DAYS} days
+     * @throws WalletNotFoundException if the wallet is not found
+     */
+    @Transactional(readOnly = true)
+    public StatementSummaryDTO summarize(String customerId, LocalDate from, LocalDate to, Granularity granularity) {
+        logger.debug("Summarising statement: customerId={}, from={}, to={}, granularity={}", customerId, from, to, granularity);
+
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException(String.format("A summary can cover at most %d days", MAX_RANGE_DAYS));
+        }
+        List<Long> walletIds = walletRepository.findIdsByCustomerIdIn(List.of(customerId));
+        if (walletIds.isEmpty()) {
+            throw new WalletNotFoundException(customerId);
+        }
+
+        List<PeriodSummaryDTO> periods = new ArrayList<>();
+        Money creditTotal = Money.ZERO;
+        Money debitTotal = Money.ZERO;
+        long creditCount = 0;
+        long debitCount = 0;
+        LocalDate periodStart = null;
+        Money periodCredits = Money.ZERO;
+        Money periodDebits = Money.ZERO;
+        long periodCreditCount = 0;
+        long periodDebitCount = 0;
+        for (WalletDailyRollupRepository.DailyTotals day : walletDailyRollupRepository.findDailyTotals(walletIds.get(0), from, to)) {
+            LocalDate start = granularity.periodStart(day.getRollupDate());
+            if (periodStart != null && !start.equals(periodStart)) {
+                periods.add(period(periodStart, from, to, granularity, periodCredits, periodCreditCount, periodDebits, periodDebitCount));
+                periodCredits = Money.ZERO;
+                periodDebits = Money.ZERO;
+                periodCreditCount = 0;
+                periodDebitCount = 0;
+            }
+            periodStart = start;
+            Money credits = Money.of(day.getCreditTotal());
+            Money debits = Money.of(day.getDebitTotal());
+            periodCredits = periodCredits.plus(credits);
+            periodDebits = periodDebits.plus(debits);
+            periodCreditCount += day.getCreditCount();
+            periodDebitCount += day.getDebitCount();
+            creditTotal = creditTotal.plus(credits);
+            debitTotal = debitTotal.plus(debits);
+            creditCount += day.getCreditCount();
+            debitCount += day.getDebitCount();
+        }
+        if (periodStart != null) {
+            periods.add(period(periodStart, from, to, granularity, periodCredits, periodCreditCount, periodDebits, periodDebitCount));
+        }
+
+        return new StatementSummaryDTO(customerId, from, to, granularity.name().toLowerCase(Locale.ROOT),
+                creditTotal.toBigDecimal(), creditCount, debitTotal.toBigDecimal(), debitCount, periods);
+    }
+
+    private static PeriodSummaryDTO period(LocalDate start, LocalDate from, LocalDate to, Granularity granularity,
+                                           Money credits, long creditCount, Money debits, long debitCount) {
+        LocalDate end = granularity.periodEnd(start);
+        return new PeriodSummaryDTO(start.isBefore(from) ? from : start, end.isAfter(to) ? to : end,
+                credits.toBigDecimal(), creditCount, debits.toBigDecimal(), debitCount);
+    }
+}
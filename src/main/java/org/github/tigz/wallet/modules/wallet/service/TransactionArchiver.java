@@ -0,0 +1,168 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionSegmentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves closed months of the ledger from the hot {@code transaction} table to {@code transaction_archive}, and on to
+ * segment files once they are older still.
+ * Every {@code wallet.archiveInterval} a background thread archives the rows of every calendar month that ended more
+ * than {@code wallet.archiveAfterMonths} months ago, {@code wallet.archiveBatchSize} rows per transaction, so the hot
+ * table and its indexes stay the size of recent history. Reads are routed across both tiers by
+ * {@link TransactionRepository}, and each batch commits under {@link TransactionSegmentStore#write}, which no read
+ * overlaps, so callers never see the move.
+ * <p>
+ * When a segment directory is configured, each run then seals the archived months that ended more than
+ * {@code wallet.segmentAfterMonths} months ago into {@link TransactionSegmentStore} files.
+ * <p>
+ * With the {@link WalletConfig.Engine#EVENT_SOURCED} engine, balances are folded from the hot rows after each
+ * wallet's snapshot, so only rows already folded into a snapshot are archived.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionSegmentStore transactionSegmentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletConfig walletConfig;
+    private final Counter archived;
+    private final Counter sealed;
+    private final ScheduledExecutorService archiveExecutor;
+
+    /**
+     * Constructs a new TransactionArchiver and starts the background archiving, unless its interval is zero.
+     *
+     * @param transactionRepository The repository for transaction data
+     * @param transactionSegmentStore The store archived months are sealed into
+     * @param walletConfig The configuration for wallet operations
+     * @param transactionManager The transaction manager used for archiving transactions
+     * @param meterRegistry The registry to publish the {@code wallet.transactions.archived} and
+     *                      {@code wallet.transactions.sealed} counters to
+     */
+    @Autowired
+    public TransactionArchiver(TransactionRepository transactionRepository, TransactionSegmentStore transactionSegmentStore,
+                               WalletConfig walletConfig, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.transactionSegmentStore = transactionSegmentStore;
+        this.walletConfig = walletConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("wallet.transactions.archived")
+                .description("Ledger rows moved from the hot transaction table to the archive")
+                .register(meterRegistry);
+        this.sealed = Counter.builder("wallet.transactions.sealed")
+                .description("Ledger rows moved from the archive to segment files")
+                .register(meterRegistry);
+
+        long intervalMillis = walletConfig.getArchiveInterval().toMillis();
+        if (intervalMillis > 0) {
+            this.archiveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wallet-transaction-archiver");
+                thread.setDaemon(true);
+                return thread;
+            });
+            archiveExecutor.scheduleWithFixedDelay(this::archive, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.archiveExecutor = null;
+        }
+    }
+
+    /**
+     * Returns the start of the oldest month still kept in the hot table: every row created before it belongs to a
+     * closed month due for archiving.
+     *
+     * @param today The current date
+     * @return The archive cutoff
+     */
+    public LocalDateTime cutoff(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(walletConfig.getArchiveAfterMonths()).atStartOfDay();
+    }
+
+    /**
+     * Returns the start of the oldest month still kept in the archive table: every archived row created before it
+     * belongs to a month due for sealing into a segment.
+     *
+     * @param today The current date
+     * @return The seal cutoff
+     */
+    public LocalDateTime sealCutoff(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(walletConfig.getSegmentAfterMonths()).atStartOfDay();
+    }
+
+    /**
+     * Moves every hot row created before the cutoff to the archive, committing one batch at a time.
+     *
+     * @param cutoff The creation time before which rows are archived
+     * @return The number of rows moved
+     */
+    public long archiveBefore(LocalDateTime cutoff) {
+        boolean snapshottedOnly = walletConfig.getEngine() == WalletConfig.Engine.EVENT_SOURCED;
+        int batchSize = Math.max(1, walletConfig.getArchiveBatchSize());
+        long total = 0;
+        int moved;
+        do {
+            moved = transactionSegmentStore.write(() -> transactionTemplate.execute(
+                    status -> transactionRepository.archiveBatch(cutoff, snapshottedOnly, batchSize)));
+            archived.increment(moved);
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    /**
+     * Seals every archived row created before the cutoff into segment files, one per month. Does nothing unless a
+     * segment directory is configured.
+     *
+     * @param cutoff The creation time before which archived rows are sealed
+     * @return The number of rows sealed
+     */
+    public long sealBefore(LocalDateTime cutoff) {
+        long total = transactionSegmentStore.sealBefore(cutoff);
+        sealed.increment(total);
+        return total;
+    }
+
+    private void archive() {
+        try {
+            LocalDateTime cutoff = cutoff(LocalDate.now());
+            long moved = archiveBefore(cutoff);
+            if (moved > 0) {
+                logger.info("Archived {} transactions created before {}", moved, cutoff);
+            }
+            if (transactionSegmentStore.isEnabled()) {
+                LocalDateTime sealCutoff = sealCutoff(LocalDate.now());
+                long sealedRows = sealBefore(sealCutoff);
+                if (sealedRows > 0) {
+                    logger.info("Sealed {} archived transactions created before {}", sealedRows, sealCutoff);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to archive transactions: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (archiveExecutor != null) {
+            archiveExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a wallet's transaction history, used for keyset pagination.
+ * History is ordered newest first by (created_at, id). A cursor names the boundary row and the
+ * direction to read from it. Clients see it only as an opaque URL-safe string.
+ *
+ * @param direction Whether to read older (NEXT) or newer (PREV) rows than the boundary
+ * @param timestamp The created_at of the boundary row
+ * @param id The id of the boundary row
+ */
+public record TransactionCursor(Direction direction, LocalDateTime timestamp, long id) {
+
+    /**
+     * The direction to read from the boundary row.
+     */
+    public enum Direction {
+        NEXT, PREV
+    }
+
+    public static TransactionCursor next(Transaction transaction) {
+        return new TransactionCursor(Direction.NEXT, transaction.getTimestamp(), transaction.getId());
+    }
+
+    public static TransactionCursor prev(Transaction transaction) {
+        return new TransactionCursor(Direction.PREV, transaction.getTimestamp(), transaction.getId());
+    }
+
+    /**
+     * Encodes this cursor as an opaque token.
+     *
+     * @return The URL-safe token
+     */
+    public String encode() {
+        String raw = direction.name().charAt(0) + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Direction direction = switch (parts[0]) {
+                case "N" -> Direction.NEXT;
+                case "P" -> Direction.PREV;
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+            return new TransactionCursor(direction, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
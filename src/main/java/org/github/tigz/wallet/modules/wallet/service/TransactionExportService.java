@@ -0,0 +1,206 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
+import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting a customer's complete transaction history.
+ * Rows are read from a forward-only cursor and written to the output as they arrive, so neither the entities nor
+ * the response are ever held in memory as a whole, however long the history.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private static final String CSV_HEADER = "id,customerId,type,amount,timestamp,counterpartId";
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The formats a history can be exported in.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line.
+         */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        /**
+         * Comma-separated values with a header row.
+         */
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Parses a format name, ignoring case.
+         *
+         * @param name The name of the format
+         * @return The matching format
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name + ". Use ndjson or csv");
+        }
+    }
+
+    /**
+     * Constructs a new TransactionExportService.
+     *
+     * @param walletRepository The repository for wallet data
+     * @param transactionRepository The repository for transaction data
+     * @param objectMapper The mapper whose factory writes NDJSON rows
+     */
+    @Autowired
+    public TransactionExportService(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resolves a customer's wallet, so that an unknown customer can be rejected before any output is written.
+     *
+     * @param customerId The ID of the customer
+     * @return The ID of the customer's wallet
+     * @throws WalletNotFoundException if the wallet is not found
+     */
+    public long findWalletId(String customerId) {
+        List<Long> walletIds = walletRepository.findIdsByCustomerIdIn(List.of(customerId));
+        if (walletIds.isEmpty()) {
+            throw new WalletNotFoundException(customerId);
+        }
+        return walletIds.get(0);
+    }
+
+    /**
+     * Writes every transaction of a wallet, oldest first, to an output stream. The cursor stays open, and with it
+     * the read-only transaction and the hold on sealed segments, until the last row has been written.
+     *
+     * @param walletId The ID of the wallet, from {@link #findWalletId(String)}
+     * @param customerId The ID of the customer, written on every row
+     * @param format The format to write
+     * @param outputStream The stream to write to; flushed but not closed
+     * @return The number of transactions written
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long export(long walletId, String customerId, Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long rows;
+        try (Stream<TransactionRepository.ExportRow> stream = transactionRepository.streamExportRowsByWalletId(walletId)) {
+            rows = format == Format.CSV ? writeCsv(stream, customerId, writer) : writeNdjson(stream, customerId, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Exported transactions: customerId={}, format={}, rows={}", customerId, format.name().toLowerCase(Locale.ROOT), rows);
+        return rows;
+    }
+
+    private long writeNdjson(Stream<TransactionRepository.ExportRow> stream, String customerId, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows = stream.mapToLong(row -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.getId());
+                generator.writeStringField("customerId", customerId);
+                generator.writeStringField("type", row.getType().name());
+                generator.writeNumberField("amount", row.getAmount());
+                generator.writeStringField("timestamp", row.getTimestamp().toString());
+                if (row.getCounterpartId() != null) {
+                    generator.writeNumberField("counterpartId", row.getCounterpartId());
+                } else {
+                    generator.writeNullField("counterpartId");
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                return 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).sum();
+        generator.close();
+        return rows;
+    }
+
+    private long writeCsv(Stream<TransactionRepository.ExportRow> stream, String customerId, Writer writer) throws IOException {
+        String customerColumn = csvValue(customerId);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return stream.mapToLong(row -> {
+            try {
+                writer.write(String.valueOf(row.getId()));
+                writer.write(',');
+                writer.write(customerColumn);
+                writer.write(',');
+                writer.write(row.getType().name());
+                writer.write(',');
+                writer.write(row.getAmount().toPlainString());
+                writer.write(',');
+                writer.write(row.getTimestamp().toString());
+                writer.write(',');
+                if (row.getCounterpartId() != null) {
+                    writer.write(String.valueOf(row.getCounterpartId()));
+                }
+                writer.write('\n');
+                return 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).sum();
+    }
+
+    /**
+     * Quotes a value if it contains a separator, quote or line break, doubling any quotes inside it.
+     */
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,170 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded in-process near-cache of wallet balances keyed by customer ID.
+ * Every balance write in this process goes through {@link #putAfterCommit(Wallet)}, so the cache
+ * stays write-through. Entries are tagged with the wallet version and a write only replaces an
+ * entry of the same or an older version. A slow reader or a late afterCommit callback therefore
+ * cannot overwrite a newer balance. Hit, miss and eviction counts are published as
+ * {@code cache.*} metrics with {@code cache=walletBalance}.
+ */
+@Component
+public class WalletBalanceCache {
+
+    private record CachedWallet(String customerId, Money balance, long version) {
+    }
+
+    private final Cache<String, CachedWallet> cache;
+
+    /**
+     * Constructs a new WalletBalanceCache sized from the wallet configuration.
+     *
+     * @param walletConfig The configuration for wallet operations
+     * @param meterRegistry The registry to publish cache statistics to
+     */
+    @Autowired
+    public WalletBalanceCache(WalletConfig walletConfig, MeterRegistry meterRegistry) {
+        if (walletConfig.isCacheEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(walletConfig.getCacheMaxSize())
+                    .expireAfterWrite(walletConfig.getCacheTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "walletBalance");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Looks up the cached wallet for a customer.
+     *
+     * @param customerId The ID of the customer
+     * @return WalletDTO for the customer, or null on a miss
+     */
+    public WalletDTO get(String customerId) {
+        if (cache == null) {
+            return null;
+        }
+        CachedWallet cached = cache.getIfPresent(customerId);
+        return cached != null ? new WalletDTO(cached.customerId(), cached.balance().toBigDecimal()) : null;
+    }
+
+    /**
+     * Caches the state of a wallet read from or written to the database, unless a newer version is already cached.
+     *
+     * @param wallet The wallet entity
+     */
+    public void put(Wallet wallet) {
+        if (cache == null || wallet.getVersion() == null) {
+            return;
+        }
+        put(new CachedWallet(wallet.getCustomerId(), wallet.getBalance(), wallet.getVersion()));
+    }
+
+    /**
+     * Caches the wallet once the current transaction commits, or immediately if there is no transaction.
+     * The wallet's balance and version are read at commit time, after the version has been incremented by the flush.
+     *
+     * @param wallet The wallet entity being modified in the current transaction
+     */
+    public void putAfterCommit(Wallet wallet) {
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(wallet);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(wallet);
+            }
+        });
+    }
+
+    /**
+     * Caches a wallet state returned by a direct balance update once the current transaction commits.
+     *
+     * @param customerId The ID of the customer
+     * @param balance The balance written by the update
+     * @param version The wallet version written by the update
+     */
+    public void putAfterCommit(String customerId, Money balance, long version) {
+        if (cache == null) {
+            return;
+        }
+        CachedWallet candidate = new CachedWallet(customerId, balance, version);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(candidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(candidate);
+            }
+        });
+    }
+
+    /**
+     * Removes a customer's wallet from the cache now and again once the current transaction commits, so that a read
+     * racing the transaction cannot leave its state behind.
+     *
+     * @param customerId The ID of the customer
+     */
+    public void evictAfterCommit(String customerId) {
+        if (cache == null) {
+            return;
+        }
+        evict(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(customerId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes a customer's wallet from the cache.
+     *
+     * @param customerId The ID of the customer
+     */
+    public void evict(String customerId) {
+        if (cache != null) {
+            cache.invalidate(customerId);
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     *
+     * @return The cache statistics, empty when the cache is disabled
+     */
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    private void put(CachedWallet candidate) {
+        cache.asMap().merge(candidate.customerId(), candidate,
+                (current, updated) -> updated.version() >= current.version() ? updated : current);
+    }
+}
@@ -0,0 +1,121 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.BatchResultDTO;
+import org.github.tigz.wallet.modules.wallet.dto.FundsOperationDTO;
+import org.github.tigz.wallet.modules.wallet.dto.FundsOperationResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class for bulk fund operations.
+ * Splits a bulk request into chunks and applies each chunk in its own transaction, so one bad chunk
+ * does not undo the others. Every operation gets its own result, in request order.
+ */
+@Service
+public class WalletBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletBatchService.class);
+
+    private final RetryableWalletService retryableWalletService;
+    private final WalletConfig walletConfig;
+
+    /**
+     * Constructs a new WalletBatchService.
+     *
+     * @param retryableWalletService The service used to apply each chunk with retry capability
+     * @param walletConfig The configuration for wallet operations
+     */
+    @Autowired
+    public WalletBatchService(RetryableWalletService retryableWalletService, WalletConfig walletConfig) {
+        this.retryableWalletService = retryableWalletService;
+        this.walletConfig = walletConfig;
+    }
+
+    /**
+     * Applies a list of add and withdraw operations across any number of customers.
+     * Operations are applied in order in chunks of {@link WalletConfig#getBatchChunkSize()}.
+     * If a whole chunk fails, for example because its retries are exhausted, each operation in that
+     * chunk is reported as failed and processing continues with the next chunk.
+     *
+     * @param operations The operations to apply
+     * @return BatchResultDTO with one result per operation
+     * @throws IllegalArgumentException if the request is empty or exceeds the configured maximum size
+     */
+    public BatchResultDTO applyBatch(List<FundsOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        if (operations.size() > walletConfig.getBatchMaxOperations()) {
+            throw new IllegalArgumentException(String.format("Batch cannot contain more than %d operations",
+                    walletConfig.getBatchMaxOperations()));
+        }
+
+        logger.info("Applying batch: operations={}, chunkSize={}", operations.size(), walletConfig.getBatchChunkSize());
+
+        List<FundsOperationResultDTO> results = new ArrayList<>(operations.size());
+        int chunkSize = Math.max(1, walletConfig.getBatchChunkSize());
+        for (int start = 0; start < operations.size(); start += chunkSize) {
+            applyChunk(operations, start, Math.min(start + chunkSize, operations.size()), results);
+        }
+
+        int succeeded = (int) results.stream().filter(FundsOperationResultDTO::isSuccess).count();
+        logger.info("Batch applied: operations={}, succeeded={}, failed={}", operations.size(), succeeded, results.size() - succeeded);
+        return new BatchResultDTO(results, succeeded, results.size() - succeeded);
+    }
+
+    private void applyChunk(List<FundsOperationDTO> operations, int start, int end, List<FundsOperationResultDTO> results) {
+        List<FundsOperation> chunk = new ArrayList<>(end - start);
+        List<Integer> chunkIndexes = new ArrayList<>(end - start);
+        FundsOperationResultDTO[] chunkResults = new FundsOperationResultDTO[end - start];
+
+        for (int i = start; i < end; i++) {
+            FundsOperationDTO dto = operations.get(i);
+            if (dto == null || dto.getCustomerId() == null || dto.getType() == null) {
+                chunkResults[i - start] = failure(i, dto, "Operation requires a customerId and type");
+                continue;
+            }
+            chunk.add(new FundsOperation(dto.getCustomerId(), dto.getType(), dto.getAmount()));
+            chunkIndexes.add(i);
+        }
+
+        if (!chunk.isEmpty()) {
+            try {
+                List<FundsOperationResult> applied = retryableWalletService.applyOperations(chunk);
+                for (int j = 0; j < applied.size(); j++) {
+                    int index = chunkIndexes.get(j);
+                    chunkResults[index - start] = toDTO(index, applied.get(j));
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Batch chunk [{}, {}) failed: {}", start, end, e.getMessage());
+                for (int index : chunkIndexes) {
+                    chunkResults[index - start] = failure(index, operations.get(index), "Chunk failed: " + e.getMessage());
+                }
+            }
+        }
+
+        results.addAll(List.of(chunkResults));
+    }
+
+    private FundsOperationResultDTO toDTO(int index, FundsOperationResult result) {
+        FundsOperation operation = result.getOperation();
+        if (result.isSuccess()) {
+            return new FundsOperationResultDTO(index, operation.getCustomerId(), operation.getType(), true,
+                    result.getWallet().getBalance(), null);
+        }
+        return new FundsOperationResultDTO(index, operation.getCustomerId(), operation.getType(), false,
+                null, result.getError().getMessage());
+    }
+
+    private FundsOperationResultDTO failure(int index, FundsOperationDTO dto, String error) {
+        return new FundsOperationResultDTO(index,
+                dto != null ? dto.getCustomerId() : null,
+                dto != null ? dto.getType() : null,
+                false, null, error);
+    }
+}
@@ -0,0 +1,476 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link JournalEntry entries} in memory-mapped segment files, plus a checkpoint of every
+ * account's state at some sequence number.
+ * Each segment is a preallocated, zero-filled file named after the sequence of its first entry. An entry is stored as
+ * its payload length, a CRC32 of the payload and the payload itself; a zero length marks the end of the written data.
+ * Appends only copy into the mapping, and {@link #force()} makes everything appended since the previous force durable
+ * in one call, so a caller can acknowledge a whole batch per force.
+ * <p>
+ * When opened, the segments are scanned up to the first entry that is torn (bad length or checksum) or out of
+ * sequence. Anything from there on is treated as never written: the rest of that segment is zeroed, later segments are
+ * deleted, and appends continue from the last valid entry.
+ * <p>
+ * Not thread-safe: the journal is owned by a single writer thread.
+ */
+public class WalletJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletJournal.class);
+
+    private static final String ID_FILE = "journal.id";
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int CHECKPOINT_MAGIC = 0x574a4350;
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final String id;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(4096);
+    private final CRC32 crc = new CRC32();
+
+    private MappedByteBuffer current;
+    private int dirtyFrom;
+    private long lastSequence;
+
+    /**
+     * The state of one account captured by a checkpoint.
+     *
+     * @param customerId The ID of the customer
+     * @param balance The customer's balance
+     * @param transactionCount The number of ledger entries applied to the customer
+     */
+    public record AccountState(String customerId, Money balance, long transactionCount) {
+    }
+
+    /**
+     * Every account's state straight after the entry with the given sequence was applied.
+     *
+     * @param sequence The sequence of the last entry reflected in the checkpoint
+     * @param accounts The state of every account
+     */
+    public record Checkpoint(long sequence, List<AccountState> accounts) {
+    }
+
+    private WalletJournal(Path directory, int segmentSize, String id) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.id = id;
+    }
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and positions appends after the last valid entry.
+     *
+     * @param directory The directory holding the journal files
+     * @param segmentSize The size of each segment file in bytes
+     * @return The opened journal
+     * @throws UncheckedIOException if the journal files cannot be read or written
+     */
+    public static WalletJournal open(Path directory, int segmentSize) {
+        try {
+            Files.createDirectories(directory);
+            Path idFile = directory.resolve(ID_FILE);
+            if (!Files.exists(idFile)) {
+                Files.writeString(idFile, UUID.randomUUID().toString(), StandardOpenOption.CREATE_NEW, StandardOpenOption.SYNC);
+            }
+            WalletJournal journal = new WalletJournal(directory, segmentSize, Files.readString(idFile).trim());
+            journal.recover();
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open wallet journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Gets the identifier of this journal, generated when its directory was first used.
+     *
+     * @return The journal ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the sequence of the last valid entry.
+     *
+     * @return The last sequence, or the checkpoint sequence if no entries follow it, or 0 for an empty journal
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Gets the sequence of the oldest entry still kept in the journal.
+     *
+     * @return The first kept sequence, or the one after the last sequence if no entries are kept
+     */
+    public long getFirstSequence() {
+        return segments.isEmpty() ? lastSequence + 1 : segments.firstKey();
+    }
+
+    /**
+     * Reads the latest checkpoint.
+     *
+     * @return The checkpoint, or null if none has been written
+     * @throws IllegalStateException if the checkpoint file is corrupt
+     */
+    public Checkpoint readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < 4) {
+                throw new IllegalStateException("Wallet journal checkpoint is truncated: " + file);
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes, 0, bytes.length - 4);
+            if ((int) checksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+                throw new IllegalStateException("Wallet journal checkpoint is corrupt: " + file);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IllegalStateException("Not a wallet journal checkpoint: " + file);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<AccountState> accounts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                accounts.add(new AccountState(in.readUTF(), Money.ofMinor(in.readLong()), in.readLong()));
+            }
+            return new Checkpoint(sequence, accounts);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read wallet journal checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Durably replaces the checkpoint. The new file is written and synced beside the old one, then renamed over it,
+     * so a crash leaves either the old or the new checkpoint intact.
+     *
+     * @param checkpoint The state to save
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    public void writeCheckpoint(Checkpoint checkpoint) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(checkpoint.sequence());
+            out.writeInt(checkpoint.accounts().size());
+            for (AccountState account : checkpoint.accounts()) {
+                out.writeUTF(account.customerId());
+                out.writeLong(account.balance().getMinorUnits());
+                out.writeLong(account.transactionCount());
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes.toByteArray());
+            out.writeInt((int) checksum.getValue());
+
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write wallet journal checkpoint in " + directory, e);
+        }
+    }
+
+    /**
+     * Reads every valid entry after a sequence, in order.
+     *
+     * @param afterSequence Entries up to and including this sequence are skipped
+     * @param consumer Receives each entry
+     */
+    public void replay(long afterSequence, Consumer<JournalEntry> consumer) {
+        Long from = segments.floorKey(afterSequence + 1);
+        Map<Long, Path> tail = from != null ? segments.tailMap(from, true) : segments;
+        for (Path segment : tail.values()) {
+            ByteBuffer buffer = segment.equals(segments.lastEntry().getValue()) ? current.duplicate() : map(segment, FileChannel.MapMode.READ_ONLY);
+            buffer.position(0);
+            JournalEntry entry;
+            while ((entry = readEntry(buffer)) != null && entry.sequence() <= lastSequence) {
+                if (entry.sequence() > afterSequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies an entry into the journal. It is not durable until the next {@link #force()}.
+     *
+     * @param entry The entry to append, whose sequence must follow the last one
+     * @throws IllegalArgumentException if the entry is out of sequence or larger than a segment
+     */
+    public void append(JournalEntry entry) {
+        if (entry.sequence() != lastSequence + 1) {
+            throw new IllegalArgumentException("Journal entry " + entry.sequence() + " does not follow " + lastSequence);
+        }
+        ByteBuffer payload = encode(entry);
+        int size = HEADER_SIZE + payload.remaining();
+        if (size > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal entry " + entry.sequence() + " is larger than a segment");
+        }
+        if (current == null || current.remaining() < size + HEADER_SIZE) {
+            roll(entry.sequence());
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        current.putInt(payload.remaining());
+        current.putInt((int) crc.getValue());
+        current.put(payload);
+        lastSequence = entry.sequence();
+    }
+
+    /**
+     * Makes every entry appended since the previous force durable.
+     */
+    public void force() {
+        if (current != null && current.position() > dirtyFrom) {
+            current.force(dirtyFrom, current.position() - dirtyFrom);
+            dirtyFrom = current.position();
+        }
+    }
+
+    /**
+     * Deletes the segments holding only entries up to and including a sequence. The segment being appended to is
+     * always kept.
+     *
+     * @param sequence The sequence up to which entries are no longer needed
+     * @return The number of segments deleted
+     */
+    public int deleteSegmentsThrough(long sequence) {
+        int deleted = 0;
+        while (segments.size() > 1) {
+            Map.Entry<Long, Path> oldest = segments.firstEntry();
+            long nextFirst = segments.higherKey(oldest.getKey());
+            if (nextFirst - 1 > sequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(oldest.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete wallet journal segment " + oldest.getValue(), e);
+            }
+            segments.remove(oldest.getKey());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() {
+        force();
+        current = null;
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(segmentFirstSequence(file), file));
+        }
+        Checkpoint checkpoint = readCheckpoint();
+        long checkpointSequence = checkpoint != null ? checkpoint.sequence() : 0;
+        if (segments.isEmpty()) {
+            lastSequence = checkpointSequence;
+            return;
+        }
+
+        // Segments wholly covered by the checkpoint may already be deleted, so entries resume from the first kept one
+        lastSequence = segments.firstKey() - 1;
+        boolean torn = false;
+        Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Path> segment = iterator.next();
+            if (torn || segment.getKey() != lastSequence + 1) {
+                logger.warn("Deleting wallet journal segment written after a torn entry: {}", segment.getValue());
+                Files.delete(segment.getValue());
+                iterator.remove();
+                torn = true;
+                continue;
+            }
+            MappedByteBuffer buffer = map(segment.getValue(), FileChannel.MapMode.READ_WRITE);
+            int end = 0;
+            JournalEntry entry;
+            while ((entry = readEntry(buffer)) != null && entry.sequence() == lastSequence + 1) {
+                lastSequence = entry.sequence();
+                end = buffer.position();
+            }
+            if (!isZeroFrom(buffer, end)) {
+                logger.warn("Discarding torn wallet journal tail after entry {} in {}", lastSequence, segment.getValue());
+                for (int i = end; i < buffer.limit(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+                torn = true;
+            }
+            current = buffer;
+            current.position(end);
+        }
+        if (lastSequence < checkpointSequence) {
+            throw new IllegalStateException("Wallet journal in " + directory + " ends at entry " + lastSequence
+                    + " but its checkpoint is at " + checkpointSequence);
+        }
+        dirtyFrom = current.position();
+        logger.info("Wallet journal opened: directory={}, segments={}, lastSequence={}", directory, segments.size(), lastSequence);
+    }
+
+    private void roll(long firstSequence) {
+        force();
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        current = map(segment, FileChannel.MapMode.READ_WRITE);
+        segments.put(firstSequence, segment);
+        dirtyFrom = 0;
+    }
+
+    private MappedByteBuffer map(Path segment, FileChannel.MapMode mode) {
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                ? FileChannel.open(segment, StandardOpenOption.READ)
+                : FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, mode == FileChannel.MapMode.READ_ONLY ? channel.size() : segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map wallet journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Reads the entry at the buffer's position, leaving the position after it.
+     * Returns null, with the position unspecified, at the end of the written data or at a torn entry.
+     */
+    private JournalEntry readEntry(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(buffer.position(), length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        buffer.position(buffer.position() + length);
+        try {
+            return decode(payload);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isZeroFrom(ByteBuffer buffer, int from) {
+        for (int i = from; i < Math.min(buffer.limit(), from + HEADER_SIZE); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer encode(JournalEntry entry) {
+        ByteBuffer buffer = encodeBuffer.clear();
+        buffer.putLong(entry.sequence());
+        buffer.putLong(toEpochMicros(entry.timestamp()));
+        buffer.put((byte) entry.type().ordinal());
+        buffer.putLong(entry.amount().getMinorUnits());
+        buffer.putLong(entry.balance().getMinorUnits());
+        buffer.putLong(entry.counterpartBalance() != null ? entry.counterpartBalance().getMinorUnits() : 0);
+        putString(buffer, entry.customerId());
+        putString(buffer, entry.counterpartCustomerId());
+        putString(buffer, entry.idempotencyKey());
+        return buffer.flip();
+    }
+
+    private static JournalEntry decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        LocalDateTime timestamp = fromEpochMicros(buffer.getLong());
+        JournalEntry.Type type = JournalEntry.Type.values()[buffer.get()];
+        Money amount = Money.ofMinor(buffer.getLong());
+        Money balance = Money.ofMinor(buffer.getLong());
+        long counterpartBalance = buffer.getLong();
+        String customerId = getString(buffer);
+        String counterpartCustomerId = getString(buffer);
+        String idempotencyKey = getString(buffer);
+        return new JournalEntry(sequence, timestamp, type, customerId, amount, balance, counterpartCustomerId,
+                counterpartCustomerId != null ? Money.ofMinor(counterpartBalance) : null, idempotencyKey);
+    }
+
+    /**
+     * Writes a string as a signed length and its UTF-8 bytes, with -1 for null.
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long segmentFirstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
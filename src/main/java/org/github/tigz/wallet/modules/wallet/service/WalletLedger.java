@@ -0,0 +1,214 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.model.WalletSnapshot;
+import org.github.tigz.wallet.modules.wallet.repository.WalletSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads wallet balances from the append-only ledger for the {@link WalletConfig.Engine#EVENT_SOURCED} engine, and
+ * keeps the reads short by snapshotting.
+ * A balance is the wallet's latest {@link WalletSnapshot} plus the ledger rows written after it, folded in a single
+ * query. Once a write leaves a wallet with {@code wallet.snapshotInterval} or more rows beyond its snapshot, the
+ * wallet is queued for compaction: after the write commits, a background thread folds those rows into a new snapshot
+ * in its own transaction, without locking the wallet. Writers stay append-only and never wait for compaction.
+ * <p>
+ * Compaction relies on a wallet's ledger rows committing in id order, so a snapshot never skips a row that is still in
+ * flight. Every write to a wallet is serialized by a lock on its row, and with this engine each row's id is taken from
+ * the sequence while that lock is held rather than from a block reserved earlier (see
+ * {@link WalletConfig#ledgerIdCustomizer()}), so this holds across any number of instances.
+ */
+@Component
+public class WalletLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedger.class);
+
+    /**
+     * A wallet's balance as folded from its ledger.
+     *
+     * @param walletId The ID of the wallet
+     * @param balance The current balance
+     * @param transactionCount The number of ledger rows, including those folded into the snapshot
+     * @param unsnapshotted The number of ledger rows written since the snapshot
+     */
+    public record Balance(long walletId, Money balance, long transactionCount, long unsnapshotted) {
+
+        /**
+         * Returns the balance after one more credit row.
+         */
+        public Balance credit(Money amount) {
+            return new Balance(walletId, balance.plus(amount), transactionCount + 1, unsnapshotted + 1);
+        }
+
+        /**
+         * Returns the balance after one more debit row.
+         */
+        public Balance debit(Money amount) {
+            return new Balance(walletId, balance.minus(amount), transactionCount + 1, unsnapshotted + 1);
+        }
+    }
+
+    private final WalletSnapshotRepository walletSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor compactor;
+    private final Counter snapshotsWritten;
+
+    /**
+     * Constructs a new WalletLedger, starting the compaction thread when the event-sourced engine is configured.
+     *
+     * @param walletSnapshotRepository The repository for wallet snapshots
+     * @param walletConfig The configuration for wallet operations
+     * @param transactionManager The transaction manager used for compaction transactions
+     * @param meterRegistry The registry to publish compaction metrics to
+     */
+    @Autowired
+    public WalletLedger(WalletSnapshotRepository walletSnapshotRepository, WalletConfig walletConfig,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.walletSnapshotRepository = walletSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotInterval = Math.max(1, walletConfig.getSnapshotInterval());
+        this.snapshotsWritten = Counter.builder("wallet.snapshots.written")
+                .description("Wallet snapshots written by ledger compaction")
+                .register(meterRegistry);
+
+        if (walletConfig.getEngine() == WalletConfig.Engine.EVENT_SOURCED) {
+            this.compactor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "wallet-snapshot-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Gauge.builder("wallet.snapshots.pending", pending, Set::size)
+                    .description("Wallets waiting for their ledger to be compacted into a snapshot")
+                    .register(meterRegistry);
+            logger.info("Event-sourced ledger enabled, snapshotInterval={}", snapshotInterval);
+        } else {
+            this.compactor = null;
+        }
+    }
+
+    /**
+     * Folds a wallet's ledger onto its snapshot.
+     *
+     * @param walletId The ID of the wallet
+     * @return The wallet's current balance
+     */
+    public Balance read(long walletId) {
+        return read(List.of(walletId)).get(walletId);
+    }
+
+    /**
+     * Folds the ledgers of several wallets onto their snapshots with one query.
+     *
+     * @param walletIds The IDs of the wallets
+     * @return The current balance of every wallet that exists, keyed by wallet ID
+     */
+    public Map<Long, Balance> read(Collection<Long> walletIds) {
+        Map<Long, Balance> balances = new HashMap<>();
+        if (walletIds.isEmpty()) {
+            return balances;
+        }
+        for (WalletSnapshotRepository.LedgerState state : walletSnapshotRepository.findLedgerStates(walletIds)) {
+            balances.put(state.getWalletId(), new Balance(state.getWalletId(), Money.of(state.getBalance()),
+                    state.getTransactionCount(), state.getUnsnapshotted()));
+        }
+        return balances;
+    }
+
+    /**
+     * Queues the wallet for compaction once the current transaction commits, if the balance written by it has drifted
+     * at least {@code wallet.snapshotInterval} rows from the snapshot.
+     *
+     * @param balance The wallet's balance straight after the write
+     */
+    public void compactAfterCommit(Balance balance) {
+        if (compactor == null || balance.unsnapshotted() < snapshotInterval) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleCompaction(balance.walletId());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                scheduleCompaction(balance.walletId());
+            }
+        });
+    }
+
+    /**
+     * Folds every committed ledger row of the wallet into a new snapshot, replacing the previous one.
+     *
+     * @param walletId The ID of the wallet
+     * @return true if a snapshot was written, false if the existing one was already current
+     */
+    public boolean compact(long walletId) {
+        Boolean written = transactionTemplate.execute(status -> {
+            List<WalletSnapshotRepository.LedgerState> states = walletSnapshotRepository.findLedgerStates(List.of(walletId));
+            if (states.isEmpty() || states.get(0).getUnsnapshotted() == 0) {
+                return false;
+            }
+            WalletSnapshotRepository.LedgerState state = states.get(0);
+            walletSnapshotRepository.save(new WalletSnapshot(walletId, Money.of(state.getBalance()),
+                    state.getTransactionCount(), state.getLastTransactionId()));
+            return true;
+        });
+        if (Boolean.TRUE.equals(written)) {
+            snapshotsWritten.increment();
+            logger.debug("Wallet ledger compacted: walletId={}", walletId);
+            return true;
+        }
+        return false;
+    }
+
+    private void scheduleCompaction(long walletId) {
+        if (!pending.add(walletId)) {
+            return;
+        }
+        compactor.execute(() -> {
+            // Cleared first, so rows written while this compaction runs queue the wallet again
+            pending.remove(walletId);
+            try {
+                compact(walletId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to compact wallet ledger: walletId={}, reason={}", walletId, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (compactor == null) {
+            return;
+        }
+        compactor.shutdown();
+        if (!compactor.awaitTermination(10, TimeUnit.SECONDS)) {
+            compactor.shutdownNow();
+        }
+    }
+}
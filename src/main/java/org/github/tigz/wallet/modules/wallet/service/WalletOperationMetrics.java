@@ -0,0 +1,146 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times wallet service calls and publishes them as the {@code wallet.operations} timer, tagged by
+ * {@code operation} (the service method) and {@code outcome}. Each timer also counts its calls, so the rate of
+ * every outcome is available without separate counters. Every call is also written to the
+ * {@code walletOperationsLogger}: successes at DEBUG, rejections and failures at INFO.
+ * <p>
+ * Also publishes the backlog of the writer lanes as {@code wallet.lanes.queued}, tagged by {@code mode}, to show
+ * when striped or group-commit lanes are saturated.
+ */
+@Component
+public class WalletOperationMetrics {
+
+    /**
+     * How a wallet service call ended, as published in the {@code outcome} tag.
+     */
+    public enum Outcome {
+        SUCCESS("success"),
+        VALIDATION("validation"),
+        INSUFFICIENT_FUNDS("insufficient_funds"),
+        NOT_FOUND("not_found"),
+        LOCK_CONFLICT("lock_conflict"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Classifies the failure of a wallet service call.
+         *
+         * @param failure The exception thrown by the call
+         * @return The outcome to record
+         */
+        public static Outcome of(Throwable failure) {
+            if (failure instanceof InsufficientFundsException) {
+                return INSUFFICIENT_FUNDS;
+            }
+            if (failure instanceof WalletNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (failure instanceof IllegalArgumentException) {
+                return VALIDATION;
+            }
+            if (failure instanceof ConcurrencyFailureException) {
+                return LOCK_CONFLICT;
+            }
+            return ERROR;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Logger operationsLogger;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WalletOperationMetrics and registers the lane backlog gauges.
+     *
+     * @param meterRegistry The registry to publish metrics to
+     * @param operationsLogger The logger receiving one line per wallet service call
+     * @param customerLaneExecutor The striped writer lanes
+     * @param ledgerGroupCommitter The group-commit lanes
+     */
+    @Autowired
+    public WalletOperationMetrics(MeterRegistry meterRegistry, @Qualifier("walletOperationsLogger") Logger operationsLogger,
+                                  CustomerLaneExecutor customerLaneExecutor, LedgerGroupCommitter ledgerGroupCommitter) {
+        this.meterRegistry = meterRegistry;
+        this.operationsLogger = operationsLogger;
+
+        Gauge.builder("wallet.lanes.queued", customerLaneExecutor, CustomerLaneExecutor::getQueuedTasks)
+                .description("Wallet operations waiting for a striped writer lane")
+                .tag("mode", "striped")
+                .register(meterRegistry);
+        Gauge.builder("wallet.lanes.queued", ledgerGroupCommitter, LedgerGroupCommitter::getQueuedOperations)
+                .description("Wallet operations waiting for a group commit")
+                .tag("mode", "group_commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a wallet service call, recording its duration and outcome.
+     *
+     * @param operation The name of the operation, used as the {@code operation} tag
+     * @param customerId The ID of the customer, logged but not used as a tag
+     * @param call The call to run
+     * @param <T> The type of the call result
+     * @return The result of the call
+     */
+    public <T> T record(String operation, String customerId, Supplier<T> call) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            complete(operation, customerId, Outcome.of(e), start);
+            throw e;
+        }
+        complete(operation, customerId, Outcome.SUCCESS, start);
+        return result;
+    }
+
+    private void complete(String operation, String customerId, Outcome outcome, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        timer(operation, outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (outcome == Outcome.SUCCESS) {
+            operationsLogger.debug("operation={} customerId={} outcome={} durationMicros={}",
+                    operation, customerId, outcome.getTag(), TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        } else {
+            operationsLogger.info("operation={} customerId={} outcome={} durationMicros={}",
+                    operation, customerId, outcome.getTag(), TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+    }
+
+    private Timer timer(String operation, Outcome outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome.getTag(), key -> Timer.builder("wallet.operations")
+                .description("Wallet service calls by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome.getTag())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
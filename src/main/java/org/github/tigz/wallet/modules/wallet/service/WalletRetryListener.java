@@ -0,0 +1,117 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Feeds retry outcomes into the {@link CustomerConflictTracker} and publishes retry metrics:
+ * <ul>
+ *     <li>{@code wallet.retry.attempts}: attempts per call, tagged by method, with one histogram bucket per
+ *     possible attempt count</li>
+ *     <li>{@code wallet.retry.time}: time from the first retryable failure until the call finally succeeded
+ *     ({@code outcome=recovered}) or gave up ({@code outcome=exhausted}), tagged by method</li>
+ * </ul>
+ * The customer ID is taken from the first argument of the retried method when it is a String, and stored on the
+ * retry context for {@link ContentionAwareBackOffPolicy}.
+ */
+public class WalletRetryListener implements RetryListener {
+
+    private static final String METHOD_ATTRIBUTE = "wallet.method";
+    private static final String FIRST_CONFLICT_ATTRIBUTE = "wallet.firstConflictNanos";
+    private static final String UNKNOWN_METHOD = "unknown";
+
+    private final BinaryExceptionClassifier retryableClassifier;
+    private final CustomerConflictTracker conflictTracker;
+    private final MeterRegistry meterRegistry;
+    private final double[] attemptBuckets;
+    private final Map<String, DistributionSummary> attemptSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Timer> retryTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WalletRetryListener.
+     *
+     * @param retryableClassifier Classifies which failures are retryable conflicts, matching the retry policy
+     * @param conflictTracker The tracker of per-customer conflict rates
+     * @param meterRegistry The registry to publish retry metrics to
+     * @param maxAttempts The most attempts the retry policy makes, bounding the attempts histogram
+     */
+    public WalletRetryListener(BinaryExceptionClassifier retryableClassifier, CustomerConflictTracker conflictTracker,
+                               MeterRegistry meterRegistry, int maxAttempts) {
+        this.retryableClassifier = retryableClassifier;
+        this.conflictTracker = conflictTracker;
+        this.meterRegistry = meterRegistry;
+        this.attemptBuckets = IntStream.rangeClosed(1, Math.max(1, maxAttempts)).asDoubleStream().toArray();
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> methodCallback) {
+            context.setAttribute(METHOD_ATTRIBUTE, methodCallback.getInvocation().getMethod().getName());
+            Object[] arguments = methodCallback.getInvocation().getArguments();
+            if (arguments.length > 0 && arguments[0] instanceof String customerId) {
+                context.setAttribute(ContentionAwareBackOffPolicy.CUSTOMER_ID_ATTRIBUTE, customerId);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (!retryableClassifier.classify(throwable)) {
+            return;
+        }
+        conflictTracker.recordConflict(customerId(context));
+        if (!context.hasAttribute(FIRST_CONFLICT_ATTRIBUTE)) {
+            context.setAttribute(FIRST_CONFLICT_ATTRIBUTE, System.nanoTime());
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        String method = context.hasAttribute(METHOD_ATTRIBUTE) ? (String) context.getAttribute(METHOD_ATTRIBUTE) : UNKNOWN_METHOD;
+        int attempts = throwable == null ? context.getRetryCount() + 1 : context.getRetryCount();
+        attemptSummary(method).record(attempts);
+
+        if (throwable == null) {
+            conflictTracker.recordSuccess(customerId(context));
+        }
+        Long firstConflictNanos = (Long) context.getAttribute(FIRST_CONFLICT_ATTRIBUTE);
+        if (firstConflictNanos != null) {
+            retryTimer(method, throwable == null ? "recovered" : "exhausted")
+                    .record(System.nanoTime() - firstConflictNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String customerId(RetryContext context) {
+        return (String) context.getAttribute(ContentionAwareBackOffPolicy.CUSTOMER_ID_ATTRIBUTE);
+    }
+
+    private DistributionSummary attemptSummary(String method) {
+        return attemptSummaries.computeIfAbsent(method, name -> DistributionSummary.builder("wallet.retry.attempts")
+                .description("Attempts made per wallet service call")
+                .baseUnit("attempts")
+                .serviceLevelObjectives(attemptBuckets)
+                .tag("method", name)
+                .register(meterRegistry));
+    }
+
+    private Timer retryTimer(String method, String outcome) {
+        return retryTimers.computeIfAbsent(method + ':' + outcome, key -> Timer.builder("wallet.retry.time")
+                .description("Time spent retrying wallet service calls after a conflict")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
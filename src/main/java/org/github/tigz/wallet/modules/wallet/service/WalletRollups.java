@@ -0,0 +1,127 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.github.tigz.wallet.modules.wallet.repository.WalletDailyRollupRepository;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the per-wallet, per-day credit and debit totals in step with the ledger. Every ledger row is counted in the
+ * same transaction that inserts it, so the rollups commit or roll back with the rows they describe.
+ * Rows for the same wallet and day are added together before anything is written, so a batch costs one statement per
+ * wallet and day rather than one per ledger row, and rollup rows are always written in the same order to avoid
+ * deadlocks between batches. Days follow the ledger rows' timestamps, which are in the server's time zone.
+ * All methods must be called within the caller's transaction.
+ */
+@Component
+public class WalletRollups {
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparingLong(RollupKey::walletId)
+            .thenComparing(RollupKey::day)
+            .thenComparingInt(RollupKey::slot);
+
+    private final WalletDailyRollupRepository walletDailyRollupRepository;
+
+    private record RollupKey(long walletId, LocalDate day, int slot) {
+    }
+
+    /**
+     * Running totals of the ledger rows of one wallet, day and slot.
+     */
+    private static final class Totals {
+        private long creditMinorUnits;
+        private long creditCount;
+        private long debitMinorUnits;
+        private long debitCount;
+
+        private void add(Transaction transaction) {
+            if (transaction.getType() == Transaction.TransactionType.CREDIT) {
+                creditMinorUnits += transaction.getAmount().getMinorUnits();
+                creditCount++;
+            } else {
+                debitMinorUnits += transaction.getAmount().getMinorUnits();
+                debitCount++;
+            }
+        }
+    }
+
+    /**
+     * Constructs a new WalletRollups.
+     *
+     * @param walletDailyRollupRepository The repository for rollup rows
+     */
+    @Autowired
+    public WalletRollups(WalletDailyRollupRepository walletDailyRollupRepository) {
+        this.walletDailyRollupRepository = walletDailyRollupRepository;
+    }
+
+    /**
+     * Counts one ledger row being inserted in the current transaction.
+     *
+     * @param transaction The ledger row
+     * @throws OptimisticLockingFailureException if a concurrent writer started the same rollup row first
+     */
+    public void record(Transaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    /**
+     * Counts ledger rows being inserted in the current transaction.
+     *
+     * @param transactions The ledger rows
+     * @throws OptimisticLockingFailureException if a concurrent writer started one of the same rollup rows first
+     */
+    public void recordAll(Collection<Transaction> transactions) {
+        Map<RollupKey, Totals> rollups = new TreeMap<>(KEY_ORDER);
+        for (Transaction transaction : transactions) {
+            Wallet wallet = transaction.getWallet();
+            RollupKey key = new RollupKey(wallet.getId(), transaction.getTimestamp().toLocalDate(), slot(wallet));
+            rollups.computeIfAbsent(key, k -> new Totals()).add(transaction);
+        }
+        rollups.forEach(this::apply);
+    }
+
+    /**
+     * Adds to the rollup row, starting it if this is the day's first ledger row for the slot. Two writers that both
+     * try to start the row race on its primary key; the loser is rolled back and retried, and then finds the row.
+     */
+    private void apply(RollupKey key, Totals totals) {
+        int updated = walletDailyRollupRepository.addToRollup(key.walletId(), key.day(), key.slot(),
+                Money.ofMinor(totals.creditMinorUnits).toBigDecimal(), totals.creditCount,
+                Money.ofMinor(totals.debitMinorUnits).toBigDecimal(), totals.debitCount);
+        if (updated == 1) {
+            return;
+        }
+        try {
+            walletDailyRollupRepository.insertRollup(key.walletId(), key.day(), key.slot(),
+                    Money.ofMinor(totals.creditMinorUnits).toBigDecimal(), totals.creditCount,
+                    Money.ofMinor(totals.debitMinorUnits).toBigDecimal(), totals.debitCount);
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("Rollup for wallet " + key.walletId() + " on " + key.day() + " was started concurrently", e);
+        }
+    }
+
+    /**
+     * Spreads a sharded wallet's rollups across one slot per shard, so its writers do not all queue on one rollup row
+     * any more than on one balance row. A wallet that was only referenced, never loaded, is not sharded.
+     */
+    private static int slot(Wallet wallet) {
+        if (!Hibernate.isInitialized(wallet) || !wallet.isSharded()) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+    }
+}
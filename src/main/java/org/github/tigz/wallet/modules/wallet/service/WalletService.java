@@ -1,9 +1,16 @@
 package org.github.tigz.wallet.modules.wallet.service;
 
 import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.common.dto.SliceDTO;
+import org.github.tigz.wallet.common.model.Money;
 import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
 import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.model.IdempotencyRecord;
 import org.github.tigz.wallet.modules.wallet.model.Transaction;
 import org.github.tigz.wallet.modules.wallet.model.Wallet;
 import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
@@ -11,13 +18,23 @@ import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +50,11 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final WalletConfig walletConfig;
+    private final WalletBalanceCache walletBalanceCache;
+    private final IdempotencyStore idempotencyStore;
+    private final WalletLedger walletLedger;
+    private final WalletShards walletShards;
+    private final WalletRollups walletRollups;
 
     /**
      * Constructs a new WalletService with the specified repositories and configuration.
@@ -40,12 +62,24 @@ public class WalletService {
      * @param walletRepository The repository for wallet data
      * @param transactionRepository The repository for transaction data
      * @param walletConfig The configuration for wallet operations
+     * @param walletBalanceCache The near-cache of wallet balances, kept up to date by every write
+     * @param idempotencyStore The store of outcomes of operations sent with an idempotency key
+     * @param walletLedger The ledger balances and snapshots used by the event-sourced engine
+     * @param walletShards The shard rows of wallets whose balance is split for write throughput
+     * @param walletRollups The daily credit and debit totals kept in step with every ledger insert
      */
     @Autowired
-    public WalletService(WalletRepository walletRepository, TransactionRepository transactionRepository, WalletConfig walletConfig) {
+    public WalletService(WalletRepository walletRepository, TransactionRepository transactionRepository, WalletConfig walletConfig,
+                         WalletBalanceCache walletBalanceCache, IdempotencyStore idempotencyStore, WalletLedger walletLedger,
+                         WalletShards walletShards, WalletRollups walletRollups) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
         this.walletConfig = walletConfig;
+        this.walletBalanceCache = walletBalanceCache;
+        this.idempotencyStore = idempotencyStore;
+        this.walletLedger = walletLedger;
+        this.walletShards = walletShards;
+        this.walletRollups = walletRollups;
     }
 
     /**
@@ -58,29 +92,52 @@ public class WalletService {
      */
     @Transactional
     public WalletDTO addFunds(String customerId, BigDecimal amount) {
+        return addFunds(customerId, amount, null);
+    }
+
+    /**
+     * Adds funds to a customer's wallet at most once per idempotency key.
+     * If the key has already been used, the wallet is left untouched and the original result is returned.
+     *
+     * @param customerId The ID of the customer
+     * @param amount The amount to add
+     * @param idempotencyKey The client's key for the operation, or null to always apply it
+     * @return WalletDTO representing the wallet straight after the operation
+     * @throws IllegalArgumentException if the amount is null or outside the allowed range, or the key was used
+     * for a different request
+     */
+    @Transactional
+    public WalletDTO addFunds(String customerId, BigDecimal amount, String idempotencyKey) {
         logger.debug("Attempting to add funds: customerId={}, amount={}", customerId, amount);
 
-        if (amount == null) {
-            throw new IllegalArgumentException("Amount cannot be null");
+        Money credit = validateAddAmount(amount);
+
+        if (idempotencyKey != null) {
+            Optional<WalletDTO> replay = idempotencyStore.replay(customerId, idempotencyKey, Transaction.TransactionType.CREDIT, amount);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
         }
 
-        if (amount.compareTo(walletConfig.getMinAddAmount()) < 0 || amount.compareTo(walletConfig.getMaxAddAmount()) > 0) {
-            throw new IllegalArgumentException(String.format("Amount must be between £%s and £%s",
-                    walletConfig.getMinAddAmount(), walletConfig.getMaxAddAmount()));
+        if (walletConfig.getEngine() == WalletConfig.Engine.CONDITIONAL_UPDATE) {
+            return addFundsConditionally(customerId, credit, idempotencyKey);
+        }
+        if (isEventSourced()) {
+            return addFundsEventSourced(customerId, credit, idempotencyKey);
         }
 
         Wallet wallet = walletRepository.findByCustomerId(customerId)
-                .orElseGet(() -> {
-                    Wallet newWallet = new Wallet(customerId, BigDecimal.ZERO);
-                    logger.info("Creating new wallet for customer: {}", customerId);
-                    return walletRepository.save(newWallet);
-                });
+                .orElseGet(() -> createWallet(customerId));
+        if (wallet.isSharded()) {
+            return applyToShards(wallet, credit, Transaction.TransactionType.CREDIT, idempotencyKey);
+        }
 
-        wallet.setBalance(wallet.getBalance().add(amount));
+        wallet.setBalance(wallet.getBalance().plus(credit));
+        Transaction transaction = recordTransaction(wallet, credit, Transaction.TransactionType.CREDIT);
         walletRepository.save(wallet);
-
-        Transaction transaction = new Transaction(wallet, amount, Transaction.TransactionType.CREDIT);
-        transactionRepository.save(transaction);
+        saveLedgerRow(transaction);
+        walletBalanceCache.putAfterCommit(wallet);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.CREDIT, credit, wallet.getBalance());
 
         logger.info("Funds added successfully: customerId={}, amount={}, newBalance={}", customerId, amount, wallet.getBalance());
         return convertToDTO(wallet);
@@ -93,90 +150,753 @@ public class WalletService {
      * @param amount The amount to withdraw
      * @return WalletDTO representing the updated wallet
      * @throws IllegalArgumentException if the amount is null or outside the allowed range
-     * @throws RuntimeException if the wallet is not found
-     * @throws IllegalStateException if there are insufficient funds
+     * @throws WalletNotFoundException if the wallet is not found
+     * @throws InsufficientFundsException if there are insufficient funds
      */
     @Transactional
     public WalletDTO withdrawFunds(String customerId, BigDecimal amount) {
+        return withdrawFunds(customerId, amount, null);
+    }
+
+    /**
+     * Withdraws funds from a customer's wallet at most once per idempotency key.
+     * If the key has already been used, the wallet is left untouched and the original result is returned.
+     *
+     * @param customerId The ID of the customer
+     * @param amount The amount to withdraw
+     * @param idempotencyKey The client's key for the operation, or null to always apply it
+     * @return WalletDTO representing the wallet straight after the operation
+     * @throws IllegalArgumentException if the amount is null or outside the allowed range, or the key was used
+     * for a different request
+     * @throws WalletNotFoundException if the wallet is not found
+     * @throws InsufficientFundsException if there are insufficient funds
+     */
+    @Transactional
+    public WalletDTO withdrawFunds(String customerId, BigDecimal amount, String idempotencyKey) {
         logger.debug("Attempting to withdraw funds: customerId={}, amount={}", customerId, amount);
 
-        if (amount == null) {
-            throw new IllegalArgumentException("Amount cannot be null");
+        Money debit = validateWithdrawAmount(amount);
+
+        if (idempotencyKey != null) {
+            Optional<WalletDTO> replay = idempotencyStore.replay(customerId, idempotencyKey, Transaction.TransactionType.DEBIT, amount);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
         }
 
-        if (amount.compareTo(walletConfig.getMinWithdrawAmount()) < 0 || amount.compareTo(walletConfig.getMaxWithdrawAmount()) > 0) {
-            throw new IllegalArgumentException(String.format("Amount must be between £%s and £%s",
-                    walletConfig.getMinWithdrawAmount(), walletConfig.getMaxWithdrawAmount()));
+        if (walletConfig.getEngine() == WalletConfig.Engine.CONDITIONAL_UPDATE) {
+            return withdrawFundsConditionally(customerId, debit, idempotencyKey);
+        }
+        if (isEventSourced()) {
+            return withdrawFundsEventSourced(customerId, debit, idempotencyKey);
         }
 
         Wallet wallet = walletRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for customer: " + customerId));
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient funds for withdrawal");
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+        if (wallet.isSharded()) {
+            return applyToShards(wallet, debit, Transaction.TransactionType.DEBIT, idempotencyKey);
         }
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        walletRepository.save(wallet);
+        checkSufficientFunds(wallet, debit);
 
-        Transaction transaction = new Transaction(wallet, amount, Transaction.TransactionType.DEBIT);
-        transactionRepository.save(transaction);
+        wallet.setBalance(wallet.getBalance().minus(debit));
+        Transaction transaction = recordTransaction(wallet, debit, Transaction.TransactionType.DEBIT);
+        walletRepository.save(wallet);
+        saveLedgerRow(transaction);
+        walletBalanceCache.putAfterCommit(wallet);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.DEBIT, debit, wallet.getBalance());
 
         logger.info("Funds withdrawn successfully: customerId={}, amount={}, newBalance={}", customerId, amount, wallet.getBalance());
         return convertToDTO(wallet);
     }
 
+    /**
+     * Moves funds from one customer's wallet to another's in a single transaction.
+     * Both wallet rows are locked in ascending wallet id order, whichever direction the transfer goes, so two
+     * transfers between the same wallets queue behind each other instead of deadlocking. The debit and credit
+     * ledger rows reference each other through their counterpart ID.
+     *
+     * @param fromCustomerId The ID of the customer to debit
+     * @param toCustomerId The ID of the customer to credit
+     * @param amount The amount to transfer
+     * @return TransferDTO with both wallets straight after the transfer
+     * @throws IllegalArgumentException if the amount is null or outside the withdrawal range, or both customers are the same
+     * @throws WalletNotFoundException if either wallet is not found
+     * @throws InsufficientFundsException if the source wallet has insufficient funds
+     */
+    @Transactional
+    public TransferDTO transfer(String fromCustomerId, String toCustomerId, BigDecimal amount) {
+        logger.debug("Attempting transfer: from={}, to={}, amount={}", fromCustomerId, toCustomerId, amount);
+
+        if (fromCustomerId.equals(toCustomerId)) {
+            throw new IllegalArgumentException("Cannot transfer funds to the same wallet");
+        }
+        Money debit = validateWithdrawAmount(amount);
+
+        Map<String, Wallet> locked = new HashMap<>();
+        for (Long walletId : walletRepository.findIdsByCustomerIdIn(List.of(fromCustomerId, toCustomerId))) {
+            walletRepository.findByIdForUpdate(walletId).ifPresent(wallet -> locked.put(wallet.getCustomerId(), wallet));
+        }
+        Wallet source = locked.get(fromCustomerId);
+        if (source == null) {
+            throw new WalletNotFoundException(fromCustomerId);
+        }
+        Wallet target = locked.get(toCustomerId);
+        if (target == null) {
+            throw new WalletNotFoundException(toCustomerId);
+        }
+        if (isEventSourced()) {
+            return transferEventSourced(source, target, debit);
+        }
+        Transaction debitRow = debitWallet(source, debit);
+        Transaction creditRow = creditWallet(target, debit);
+        saveTransferRows(debitRow, creditRow);
+        walletRepository.save(source);
+        walletRepository.save(target);
+        cacheAfterCommit(source);
+        cacheAfterCommit(target);
+
+        WalletDTO from = currentState(source);
+        WalletDTO to = currentState(target);
+        logger.info("Transfer completed: from={}, to={}, amount={}, fromBalance={}, toBalance={}",
+                fromCustomerId, toCustomerId, amount, from.getBalance(), to.getBalance());
+        return new TransferDTO(from, to, debit.toBigDecimal(), debitRow.getId(), creditRow.getId());
+    }
+
+    /**
+     * Applies a batch of fund operations in a single transaction.
+     * The affected wallets are loaded with one query, ledger rows are written as one JDBC batch,
+     * and operations are applied in order so later operations see the balances left by earlier ones.
+     * An operation that fails validation, targets a missing wallet or lacks funds is reported in its
+     * result without affecting the rest of the batch. An operation whose idempotency key has already been used,
+     * earlier in the batch or before it, reports the original result without being applied again.
+     *
+     * @param operations The operations to apply, in order
+     * @return One result per operation, in the same order
+     */
+    @Transactional
+    public List<FundsOperationResult> applyOperations(List<FundsOperation> operations) {
+        logger.debug("Applying batch of {} fund operations", operations.size());
+
+        Set<String> customerIds = operations.stream()
+                .map(FundsOperation::getCustomerId)
+                .collect(Collectors.toSet());
+        boolean eventSourced = isEventSourced();
+        Map<String, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : eventSourced ? walletRepository.findByCustomerIdInForUpdate(customerIds) : walletRepository.findByCustomerIdIn(customerIds)) {
+            wallets.put(wallet.getCustomerId(), wallet);
+        }
+        Map<String, WalletLedger.Balance> ledgers = new HashMap<>();
+        if (eventSourced) {
+            Map<Long, WalletLedger.Balance> balances = walletLedger.read(wallets.values().stream().map(Wallet::getId).toList());
+            wallets.values().forEach(wallet -> ledgers.put(wallet.getCustomerId(), balances.get(wallet.getId())));
+        }
+
+        List<Transaction> transactions = new ArrayList<>(operations.size());
+        List<FundsOperationResult> results = new ArrayList<>(operations.size());
+        Map<IdempotencyRecord.Key, FundsOperationResult> keyedResults = new HashMap<>();
+        for (FundsOperation operation : operations) {
+            try {
+                IdempotencyRecord.Key key = operation.getIdempotencyKey() != null
+                        ? new IdempotencyRecord.Key(operation.getCustomerId(), operation.getIdempotencyKey())
+                        : null;
+                FundsOperationResult replay = key != null ? replayInBatch(operation, key, keyedResults) : null;
+                if (replay != null) {
+                    results.add(replay);
+                    continue;
+                }
+
+                WalletDTO wallet = eventSourced
+                        ? applyOperationEventSourced(operation, wallets, ledgers, transactions)
+                        : currentState(applyOperation(operation, wallets, transactions));
+                FundsOperationResult result = FundsOperationResult.success(operation, wallet);
+                if (key != null) {
+                    recordIdempotencyKey(operation.getCustomerId(), operation.getIdempotencyKey(), transactionType(operation),
+                            Money.of(operation.getAmount()), Money.of(wallet.getBalance()));
+                    keyedResults.put(key, result);
+                }
+                results.add(result);
+            } catch (IllegalArgumentException | IllegalStateException | WalletNotFoundException e) {
+                logger.debug("Rejected {} in batch: customerId={}, reason={}", operation.getType(), operation.getCustomerId(), e.getMessage());
+                results.add(FundsOperationResult.failure(operation, e));
+            }
+        }
+
+        saveLedgerRows(transactions);
+        if (eventSourced) {
+            ledgers.forEach(this::cacheAfterCommit);
+        } else {
+            wallets.values().forEach(this::cacheAfterCommit);
+        }
+
+        logger.info("Batch applied: operations={}, ledgerRows={}", operations.size(), transactions.size());
+        return results;
+    }
+
     /**
      * Retrieves a paginated list of transactions for a customer's wallet.
+     * Totals come from the wallet's maintained transaction count, plus its shards' counts if it is sharded, rather
+     * than a COUNT query.
      *
      * @param customerId The ID of the customer
      * @param pageable The pagination information
      * @return PageDTO containing TransactionDTO objects
-     * @throws RuntimeException if the wallet is not found
+     * @throws WalletNotFoundException if the wallet is not found
      */
     public PageDTO<TransactionDTO> getTransactions(String customerId, Pageable pageable) {
         logger.debug("Retrieving transactions: customerId={}, page={}, size={}", customerId, pageable.getPageNumber(), pageable.getPageSize());
 
         Wallet wallet = walletRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for customer: " + customerId));
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
 
-        Page<Transaction> transactionPage = transactionRepository.findByWallet(wallet, pageable);
-        List<TransactionDTO> transactionDTOs = transactionPage.getContent().stream()
+        Slice<Transaction> transactionSlice = findSlice(wallet, pageable);
+        List<TransactionDTO> transactionDTOs = transactionSlice.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
 
+        long totalElements = isEventSourced() ? walletLedger.read(wallet.getId()).transactionCount() : transactionCount(wallet);
+        int pageSize = transactionSlice.getSize();
+        int totalPages = pageSize == 0 ? 1 : (int) ((totalElements + pageSize - 1) / pageSize);
         return new PageDTO<>(
                 transactionDTOs,
-                transactionPage.getNumber(),
-                transactionPage.getSize(),
-                transactionPage.getTotalElements(),
-                transactionPage.getTotalPages()
+                transactionSlice.getNumber(),
+                pageSize,
+                totalElements,
+                totalPages
         );
     }
 
+    /**
+     * Retrieves a page of transactions for a customer's wallet without any totals.
+     * Only reports whether a further page exists, for clients that never display counts.
+     *
+     * @param customerId The ID of the customer
+     * @param pageable The pagination information
+     * @return SliceDTO containing TransactionDTO objects
+     * @throws WalletNotFoundException if the wallet is not found
+     */
+    public SliceDTO<TransactionDTO> getTransactionSlice(String customerId, Pageable pageable) {
+        logger.debug("Retrieving transaction slice: customerId={}, page={}, size={}", customerId, pageable.getPageNumber(), pageable.getPageSize());
+
+        Wallet wallet = walletRepository.findByCustomerId(customerId)
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+
+        Slice<Transaction> transactionSlice = findSlice(wallet, pageable);
+        List<TransactionDTO> transactionDTOs = transactionSlice.getContent().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return new SliceDTO<>(transactionDTOs, transactionSlice.getNumber(), transactionSlice.getSize(), transactionSlice.hasNext());
+    }
+
+    /**
+     * Retrieves one page of a customer's transaction history using keyset pagination.
+     * History is ordered newest first. Each page seeks directly to its boundary row through the
+     * (wallet_id, created_at, id) index and runs no COUNT query, so deep pages cost the same as the first.
+     *
+     * @param customerId The ID of the customer
+     * @param cursor The opaque cursor from a previous page, or null for the newest page
+     * @param size The maximum number of transactions to return
+     * @return CursorPageDTO containing TransactionDTO objects and the cursors of adjacent pages
+     * @throws WalletNotFoundException if the wallet is not found
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDTO<TransactionDTO> getTransactionsByCursor(String customerId, String cursor, int size) {
+        logger.debug("Retrieving transactions by cursor: customerId={}, cursor={}, size={}", customerId, cursor, size);
+
+        Wallet wallet = walletRepository.findByCustomerId(customerId)
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+
+        TransactionCursor position = cursor != null && !cursor.isBlank() ? TransactionCursor.decode(cursor) : null;
+        Limit limit = Limit.of(size + 1);
+        List<Transaction> transactions;
+        boolean hasNext;
+        boolean hasPrev;
+        if (position == null) {
+            transactions = transactionRepository.findLatestByWallet(wallet, limit);
+            hasNext = transactions.size() > size;
+            hasPrev = false;
+        } else if (position.direction() == TransactionCursor.Direction.NEXT) {
+            transactions = transactionRepository.findOlderByWallet(wallet, position.timestamp(), position.id(), limit);
+            hasNext = transactions.size() > size;
+            hasPrev = true;
+        } else {
+            transactions = transactionRepository.findNewerByWallet(wallet, position.timestamp(), position.id(), limit);
+            hasPrev = transactions.size() > size;
+            hasNext = true;
+        }
+
+        List<Transaction> page = new ArrayList<>(transactions.subList(0, Math.min(size, transactions.size())));
+        if (position != null && position.direction() == TransactionCursor.Direction.PREV) {
+            Collections.reverse(page);
+        }
+
+        String nextCursor = hasNext && !page.isEmpty() ? TransactionCursor.next(page.get(page.size() - 1)).encode() : null;
+        String prevCursor = hasPrev && !page.isEmpty() ? TransactionCursor.prev(page.get(0)).encode() : null;
+        List<TransactionDTO> transactionDTOs = page.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(transactionDTOs, size, nextCursor, prevCursor);
+    }
+
     /**
      * Retrieves the wallet information for a specific customer.
+     * Served from the balance near-cache when possible, falling back to the database on a miss.
+     * A sharded wallet is never cached, since its balance changes without its row changing, and is summed from its
+     * shards on every read.
      *
      * @param customerId The ID of the customer
      * @return WalletDTO representing the customer's wallet
-     * @throws RuntimeException if the wallet is not found
+     * @throws WalletNotFoundException if the wallet is not found
      */
     public WalletDTO getWallet(String customerId) {
         logger.debug("Retrieving wallet: customerId={}", customerId);
 
+        WalletDTO cached = walletBalanceCache.get(customerId);
+        if (cached != null) {
+            return cached;
+        }
+
         Wallet wallet = walletRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for customer: " + customerId));
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+        if (isEventSourced()) {
+            WalletLedger.Balance ledger = walletLedger.read(wallet.getId());
+            walletBalanceCache.putAfterCommit(customerId, ledger.balance(), ledger.transactionCount());
+            return new WalletDTO(customerId, ledger.balance().toBigDecimal());
+        }
+        if (wallet.isSharded()) {
+            return currentState(wallet);
+        }
+        walletBalanceCache.put(wallet);
         return convertToDTO(wallet);
     }
 
+    /**
+     * Splits a customer's wallet balance across a number of shard rows, or folds its shards back into the wallet row
+     * when the count is 0. Writes to a sharded wallet land on one shard each, so concurrent credits to a hot wallet
+     * stop queueing on a single row lock; the balance is the sum of the shards and stays exact.
+     * Sharding only helps writers that run in parallel, so it suits the OPTIMISTIC concurrency mode; the STRIPED and
+     * GROUP_COMMIT modes still serialise each customer's writes through one lane.
+     *
+     * @param customerId The ID of the customer
+     * @param shardCount The number of shards, or 0 to stop sharding
+     * @return WalletDTO representing the wallet, whose balance is unchanged
+     * @throws IllegalArgumentException if the count is out of range, or the configured engine keeps balances elsewhere
+     * @throws WalletNotFoundException if the wallet is not found
+     */
+    @Transactional
+    public WalletDTO setShards(String customerId, int shardCount) {
+        logger.debug("Resharding wallet: customerId={}, shards={}", customerId, shardCount);
+
+        if (walletConfig.getEngine() == WalletConfig.Engine.EVENT_SOURCED || walletConfig.getEngine() == WalletConfig.Engine.IN_MEMORY) {
+            throw new IllegalArgumentException("Sharded balances are not supported by the " + walletConfig.getEngine() + " engine");
+        }
+        if (shardCount < 0 || shardCount > walletConfig.getMaxShardsPerWallet()) {
+            throw new IllegalArgumentException(String.format("Shards must be between 0 and %d", walletConfig.getMaxShardsPerWallet()));
+        }
+
+        Wallet wallet = walletRepository.findByCustomerIdForUpdate(customerId)
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+        walletShards.reshard(wallet, shardCount);
+        walletRepository.save(wallet);
+        walletBalanceCache.evictAfterCommit(customerId);
+        return currentState(wallet);
+    }
+
+    /**
+     * Credits a wallet with a single conditional UPDATE instead of a read-modify-write.
+     * The UPDATE skips sharded wallets; only when it updates nothing is the wallet looked up, to credit one of its
+     * shards, or to create a missing wallet on first use and apply the credit to it.
+     */
+    private WalletDTO addFundsConditionally(String customerId, Money amount, String idempotencyKey) {
+        Optional<WalletRepository.BalanceUpdate> credited = walletRepository.creditBalance(customerId, amount.toBigDecimal());
+        if (credited.isEmpty()) {
+            Optional<Wallet> existing = walletRepository.findByCustomerId(customerId);
+            if (existing.isPresent() && existing.get().isSharded()) {
+                return applyToShards(existing.get(), amount, Transaction.TransactionType.CREDIT, idempotencyKey);
+            }
+            if (existing.isEmpty()) {
+                createWallet(customerId);
+            }
+        }
+        WalletRepository.BalanceUpdate update = credited
+                .or(() -> walletRepository.creditBalance(customerId, amount.toBigDecimal()))
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+
+        insertLedgerRow(customerId, update, amount, Transaction.TransactionType.CREDIT);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.CREDIT, amount, Money.of(update.getBalance()));
+        logger.info("Funds added successfully: customerId={}, amount={}, newBalance={}", customerId, amount, update.getBalance());
+        return new WalletDTO(customerId, update.getBalance());
+    }
+
+    /**
+     * Debits a wallet with a single conditional UPDATE guarded by {@code balance >= amount}, which skips sharded
+     * wallets. No row updated means no wallet, insufficient funds or a sharded wallet; only then is the wallet looked
+     * up to tell which. A wallet that has just been unsharded is given one more attempt at the UPDATE.
+     */
+    private WalletDTO withdrawFundsConditionally(String customerId, Money amount, String idempotencyKey) {
+        Optional<WalletRepository.BalanceUpdate> debited = walletRepository.debitBalanceIfSufficient(customerId, amount.toBigDecimal());
+        if (debited.isEmpty()) {
+            Wallet wallet = walletRepository.findByCustomerId(customerId)
+                    .orElseThrow(() -> new WalletNotFoundException(customerId));
+            if (wallet.isSharded()) {
+                return applyToShards(wallet, amount, Transaction.TransactionType.DEBIT, idempotencyKey);
+            }
+        }
+        WalletRepository.BalanceUpdate update = debited
+                .or(() -> walletRepository.debitBalanceIfSufficient(customerId, amount.toBigDecimal()))
+                .orElseThrow(() -> new InsufficientFundsException(customerId));
+
+        insertLedgerRow(customerId, update, amount, Transaction.TransactionType.DEBIT);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.DEBIT, amount, Money.of(update.getBalance()));
+        logger.info("Funds withdrawn successfully: customerId={}, amount={}, newBalance={}", customerId, amount, update.getBalance());
+        return new WalletDTO(customerId, update.getBalance());
+    }
+
+    /**
+     * Credits or debits a sharded wallet through one of its shards, leaving the wallet row untouched.
+     */
+    private WalletDTO applyToShards(Wallet wallet, Money amount, Transaction.TransactionType type, String idempotencyKey) {
+        Transaction transaction = type == Transaction.TransactionType.CREDIT ? creditWallet(wallet, amount) : debitWallet(wallet, amount);
+        saveLedgerRow(transaction);
+        WalletDTO result = currentState(wallet);
+        recordIdempotencyKey(wallet.getCustomerId(), idempotencyKey, type, amount, Money.of(result.getBalance()));
+        logger.info("Funds {} sharded wallet: customerId={}, amount={}, newBalance={}",
+                type == Transaction.TransactionType.CREDIT ? "added to" : "withdrawn from", wallet.getCustomerId(), amount, result.getBalance());
+        return result;
+    }
+
+    /**
+     * Queues the ledger row for a conditional update. The wallet is referenced by id without being
+     * loaded, and the insert is flushed with the rest of the transaction's JDBC batch.
+     */
+    private void insertLedgerRow(String customerId, WalletRepository.BalanceUpdate update, Money amount,
+                                 Transaction.TransactionType type) {
+        Wallet walletReference = walletRepository.getReferenceById(update.getId());
+        saveLedgerRow(new Transaction(walletReference, amount, type));
+        walletBalanceCache.putAfterCommit(customerId, Money.of(update.getBalance()), update.getVersion());
+    }
+
+    /**
+     * Credits a wallet by appending a ledger row, without updating the wallet row.
+     * The wallet row is only locked, so writers to the same wallet append one at a time; a missing wallet is created
+     * on first use.
+     */
+    private WalletDTO addFundsEventSourced(String customerId, Money amount, String idempotencyKey) {
+        Wallet wallet = walletRepository.findByCustomerIdForUpdate(customerId)
+                .orElseGet(() -> createWallet(customerId));
+
+        WalletLedger.Balance ledger = walletLedger.read(wallet.getId()).credit(amount);
+        saveLedgerRow(new Transaction(wallet, amount, Transaction.TransactionType.CREDIT));
+        cacheAfterCommit(customerId, ledger);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.CREDIT, amount, ledger.balance());
+        logger.info("Funds added successfully: customerId={}, amount={}, newBalance={}", customerId, amount, ledger.balance());
+        return new WalletDTO(customerId, ledger.balance().toBigDecimal());
+    }
+
+    /**
+     * Debits a wallet by appending a ledger row, checked against the balance folded from the ledger while the wallet
+     * row is locked.
+     */
+    private WalletDTO withdrawFundsEventSourced(String customerId, Money amount, String idempotencyKey) {
+        Wallet wallet = walletRepository.findByCustomerIdForUpdate(customerId)
+                .orElseThrow(() -> new WalletNotFoundException(customerId));
+
+        WalletLedger.Balance current = walletLedger.read(wallet.getId());
+        if (current.balance().isLessThan(amount)) {
+            throw new InsufficientFundsException(customerId);
+        }
+        WalletLedger.Balance ledger = current.debit(amount);
+        saveLedgerRow(new Transaction(wallet, amount, Transaction.TransactionType.DEBIT));
+        cacheAfterCommit(customerId, ledger);
+        recordIdempotencyKey(customerId, idempotencyKey, Transaction.TransactionType.DEBIT, amount, ledger.balance());
+        logger.info("Funds withdrawn successfully: customerId={}, amount={}, newBalance={}", customerId, amount, ledger.balance());
+        return new WalletDTO(customerId, ledger.balance().toBigDecimal());
+    }
+
+    /**
+     * Appends the two ledger rows of a transfer between wallets already locked by the caller.
+     */
+    private TransferDTO transferEventSourced(Wallet source, Wallet target, Money amount) {
+        Map<Long, WalletLedger.Balance> balances = walletLedger.read(List.of(source.getId(), target.getId()));
+        WalletLedger.Balance sourceLedger = balances.get(source.getId());
+        if (sourceLedger.balance().isLessThan(amount)) {
+            throw new InsufficientFundsException(source.getCustomerId());
+        }
+        sourceLedger = sourceLedger.debit(amount);
+        WalletLedger.Balance targetLedger = balances.get(target.getId()).credit(amount);
+
+        Transaction debitRow = new Transaction(source, amount, Transaction.TransactionType.DEBIT);
+        Transaction creditRow = new Transaction(target, amount, Transaction.TransactionType.CREDIT);
+        saveTransferRows(debitRow, creditRow);
+        cacheAfterCommit(source.getCustomerId(), sourceLedger);
+        cacheAfterCommit(target.getCustomerId(), targetLedger);
+
+        logger.info("Transfer completed: from={}, to={}, amount={}, fromBalance={}, toBalance={}",
+                source.getCustomerId(), target.getCustomerId(), amount, sourceLedger.balance(), targetLedger.balance());
+        return new TransferDTO(new WalletDTO(source.getCustomerId(), sourceLedger.balance().toBigDecimal()),
+                new WalletDTO(target.getCustomerId(), targetLedger.balance().toBigDecimal()),
+                amount.toBigDecimal(), debitRow.getId(), creditRow.getId());
+    }
+
+    /**
+     * Saves the debit and credit rows of a transfer, linking each to the other.
+     * Ids come from the sequence on save, so only the first row needs its link filled in by an update.
+     */
+    private void saveTransferRows(Transaction debitRow, Transaction creditRow) {
+        transactionRepository.save(debitRow);
+        creditRow.setCounterpartId(debitRow.getId());
+        transactionRepository.save(creditRow);
+        debitRow.setCounterpartId(creditRow.getId());
+        walletRollups.recordAll(List.of(debitRow, creditRow));
+    }
+
+    /**
+     * Reads a page of a wallet's history. A sort the repository refuses reaches here wrapped by its exception
+     * translation, and is unwrapped so it is reported as the invalid request it is.
+     */
+    private Slice<Transaction> findSlice(Wallet wallet, Pageable pageable) {
+        try {
+            return transactionRepository.findSliceByWallet(wallet, pageable);
+        } catch (InvalidDataAccessApiUsageException e) {
+            if (e.getCause() instanceof IllegalArgumentException invalid) {
+                throw invalid;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts an empty wallet for a customer's first credit. Two first credits for the same customer race on the
+     * unique customer ID; the loser is rolled back and retried like any other conflict, and then finds the wallet.
+     */
+    private Wallet createWallet(String customerId) {
+        logger.info("Creating new wallet for customer: {}", customerId);
+        try {
+            return walletRepository.saveAndFlush(new Wallet(customerId, Money.ZERO));
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("Wallet for customer " + customerId + " was created concurrently", e);
+        }
+    }
+
+    /**
+     * Saves a ledger row and counts it in its wallet's daily rollup, in the current transaction.
+     */
+    private void saveLedgerRow(Transaction transaction) {
+        transactionRepository.save(transaction);
+        walletRollups.record(transaction);
+    }
+
+    /**
+     * Saves ledger rows as one JDBC batch and counts them in their wallets' daily rollups, in the current transaction.
+     */
+    private void saveLedgerRows(List<Transaction> transactions) {
+        transactionRepository.saveAll(transactions);
+        walletRollups.recordAll(transactions);
+    }
+
+    /**
+     * Applies one batch operation against the ledger balances folded at the start of the batch. Wallet rows were
+     * locked when the batch loaded them, and wallets created by the batch are locked by their insert.
+     */
+    private WalletDTO applyOperationEventSourced(FundsOperation operation, Map<String, Wallet> wallets,
+                                                 Map<String, WalletLedger.Balance> ledgers, List<Transaction> transactions) {
+        String customerId = operation.getCustomerId();
+        if (operation.getType() == FundsOperation.Type.ADD) {
+            Money credit = validateAddAmount(operation.getAmount());
+            Wallet wallet = wallets.computeIfAbsent(customerId, this::createWallet);
+            WalletLedger.Balance ledger = ledgers.computeIfAbsent(customerId, id -> new WalletLedger.Balance(wallet.getId(), Money.ZERO, 0, 0))
+                    .credit(credit);
+            ledgers.put(customerId, ledger);
+            transactions.add(new Transaction(wallet, credit, Transaction.TransactionType.CREDIT));
+            return new WalletDTO(customerId, ledger.balance().toBigDecimal());
+        }
+
+        Money debit = validateWithdrawAmount(operation.getAmount());
+        Wallet wallet = wallets.get(customerId);
+        if (wallet == null) {
+            throw new WalletNotFoundException(customerId);
+        }
+        WalletLedger.Balance current = ledgers.get(customerId);
+        if (current.balance().isLessThan(debit)) {
+            throw new InsufficientFundsException(customerId);
+        }
+        WalletLedger.Balance ledger = current.debit(debit);
+        ledgers.put(customerId, ledger);
+        transactions.add(new Transaction(wallet, debit, Transaction.TransactionType.DEBIT));
+        return new WalletDTO(customerId, ledger.balance().toBigDecimal());
+    }
+
+    /**
+     * Caches a ledger balance once the current transaction commits, versioned by its row count, and queues the wallet
+     * for compaction if it has drifted far enough from its snapshot.
+     */
+    private void cacheAfterCommit(String customerId, WalletLedger.Balance ledger) {
+        walletBalanceCache.putAfterCommit(customerId, ledger.balance(), ledger.transactionCount());
+        walletLedger.compactAfterCommit(ledger);
+    }
+
+    private boolean isEventSourced() {
+        return walletConfig.getEngine() == WalletConfig.Engine.EVENT_SOURCED;
+    }
+
+    /**
+     * Saves the idempotency record of an operation applied in the current transaction, if it carried a key.
+     */
+    private void recordIdempotencyKey(String customerId, String idempotencyKey, Transaction.TransactionType type,
+                                      Money amount, Money balance) {
+        if (idempotencyKey != null) {
+            idempotencyStore.record(customerId, idempotencyKey, type, amount, balance);
+        }
+    }
+
+    /**
+     * Resolves a batch operation whose key was already used earlier in the same batch or in an earlier transaction.
+     * Returns null if the operation has to be applied.
+     */
+    private FundsOperationResult replayInBatch(FundsOperation operation, IdempotencyRecord.Key key,
+                                               Map<IdempotencyRecord.Key, FundsOperationResult> keyedResults) {
+        FundsOperationResult earlier = keyedResults.get(key);
+        if (earlier != null) {
+            FundsOperation original = earlier.getOperation();
+            if (original.getType() != operation.getType() || operation.getAmount() == null
+                    || original.getAmount().compareTo(operation.getAmount()) != 0) {
+                throw new IllegalArgumentException("Idempotency key " + key.getIdempotencyKey() + " was already used for a different request");
+            }
+            return FundsOperationResult.success(operation, earlier.getWallet());
+        }
+        return idempotencyStore.replay(operation.getCustomerId(), operation.getIdempotencyKey(), transactionType(operation), operation.getAmount())
+                .map(wallet -> FundsOperationResult.success(operation, wallet))
+                .orElse(null);
+    }
+
+    private static Transaction.TransactionType transactionType(FundsOperation operation) {
+        return operation.getType() == FundsOperation.Type.ADD ? Transaction.TransactionType.CREDIT : Transaction.TransactionType.DEBIT;
+    }
+
+    private Wallet applyOperation(FundsOperation operation, Map<String, Wallet> wallets, List<Transaction> transactions) {
+        String customerId = operation.getCustomerId();
+        if (operation.getType() == FundsOperation.Type.ADD) {
+            Money credit = validateAddAmount(operation.getAmount());
+            Wallet wallet = wallets.computeIfAbsent(customerId, this::createWallet);
+            transactions.add(creditWallet(wallet, credit));
+            return wallet;
+        }
+
+        Money debit = validateWithdrawAmount(operation.getAmount());
+        Wallet wallet = wallets.get(customerId);
+        if (wallet == null) {
+            throw new WalletNotFoundException(customerId);
+        }
+        transactions.add(debitWallet(wallet, debit));
+        return wallet;
+    }
+
+    /**
+     * Credits a wallet loaded in the current transaction, through one of its shards if it is sharded, and returns the
+     * ledger row for the caller to save.
+     */
+    private Transaction creditWallet(Wallet wallet, Money amount) {
+        if (wallet.isSharded()) {
+            walletShards.credit(wallet, amount);
+            return new Transaction(wallet, amount, Transaction.TransactionType.CREDIT);
+        }
+        wallet.setBalance(wallet.getBalance().plus(amount));
+        return recordTransaction(wallet, amount, Transaction.TransactionType.CREDIT);
+    }
+
+    /**
+     * Debits a wallet loaded in the current transaction, through its shards if it is sharded, and returns the ledger
+     * row for the caller to save.
+     *
+     * @throws InsufficientFundsException if the wallet holds less than the amount
+     */
+    private Transaction debitWallet(Wallet wallet, Money amount) {
+        if (wallet.isSharded()) {
+            walletShards.debit(wallet, amount);
+            return new Transaction(wallet, amount, Transaction.TransactionType.DEBIT);
+        }
+        checkSufficientFunds(wallet, amount);
+        wallet.setBalance(wallet.getBalance().minus(amount));
+        return recordTransaction(wallet, amount, Transaction.TransactionType.DEBIT);
+    }
+
+    /**
+     * The wallet's state as seen by the current transaction, with a sharded wallet's balance summed from its shards.
+     */
+    private WalletDTO currentState(Wallet wallet) {
+        return wallet.isSharded()
+                ? new WalletDTO(wallet.getCustomerId(), walletShards.totals(wallet).balance().toBigDecimal())
+                : convertToDTO(wallet);
+    }
+
+    /**
+     * The wallet's number of ledger rows, including those counted by its shards if it is sharded.
+     */
+    private long transactionCount(Wallet wallet) {
+        return wallet.isSharded()
+                ? wallet.getTransactionCount() + walletShards.totals(wallet).transactionCount()
+                : wallet.getTransactionCount();
+    }
+
+    /**
+     * Caches a wallet written in the current transaction once it commits, unless it is sharded.
+     */
+    private void cacheAfterCommit(Wallet wallet) {
+        if (!wallet.isSharded()) {
+            walletBalanceCache.putAfterCommit(wallet);
+        }
+    }
+
+    /**
+     * Creates a ledger row for the wallet and bumps the wallet's transaction count to match.
+     * The caller is responsible for saving both in the current transaction.
+     */
+    private Transaction recordTransaction(Wallet wallet, Money amount, Transaction.TransactionType type) {
+        wallet.setTransactionCount(wallet.getTransactionCount() + 1);
+        return new Transaction(wallet, amount, type);
+    }
+
+    /**
+     * Validates a credit amount and converts it to minor units once, at the service boundary.
+     */
+    private Money validateAddAmount(BigDecimal amount) {
+        return validateAmount(amount, walletConfig.getMinAddAmount(), walletConfig.getMaxAddAmount());
+    }
+
+    /**
+     * Validates a debit amount and converts it to minor units once, at the service boundary.
+     */
+    private Money validateWithdrawAmount(BigDecimal amount) {
+        return validateAmount(amount, walletConfig.getMinWithdrawAmount(), walletConfig.getMaxWithdrawAmount());
+    }
+
+    private Money validateAmount(BigDecimal amount, Money min, Money max) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+
+        Money money = Money.of(amount);
+        if (money.isLessThan(min) || money.isGreaterThan(max)) {
+            throw new IllegalArgumentException(String.format("Amount must be between £%s and £%s", min, max));
+        }
+        return money;
+    }
+
+    private void checkSufficientFunds(Wallet wallet, Money amount) {
+        if (wallet.getBalance().isLessThan(amount)) {
+            throw new InsufficientFundsException(wallet.getCustomerId());
+        }
+    }
+
     /**
      * Converts a Wallet entity to a WalletDTO.
      *
      * @param wallet The Wallet entity to convert
      * @return WalletDTO representing the wallet
      */
-    private WalletDTO convertToDTO(Wallet wallet) {
-        return new WalletDTO(wallet.getCustomerId(), wallet.getBalance());
+    WalletDTO convertToDTO(Wallet wallet) {
+        return new WalletDTO(wallet.getCustomerId(), wallet.getBalance().toBigDecimal());
     }
 
     /**
@@ -185,11 +905,11 @@ public class WalletService {
      * @param transaction The Transaction entity to convert
      * @return TransactionDTO representing the transaction
      */
-    private TransactionDTO convertToDTO(Transaction transaction) {
+    TransactionDTO convertToDTO(Transaction transaction) {
         return new TransactionDTO(
                 transaction.getId(),
                 transaction.getWallet().getCustomerId(),
-                transaction.getAmount(),
+                transaction.getAmount().toBigDecimal(),
                 transaction.getTimestamp()
         );
     }
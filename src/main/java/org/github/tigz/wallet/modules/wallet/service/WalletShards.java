@@ -0,0 +1,156 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import org.github.tigz.wallet.modules.wallet.repository.WalletShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies credits and debits to wallets whose balance is split across shard rows, so that writers to one hot wallet
+ * contend on N rows instead of one.
+ * A credit lands on a random shard with a single UPDATE. A debit first tries a random shard on its own, guarded by
+ * {@code balance >= amount}; only if that shard holds too little does it lock the wallet row and then every shard in
+ * order, check the total, and spread what is left evenly back across the shards. The total is exact at every commit:
+ * each shard row only ever moves under its own row lock.
+ * <p>
+ * A statement that finds no shard row means the wallet was resharded since it was read, and fails with an
+ * {@link OptimisticLockingFailureException} so the whole operation is retried against the new layout.
+ * All methods must be called within the caller's transaction.
+ */
+@Component
+public class WalletShards {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletShards.class);
+
+    /**
+     * The summed state of a sharded wallet.
+     *
+     * @param balance The wallet's balance, the sum of its shards
+     * @param transactionCount The number of ledger rows counted by the shards, excluding those counted by the wallet row
+     */
+    public record Totals(Money balance, long transactionCount) {
+    }
+
+    private final WalletRepository walletRepository;
+    private final WalletShardRepository walletShardRepository;
+    private final Counter rebalances;
+
+    /**
+     * Constructs a new WalletShards.
+     *
+     * @param walletRepository The repository used to lock the wallet row before a rebalance
+     * @param walletShardRepository The repository for shard rows
+     * @param meterRegistry The registry to publish the {@code wallet.shards.rebalances} counter to
+     */
+    @Autowired
+    public WalletShards(WalletRepository walletRepository, WalletShardRepository walletShardRepository, MeterRegistry meterRegistry) {
+        this.walletRepository = walletRepository;
+        this.walletShardRepository = walletShardRepository;
+        this.rebalances = Counter.builder("wallet.shards.rebalances")
+                .description("Debits that could not be served by a single shard and rebalanced the whole wallet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Credits a random shard of a sharded wallet and counts the ledger row on it.
+     *
+     * @param wallet The sharded wallet
+     * @param amount The amount to credit
+     * @throws OptimisticLockingFailureException if the wallet has been resharded since it was read
+     */
+    public void credit(Wallet wallet, Money amount) {
+        int shard = ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+        if (walletShardRepository.creditShard(wallet.getId(), shard, amount.toBigDecimal()) == 0) {
+            throw new OptimisticLockingFailureException("Wallet " + wallet.getCustomerId() + " was resharded");
+        }
+    }
+
+    /**
+     * Debits a sharded wallet, from a single random shard if it holds enough, otherwise by rebalancing across all of
+     * them, and counts the ledger row on one shard.
+     *
+     * @param wallet The sharded wallet
+     * @param amount The amount to debit
+     * @throws InsufficientFundsException if the shards together hold less than the amount
+     * @throws OptimisticLockingFailureException if the wallet has been resharded since it was read
+     */
+    public void debit(Wallet wallet, Money amount) {
+        int shard = ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+        if (walletShardRepository.debitShardIfSufficient(wallet.getId(), shard, amount.toBigDecimal()) == 1) {
+            return;
+        }
+
+        walletRepository.findByIdForUpdate(wallet.getId());
+        List<WalletShardRepository.ShardBalance> shards = walletShardRepository.findByWalletIdForUpdate(wallet.getId());
+        if (shards.size() != wallet.getShardCount()) {
+            throw new OptimisticLockingFailureException("Wallet " + wallet.getCustomerId() + " was resharded");
+        }
+        Money total = Money.ZERO;
+        for (WalletShardRepository.ShardBalance balance : shards) {
+            total = total.plus(Money.of(balance.getBalance()));
+        }
+        if (total.isLessThan(amount)) {
+            throw new InsufficientFundsException(wallet.getCustomerId());
+        }
+
+        long remaining = total.minus(amount).getMinorUnits();
+        int count = shards.size();
+        for (int i = 0; i < count; i++) {
+            long share = remaining / count + (i < remaining % count ? 1 : 0);
+            walletShardRepository.setShardBalance(wallet.getId(), shards.get(i).getShard(), Money.ofMinor(share).toBigDecimal(), i == 0 ? 1 : 0);
+        }
+        rebalances.increment();
+        logger.debug("Rebalanced sharded wallet: customerId={}, shards={}, balance={}", wallet.getCustomerId(), count, total.minus(amount));
+    }
+
+    /**
+     * Sums the shards of a wallet as committed so far, without locking them.
+     *
+     * @param wallet The sharded wallet
+     * @return The wallet's balance and the ledger rows counted by its shards
+     */
+    public Totals totals(Wallet wallet) {
+        WalletShardRepository.ShardTotals totals = walletShardRepository.sumByWalletId(wallet.getId());
+        return new Totals(Money.of(totals.getBalance()), totals.getTransactionCount());
+    }
+
+    /**
+     * Splits a wallet's balance across a new number of shards, folding any existing shards back first.
+     * The caller must hold the lock on the wallet row and save it afterwards; the new shards start with an even share
+     * of the balance, and with no shards the whole balance and row count are back on the wallet row.
+     *
+     * @param wallet The wallet, locked by the caller
+     * @param shardCount The new number of shards, or 0 to stop sharding the wallet
+     */
+    public void reshard(Wallet wallet, int shardCount) {
+        if (wallet.isSharded()) {
+            for (WalletShardRepository.ShardBalance shard : walletShardRepository.findByWalletIdForUpdate(wallet.getId())) {
+                wallet.setBalance(wallet.getBalance().plus(Money.of(shard.getBalance())));
+                wallet.setTransactionCount(wallet.getTransactionCount() + shard.getTransactionCount());
+            }
+            walletShardRepository.deleteByWalletId(wallet.getId());
+        }
+
+        if (shardCount > 0) {
+            long balance = wallet.getBalance().getMinorUnits();
+            for (int shard = 0; shard < shardCount; shard++) {
+                long share = balance / shardCount + (shard < balance % shardCount ? 1 : 0);
+                walletShardRepository.insertShard(wallet.getId(), shard, Money.ofMinor(share).toBigDecimal());
+            }
+            wallet.setBalance(Money.ZERO);
+        }
+        wallet.setShardCount(shardCount);
+        logger.info("Resharded wallet: customerId={}, shards={}", wallet.getCustomerId(), shardCount);
+    }
+}
@@ -0,0 +1,12 @@
+-- Opt-in sharded balances for hot wallets. A sharded wallet's balance and ledger row count are its wallets row plus
+-- the sum of its shards, and credits update one shard row instead of the shared wallet row.
+ALTER TABLE wallets ADD COLUMN shard_count INT NOT NULL DEFAULT 0;
+
+CREATE TABLE wallet_shards (
+    wallet_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (wallet_id, shard),
+    FOREIGN KEY (wallet_id) REFERENCES wallets(id)
+);
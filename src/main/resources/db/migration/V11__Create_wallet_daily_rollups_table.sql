@@ -0,0 +1,23 @@
+-- Per-wallet, per-day credit and debit totals, maintained in the same transaction as each ledger insert so that
+-- statement summaries read one row per day instead of every transaction. Writes to a sharded wallet spread across
+-- several slots of the same day, which summaries add back together.
+CREATE TABLE wallet_daily_rollups (
+    wallet_id BIGINT NOT NULL,
+    rollup_date DATE NOT NULL,
+    slot INT NOT NULL,
+    credit_total DECIMAL(19, 2) NOT NULL,
+    credit_count BIGINT NOT NULL,
+    debit_total DECIMAL(19, 2) NOT NULL,
+    debit_count BIGINT NOT NULL,
+    PRIMARY KEY (wallet_id, rollup_date, slot),
+    FOREIGN KEY (wallet_id) REFERENCES wallets(id)
+);
+
+INSERT INTO wallet_daily_rollups (wallet_id, rollup_date, slot, credit_total, credit_count, debit_total, debit_count)
+SELECT wallet_id, CAST(created_at AS DATE), 0,
+       COALESCE(SUM(CASE WHEN type = 'CREDIT' THEN amount END), 0),
+       COUNT(CASE WHEN type = 'CREDIT' THEN 1 END),
+       COALESCE(SUM(CASE WHEN type = 'DEBIT' THEN amount END), 0),
+       COUNT(CASE WHEN type = 'DEBIT' THEN 1 END)
+FROM transaction
+GROUP BY wallet_id, CAST(created_at AS DATE);
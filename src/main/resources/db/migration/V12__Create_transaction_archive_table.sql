@@ -0,0 +1,14 @@
+-- Archive tier of the ledger. Once a calendar month is older than wallet.archiveAfterMonths, its rows are moved here
+-- from the transaction table in the background, so the hot table and its indexes only hold recent history.
+-- Rows keep their ids; a row lives in exactly one of the two tables.
+CREATE TABLE transaction_archive (
+    id BIGINT PRIMARY KEY,
+    wallet_id BIGINT NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    counterpart_id BIGINT,
+    FOREIGN KEY (wallet_id) REFERENCES wallets(id)
+);
+
+CREATE INDEX idx_transaction_archive_wallet_created_at_id ON transaction_archive (wallet_id, created_at, id);
@@ -0,0 +1,10 @@
+-- Cold tier of the ledger: segment files in wallet.segmentDirectory, each holding one month of rows sealed from
+-- transaction_archive. A segment's rows are deleted from transaction_archive in the same transaction that registers
+-- it here, so a row lives in exactly one tier.
+CREATE TABLE transaction_segments (
+    file_name VARCHAR(255) PRIMARY KEY,
+    period_start DATE NOT NULL,
+    row_count BIGINT NOT NULL,
+    byte_size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
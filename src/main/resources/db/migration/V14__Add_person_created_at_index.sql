@@ -0,0 +1,2 @@
+-- Supports keyset pagination of persons ordered by (created_at, id).
+CREATE INDEX idx_persons_created_at_id ON persons (created_at, id);
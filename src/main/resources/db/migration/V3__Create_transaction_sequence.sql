@@ -0,0 +1,6 @@
+-- Pooled id allocator for ledger rows so Hibernate can batch transaction inserts.
+-- The increment must match the allocationSize on Transaction. Hibernate's pooled optimizer
+-- treats each value as the top of a block of 50 ids, so start one full block above any existing id.
+CREATE SEQUENCE transaction_seq START WITH 50 INCREMENT BY 50;
+
+ALTER SEQUENCE transaction_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM transaction);
@@ -0,0 +1,2 @@
+-- Supports keyset pagination of a wallet's history ordered by (created_at, id).
+CREATE INDEX idx_transaction_wallet_created_at_id ON transaction (wallet_id, created_at, id);
@@ -0,0 +1,4 @@
+-- Per-wallet ledger row count, maintained alongside each insert so pages need no COUNT(*).
+ALTER TABLE wallets ADD COLUMN transaction_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE wallets w SET transaction_count = (SELECT COUNT(*) FROM transaction t WHERE t.wallet_id = w.id);
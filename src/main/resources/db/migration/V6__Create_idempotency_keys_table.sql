@@ -0,0 +1,13 @@
+-- Outcome of each fund operation sent with an Idempotency-Key header, so a resent request is answered
+-- from here instead of being applied twice. Rows older than wallet.idempotencyKeyTtl are deleted in the background.
+CREATE TABLE idempotency_keys (
+    customer_id VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (customer_id, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,3 @@
+-- Links the debit and credit rows of a transfer to each other. Both rows are inserted in the same batch,
+-- so the link is not a foreign key.
+ALTER TABLE transaction ADD COLUMN counterpart_id BIGINT;
@@ -0,0 +1,13 @@
+-- Folded ledger state for the EVENT_SOURCED engine: a wallet's balance is its snapshot plus the ledger rows with a
+-- higher id. Snapshots are rewritten in the background as ledger rows accumulate; wallets without one start at zero.
+CREATE TABLE wallet_snapshots (
+    wallet_id BIGINT PRIMARY KEY,
+    balance DECIMAL(19, 2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (wallet_id) REFERENCES wallets(id)
+);
+
+-- Lets the ledger rows after a snapshot be summed by seeking on (wallet_id, id).
+CREATE INDEX idx_transaction_wallet_id_id ON transaction (wallet_id, id);
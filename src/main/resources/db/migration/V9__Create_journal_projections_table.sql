@@ -0,0 +1,7 @@
+-- How far each in-memory engine journal has been projected into the wallets and transaction tables.
+-- Advanced in the same transaction as the projected rows, so a restarted engine resumes projection exactly
+-- after the last committed entry.
+CREATE TABLE journal_projections (
+    journal_id VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
@@ -0,0 +1,74 @@
+package org.github.tigz.wallet.common.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlledDataSourceTest {
+
+    private DataSource targetDataSource;
+    private AdmissionControlledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new AdmissionControlledDataSource(targetDataSource, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void testAdmitsUpToLimitThenTimesOut() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(2, dataSource.getActive());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        Connection third = dataSource.getConnection();
+        assertNotNull(third);
+
+        second.close();
+        third.close();
+        assertEquals(0, dataSource.getActive());
+    }
+
+    @Test
+    void testClosingTwiceReleasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertEquals(0, dataSource.getActive());
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void testReleasesPermitWhenTargetFails() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(0, dataSource.getActive());
+    }
+
+    @Test
+    void testDelegatesCallsToPooledConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        Connection pooled = targetDataSource.getConnection();
+        assertNotSame(pooled, connection);
+        assertTrue(connection.isWrapperFor(Connection.class));
+    }
+}
@@ -0,0 +1,51 @@
+package org.github.tigz.wallet.common.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testConversionIsExact() {
+        Money money = Money.of(new BigDecimal("123.45"));
+
+        assertEquals(12345, money.getMinorUnits());
+        assertEquals(new BigDecimal("123.45"), money.toBigDecimal());
+        assertEquals(Money.ofMinor(1000), Money.valueOf("10"));
+        assertEquals(new BigDecimal("10.00"), Money.valueOf("10").toBigDecimal());
+    }
+
+    @Test
+    void testArithmeticAndComparison() {
+        Money balance = Money.valueOf("100.00");
+        Money amount = Money.valueOf("0.01");
+
+        assertEquals(Money.valueOf("99.99"), balance.minus(amount));
+        assertEquals(Money.valueOf("100.01"), balance.plus(amount));
+        assertTrue(amount.isLessThan(balance));
+        assertTrue(balance.isGreaterThan(amount));
+        assertTrue(amount.minus(balance).isNegative());
+    }
+
+    @Test
+    void testRejectsSubPennyAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1E+30")));
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        Money money = Money.valueOf("5000.50");
+
+        String json = objectMapper.writeValueAsString(money);
+        assertEquals("5000.50", json);
+        assertEquals(money, objectMapper.readValue(json, Money.class));
+        assertEquals(Money.valueOf("0.07"), objectMapper.readValue("0.07", Money.class));
+    }
+}
@@ -0,0 +1,202 @@
+package org.github.tigz.wallet.modules.person;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.github.tigz.wallet.modules.person.service.PersonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against its own database, so the persons listed are exactly the ones each test creates.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.datasource.url=jdbc:h2:mem:persondb")
+class PersonApiTests {
+
+    private static final int PERSONS = 25;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> created = new ArrayList<>();
+
+    @BeforeEach
+    void createPersons() {
+        jdbcTemplate.queryForList("SELECT id FROM persons", UUID.class).forEach(personService::deletePerson);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < PERSONS; i++) {
+            // Every third person shares its predecessor's creation time, so ties are broken by id
+            PersonDTO person = new PersonDTO(null, "Mx", "First" + i, "Last" + i, "1990-01-01",
+                    createdAt.plusMinutes(i - i % 3));
+            created.add(personService.createPerson(person).getId().toString());
+        }
+    }
+
+    @Test
+    void testPersonsArePagedByCursor() throws Exception {
+        List<String> walked = new ArrayList<>();
+        List<LocalDateTime> createdAts = new ArrayList<>();
+        List<JsonNode> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = get("/api/persons?size=7" + (cursor != null ? "&cursor=" + cursor : ""));
+            pages.add(page);
+            page.get("content").forEach(person -> {
+                walked.add(person.get("id").asText());
+                createdAts.add(LocalDateTime.parse(person.get("createdAt").asText()));
+            });
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertEquals(4, pages.size());
+        assertEquals(PERSONS, walked.size());
+        assertEquals(PERSONS, walked.stream().distinct().count());
+        assertTrue(walked.containsAll(created));
+        for (int i = 1; i < createdAts.size(); i++) {
+            assertFalse(createdAts.get(i).isBefore(createdAts.get(i - 1)), "Persons should be oldest first");
+        }
+
+        JsonNode back = get("/api/persons?size=7&cursor=" + pages.get(3).get("prevCursor").asText());
+        assertEquals(pages.get(2).get("content"), back.get("content"));
+        assertTrue(pages.get(0).get("prevCursor").isNull());
+    }
+
+    @Test
+    void testOversizedPagesAreRejected() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/persons?size=1001", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/api/persons?cursor=not-a-cursor", String.class).getStatusCode());
+    }
+
+    @Test
+    void testPersonsAreExportedAsNdjson() throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/persons/export", String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(PERSONS, rows.size());
+        List<String> paged = new ArrayList<>();
+        get("/api/persons?size=1000").get("content").forEach(person -> paged.add(person.get("id").asText()));
+        assertEquals(paged, rows.stream().map(row -> row.get("id").asText()).toList());
+        assertEquals("Mx", rows.get(0).get("title").asText());
+    }
+
+    @Test
+    void testPersonsAreSearchedByNamePrefix() throws Exception {
+        JsonNode results = get("/api/persons/search?q=first1&limit=5");
+        assertEquals(5, results.size());
+        results.forEach(person -> assertTrue(person.get("firstName").asText().startsWith("First1")));
+        assertEquals(11, get("/api/persons/search?q=first1&limit=100").size());
+        assertEquals(1, get("/api/persons/search?q=first1 last12").size());
+
+        UUID id = UUID.fromString(created.get(12));
+        PersonDTO renamed = personService.getPersonById(id).orElseThrow();
+        renamed.setLastName("Renamed");
+        personService.updatePerson(id, renamed);
+        assertEquals(0, get("/api/persons/search?q=last12").size());
+        assertEquals(created.get(12), get("/api/persons/search?q=renam").get(0).get("id").asText());
+
+        personService.deletePerson(id);
+        assertEquals(0, get("/api/persons/search?q=renamed").size());
+        assertFalse(restTemplate.getForEntity("/api/persons/search?q=+", String.class).getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    void testPersonsAreImportedFromCsv() throws Exception {
+        StringBuilder csv = new StringBuilder("dob,Title,firstName,lastName\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("1980-05-0").append(1 + i % 9).append(",Dr,Importcsv").append(i).append(",\"O'Neil, Jr\"\n");
+        }
+        csv.append("1980-05-01,Dr,,Nofirst\n");
+        csv.append("not-a-date,Dr,Bad,Date\n");
+        csv.append("\n");
+        csv.append("1980-05-01,Dr,\"Unterminated,Quote\n");
+
+        JsonNode result = post("/api/persons/import", "text/csv", csv.toString());
+        assertEquals(2500, result.get("imported").asLong());
+        assertEquals(3, result.get("rejected").asLong());
+        assertFalse(result.get("errorsTruncated").asBoolean());
+        JsonNode errors = result.get("errors");
+        assertEquals(2502, errors.get(0).get("line").asLong());
+        assertEquals("firstName is required", errors.get(0).get("message").asText());
+        assertEquals(2503, errors.get(1).get("line").asLong());
+        assertEquals(2505, errors.get(2).get("line").asLong());
+
+        assertEquals(PERSONS + 2500, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM persons", Integer.class));
+        JsonNode found = get("/api/persons/search?q=importcsv2499");
+        assertEquals(1, found.size());
+        assertEquals("O'Neil, Jr", found.get(0).get("lastName").asText());
+        assertEquals("Dr", found.get(0).get("title").asText());
+    }
+
+    @Test
+    void testPersonsAreImportedFromNdjson() throws Exception {
+        String ndjson = """
+                {"title":"Ms","firstName":"Importjson","lastName":"One","dob":"1975-12-31"}
+                {"title":"Ms","firstName":"Importjson","lastName":"Two","dob":"1975-12-31","id":"ignored"}
+                {"title":"Ms","firstName":"Importjson"
+                {"title":"Ms","firstName":"Importjson","lastName":"Future","dob":"2999-01-01"}
+                [1, 2]
+                """;
+
+        JsonNode result = post("/api/persons/import", "application/x-ndjson", ndjson);
+        assertEquals(2, result.get("imported").asLong());
+        assertEquals(3, result.get("rejected").asLong());
+        assertEquals("Malformed JSON", result.get("errors").get(0).get("message").asText());
+        assertEquals("dob must not be in the future", result.get("errors").get(1).get("message").asText());
+        assertEquals(5, result.get("errors").get(2).get("line").asLong());
+        assertEquals(2, get("/api/persons/search?q=importjson").size());
+    }
+
+    @Test
+    void testUnsupportedImportTypesAreRejected() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/persons/import", new HttpEntity<>("x", headers), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(PERSONS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM persons", Integer.class));
+    }
+
+    private JsonNode post(String url, String contentType, String body) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        ResponseEntity<String> response = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response.getBody());
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private JsonNode get(String url) throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response.getBody());
+        return objectMapper.readTree(response.getBody());
+    }
+}
@@ -0,0 +1,84 @@
+package org.github.tigz.wallet.modules.person.service;
+
+import org.github.tigz.wallet.modules.person.dto.PersonDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSearchIndexTest {
+
+    private final PersonSearchIndex index = new PersonSearchIndex();
+
+    @Test
+    void findsPersonsByPrefixOfEitherName() {
+        PersonDTO john = add("John", "Smith");
+        PersonDTO joan = add("Joan", "Jones");
+        PersonDTO mary = add("Mary Ann", "Johnson");
+        add("Peter", "Brown");
+
+        assertEquals(List.of(joan.getId(), john.getId(), mary.getId()), ids(index.search("jo", 10)));
+        assertEquals(List.of(joan.getId()), ids(index.search("JONES", 10)));
+        assertEquals(List.of(mary.getId()), ids(index.search("ann", 10)));
+        assertEquals(List.of(john.getId(), mary.getId()), ids(index.search("john", 10)));
+        assertTrue(index.search("x", 10).isEmpty());
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        PersonDTO john = add("John", "Smith");
+        add("John", "Brown");
+        add("Jane", "Smith");
+
+        assertEquals(List.of(john.getId()), ids(index.search("jo sm", 10)));
+        assertEquals(List.of(john.getId()), ids(index.search("smith  John", 10)));
+        assertThrows(IllegalArgumentException.class, () -> index.search("  - ", 10));
+    }
+
+    @Test
+    void accentsAndPunctuationAreIgnored() {
+        PersonDTO zoe = add("Zoë", "O'Brien-Núñez");
+
+        assertEquals(List.of(zoe.getId()), ids(index.search("zoe", 10)));
+        assertEquals(List.of(zoe.getId()), ids(index.search("nun", 10)));
+        assertEquals(List.of(zoe.getId()), ids(index.search("brien", 10)));
+    }
+
+    @Test
+    void resultsAreLimitedAndEachPersonReturnedOnce() {
+        for (int i = 0; i < 50; i++) {
+            add("Sam", "Sampson");
+        }
+
+        assertEquals(5, index.search("sam", 5).size());
+        assertEquals(50, index.search("sam", 100).stream().map(PersonDTO::getId).distinct().count());
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceTheIndexedWords() {
+        PersonDTO person = add("John", "Smith");
+        person.setLastName("Taylor");
+        index.put(person);
+
+        assertTrue(index.search("smith", 10).isEmpty());
+        assertEquals("Taylor", index.search("tay", 10).get(0).getLastName());
+        assertEquals(1, index.size());
+
+        index.remove(person.getId());
+        assertTrue(index.search("john", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private PersonDTO add(String firstName, String lastName) {
+        PersonDTO person = new PersonDTO(UUID.randomUUID(), "Mx", firstName, lastName, "1990-01-01", LocalDateTime.now());
+        index.put(person);
+        return person;
+    }
+
+    private static List<UUID> ids(List<PersonDTO> persons) {
+        return persons.stream().map(PersonDTO::getId).toList();
+    }
+}
@@ -1,5 +1,6 @@
 package org.github.tigz.wallet.modules.person.service;
 
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
 import org.github.tigz.wallet.modules.person.dto.PersonDTO;
 import org.github.tigz.wallet.modules.person.model.Person;
 import org.github.tigz.wallet.modules.person.repository.PersonRepository;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -23,6 +25,9 @@ class PersonServiceTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private PersonSearchIndex personSearchIndex;
+
     @InjectMocks
     private PersonService personService;
 
@@ -32,15 +37,46 @@ class PersonServiceTest {
     }
 
     @Test
-    void getAllPersons() {
+    void getPersonsByCursor() {
+        Person person1 = new Person("Mr", "John", "Doe", "1990-01-01");
+        person1.setId(UUID.randomUUID());
+        Person person2 = new Person("Ms", "Jane", "Doe", "1991-02-02");
+        person2.setId(UUID.randomUUID());
+        Person person3 = new Person("Dr", "Jim", "Doe", "1992-03-03");
+        person3.setId(UUID.randomUUID());
+        when(personRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(3))).thenReturn(Arrays.asList(person1, person2, person3));
+
+        CursorPageDTO<PersonDTO> result = personService.getPersonsByCursor(null, 2);
+
+        assertEquals(List.of(person1.getId(), person2.getId()), result.getContent().stream().map(PersonDTO::getId).toList());
+        assertNull(result.getPrevCursor());
+        PersonCursor next = PersonCursor.decode(result.getNextCursor());
+        assertEquals(PersonCursor.Direction.NEXT, next.direction());
+        assertEquals(person2.getId(), next.id());
+        verify(personRepository, never()).findAll();
+    }
+
+    @Test
+    void getPersonsByPrevCursor() {
         Person person1 = new Person("Mr", "John", "Doe", "1990-01-01");
+        person1.setId(UUID.randomUUID());
         Person person2 = new Person("Ms", "Jane", "Doe", "1991-02-02");
-        when(personRepository.findAll()).thenReturn(Arrays.asList(person1, person2));
+        person2.setId(UUID.randomUUID());
+        Person boundary = new Person("Dr", "Jim", "Doe", "1992-03-03");
+        boundary.setId(UUID.randomUUID());
+        when(personRepository.findBefore(boundary.getCreatedAt(), boundary.getId(), Limit.of(3)))
+                .thenReturn(Arrays.asList(person2, person1));
 
-        List<PersonDTO> result = personService.getAllPersons();
+        CursorPageDTO<PersonDTO> result = personService.getPersonsByCursor(PersonCursor.prev(boundary).encode(), 2);
 
-        assertEquals(2, result.size());
-        verify(personRepository, times(1)).findAll();
+        assertEquals(List.of(person1.getId(), person2.getId()), result.getContent().stream().map(PersonDTO::getId).toList());
+        assertNull(result.getPrevCursor());
+        assertEquals(person2.getId(), PersonCursor.decode(result.getNextCursor()).id());
+    }
+
+    @Test
+    void getPersonsByMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> personService.getPersonsByCursor("not-a-cursor", 2));
     }
 
     @Test
@@ -69,6 +105,7 @@ class PersonServiceTest {
         assertNotNull(result.getId());
         assertEquals(personDTO.getFirstName(), result.getFirstName());
         verify(personRepository, times(1)).save(any(Person.class));
+        verify(personSearchIndex, times(1)).putAfterCommit(result);
     }
 
     @Test
@@ -86,6 +123,7 @@ class PersonServiceTest {
         assertEquals(personDTO.getLastName(), result.get().getLastName());
         verify(personRepository, times(1)).findById(id);
         verify(personRepository, times(1)).save(any(Person.class));
+        verify(personSearchIndex, times(1)).putAfterCommit(result.get());
     }
 
     @Test
@@ -98,5 +136,6 @@ class PersonServiceTest {
         assertTrue(result);
         verify(personRepository, times(1)).existsById(id);
         verify(personRepository, times(1)).deleteById(id);
+        verify(personSearchIndex, times(1)).removeAfterCommit(id);
     }
 }
\ No newline at end of file
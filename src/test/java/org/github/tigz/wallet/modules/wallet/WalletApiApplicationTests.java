@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
@@ -79,6 +80,19 @@ class WalletApiApplicationTests {
                 "The number of successful withdrawals should match the expected value");
     }
 
+    @Test
+    void testInvalidRequestsAreClientErrors() {
+        String customerId = "client-error-customer";
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, addFunds(customerId, new BigDecimal("10.001")).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, addFunds(customerId, new BigDecimal("1")).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, getWallet(customerId).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, withdrawFunds(customerId, WITHDRAWAL_AMOUNT).getStatusCode());
+
+        Assertions.assertEquals(HttpStatus.OK, addFunds(customerId, new BigDecimal("50")).getStatusCode());
+        Assertions.assertEquals(HttpStatus.CONFLICT, withdrawFunds(customerId, WITHDRAWAL_AMOUNT).getStatusCode());
+    }
+
     private ResponseEntity<WalletDTO> addFunds(String customerId, BigDecimal amount) {
         String url = "/api/wallet/" + customerId + "/add";
         HttpEntity<String> request = new HttpEntity<>(createJsonBody(amount), createJsonHeaders());
@@ -0,0 +1,75 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.dto.BatchResultDTO;
+import org.github.tigz.wallet.modules.wallet.dto.FundsOperationResultDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "wallet.batchChunkSize=2")
+class WalletApiBatchTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testBatchWithPartialFailures() {
+        String body = """
+                {"operations": [
+                  {"customerId": "batch-a", "type": "ADD", "amount": 100},
+                  {"customerId": "batch-b", "type": "ADD", "amount": 50},
+                  {"customerId": "batch-a", "type": "WITHDRAW", "amount": 30},
+                  {"customerId": "batch-b", "type": "WITHDRAW", "amount": 80},
+                  {"customerId": "batch-missing", "type": "WITHDRAW", "amount": 10},
+                  {"customerId": "batch-a", "type": "ADD", "amount": 1}
+                ]}
+                """;
+
+        ResponseEntity<BatchResultDTO> response = restTemplate.postForEntity("/api/wallet/batch",
+                new HttpEntity<>(body, createJsonHeaders()), BatchResultDTO.class);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        BatchResultDTO result = response.getBody();
+        assertEquals(3, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+
+        List<FundsOperationResultDTO> results = result.getResults();
+        assertEquals(6, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(0, new BigDecimal("100").compareTo(results.get(0).getBalance()));
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(0, new BigDecimal("70").compareTo(results.get(2).getBalance()));
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Insufficient funds for withdrawal", results.get(3).getError());
+        assertFalse(results.get(4).isSuccess());
+        assertFalse(results.get(5).isSuccess());
+
+        assertEquals(0, new BigDecimal("70").compareTo(getWallet("batch-a").getBalance()));
+        assertEquals(0, new BigDecimal("50").compareTo(getWallet("batch-b").getBalance()));
+    }
+
+    private WalletDTO getWallet(String customerId) {
+        return restTemplate.getForEntity("/api/wallet/" + customerId, WalletDTO.class).getBody();
+    }
+
+    private HttpHeaders createJsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
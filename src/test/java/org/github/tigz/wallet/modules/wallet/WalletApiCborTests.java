@@ -0,0 +1,117 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.common.web.CompactBinaryConfig;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jackson.default-property-inclusion=non_null")
+class WalletApiCborTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder;
+
+    private ObjectMapper cborMapper;
+
+    @BeforeEach
+    void setUp() {
+        cborMapper = CompactBinaryConfig.cborObjectMapper(jackson2ObjectMapperBuilder);
+    }
+
+    @Test
+    void testCborRequestsAndResponsesUseMinorUnitsAndEpochMillis() throws Exception {
+        String customerId = "cbor-customer";
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        ResponseEntity<byte[]> added = exchangeCbor(HttpMethod.POST, "/api/wallet/" + customerId + "/add", Map.of("amount", 10050));
+        assertEquals(MediaType.APPLICATION_CBOR, added.getHeaders().getContentType());
+        JsonNode wallet = cborMapper.readTree(added.getBody());
+        assertTrue(wallet.get("balance").isIntegralNumber(), "Amounts should be encoded as integers");
+        assertEquals(10050, wallet.get("balance").asLong());
+        exchangeCbor(HttpMethod.POST, "/api/wallet/" + customerId + "/withdraw", Map.of("amount", 1));
+
+        ResponseEntity<byte[]> page = exchangeCbor(HttpMethod.GET, "/api/wallet/" + customerId + "/transactions?sort=id", null);
+        JsonNode firstRow = cborMapper.readTree(page.getBody()).get("content").get(0);
+        assertTrue(firstRow.get("timestamp").isIntegralNumber(), "Timestamps should be encoded as epoch milliseconds");
+        long timestamp = firstRow.get("timestamp").asLong();
+        assertTrue(timestamp >= before.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        PageDTO<TransactionDTO> transactions = cborMapper.readValue(page.getBody(), new TypeReference<>() {
+        });
+        assertEquals(2, transactions.getTotalElements());
+        List<BigDecimal> amounts = transactions.getContent().stream().map(TransactionDTO::getAmount).toList();
+        assertEquals(0, amounts.get(0).compareTo(new BigDecimal("100.50")));
+        assertEquals(0, amounts.get(1).compareTo(new BigDecimal("0.01")));
+        assertFalse(transactions.getContent().get(0).getTimestamp().isBefore(before));
+
+        WalletDTO decoded = cborMapper.readValue(exchangeCbor(HttpMethod.GET, "/api/wallet/" + customerId, null).getBody(), WalletDTO.class);
+        assertEquals(0, decoded.getBalance().compareTo(new BigDecimal("100.49")));
+    }
+
+    @Test
+    void testCborFollowsSpringJacksonSettings() throws Exception {
+        String customerId = "cbor-jackson-settings";
+        exchangeCbor(HttpMethod.POST, "/api/wallet/" + customerId + "/add", Map.of("amount", 1000));
+
+        JsonNode firstPage = cborMapper.readTree(exchangeCbor(HttpMethod.GET,
+                "/api/wallet/" + customerId + "/transactions/cursor", null).getBody());
+        assertEquals(1, firstPage.get("content").size());
+        assertFalse(firstPage.has("prevCursor"), "Null fields should be left out, as spring.jackson.default-property-inclusion asks");
+    }
+
+    @Test
+    void testJsonRemainsTheDefault() {
+        String customerId = "cbor-default-json";
+        restTemplate.postForEntity("/api/wallet/" + customerId + "/add", jsonRequest("{\"amount\": 25.50}"), String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.ALL));
+        ResponseEntity<String> response = restTemplate.exchange("/api/wallet/" + customerId, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertTrue(response.getBody().contains("25.5"));
+    }
+
+    private ResponseEntity<byte[]> exchangeCbor(HttpMethod method, String url, Object body) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        headers.setContentType(MediaType.APPLICATION_CBOR);
+        HttpEntity<byte[]> request = new HttpEntity<>(body != null ? cborMapper.writeValueAsBytes(body) : null, headers);
+        ResponseEntity<byte[]> response = restTemplate.exchange(url, method, request, byte[].class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), "Request failed: " + url);
+        return response;
+    }
+
+    private HttpEntity<String> jsonRequest(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,13 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the hot-wallet contention scenario with no lanes, relying only on conditional balance updates.
+ */
+@Import(WalletApiStripedConcurrencyTests.RetryCountingConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"wallet.concurrencyMode=OPTIMISTIC", "wallet.engine=CONDITIONAL_UPDATE"})
+class WalletApiConditionalUpdateConcurrencyTests extends WalletApiStripedConcurrencyTests {
+}
@@ -0,0 +1,112 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletApiCursorPaginationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private static final String TEST_CUSTOMER_ID = "cursor-pagination-test-customer";
+    private static final int WITHDRAWAL_TRANSACTIONS = 24;
+    private static final int TOTAL_TRANSACTIONS = WITHDRAWAL_TRANSACTIONS + 1; // Include initial deposit
+
+    @Test
+    void testTransactionCursorPagination() {
+        assertTrue(postFunds("add", new BigDecimal("1000")).getStatusCode().is2xxSuccessful());
+        for (int i = 0; i < WITHDRAWAL_TRANSACTIONS; i++) {
+            assertTrue(postFunds("withdraw", new BigDecimal("10")).getStatusCode().is2xxSuccessful());
+        }
+
+        CursorPageDTO<TransactionDTO> firstPage = getTransactionsPage(null, 10);
+        assertEquals(10, firstPage.getContent().size());
+        assertNull(firstPage.getPrevCursor());
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPageDTO<TransactionDTO> secondPage = getTransactionsPage(firstPage.getNextCursor(), 10);
+        assertEquals(10, secondPage.getContent().size());
+        assertNotNull(secondPage.getPrevCursor());
+
+        CursorPageDTO<TransactionDTO> lastPage = getTransactionsPage(secondPage.getNextCursor(), 10);
+        assertEquals(5, lastPage.getContent().size());
+        assertNull(lastPage.getNextCursor());
+
+        Set<Long> seen = new HashSet<>();
+        for (CursorPageDTO<TransactionDTO> page : List.of(firstPage, secondPage, lastPage)) {
+            for (TransactionDTO transaction : page.getContent()) {
+                assertTrue(seen.add(transaction.getId()), "Transactions must not repeat across pages");
+            }
+        }
+        assertEquals(TOTAL_TRANSACTIONS, seen.size());
+        assertEquals(0, new BigDecimal("1000").compareTo(lastPage.getContent().get(4).getAmount()),
+                "Oldest transaction (the initial deposit) should be last");
+
+        CursorPageDTO<TransactionDTO> backToSecond = getTransactionsPage(lastPage.getPrevCursor(), 10);
+        assertEquals(ids(secondPage), ids(backToSecond));
+
+        CursorPageDTO<TransactionDTO> backToFirst = getTransactionsPage(backToSecond.getPrevCursor(), 10);
+        assertEquals(ids(firstPage), ids(backToFirst));
+        assertNull(backToFirst.getPrevCursor());
+    }
+
+    @Test
+    void testInvalidCursorsAndSizesAreRejected() {
+        String customerId = "cursor-rejected-customer";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity("/api/wallet/" + customerId + "/add", new HttpEntity<>("{\"amount\": 100}", headers), WalletDTO.class);
+        String url = "/api/wallet/" + customerId + "/transactions/cursor";
+
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(url + "?size=0", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(url + "?size=1001", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(url + "?cursor=not-a-cursor", String.class).getStatusCode());
+    }
+
+    private List<Long> ids(CursorPageDTO<TransactionDTO> page) {
+        return page.getContent().stream().map(TransactionDTO::getId).toList();
+    }
+
+    private CursorPageDTO<TransactionDTO> getTransactionsPage(String cursor, int size) {
+        String url = String.format("/api/wallet/%s/transactions/cursor?size=%d", TEST_CUSTOMER_ID, size);
+        if (cursor != null) {
+            url += "&cursor=" + cursor;
+        }
+        ResponseEntity<CursorPageDTO<TransactionDTO>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<CursorPageDTO<TransactionDTO>>() {}
+        );
+        assertTrue(response.getStatusCode().is2xxSuccessful(), "Failed to get transactions page");
+        return response.getBody();
+    }
+
+    private ResponseEntity<WalletDTO> postFunds(String operation, BigDecimal amount) {
+        String url = "/api/wallet/" + TEST_CUSTOMER_ID + "/" + operation;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> request = new HttpEntity<>(String.format("{\"amount\": %s}", amount), headers);
+        return restTemplate.postForEntity(url, request, WalletDTO.class);
+    }
+}
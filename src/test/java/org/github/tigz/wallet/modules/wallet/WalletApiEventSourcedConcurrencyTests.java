@@ -0,0 +1,15 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the hot-wallet contention scenario against the append-only ledger, with snapshots compacted every few rows
+ * while the withdrawals are still running.
+ */
+@Import(WalletApiStripedConcurrencyTests.RetryCountingConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"wallet.concurrencyMode=STRIPED", "wallet.stripes=4", "wallet.engine=EVENT_SOURCED",
+                "wallet.snapshotInterval=10"})
+class WalletApiEventSourcedConcurrencyTests extends WalletApiStripedConcurrencyTests {
+}
@@ -0,0 +1,129 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperationResult;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.github.tigz.wallet.modules.wallet.service.WalletBalanceCache;
+import org.github.tigz.wallet.modules.wallet.service.WalletLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"wallet.engine=EVENT_SOURCED", "wallet.snapshotInterval=5"})
+class WalletApiEventSourcedLedgerTests {
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private WalletBalanceCache walletBalanceCache;
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testOperationsOnlyAppendToTheLedger() {
+        String customerId = "ledger-append-only";
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"));
+        Map<String, Object> walletRowBefore = walletRow(customerId);
+
+        retryableWalletService.withdrawFunds(customerId, new BigDecimal("30"));
+        assertEquals(0, retryableWalletService.addFunds(customerId, new BigDecimal("15")).getBalance().compareTo(new BigDecimal("85")));
+        assertThrows(IllegalStateException.class, () -> retryableWalletService.withdrawFunds(customerId, new BigDecimal("90")));
+
+        assertEquals(walletRowBefore, walletRow(customerId), "The wallet row should never be updated");
+        walletBalanceCache.evict(customerId);
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("85")));
+        assertEquals(3, retryableWalletService.getTransactions(customerId, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void testLedgerIdsAreTakenFromTheSequenceAsRowsAreWritten() {
+        String customerId = "ledger-id-order";
+        retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+        // Another instance taking an id now must not be able to commit a lower one for the wallet later
+        long taken = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR transaction_seq", Long.class);
+        retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT t.id FROM transaction t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ? ORDER BY t.id", Long.class, customerId);
+        assertEquals(2, ids.size());
+        assertTrue(ids.get(0) < taken && taken < ids.get(1));
+    }
+
+    @Test
+    void testLedgerIsCompactedIntoSnapshots() throws InterruptedException {
+        String customerId = "ledger-compacted";
+        for (int i = 0; i < 12; i++) {
+            retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+        }
+        long walletId = ((Number) walletRow(customerId).get("ID")).longValue();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (snapshotCount(walletId) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(snapshotCount(walletId) > 0, "A snapshot should be written in the background once the interval is reached");
+
+        walletLedger.compact(walletId);
+        Map<String, Object> snapshot = jdbcTemplate.queryForMap(
+                "SELECT balance, transaction_count FROM wallet_snapshots WHERE wallet_id = ?", walletId);
+        assertEquals(0, ((BigDecimal) snapshot.get("BALANCE")).compareTo(new BigDecimal("120")));
+        assertEquals(12L, ((Number) snapshot.get("TRANSACTION_COUNT")).longValue());
+        assertFalse(walletLedger.compact(walletId), "An up to date snapshot should not be rewritten");
+
+        retryableWalletService.withdrawFunds(customerId, new BigDecimal("25"));
+        walletBalanceCache.evict(customerId);
+        WalletLedger.Balance balance = walletLedger.read(walletId);
+        assertEquals(0, balance.balance().toBigDecimal().compareTo(new BigDecimal("95")));
+        assertEquals(13, balance.transactionCount());
+        assertEquals(1, balance.unsnapshotted());
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("95")));
+    }
+
+    @Test
+    void testBatchesAndTransfersAppendToTheLedger() {
+        List<FundsOperationResult> results = retryableWalletService.applyOperations(List.of(
+                FundsOperation.add("ledger-batch-a", new BigDecimal("50")),
+                FundsOperation.add("ledger-batch-b", new BigDecimal("20")),
+                FundsOperation.withdraw("ledger-batch-a", new BigDecimal("60")),
+                FundsOperation.withdraw("ledger-batch-a", new BigDecimal("10"))));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(0, results.get(3).getWallet().getBalance().compareTo(new BigDecimal("40")));
+
+        TransferDTO transfer = retryableWalletService.transfer("ledger-batch-a", "ledger-batch-b", new BigDecimal("15"));
+        assertEquals(0, transfer.getFrom().getBalance().compareTo(new BigDecimal("25")));
+        assertEquals(0, transfer.getTo().getBalance().compareTo(new BigDecimal("35")));
+
+        walletBalanceCache.evict("ledger-batch-a");
+        walletBalanceCache.evict("ledger-batch-b");
+        WalletDTO a = retryableWalletService.getWallet("ledger-batch-a");
+        WalletDTO b = retryableWalletService.getWallet("ledger-batch-b");
+        assertEquals(0, a.getBalance().compareTo(new BigDecimal("25")));
+        assertEquals(0, b.getBalance().compareTo(new BigDecimal("35")));
+        assertEquals(0, ((BigDecimal) walletRow("ledger-batch-a").get("BALANCE")).signum(), "Balances should live in the ledger only");
+    }
+
+    private Map<String, Object> walletRow(String customerId) {
+        return jdbcTemplate.queryForMap("SELECT id, balance, transaction_count, version FROM wallets WHERE customer_id = ?", customerId);
+    }
+
+    private int snapshotCount(long walletId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_snapshots WHERE wallet_id = ?", Integer.class, walletId);
+    }
+}
@@ -0,0 +1,13 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the hot-wallet contention scenario with group commit enabled.
+ */
+@Import(WalletApiStripedConcurrencyTests.RetryCountingConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"wallet.concurrencyMode=GROUP_COMMIT", "wallet.stripes=4"})
+class WalletApiGroupCommitConcurrencyTests extends WalletApiStripedConcurrencyTests {
+}
@@ -0,0 +1,99 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.service.IdempotencyStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletApiIdempotencyTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testResentAddReturnsOriginalResultWithoutCreditingAgain() {
+        String customerId = "idempotency-add-customer";
+
+        ResponseEntity<WalletDTO> first = post(customerId, "add", new BigDecimal("100"), "deposit-1");
+        post(customerId, "add", new BigDecimal("50"), "deposit-2");
+        ResponseEntity<WalletDTO> resent = post(customerId, "add", new BigDecimal("100"), "deposit-1");
+
+        assertTrue(resent.getStatusCode().is2xxSuccessful());
+        assertEquals(0, first.getBody().getBalance().compareTo(new BigDecimal("100")));
+        assertEquals(0, resent.getBody().getBalance().compareTo(new BigDecimal("100")), "A resend should return the original balance");
+        assertEquals(0, getWallet(customerId).getBalance().compareTo(new BigDecimal("150")));
+        assertEquals(2, getTransactions(customerId).getTotalElements());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        String customerId = "idempotency-mismatch-customer";
+        post(customerId, "add", new BigDecimal("100"), "reused-key");
+
+        assertEquals(HttpStatus.BAD_REQUEST, post(customerId, "add", new BigDecimal("200"), "reused-key").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, post(customerId, "withdraw", new BigDecimal("100"), "reused-key").getStatusCode());
+        assertEquals(0, getWallet(customerId).getBalance().compareTo(new BigDecimal("100")));
+    }
+
+    @Test
+    void testKeysAreScopedToCustomer() {
+        post("idempotency-scope-customer-1", "add", new BigDecimal("100"), "shared-key");
+        post("idempotency-scope-customer-2", "add", new BigDecimal("100"), "shared-key");
+
+        assertEquals(0, getWallet("idempotency-scope-customer-2").getBalance().compareTo(new BigDecimal("100")));
+    }
+
+    @Test
+    void testExpiredKeysAreForgotten() {
+        String customerId = "idempotency-expiry-customer";
+        post(customerId, "add", new BigDecimal("100"), "expiring-key");
+
+        assertTrue(idempotencyStore.expireBefore(LocalDateTime.now().plusMinutes(1)) >= 1);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE customer_id = ?", Integer.class, customerId));
+
+        post(customerId, "add", new BigDecimal("100"), "expiring-key");
+        assertEquals(0, getWallet(customerId).getBalance().compareTo(new BigDecimal("200")));
+    }
+
+    private ResponseEntity<WalletDTO> post(String customerId, String operation, BigDecimal amount, String idempotencyKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Idempotency-Key", idempotencyKey);
+        HttpEntity<String> request = new HttpEntity<>(String.format("{\"amount\": %s}", amount), headers);
+        return restTemplate.postForEntity("/api/wallet/" + customerId + "/" + operation, request, WalletDTO.class);
+    }
+
+    private WalletDTO getWallet(String customerId) {
+        return restTemplate.getForEntity("/api/wallet/" + customerId, WalletDTO.class).getBody();
+    }
+
+    private PageDTO<TransactionDTO> getTransactions(String customerId) {
+        return restTemplate.exchange("/api/wallet/" + customerId + "/transactions", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageDTO<TransactionDTO>>() {}).getBody();
+    }
+}
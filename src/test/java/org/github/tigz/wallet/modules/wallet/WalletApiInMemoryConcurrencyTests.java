@@ -0,0 +1,16 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the hot-wallet contention scenario against the in-memory engine, where every request is serialised through
+ * the single sequencer thread and acknowledged once its journal batch is forced. Runs against its own database, since
+ * the engine refuses to seed itself from sharded wallets other tests leave behind.
+ */
+@Import(WalletApiStripedConcurrencyTests.RetryCountingConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:walletinmemoryconcurrencydb", "wallet.engine=IN_MEMORY",
+                "wallet.journalDirectory=target/journal/${random.uuid}"})
+class WalletApiInMemoryConcurrencyTests extends WalletApiStripedConcurrencyTests {
+}
@@ -0,0 +1,261 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperationResult;
+import org.github.tigz.wallet.modules.wallet.service.IdempotencyStore;
+import org.github.tigz.wallet.modules.wallet.service.InMemoryWalletEngine;
+import org.github.tigz.wallet.modules.wallet.service.JournalProjector;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against its own database, since the engine refuses to seed itself from sharded wallets other tests leave behind.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:walletinmemorydb", "wallet.engine=IN_MEMORY",
+        "wallet.journalDirectory=target/journal/${random.uuid}", "wallet.journalSegmentSize=4KB",
+        "wallet.journalCheckpointInterval=50"})
+class WalletApiInMemoryEngineTests {
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private InMemoryWalletEngine inMemoryWalletEngine;
+
+    @Autowired
+    private WalletConfig walletConfig;
+
+    @Autowired
+    private JournalProjector journalProjector;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @TempDir
+    Path recoveryDirectory;
+
+    private static final BigDecimal CREDIT = BigDecimal.TEN;
+
+    @Test
+    void testOperationsAreProjectedIntoTheDatabase() throws InterruptedException {
+        retryableWalletService.addFunds("memory-a", new BigDecimal("100"));
+        assertEquals(0, retryableWalletService.withdrawFunds("memory-a", new BigDecimal("30")).getBalance().compareTo(new BigDecimal("70")));
+        assertThrows(IllegalStateException.class, () -> retryableWalletService.withdrawFunds("memory-a", new BigDecimal("500")));
+
+        List<FundsOperationResult> results = retryableWalletService.applyOperations(List.of(
+                FundsOperation.add("memory-b", new BigDecimal("20")),
+                FundsOperation.withdraw("memory-b", new BigDecimal("60")),
+                FundsOperation.withdraw("memory-a", new BigDecimal("10"))));
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(0, results.get(2).getWallet().getBalance().compareTo(new BigDecimal("60")));
+
+        TransferDTO transfer = retryableWalletService.transfer("memory-a", "memory-b", new BigDecimal("15"));
+        assertEquals(0, transfer.getFrom().getBalance().compareTo(new BigDecimal("45")));
+        assertEquals(0, transfer.getTo().getBalance().compareTo(new BigDecimal("35")));
+        assertEquals(0, retryableWalletService.getWallet("memory-b").getBalance().compareTo(new BigDecimal("35")));
+
+        awaitProjection(inMemoryWalletEngine);
+        assertEquals(0, walletBalance("memory-a").compareTo(new BigDecimal("45")));
+        assertEquals(0, walletBalance("memory-b").compareTo(new BigDecimal("35")));
+        assertEquals(4, retryableWalletService.getTransactions("memory-a", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, retryableWalletService.getTransactions("memory-b", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void testIdempotencyKeysAreHonouredBeforeAndAfterProjection() throws InterruptedException {
+        String customerId = "memory-idempotent";
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"), "deposit-1");
+        assertEquals(0, retryableWalletService.addFunds(customerId, new BigDecimal("100"), "deposit-1").getBalance().compareTo(new BigDecimal("100")));
+
+        awaitProjection(inMemoryWalletEngine);
+        assertEquals(0, retryableWalletService.addFunds(customerId, new BigDecimal("100"), "deposit-1").getBalance().compareTo(new BigDecimal("100")));
+        assertThrows(IllegalArgumentException.class, () -> retryableWalletService.addFunds(customerId, new BigDecimal("50"), "deposit-1"));
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("100")));
+        assertEquals(1, transactionRows(customerId));
+    }
+
+    /**
+     * Crashes a second engine while credits are still being submitted, tears the end of its journal, and checks that
+     * a restarted engine recovers every acknowledged credit and projects each journaled credit exactly once.
+     */
+    @Test
+    void testEngineRecoversFromCrashMidWrite() throws Exception {
+        String customerId = "memory-recovery";
+        WalletConfig config = recoveryConfig();
+        InMemoryWalletEngine engine = new InMemoryWalletEngine(config, journalProjector, idempotencyStore, new SimpleMeterRegistry());
+
+        int threads = 8;
+        int creditsPerThread = 100;
+        AtomicInteger acknowledged = new AtomicInteger();
+        CountDownLatch halfway = new CountDownLatch(threads * creditsPerThread / 2);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<?>> submitters = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            submitters.add(executorService.submit(() -> {
+                for (int j = 0; j < creditsPerThread; j++) {
+                    try {
+                        engine.addFunds(customerId, CREDIT, null);
+                        acknowledged.incrementAndGet();
+                        halfway.countDown();
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        assertTrue(halfway.await(30, TimeUnit.SECONDS));
+        engine.halt();
+        int acknowledgedBeforeCrash = acknowledged.get();
+        // Wherever the halt lands, even mid-checkpoint, every queued credit is either acknowledged or refused
+        for (Future<?> submitter : submitters) {
+            submitter.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+        tearJournalTail();
+
+        InMemoryWalletEngine restarted = new InMemoryWalletEngine(config, journalProjector, idempotencyStore, new SimpleMeterRegistry());
+        try {
+            BigDecimal recovered = restarted.getWallet(customerId).getBalance();
+            int recoveredCredits = recovered.divide(CREDIT).intValueExact();
+            assertTrue(recoveredCredits >= acknowledgedBeforeCrash, "Every acknowledged credit should be recovered");
+            assertTrue(recoveredCredits <= threads * creditsPerThread);
+
+            assertEquals(0, restarted.addFunds(customerId, CREDIT, null).getBalance().compareTo(recovered.add(CREDIT)));
+            awaitProjection(restarted);
+            assertEquals(0, walletBalance(customerId).compareTo(recovered.add(CREDIT)));
+            assertEquals(recoveredCredits + 1, transactionRows(customerId), "Each credit should be projected exactly once");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testEngineStartsFromBalancesAlreadyInTheDatabase() throws InterruptedException {
+        String customerId = "memory-existing";
+        Wallet existing = new Wallet(customerId, Money.of(new BigDecimal("250")));
+        existing.setTransactionCount(3);
+        walletRepository.save(existing);
+
+        InMemoryWalletEngine engine = new InMemoryWalletEngine(recoveryConfig(), journalProjector, idempotencyStore, new SimpleMeterRegistry());
+        try {
+            assertEquals(0, engine.getWallet(customerId).getBalance().compareTo(new BigDecimal("250")));
+            assertEquals(0, engine.addFunds(customerId, CREDIT, null).getBalance().compareTo(new BigDecimal("260")));
+            awaitProjection(engine);
+            assertEquals(0, walletBalance(customerId).compareTo(new BigDecimal("260")));
+        } finally {
+            engine.shutdown();
+        }
+
+        jdbcTemplate.update("UPDATE wallets SET balance = 999 WHERE customer_id = ?", customerId);
+        InMemoryWalletEngine restarted = new InMemoryWalletEngine(recoveryConfig(), journalProjector, idempotencyStore, new SimpleMeterRegistry());
+        try {
+            assertEquals(0, restarted.getWallet(customerId).getBalance().compareTo(new BigDecimal("260")),
+                    "A restart should recover from the journal, not read the database again");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testEngineRefusesToStartOverShardedWallets() {
+        String customerId = "memory-sharded";
+        Wallet sharded = new Wallet(customerId, Money.ZERO);
+        sharded.setShardCount(2);
+        walletRepository.save(sharded);
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> new InMemoryWalletEngine(recoveryConfig(), journalProjector, idempotencyStore, new SimpleMeterRegistry()));
+        } finally {
+            walletRepository.delete(walletRepository.findByCustomerId(customerId).orElseThrow());
+        }
+    }
+
+    private WalletConfig recoveryConfig() {
+        WalletConfig config = new WalletConfig();
+        config.setMinAddAmount(walletConfig.getMinAddAmount());
+        config.setMaxAddAmount(walletConfig.getMaxAddAmount());
+        config.setMinWithdrawAmount(walletConfig.getMinWithdrawAmount());
+        config.setMaxWithdrawAmount(walletConfig.getMaxWithdrawAmount());
+        config.setEngine(WalletConfig.Engine.IN_MEMORY);
+        config.setJournalDirectory(recoveryDirectory.toString());
+        config.setJournalSegmentSize(DataSize.ofKilobytes(4));
+        config.setJournalCheckpointInterval(100);
+        config.setGroupCommitMaxBatchSize(16);
+        return config;
+    }
+
+    /**
+     * Simulates a write cut short by the crash: a partial entry straight after the last complete one.
+     */
+    private void tearJournalTail() throws IOException {
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(recoveryDirectory)) {
+            lastSegment = files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted()
+                    .reduce((first, second) -> second).orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(lastSegment);
+        int end = bytes.length - 1;
+        while (end >= 0 && bytes[end] == 0) {
+            end--;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(lastSegment.toFile(), "rw")) {
+            file.seek(end + 1);
+            file.writeInt(64);
+            file.writeInt(0xdeadbeef);
+            file.write(new byte[]{0, 0, 0, 0, 0, 0, 0, 42});
+        }
+    }
+
+    private static void awaitProjection(InMemoryWalletEngine engine) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (engine.getUnprojectedEntries() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, engine.getUnprojectedEntries(), "The journal should be projected into the database");
+    }
+
+    private BigDecimal walletBalance(String customerId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE customer_id = ?", BigDecimal.class, customerId);
+    }
+
+    private int transactionRows(String customerId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction t JOIN wallets w ON t.wallet_id = w.id WHERE w.customer_id = ?", Integer.class, customerId);
+    }
+}
@@ -0,0 +1,66 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+class WalletApiMetricsTests {
+
+    private static final String CUSTOMER_ID = "metrics-test-customer";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testOperationsAreTimedByOutcome() {
+        long successBefore = count("addFunds", "success");
+        long validationBefore = count("addFunds", "validation");
+        long insufficientBefore = count("withdrawFunds", "insufficient_funds");
+        long notFoundBefore = count("getWallet", "not_found");
+
+        restTemplate.postForEntity("/api/wallet/{customerId}/add", Map.of("amount", 100), String.class, CUSTOMER_ID);
+        restTemplate.postForEntity("/api/wallet/{customerId}/add", Map.of("amount", 1), String.class, CUSTOMER_ID);
+        restTemplate.postForEntity("/api/wallet/{customerId}/withdraw", Map.of("amount", 500), String.class, CUSTOMER_ID);
+        restTemplate.getForEntity("/api/wallet/{customerId}", String.class, "metrics-missing-customer");
+
+        assertEquals(successBefore + 1, count("addFunds", "success"));
+        assertEquals(validationBefore + 1, count("addFunds", "validation"));
+        assertEquals(insufficientBefore + 1, count("withdrawFunds", "insufficient_funds"));
+        assertEquals(notFoundBefore + 1, count("getWallet", "not_found"));
+    }
+
+    @Test
+    void testPrometheusEndpointExposesWalletAndPoolMetrics() {
+        restTemplate.postForEntity("/api/wallet/{customerId}/add", Map.of("amount", 100), String.class, CUSTOMER_ID);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertNotNull(body);
+        assertTrue(body.contains("wallet_operations_seconds_bucket{"), "Operation timers should publish histogram buckets");
+        assertTrue(body.contains("wallet_retry_attempts_bucket{"), "Retry attempts should publish histogram buckets");
+        assertTrue(body.contains("wallet_lanes_queued{"));
+        assertTrue(body.contains("hikaricp_connections_pending{"));
+    }
+
+    private long count(String operation, String outcome) {
+        return Search.in(meterRegistry).name("wallet.operations").tag("operation", operation).tag("outcome", outcome)
+                .timers().stream().mapToLong(timer -> timer.count()).sum();
+    }
+}
@@ -0,0 +1,119 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WalletApiRetryPolicyTests {
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private RetryTemplate walletRetryTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WalletConfig walletConfig;
+
+    @Test
+    void testValidationAndMissingWalletFailuresAreNotRetried() {
+        double withdrawAttemptsBefore = attempts("withdrawFunds").totalAmount();
+        long withdrawCallsBefore = attempts("withdrawFunds").count();
+        double addAttemptsBefore = attempts("addFunds").totalAmount();
+
+        assertThrows(WalletNotFoundException.class,
+                () -> retryableWalletService.withdrawFunds("retry-policy-missing-customer", new BigDecimal("10")));
+        assertThrows(IllegalArgumentException.class,
+                () -> retryableWalletService.addFunds("retry-policy-customer", new BigDecimal("1")));
+
+        assertEquals(withdrawCallsBefore + 1, attempts("withdrawFunds").count());
+        assertEquals(withdrawAttemptsBefore + 1, attempts("withdrawFunds").totalAmount());
+        assertEquals(addAttemptsBefore + 1, attempts("addFunds").totalAmount());
+    }
+
+    @Test
+    void testConcurrentFirstCreditsCreateOneWallet() throws Exception {
+        String customerId = "retry-policy-new-customer";
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> credits = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                credits.add(executorService.submit(() -> {
+                    start.await();
+                    return retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+                }));
+            }
+            start.countDown();
+            for (Future<?> credit : credits) {
+                credit.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("40")));
+    }
+
+    @Test
+    void testOptimisticLockFailuresAreRetriedUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+        long recoveredBefore = retryTime("recovered").count();
+
+        String result = walletRetryTemplate.execute(context -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("Wallet was updated concurrently");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(recoveredBefore + 1, retryTime("recovered").count());
+    }
+
+    @Test
+    void testOptimisticLockFailuresGiveUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> walletRetryTemplate.execute(context -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("Wallet was updated concurrently");
+        }));
+
+        assertEquals(walletConfig.getRetryMaxAttempts(), calls.get());
+    }
+
+    private DistributionSummary attempts(String method) {
+        return DistributionSummary.builder("wallet.retry.attempts").baseUnit("attempts").tag("method", method).register(meterRegistry);
+    }
+
+    private Timer retryTime(String outcome) {
+        return Timer.builder("wallet.retry.time").tag("method", "unknown").tag("outcome", outcome).register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WalletApiShardedBalanceTests {
+
+    private static final int NUM_THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 25;
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private WalletConfig walletConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testConcurrentWritesToShardedWalletKeepAnExactTotal() throws InterruptedException {
+        String customerId = customer("sharded-hot");
+        retryableWalletService.addFunds(customerId, new BigDecimal("1000"));
+        assertEquals(0, retryableWalletService.setShards(customerId, 8).getBalance().compareTo(new BigDecimal("1000")));
+        assertEquals(8, shardRows(customerId));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < NUM_THREADS; i++) {
+            executorService.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+                        retryableWalletService.withdrawFunds(customerId, new BigDecimal("5"));
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        startLatch.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(60, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+
+        BigDecimal expected = new BigDecimal("1000").add(new BigDecimal(5 * NUM_THREADS * OPERATIONS_PER_THREAD));
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(expected));
+        long expectedRows = 1 + 2L * NUM_THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expectedRows, retryableWalletService.getTransactions(customerId, PageRequest.of(0, 10)).getTotalElements());
+
+        assertEquals(0, retryableWalletService.setShards(customerId, 0).getBalance().compareTo(expected));
+        assertEquals(0, shardRows(customerId));
+        assertEquals(0, walletBalance(customerId).compareTo(expected));
+        assertEquals(expectedRows, retryableWalletService.getTransactions(customerId, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void testDebitLargerThanOneShardBorrowsFromTheOthers() {
+        String customerId = customer("sharded-borrow");
+        String otherCustomerId = customer("sharded-borrow-target");
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"));
+        retryableWalletService.addFunds(otherCustomerId, new BigDecimal("10"));
+        retryableWalletService.setShards(customerId, 4);
+
+        assertEquals(0, retryableWalletService.withdrawFunds(customerId, new BigDecimal("90")).getBalance().compareTo(BigDecimal.TEN));
+        List<BigDecimal> shards = jdbcTemplate.queryForList(
+                "SELECT s.balance FROM wallet_shards s JOIN wallets w ON s.wallet_id = w.id WHERE w.customer_id = ? ORDER BY s.shard",
+                BigDecimal.class, customerId);
+        assertEquals(4, shards.size());
+        shards.forEach(balance -> assertEquals(0, balance.compareTo(new BigDecimal("2.50")), "What is left should be spread evenly"));
+
+        assertThrows(IllegalStateException.class, () -> retryableWalletService.withdrawFunds(customerId, new BigDecimal("20")));
+        TransferDTO transfer = retryableWalletService.transfer(customerId, otherCustomerId, new BigDecimal("4"));
+        assertEquals(0, transfer.getFrom().getBalance().compareTo(new BigDecimal("6")));
+        assertEquals(0, transfer.getTo().getBalance().compareTo(new BigDecimal("14")));
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("6")));
+        assertEquals(0, walletBalance(customerId).compareTo(BigDecimal.ZERO), "A sharded wallet keeps nothing on its own row");
+    }
+
+    @Test
+    void testShardCountIsValidated() {
+        String customerId = customer("sharded-invalid");
+        retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+
+        assertThrows(IllegalArgumentException.class, () -> retryableWalletService.setShards(customerId, -1));
+        assertThrows(IllegalArgumentException.class, () -> retryableWalletService.setShards(customerId, walletConfig.getMaxShardsPerWallet() + 1));
+        assertEquals(0, shardRows(customerId));
+    }
+
+    /**
+     * Scopes a customer to the engine under test, since subclasses share the database.
+     */
+    private String customer(String name) {
+        return name + "-" + walletConfig.getEngine().name().toLowerCase();
+    }
+
+    private BigDecimal walletBalance(String customerId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE customer_id = ?", BigDecimal.class, customerId);
+    }
+
+    private int shardRows(String customerId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_shards s JOIN wallets w ON s.wallet_id = w.id WHERE w.customer_id = ?", Integer.class, customerId);
+    }
+}
@@ -0,0 +1,11 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the sharded balance scenarios against the conditional update engine, whose single-statement UPDATEs skip
+ * sharded wallets and fall back to their shards.
+ */
+@SpringBootTest(properties = "wallet.engine=CONDITIONAL_UPDATE")
+class WalletApiShardedConditionalUpdateTests extends WalletApiShardedBalanceTests {
+}
@@ -0,0 +1,140 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.dto.PeriodSummaryDTO;
+import org.github.tigz.wallet.modules.wallet.dto.StatementSummaryDTO;
+import org.github.tigz.wallet.modules.wallet.service.FundsOperation;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletApiStatementSummaryTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testRollupsMatchTheLedgerForEveryWritePath() throws InterruptedException {
+        String customerId = "summary-ledger";
+        String payeeId = "summary-ledger-payee";
+        retryableWalletService.addFunds(customerId, new BigDecimal("500"));
+        retryableWalletService.addFunds(payeeId, new BigDecimal("10"));
+        retryableWalletService.withdrawFunds(customerId, new BigDecimal("20.25"));
+        retryableWalletService.transfer(customerId, payeeId, new BigDecimal("30"));
+        retryableWalletService.applyOperations(List.of(
+                FundsOperation.add(customerId, new BigDecimal("15")),
+                FundsOperation.withdraw(customerId, new BigDecimal("5")),
+                FundsOperation.withdraw(customerId, new BigDecimal("100000"))));
+        retryableWalletService.setShards(customerId, 4);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 20; i++) {
+            executorService.submit(() -> retryableWalletService.addFunds(customerId, new BigDecimal("10")));
+            executorService.submit(() -> retryableWalletService.withdrawFunds(customerId, new BigDecimal("1")));
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        LocalDate today = LocalDate.now();
+        StatementSummaryDTO summary = summary(customerId, "from=" + today + "&to=" + today).getBody();
+        Map<String, Object> ledger = jdbcTemplate.queryForMap("SELECT"
+                + " SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE 0 END) AS credit_total,"
+                + " COUNT(CASE WHEN t.type = 'CREDIT' THEN 1 END) AS credit_count,"
+                + " SUM(CASE WHEN t.type = 'DEBIT' THEN t.amount ELSE 0 END) AS debit_total,"
+                + " COUNT(CASE WHEN t.type = 'DEBIT' THEN 1 END) AS debit_count"
+                + " FROM transaction t JOIN wallets w ON t.wallet_id = w.id WHERE w.customer_id = ?", customerId);
+
+        assertEquals(0, summary.getCreditTotal().compareTo((BigDecimal) ledger.get("CREDIT_TOTAL")));
+        assertEquals(((Number) ledger.get("CREDIT_COUNT")).longValue(), summary.getCreditCount());
+        assertEquals(0, summary.getDebitTotal().compareTo((BigDecimal) ledger.get("DEBIT_TOTAL")));
+        assertEquals(((Number) ledger.get("DEBIT_COUNT")).longValue(), summary.getDebitCount());
+        assertEquals(22, summary.getCreditCount());
+        assertEquals(23, summary.getDebitCount());
+        assertEquals(1, summary.getPeriods().size());
+        assertEquals(today, summary.getPeriods().get(0).getStart());
+    }
+
+    @Test
+    void testDaysAreFoldedIntoPeriodsClippedToTheRange() {
+        String customerId = "summary-periods";
+        retryableWalletService.addFunds(customerId, new BigDecimal("10"));
+        Long walletId = jdbcTemplate.queryForObject("SELECT id FROM wallets WHERE customer_id = ?", Long.class, customerId);
+        rollup(walletId, LocalDate.of(2025, 1, 30), 0, "100.00", 1, "0.00", 0);
+        rollup(walletId, LocalDate.of(2025, 1, 31), 0, "50.00", 2, "20.00", 1);
+        rollup(walletId, LocalDate.of(2025, 1, 31), 1, "5.00", 1, "0.00", 0);
+        rollup(walletId, LocalDate.of(2025, 2, 3), 0, "0.00", 0, "12.50", 3);
+        rollup(walletId, LocalDate.of(2025, 3, 1), 0, "7.00", 1, "0.00", 0);
+
+        StatementSummaryDTO daily = summary(customerId, "from=2025-01-31&to=2025-02-28").getBody();
+        assertEquals(2, daily.getPeriods().size());
+        assertPeriod(daily.getPeriods().get(0), "2025-01-31", "2025-01-31", "55.00", 3, "20.00", 1);
+        assertPeriod(daily.getPeriods().get(1), "2025-02-03", "2025-02-03", "0.00", 0, "12.50", 3);
+        assertEquals(0, daily.getCreditTotal().compareTo(new BigDecimal("55.00")));
+        assertEquals(4, daily.getDebitCount());
+
+        StatementSummaryDTO weekly = summary(customerId, "from=2025-01-01&to=2025-03-31&granularity=week").getBody();
+        assertEquals(3, weekly.getPeriods().size());
+        assertPeriod(weekly.getPeriods().get(0), "2025-01-27", "2025-02-02", "155.00", 4, "20.00", 1);
+        assertPeriod(weekly.getPeriods().get(1), "2025-02-03", "2025-02-09", "0.00", 0, "12.50", 3);
+
+        StatementSummaryDTO monthly = summary(customerId, "from=2025-01-15&to=2025-12-31&granularity=MONTH").getBody();
+        assertEquals("month", monthly.getGranularity());
+        assertEquals(3, monthly.getPeriods().size());
+        assertPeriod(monthly.getPeriods().get(0), "2025-01-15", "2025-01-31", "155.00", 4, "20.00", 1);
+        assertPeriod(monthly.getPeriods().get(2), "2025-03-01", "2025-03-31", "7.00", 1, "0.00", 0);
+
+        StatementSummaryDTO yearly = summary(customerId, "from=2025-01-01&to=2025-12-31&granularity=year").getBody();
+        assertEquals(1, yearly.getPeriods().size());
+        assertPeriod(yearly.getPeriods().get(0), "2025-01-01", "2025-12-31", "162.00", 5, "32.50", 4);
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        retryableWalletService.addFunds("summary-invalid", new BigDecimal("10"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, summary("summary-invalid", "from=2025-02-01&to=2025-01-01").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, summary("summary-invalid", "from=2000-01-01&to=2025-01-01").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, summary("summary-invalid", "granularity=hour").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, summary("summary-missing", "").getStatusCode());
+        assertTrue(summary("summary-invalid", "").getStatusCode().is2xxSuccessful());
+    }
+
+    private ResponseEntity<StatementSummaryDTO> summary(String customerId, String query) {
+        return restTemplate.getForEntity("/api/wallet/" + customerId + "/summary?" + query, StatementSummaryDTO.class);
+    }
+
+    private void rollup(Long walletId, LocalDate day, int slot, String creditTotal, long creditCount, String debitTotal, long debitCount) {
+        jdbcTemplate.update("INSERT INTO wallet_daily_rollups (wallet_id, rollup_date, slot, credit_total, credit_count, debit_total, debit_count)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)", walletId, day, slot, new BigDecimal(creditTotal), creditCount, new BigDecimal(debitTotal), debitCount);
+    }
+
+    private static void assertPeriod(PeriodSummaryDTO period, String start, String end, String creditTotal, long creditCount,
+                                     String debitTotal, long debitCount) {
+        assertEquals(LocalDate.parse(start), period.getStart());
+        assertEquals(LocalDate.parse(end), period.getEnd());
+        assertEquals(0, period.getCreditTotal().compareTo(new BigDecimal(creditTotal)));
+        assertEquals(creditCount, period.getCreditCount());
+        assertEquals(0, period.getDebitTotal().compareTo(new BigDecimal(debitTotal)));
+        assertEquals(debitCount, period.getDebitCount());
+    }
+}
@@ -0,0 +1,175 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a single hot wallet from many threads with striped writes enabled.
+ * Every withdrawal should succeed first time, with no optimistic lock conflicts to retry, and a withdrawal resent
+ * concurrently with the same idempotency key should be applied once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"wallet.concurrencyMode=STRIPED", "wallet.stripes=4"})
+class WalletApiStripedConcurrencyTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AtomicInteger retryErrors;
+
+    private final String TEST_CUSTOMER_ID = "hot-customer-" + getClass().getSimpleName();
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("5000");
+    private static final BigDecimal WITHDRAWAL_AMOUNT = new BigDecimal("10");
+    private static final int NUM_THREADS = 8;
+    private static final int WITHDRAWALS_PER_THREAD = 25;
+
+    @TestConfiguration
+    static class RetryCountingConfig {
+
+        @Bean
+        AtomicInteger retryErrors() {
+            return new AtomicInteger();
+        }
+
+        @Bean
+        RetryListener retryCountingListener(AtomicInteger retryErrors) {
+            return new RetryListener() {
+                @Override
+                public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                    retryErrors.incrementAndGet();
+                }
+            };
+        }
+    }
+
+    @Test
+    void testHotWalletWithdrawalsDoNotConflict() throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(NUM_THREADS);
+        AtomicInteger successfulWithdrawals = new AtomicInteger(0);
+
+        assertTrue(addFunds(TEST_CUSTOMER_ID, INITIAL_BALANCE).getStatusCode().is2xxSuccessful());
+        retryErrors.set(0);
+
+        for (int i = 0; i < NUM_THREADS; i++) {
+            executorService.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < WITHDRAWALS_PER_THREAD; j++) {
+                        ResponseEntity<WalletDTO> response = withdrawFunds(TEST_CUSTOMER_ID, WITHDRAWAL_AMOUNT);
+                        if (response.getStatusCode().is2xxSuccessful()) {
+                            successfulWithdrawals.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        endLatch.await();
+        executorService.shutdown();
+
+        int expectedWithdrawals = NUM_THREADS * WITHDRAWALS_PER_THREAD;
+        assertEquals(expectedWithdrawals, successfulWithdrawals.get(), "Every withdrawal should succeed");
+        assertEquals(0, retryErrors.get(), "Striped writes should not hit optimistic lock conflicts");
+
+        WalletDTO finalWallet = restTemplate.getForEntity("/api/wallet/" + TEST_CUSTOMER_ID, WalletDTO.class).getBody();
+        BigDecimal expectedBalance = INITIAL_BALANCE.subtract(WITHDRAWAL_AMOUNT.multiply(BigDecimal.valueOf(expectedWithdrawals)));
+        assertEquals(0, finalWallet.getBalance().compareTo(expectedBalance));
+    }
+
+    @Test
+    void testResentWithdrawalIsAppliedOnce() throws InterruptedException {
+        String customerId = "idempotent-customer-" + getClass().getSimpleName();
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(NUM_THREADS);
+        Set<BigDecimal> returnedBalances = ConcurrentHashMap.newKeySet();
+        AtomicInteger failedRequests = new AtomicInteger(0);
+
+        assertTrue(addFunds(customerId, INITIAL_BALANCE).getStatusCode().is2xxSuccessful());
+
+        for (int i = 0; i < NUM_THREADS; i++) {
+            executorService.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < 5; j++) {
+                        HttpHeaders headers = createJsonHeaders();
+                        headers.set("Idempotency-Key", "withdrawal-1");
+                        ResponseEntity<WalletDTO> response = restTemplate.postForEntity("/api/wallet/" + customerId + "/withdraw",
+                                new HttpEntity<>(createJsonBody(WITHDRAWAL_AMOUNT), headers), WalletDTO.class);
+                        if (response.getStatusCode().is2xxSuccessful()) {
+                            returnedBalances.add(response.getBody().getBalance().stripTrailingZeros());
+                        } else {
+                            failedRequests.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        endLatch.await();
+        executorService.shutdown();
+
+        BigDecimal expectedBalance = INITIAL_BALANCE.subtract(WITHDRAWAL_AMOUNT);
+        assertEquals(0, failedRequests.get(), "Every resend should be answered");
+        assertEquals(Set.of(expectedBalance.stripTrailingZeros()), returnedBalances, "Every resend should see the original result");
+        WalletDTO finalWallet = restTemplate.getForEntity("/api/wallet/" + customerId, WalletDTO.class).getBody();
+        assertEquals(0, finalWallet.getBalance().compareTo(expectedBalance));
+    }
+
+    private ResponseEntity<WalletDTO> addFunds(String customerId, BigDecimal amount) {
+        String url = "/api/wallet/" + customerId + "/add";
+        HttpEntity<String> request = new HttpEntity<>(createJsonBody(amount), createJsonHeaders());
+        return restTemplate.postForEntity(url, request, WalletDTO.class);
+    }
+
+    private ResponseEntity<WalletDTO> withdrawFunds(String customerId, BigDecimal amount) {
+        String url = "/api/wallet/" + customerId + "/withdraw";
+        HttpEntity<String> request = new HttpEntity<>(createJsonBody(amount), createJsonHeaders());
+        return restTemplate.postForEntity(url, request, WalletDTO.class);
+    }
+
+    private String createJsonBody(BigDecimal amount) {
+        return String.format("{\"amount\": %s}", amount.toString());
+    }
+
+    private HttpHeaders createJsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
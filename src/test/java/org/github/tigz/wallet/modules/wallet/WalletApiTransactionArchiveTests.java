@@ -0,0 +1,169 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
+import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionSegmentStore;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.github.tigz.wallet.modules.wallet.service.TransactionArchiver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "wallet.archiveBatchSize=5")
+class WalletApiTransactionArchiveTests {
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TransactionSegmentStore transactionSegmentStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int TRANSACTIONS = 20;
+    private static final int ARCHIVED = 12;
+
+    @Test
+    void testClosedMonthsAreMovedToTheArchive() {
+        String customerId = "archive-move";
+        createHistory(customerId);
+
+        assertTrue(transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now())) >= ARCHIVED);
+        assertEquals(TRANSACTIONS - ARCHIVED, rows("transaction", customerId));
+        assertEquals(ARCHIVED, rows("transaction_archive", customerId));
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("81")));
+        assertEquals(TRANSACTIONS, retryableWalletService.getTransactions(customerId, PageRequest.of(0, 5)).getTotalElements());
+
+        assertEquals(0, transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now())));
+        assertEquals(LocalDate.now().withDayOfMonth(1).minusMonths(3).atStartOfDay(), transactionArchiver.cutoff(LocalDate.now()));
+    }
+
+    @Test
+    void testHistoryReadsSpanBothTiers() {
+        String customerId = "archive-reads";
+        createHistory(customerId);
+        transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now()));
+        List<Long> newestFirst = jdbcTemplate.queryForList("SELECT t.id FROM (SELECT id, wallet_id, created_at FROM transaction"
+                + " UNION ALL SELECT id, wallet_id, created_at FROM transaction_archive) t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ? ORDER BY t.created_at DESC, t.id DESC", Long.class, customerId);
+        List<Long> oldestFirst = new ArrayList<>(newestFirst);
+        Collections.reverse(oldestFirst);
+
+        List<CursorPageDTO<TransactionDTO>> pages = new ArrayList<>();
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<TransactionDTO> page = retryableWalletService.getTransactionsByCursor(customerId, cursor, 6);
+            pages.add(page);
+            page.getContent().forEach(transaction -> walked.add(transaction.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(newestFirst, walked);
+
+        CursorPageDTO<TransactionDTO> last = pages.get(pages.size() - 1);
+        CursorPageDTO<TransactionDTO> back = retryableWalletService.getTransactionsByCursor(customerId, last.getPrevCursor(), 6);
+        assertEquals(ids(pages.get(pages.size() - 2)), ids(back));
+
+        assertEquals(newestFirst, pagedIds(customerId, Sort.by(Sort.Direction.DESC, "timestamp", "id")));
+        assertEquals(oldestFirst, pagedIds(customerId, Sort.unsorted()));
+        List<Long> byAmount = pagedIds(customerId, Sort.by(Sort.Direction.DESC, "amount"));
+        assertEquals(oldestFirst.get(0), byAmount.get(0));
+        assertEquals(TRANSACTIONS, byAmount.size());
+    }
+
+    @Test
+    void testExportIncludesArchivedTransactions() {
+        String customerId = "archive-export";
+        createHistory(customerId);
+        transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now()));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/wallet/" + customerId + "/transactions/export?format=csv", String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        String[] lines = response.getBody().split("\n");
+        assertEquals(TRANSACTIONS + 1, lines.length);
+        assertTrue(lines[1].contains(",CREDIT,100.00,2025-01-01T00:00,"));
+        long previous = 0;
+        for (int i = 1; i < lines.length; i++) {
+            long id = Long.parseLong(lines[i].substring(0, lines[i].indexOf(',')));
+            assertTrue(id > previous, "Rows should be oldest first");
+            previous = id;
+        }
+    }
+
+    @Test
+    void testArchivingWaitsForReads() throws Exception {
+        String customerId = "archive-read-lock";
+        createHistory(customerId);
+
+        CompletableFuture<Long> archiving = transactionSegmentStore.read(segments -> {
+            CompletableFuture<Long> started = CompletableFuture.supplyAsync(
+                    () -> transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now())));
+            assertThrows(TimeoutException.class, () -> started.get(500, TimeUnit.MILLISECONDS));
+            assertEquals(TRANSACTIONS, rows("transaction", customerId));
+            return started;
+        });
+        assertTrue(archiving.get(30, TimeUnit.SECONDS) >= ARCHIVED);
+        assertEquals(ARCHIVED, rows("transaction_archive", customerId));
+    }
+
+    /**
+     * Writes a credit and withdrawals, then backdates the oldest rows into a closed month, one minute apart.
+     */
+    private void createHistory(String customerId) {
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"));
+        for (int i = 1; i < TRANSACTIONS; i++) {
+            retryableWalletService.withdrawFunds(customerId, BigDecimal.ONE);
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT t.id FROM transaction t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ? ORDER BY t.id", Long.class, customerId);
+        for (int i = 0; i < ARCHIVED; i++) {
+            jdbcTemplate.update("UPDATE transaction SET created_at = ? WHERE id = ?",
+                    LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i), ids.get(i));
+        }
+    }
+
+    private List<Long> pagedIds(String customerId, Sort sort) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            PageDTO<TransactionDTO> result = retryableWalletService.getTransactions(customerId, PageRequest.of(page, 7, sort));
+            result.getContent().forEach(transaction -> ids.add(transaction.getId()));
+            if (page + 1 >= result.getTotalPages()) {
+                return ids;
+            }
+        }
+    }
+
+    private static List<Long> ids(CursorPageDTO<TransactionDTO> page) {
+        return page.getContent().stream().map(TransactionDTO::getId).toList();
+    }
+
+    private int rows(String table, String customerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ?", Integer.class, customerId);
+    }
+}
@@ -0,0 +1,95 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletApiTransactionExportTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testHistoryIsExportedAsNdjson() throws Exception {
+        String customerId = "export-ndjson";
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"));
+        for (int i = 0; i < 30; i++) {
+            retryableWalletService.withdrawFunds(customerId, new BigDecimal("1.50"));
+        }
+        retryableWalletService.addFunds("export-ndjson-payee", new BigDecimal("10"));
+        TransferDTO transfer = retryableWalletService.transfer(customerId, "export-ndjson-payee", new BigDecimal("5"));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/wallet/" + customerId + "/transactions/export", String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("export-ndjson-transactions.ndjson"));
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(32, rows.size());
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(rows.get(i).get("id").asLong() > rows.get(i - 1).get("id").asLong(), "Rows should be oldest first");
+        }
+        JsonNode first = rows.get(0);
+        assertEquals(customerId, first.get("customerId").asText());
+        assertEquals("CREDIT", first.get("type").asText());
+        assertEquals(0, first.get("amount").decimalValue().compareTo(new BigDecimal("100")));
+        assertTrue(first.get("counterpartId").isNull());
+        JsonNode last = rows.get(rows.size() - 1);
+        assertEquals("DEBIT", last.get("type").asText());
+        assertEquals(transfer.getDebitTransactionId().longValue(), last.get("id").asLong());
+        assertEquals(transfer.getCreditTransactionId().longValue(), last.get("counterpartId").asLong());
+    }
+
+    @Test
+    void testHistoryIsExportedAsCsv() {
+        String customerId = "export,csv";
+        retryableWalletService.addFunds(customerId, new BigDecimal("50"));
+        retryableWalletService.withdrawFunds(customerId, new BigDecimal("12.25"));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/wallet/{customerId}/transactions/export?format=csv",
+                String.class, customerId);
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+
+        String[] lines = response.getBody().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,customerId,type,amount,timestamp,counterpartId", lines[0]);
+        assertTrue(lines[1].contains(",\"export,csv\",CREDIT,50.00,"));
+        assertTrue(lines[2].contains(",\"export,csv\",DEBIT,12.25,"));
+        assertTrue(lines[2].endsWith(","), "A missing counterpart should be an empty column");
+    }
+
+    @Test
+    void testUnknownCustomerOrFormatIsRejected() {
+        retryableWalletService.addFunds("export-rejected", new BigDecimal("10"));
+
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/api/wallet/export-missing/transactions/export", String.class)
+                .getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/api/wallet/export-rejected/transactions/export?format=xml", String.class)
+                .getStatusCode());
+    }
+}
@@ -0,0 +1,199 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.common.dto.CursorPageDTO;
+import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
+import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
+import org.github.tigz.wallet.modules.wallet.service.RetryableWalletService;
+import org.github.tigz.wallet.modules.wallet.service.TransactionArchiver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against its own database, since the segments it registers would stop contexts without a segment directory
+ * from starting.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:walletsegmentdb",
+        "wallet.segmentDirectory=target/segments/${random.uuid}",
+        "wallet.archiveBatchSize=5"})
+class WalletApiTransactionSegmentTests {
+
+    @Autowired
+    private RetryableWalletService retryableWalletService;
+
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final int TRANSACTIONS = 20;
+    private static final int SEALED = 8;
+    private static final int ARCHIVED = 4;
+
+    @Test
+    void testOldArchivedMonthsAreSealedIntoSegments() {
+        String customerId = "segment-seal";
+        createHistory(customerId);
+
+        assertTrue(transactionArchiver.sealBefore(transactionArchiver.sealCutoff(LocalDate.now())) >= SEALED);
+        assertEquals(TRANSACTIONS - SEALED - ARCHIVED, rows("transaction", customerId));
+        assertEquals(ARCHIVED, rows("transaction_archive", customerId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_archive WHERE created_at < ?",
+                Integer.class, transactionArchiver.sealCutoff(LocalDate.now())));
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_segments WHERE period_start = ?",
+                Integer.class, LocalDate.of(2024, 3, 1)) >= 1);
+        assertEquals(0, retryableWalletService.getWallet(customerId).getBalance().compareTo(new BigDecimal("81")));
+        assertEquals(TRANSACTIONS, retryableWalletService.getTransactions(customerId, PageRequest.of(0, 5)).getTotalElements());
+
+        assertEquals(0, transactionArchiver.sealBefore(transactionArchiver.sealCutoff(LocalDate.now())));
+    }
+
+    @Test
+    void testHistoryReadsSpanAllTiers() {
+        String customerId = "segment-reads";
+        createHistory(customerId);
+        List<Long> newestFirst = jdbcTemplate.queryForList("SELECT t.id FROM (SELECT id, wallet_id, created_at FROM transaction"
+                + " UNION ALL SELECT id, wallet_id, created_at FROM transaction_archive) t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ? ORDER BY t.created_at DESC, t.id DESC", Long.class, customerId);
+        List<Long> oldestFirst = new ArrayList<>(newestFirst);
+        Collections.reverse(oldestFirst);
+        transactionArchiver.sealBefore(transactionArchiver.sealCutoff(LocalDate.now()));
+
+        List<CursorPageDTO<TransactionDTO>> pages = new ArrayList<>();
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<TransactionDTO> page = retryableWalletService.getTransactionsByCursor(customerId, cursor, 3);
+            pages.add(page);
+            page.getContent().forEach(transaction -> walked.add(transaction.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(newestFirst, walked);
+
+        CursorPageDTO<TransactionDTO> back = pages.get(pages.size() - 1);
+        for (int i = pages.size() - 2; i >= pages.size() - 4; i--) {
+            back = retryableWalletService.getTransactionsByCursor(customerId, back.getPrevCursor(), 3);
+            assertEquals(ids(pages.get(i)), ids(back));
+        }
+
+        assertEquals(newestFirst, pagedIds(customerId, Sort.by(Sort.Direction.DESC, "timestamp", "id")));
+        assertEquals(oldestFirst, pagedIds(customerId, Sort.unsorted()));
+        assertThrows(IllegalArgumentException.class, () -> pagedIds(customerId, Sort.by(Sort.Direction.DESC, "amount")));
+        assertThrows(IllegalArgumentException.class, () -> pagedIds(customerId, Sort.by(Sort.Order.desc("timestamp"), Sort.Order.asc("id"))));
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/api/wallet/" + customerId + "/transactions?sort=amount,desc",
+                String.class).getStatusCode());
+    }
+
+    @Test
+    void testExportIncludesSealedTransactions() {
+        String customerId = "segment-export";
+        createHistory(customerId);
+        transactionArchiver.sealBefore(transactionArchiver.sealCutoff(LocalDate.now()));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/wallet/" + customerId + "/transactions/export?format=csv", String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        String[] lines = response.getBody().split("\n");
+        assertEquals(TRANSACTIONS + 1, lines.length);
+        assertTrue(lines[1].contains(",CREDIT,100.00,2024-03-01T00:00,"));
+        long previous = 0;
+        for (int i = 1; i < lines.length; i++) {
+            long id = Long.parseLong(lines[i].substring(0, lines[i].indexOf(',')));
+            assertTrue(id > previous, "Rows should be oldest first");
+            previous = id;
+        }
+    }
+
+    @Test
+    void testSealingDoesNotWaitForOpenStreams() throws Exception {
+        String customerId = "segment-open-stream";
+        createHistory(customerId);
+        long walletId = jdbcTemplate.queryForObject("SELECT id FROM wallets WHERE customer_id = ?", Long.class, customerId);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Long> exported = readOnly.execute(status -> {
+            try (Stream<TransactionRepository.ExportRow> open = transactionRepository.streamExportRowsByWalletId(walletId)) {
+                CompletableFuture<Long> sealing = CompletableFuture.supplyAsync(
+                        () -> transactionArchiver.sealBefore(transactionArchiver.sealCutoff(LocalDate.now())));
+                assertTrue(sealing.get(30, TimeUnit.SECONDS) >= SEALED);
+                return open.map(TransactionRepository.ExportRow::getId).toList();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(TRANSACTIONS, exported.size());
+        assertEquals(TRANSACTIONS, exported.stream().distinct().count());
+        assertEquals(ARCHIVED, rows("transaction_archive", customerId));
+    }
+
+    /**
+     * Writes a credit and withdrawals, backdates the oldest rows into a month due for sealing and the next ones into a
+     * month only due for archiving, then archives them.
+     */
+    private void createHistory(String customerId) {
+        retryableWalletService.addFunds(customerId, new BigDecimal("100"));
+        for (int i = 1; i < TRANSACTIONS; i++) {
+            retryableWalletService.withdrawFunds(customerId, BigDecimal.ONE);
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT t.id FROM transaction t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ? ORDER BY t.id", Long.class, customerId);
+        LocalDateTime archived = transactionArchiver.cutoff(LocalDate.now()).minusMonths(1);
+        for (int i = 0; i < SEALED + ARCHIVED; i++) {
+            LocalDateTime timestamp = i < SEALED ? LocalDateTime.of(2024, 3, 1, 0, 0).plusMinutes(i) : archived.plusMinutes(i);
+            jdbcTemplate.update("UPDATE transaction SET created_at = ? WHERE id = ?", timestamp, ids.get(i));
+        }
+        transactionArchiver.archiveBefore(transactionArchiver.cutoff(LocalDate.now()));
+    }
+
+    private List<Long> pagedIds(String customerId, Sort sort) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            PageDTO<TransactionDTO> result = retryableWalletService.getTransactions(customerId, PageRequest.of(page, 7, sort));
+            result.getContent().forEach(transaction -> ids.add(transaction.getId()));
+            if (page + 1 >= result.getTotalPages()) {
+                return ids;
+            }
+        }
+    }
+
+    private static List<Long> ids(CursorPageDTO<TransactionDTO> page) {
+        return page.getContent().stream().map(TransactionDTO::getId).toList();
+    }
+
+    private int rows(String table, String customerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " t JOIN wallets w ON t.wallet_id = w.id"
+                + " WHERE w.customer_id = ?", Integer.class, customerId);
+    }
+}
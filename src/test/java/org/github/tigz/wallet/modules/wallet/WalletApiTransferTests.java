@@ -0,0 +1,123 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import org.github.tigz.wallet.modules.wallet.dto.TransferDTO;
+import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WalletApiTransferTests {
+
+    private static final int NUM_THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 20;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testTransferMovesFundsAndLinksLedgerRows() {
+        addFunds("transfer-source", new BigDecimal("300"));
+        addFunds("transfer-target", new BigDecimal("50"));
+
+        ResponseEntity<TransferDTO> response = transfer("transfer-source", "transfer-target", new BigDecimal("120"));
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        TransferDTO transfer = response.getBody();
+        assertEquals(0, transfer.getFrom().getBalance().compareTo(new BigDecimal("180")));
+        assertEquals(0, transfer.getTo().getBalance().compareTo(new BigDecimal("170")));
+        assertEquals(0, getWallet("transfer-source").getBalance().compareTo(new BigDecimal("180")));
+        assertEquals(0, getWallet("transfer-target").getBalance().compareTo(new BigDecimal("170")));
+
+        Map<String, Object> debit = jdbcTemplate.queryForMap("SELECT type, counterpart_id FROM transaction WHERE id = ?",
+                transfer.getDebitTransactionId());
+        Map<String, Object> credit = jdbcTemplate.queryForMap("SELECT type, counterpart_id FROM transaction WHERE id = ?",
+                transfer.getCreditTransactionId());
+        assertEquals("DEBIT", debit.get("TYPE"));
+        assertEquals("CREDIT", credit.get("TYPE"));
+        assertEquals(transfer.getCreditTransactionId(), ((Number) debit.get("COUNTERPART_ID")).longValue());
+        assertEquals(transfer.getDebitTransactionId(), ((Number) credit.get("COUNTERPART_ID")).longValue());
+    }
+
+    @Test
+    void testFailedTransferLeavesBothWalletsUnchanged() {
+        addFunds("transfer-poor-source", new BigDecimal("20"));
+        addFunds("transfer-poor-target", new BigDecimal("20"));
+
+        assertEquals(HttpStatus.CONFLICT, transfer("transfer-poor-source", "transfer-poor-target", new BigDecimal("100")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, transfer("transfer-poor-source", "transfer-missing-target", new BigDecimal("10")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, transfer("transfer-poor-source", "transfer-poor-source", new BigDecimal("10")).getStatusCode());
+
+        assertEquals(0, getWallet("transfer-poor-source").getBalance().compareTo(new BigDecimal("20")));
+        assertEquals(0, getWallet("transfer-poor-target").getBalance().compareTo(new BigDecimal("20")));
+    }
+
+    @Test
+    void testConcurrentOppositeTransfersAllComplete() throws InterruptedException {
+        BigDecimal initialBalance = new BigDecimal("1000");
+        addFunds("transfer-ring-a", initialBalance);
+        addFunds("transfer-ring-b", initialBalance);
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(NUM_THREADS);
+        AtomicInteger successfulTransfers = new AtomicInteger(0);
+
+        for (int i = 0; i < NUM_THREADS; i++) {
+            boolean forward = i % 2 == 0;
+            executorService.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < TRANSFERS_PER_THREAD; j++) {
+                        ResponseEntity<TransferDTO> response = forward
+                                ? transfer("transfer-ring-a", "transfer-ring-b", BigDecimal.ONE)
+                                : transfer("transfer-ring-b", "transfer-ring-a", BigDecimal.ONE);
+                        if (response.getStatusCode().is2xxSuccessful()) {
+                            successfulTransfers.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        endLatch.await();
+        executorService.shutdown();
+
+        assertEquals(NUM_THREADS * TRANSFERS_PER_THREAD, successfulTransfers.get(), "Every transfer should complete");
+        assertEquals(0, getWallet("transfer-ring-a").getBalance().compareTo(initialBalance));
+        assertEquals(0, getWallet("transfer-ring-b").getBalance().compareTo(initialBalance));
+    }
+
+    private void addFunds(String customerId, BigDecimal amount) {
+        restTemplate.postForEntity("/api/wallet/" + customerId + "/add", Map.of("amount", amount), WalletDTO.class);
+    }
+
+    private ResponseEntity<TransferDTO> transfer(String fromCustomerId, String toCustomerId, BigDecimal amount) {
+        return restTemplate.postForEntity("/api/wallet/transfer",
+                Map.of("fromCustomerId", fromCustomerId, "toCustomerId", toCustomerId, "amount", amount), TransferDTO.class);
+    }
+
+    private WalletDTO getWallet(String customerId) {
+        return restTemplate.getForEntity("/api/wallet/" + customerId, WalletDTO.class).getBody();
+    }
+}
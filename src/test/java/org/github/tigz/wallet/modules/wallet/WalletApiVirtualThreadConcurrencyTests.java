@@ -0,0 +1,36 @@
+package org.github.tigz.wallet.modules.wallet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.github.tigz.wallet.common.jdbc.AdmissionControlledDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the hot-wallet contention scenario on virtual threads with database admission control.
+ */
+@Import(WalletApiStripedConcurrencyTests.RetryCountingConfig.class)
+@ActiveProfiles("virtual")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"wallet.concurrencyMode=STRIPED", "wallet.stripes=4", "wallet.dbAdmissionLimit=4"})
+class WalletApiVirtualThreadConcurrencyTests extends WalletApiStripedConcurrencyTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testDataSourceIsAdmissionControlled() {
+        AdmissionControlledDataSource admissionControlled = assertInstanceOf(AdmissionControlledDataSource.class, dataSource);
+        assertEquals(4, admissionControlled.getLimit());
+        assertEquals(4.0, meterRegistry.get("wallet.db.admission.limit").gauge().value());
+    }
+}
@@ -0,0 +1,39 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import jakarta.persistence.EntityManager;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TransactionSegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void monthsMustBeArchivedBeforeTheyAreSealed() {
+        WalletConfig walletConfig = new WalletConfig();
+        walletConfig.setSegmentDirectory(directory.toString());
+        walletConfig.setArchiveAfterMonths(6);
+        walletConfig.setSegmentAfterMonths(3);
+
+        assertThrows(IllegalStateException.class, () -> store(walletConfig));
+
+        walletConfig.setSegmentAfterMonths(6);
+        assertTrue(store(walletConfig).isEnabled());
+        walletConfig.setSegmentDirectory("");
+        walletConfig.setSegmentAfterMonths(3);
+        assertFalse(store(walletConfig).isEnabled());
+    }
+
+    private static TransactionSegmentStore store(WalletConfig walletConfig) {
+        return new TransactionSegmentStore(mock(EntityManager.class), mock(TransactionSegmentFileRepository.class), walletConfig,
+                mock(PlatformTransactionManager.class));
+    }
+}
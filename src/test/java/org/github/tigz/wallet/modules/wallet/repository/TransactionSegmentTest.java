@@ -0,0 +1,97 @@
+package org.github.tigz.wallet.modules.wallet.repository;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSegmentTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rowsSurviveTheRoundTrip() {
+        List<LedgerRow> written = new ArrayList<>();
+        long id = 1_000;
+        for (long walletId = 3; walletId <= 300; walletId += 3) {
+            LocalDateTime timestamp = PERIOD_START.atStartOfDay().plusSeconds(walletId);
+            for (int i = 0; i < walletId % 7 + 1; i++) {
+                boolean credit = i % 3 == 0;
+                written.add(new LedgerRow(id, walletId, credit ? Transaction.TransactionType.CREDIT : Transaction.TransactionType.DEBIT,
+                        Money.ofMinor(credit ? 10_000 + i : i), timestamp, i % 2 == 0 ? null : id - 500 + i));
+                id += i % 2 == 0 ? 1 : -7 + 30;
+                timestamp = timestamp.plusNanos(1_000 * i);
+            }
+        }
+        Path file = directory.resolve("transactions-2024-03.seg");
+
+        assertEquals(written.size(), TransactionSegment.write(file, PERIOD_START, written.iterator()));
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        assertEquals(PERIOD_START, segment.getPeriodStart());
+        assertEquals(written.size(), segment.getRowCount());
+        assertEquals(100, segment.getWalletCount());
+        assertEquals(segment.getSize(), file.toFile().length());
+        List<LedgerRow> scanned = new ArrayList<>();
+        segment.forEach(scanned::add);
+        assertRowsEqual(written, scanned);
+        assertRowsEqual(written.stream().filter(row -> row.getWalletId() == 42).toList(), segment.read(42));
+        assertEquals(42 % 7 + 1, segment.count(42));
+        assertEquals(0, segment.count(43));
+        assertTrue(segment.read(43).isEmpty());
+        assertTrue(segment.read(1_000).isEmpty());
+    }
+
+    @Test
+    void outOfOrderRowsAreRejected() {
+        LocalDateTime timestamp = PERIOD_START.atStartOfDay();
+        List<LedgerRow> rows = List.of(
+                new LedgerRow(2, 2, Transaction.TransactionType.CREDIT, Money.ofMinor(100), timestamp, null),
+                new LedgerRow(1, 1, Transaction.TransactionType.CREDIT, Money.ofMinor(100), timestamp, null));
+        Path file = directory.resolve("unordered.seg");
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionSegment.write(file, PERIOD_START, rows.iterator()));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void truncatedFilesAreRejected() throws IOException {
+        LocalDateTime timestamp = PERIOD_START.atStartOfDay();
+        Path file = directory.resolve("truncated.seg");
+        TransactionSegment.write(file, PERIOD_START,
+                List.of(new LedgerRow(1, 1, Transaction.TransactionType.CREDIT, Money.ofMinor(100), timestamp, null)).iterator());
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        assertThrows(IllegalStateException.class, () -> TransactionSegment.open(file));
+    }
+
+    private static void assertRowsEqual(List<LedgerRow> expected, List<LedgerRow> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            LedgerRow want = expected.get(i);
+            LedgerRow got = actual.get(i);
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getWalletId(), got.getWalletId());
+            assertEquals(want.getType(), got.getType());
+            assertEquals(want.getMoney(), got.getMoney());
+            assertEquals(want.getTimestamp(), got.getTimestamp());
+            assertEquals(want.getCounterpartId(), got.getCounterpartId());
+        }
+    }
+}
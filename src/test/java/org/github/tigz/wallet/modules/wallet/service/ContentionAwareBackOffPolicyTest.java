@@ -0,0 +1,73 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentionAwareBackOffPolicyTest {
+
+    private CustomerConflictTracker conflictTracker;
+    private ContentionAwareBackOffPolicy backOffPolicy;
+
+    @BeforeEach
+    void setUp() {
+        conflictTracker = new CustomerConflictTracker();
+        backOffPolicy = new ContentionAwareBackOffPolicy(conflictTracker, Duration.ofMillis(10), Duration.ofMillis(200));
+    }
+
+    @Test
+    void testCeilingGrowsExponentiallyUpToMax() {
+        assertEquals(10, backOffPolicy.ceilingMillis("quiet-customer", 0));
+        assertEquals(20, backOffPolicy.ceilingMillis("quiet-customer", 1));
+        assertEquals(40, backOffPolicy.ceilingMillis("quiet-customer", 2));
+        assertEquals(200, backOffPolicy.ceilingMillis("quiet-customer", 10));
+    }
+
+    @Test
+    void testCeilingStretchesForHotCustomer() {
+        for (int i = 0; i < 20; i++) {
+            conflictTracker.recordConflict("hot-customer");
+        }
+
+        assertTrue(conflictTracker.conflictRate("hot-customer") > 0.9);
+        assertTrue(backOffPolicy.ceilingMillis("hot-customer", 0) >= 45);
+        assertEquals(10, backOffPolicy.ceilingMillis("quiet-customer", 0));
+    }
+
+    @Test
+    void testConflictRateDecaysAfterSuccesses() {
+        conflictTracker.recordConflict("customer1");
+        double afterConflict = conflictTracker.conflictRate("customer1");
+
+        conflictTracker.recordSuccess("customer1");
+
+        assertTrue(conflictTracker.conflictRate("customer1") < afterConflict);
+        assertEquals(0.0, conflictTracker.conflictRate("unknown-customer"));
+    }
+
+    @Test
+    void testBackOffSleepsWithJitterBelowCeiling() {
+        List<Long> sleeps = new ArrayList<>();
+        backOffPolicy.setSleeper(sleeps::add);
+        RetryContextSupport retryContext = new RetryContextSupport(null);
+        retryContext.setAttribute(ContentionAwareBackOffPolicy.CUSTOMER_ID_ATTRIBUTE, "customer1");
+
+        BackOffContext backOffContext = backOffPolicy.start(retryContext);
+        for (int i = 0; i < 50; i++) {
+            backOffPolicy.backOff(backOffContext);
+        }
+
+        assertEquals(50, sleeps.size());
+        assertTrue(sleeps.get(0) <= 10);
+        assertTrue(sleeps.get(1) <= 20);
+        assertTrue(sleeps.stream().allMatch(sleep -> sleep >= 0 && sleep <= 200));
+        assertTrue(sleeps.stream().distinct().count() > 1, "Backoff should be jittered");
+    }
+}
@@ -1,12 +1,16 @@
 package org.github.tigz.wallet.modules.wallet.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
 import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
 import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.repository.IdempotencyRecordRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -26,7 +30,15 @@ class RetryableWalletServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        retryableWalletService = new RetryableWalletService(walletService);
+        WalletConfig walletConfig = new WalletConfig();
+        CustomerLaneExecutor customerLaneExecutor = new CustomerLaneExecutor(walletConfig);
+        LedgerGroupCommitter ledgerGroupCommitter = new LedgerGroupCommitter(walletService, walletConfig);
+        WalletOperationMetrics walletOperationMetrics = new WalletOperationMetrics(new SimpleMeterRegistry(),
+                LoggerFactory.getLogger("WalletOperations"), customerLaneExecutor, ledgerGroupCommitter);
+        IdempotencyStore idempotencyStore = new IdempotencyStore(mock(IdempotencyRecordRepository.class), walletConfig,
+                new SimpleMeterRegistry());
+        retryableWalletService = new RetryableWalletService(walletService, customerLaneExecutor, ledgerGroupCommitter,
+                walletOperationMetrics, idempotencyStore, new InMemoryWalletEngine(walletConfig, null, idempotencyStore, new SimpleMeterRegistry()));
     }
 
     @Test
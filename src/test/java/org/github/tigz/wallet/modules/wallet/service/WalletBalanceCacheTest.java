@@ -0,0 +1,65 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.github.tigz.wallet.common.model.Money;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletBalanceCacheTest {
+
+    private WalletBalanceCache walletBalanceCache;
+
+    @BeforeEach
+    void setUp() {
+        walletBalanceCache = new WalletBalanceCache(new WalletConfig(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void put_newerVersion_replacesEntry() {
+        walletBalanceCache.put(wallet("customer1", "100.00", 1L));
+        walletBalanceCache.put(wallet("customer1", "150.00", 2L));
+
+        assertEquals(new BigDecimal("150.00"), walletBalanceCache.get("customer1").getBalance());
+    }
+
+    @Test
+    void put_staleVersion_isIgnored() {
+        walletBalanceCache.put(wallet("customer1", "150.00", 2L));
+        walletBalanceCache.put(wallet("customer1", "100.00", 1L));
+
+        assertEquals(new BigDecimal("150.00"), walletBalanceCache.get("customer1").getBalance());
+    }
+
+    @Test
+    void get_recordsHitsAndMisses() {
+        assertNull(walletBalanceCache.get("customer1"));
+        walletBalanceCache.put(wallet("customer1", "100.00", 1L));
+        assertNotNull(walletBalanceCache.get("customer1"));
+
+        assertEquals(1, walletBalanceCache.stats().hitCount());
+        assertEquals(1, walletBalanceCache.stats().missCount());
+    }
+
+    @Test
+    void disabled_neverCaches() {
+        WalletConfig walletConfig = new WalletConfig();
+        walletConfig.setCacheEnabled(false);
+        WalletBalanceCache disabled = new WalletBalanceCache(walletConfig, new SimpleMeterRegistry());
+
+        disabled.put(wallet("customer1", "100.00", 1L));
+
+        assertNull(disabled.get("customer1"));
+    }
+
+    private Wallet wallet(String customerId, String balance, long version) {
+        Wallet wallet = new Wallet(customerId, Money.valueOf(balance));
+        wallet.setVersion(version);
+        return wallet;
+    }
+}
@@ -0,0 +1,144 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import org.github.tigz.wallet.common.model.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesSurviveReopeningAcrossSegments() {
+        List<JournalEntry> written = new ArrayList<>();
+        try (WalletJournal journal = WalletJournal.open(directory, SEGMENT_SIZE)) {
+            for (long sequence = 1; sequence <= 100; sequence++) {
+                JournalEntry entry = entry(sequence);
+                journal.append(entry);
+                written.add(entry);
+            }
+            journal.force();
+        }
+        assertTrue(segmentFiles().size() > 1, "Entries should have rolled over into several segments");
+
+        WalletJournal reopened = WalletJournal.open(directory, SEGMENT_SIZE);
+        assertEquals(100, reopened.getLastSequence());
+        List<JournalEntry> replayed = new ArrayList<>();
+        reopened.replay(0, replayed::add);
+        assertEquals(written, replayed);
+
+        List<JournalEntry> tail = new ArrayList<>();
+        reopened.replay(90, tail::add);
+        assertEquals(written.subList(90, 100), tail);
+
+        JournalEntry transfer = JournalEntry.transfer(101, now(), "alice", "bob", Money.ofMinor(500), Money.ofMinor(100), Money.ofMinor(900));
+        reopened.append(transfer);
+        reopened.force();
+        List<JournalEntry> last = new ArrayList<>();
+        reopened.replay(100, last::add);
+        assertEquals(List.of(transfer), last);
+    }
+
+    @Test
+    void tornTailIsDiscardedAndOverwritten() throws IOException {
+        try (WalletJournal journal = WalletJournal.open(directory, SEGMENT_SIZE)) {
+            for (long sequence = 1; sequence <= 5; sequence++) {
+                journal.append(entry(sequence));
+            }
+            journal.force();
+        }
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Half an entry: a plausible length with a checksum that does not match
+            file.seek(lastNonZeroByte(segment) + 1);
+            file.writeInt(40);
+            file.writeInt(12345);
+            file.write(new byte[]{1, 2, 3});
+        }
+
+        WalletJournal reopened = WalletJournal.open(directory, SEGMENT_SIZE);
+        assertEquals(5, reopened.getLastSequence());
+        reopened.append(entry(6));
+        reopened.force();
+        reopened.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        WalletJournal.open(directory, SEGMENT_SIZE).replay(0, replayed::add);
+        assertEquals(6, replayed.size());
+        assertEquals(entry(6).customerId(), replayed.get(5).customerId());
+    }
+
+    @Test
+    void checkpointLetsOldSegmentsBeDeleted() {
+        WalletJournal journal = WalletJournal.open(directory, SEGMENT_SIZE);
+        for (long sequence = 1; sequence <= 100; sequence++) {
+            journal.append(entry(sequence));
+        }
+        journal.force();
+        WalletJournal.Checkpoint checkpoint = new WalletJournal.Checkpoint(80,
+                List.of(new WalletJournal.AccountState("alice", Money.ofMinor(12345), 40),
+                        new WalletJournal.AccountState("bob", Money.ZERO, 40)));
+        journal.writeCheckpoint(checkpoint);
+        assertTrue(journal.deleteSegmentsThrough(80) > 0);
+        assertTrue(journal.getFirstSequence() <= 81);
+        journal.close();
+
+        WalletJournal reopened = WalletJournal.open(directory, SEGMENT_SIZE);
+        assertEquals(checkpoint, reopened.readCheckpoint());
+        assertEquals(100, reopened.getLastSequence());
+        List<JournalEntry> replayed = new ArrayList<>();
+        reopened.replay(80, replayed::add);
+        assertEquals(20, replayed.size());
+        assertEquals(81, replayed.get(0).sequence());
+    }
+
+    @Test
+    void appendsMustBeInSequence() {
+        WalletJournal journal = WalletJournal.open(directory, SEGMENT_SIZE);
+        journal.append(entry(1));
+        assertThrows(IllegalArgumentException.class, () -> journal.append(entry(3)));
+    }
+
+    private static JournalEntry entry(long sequence) {
+        String customerId = sequence % 2 == 0 ? "alice" : "bob";
+        return sequence % 3 == 0
+                ? JournalEntry.debit(sequence, now(), customerId, Money.ofMinor(sequence), Money.ofMinor(1000 - sequence), null)
+                : JournalEntry.credit(sequence, now(), customerId, Money.ofMinor(sequence), Money.ofMinor(1000 + sequence), "key-" + sequence);
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static long lastNonZeroByte(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int last = bytes.length - 1;
+        while (last >= 0 && bytes[last] == 0) {
+            last--;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,70 @@
+package org.github.tigz.wallet.modules.wallet.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
+import org.github.tigz.wallet.modules.wallet.exception.InsufficientFundsException;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WalletOperationMetricsTest {
+
+    private MeterRegistry meterRegistry;
+    private WalletOperationMetrics walletOperationMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        WalletConfig walletConfig = new WalletConfig();
+        walletOperationMetrics = new WalletOperationMetrics(meterRegistry, LoggerFactory.getLogger("WalletOperations"),
+                new CustomerLaneExecutor(walletConfig), new LedgerGroupCommitter(mock(WalletService.class), walletConfig));
+    }
+
+    @Test
+    void testSuccessIsTimedAndResultReturned() {
+        assertEquals("done", walletOperationMetrics.record("getWallet", "customer1", () -> "done"));
+
+        assertEquals(1, count("getWallet", "success"));
+    }
+
+    @Test
+    void testFailuresAreTaggedByOutcomeAndRethrown() {
+        assertThrows(IllegalArgumentException.class, () -> walletOperationMetrics.record("addFunds", "customer1", () -> {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }));
+        assertThrows(InsufficientFundsException.class, () -> walletOperationMetrics.record("withdrawFunds", "customer1", () -> {
+            throw new InsufficientFundsException("customer1");
+        }));
+        assertThrows(WalletNotFoundException.class, () -> walletOperationMetrics.record("withdrawFunds", "customer2", () -> {
+            throw new WalletNotFoundException("customer2");
+        }));
+        assertThrows(OptimisticLockingFailureException.class, () -> walletOperationMetrics.record("withdrawFunds", "customer1", () -> {
+            throw new OptimisticLockingFailureException("Wallet was updated concurrently");
+        }));
+        assertThrows(IllegalStateException.class, () -> walletOperationMetrics.record("withdrawFunds", "customer1", () -> {
+            throw new IllegalStateException("Group committer is shut down");
+        }));
+
+        assertEquals(1, count("addFunds", "validation"));
+        assertEquals(1, count("withdrawFunds", "insufficient_funds"));
+        assertEquals(1, count("withdrawFunds", "not_found"));
+        assertEquals(1, count("withdrawFunds", "lock_conflict"));
+        assertEquals(1, count("withdrawFunds", "error"));
+    }
+
+    @Test
+    void testLaneBacklogGaugesAreRegistered() {
+        assertEquals(0.0, meterRegistry.get("wallet.lanes.queued").tag("mode", "striped").gauge().value());
+        assertEquals(0.0, meterRegistry.get("wallet.lanes.queued").tag("mode", "group_commit").gauge().value());
+    }
+
+    private long count(String operation, String outcome) {
+        return meterRegistry.get("wallet.operations").tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+}
@@ -2,24 +2,32 @@ package org.github.tigz.wallet.modules.wallet.service;
 
 import org.github.tigz.wallet.modules.wallet.config.WalletConfig;
 import org.github.tigz.wallet.common.dto.PageDTO;
+import org.github.tigz.wallet.common.model.Money;
 import org.github.tigz.wallet.modules.wallet.dto.TransactionDTO;
 import org.github.tigz.wallet.modules.wallet.dto.WalletDTO;
+import org.github.tigz.wallet.modules.wallet.exception.WalletNotFoundException;
+import org.github.tigz.wallet.modules.wallet.model.IdempotencyRecord;
 import org.github.tigz.wallet.modules.wallet.model.Transaction;
 import org.github.tigz.wallet.modules.wallet.model.Wallet;
+import org.github.tigz.wallet.modules.wallet.repository.IdempotencyRecordRepository;
 import org.github.tigz.wallet.modules.wallet.repository.TransactionRepository;
 import org.github.tigz.wallet.modules.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,37 +41,53 @@ class WalletServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Mock
     private WalletConfig walletConfig;
 
+    @Mock
+    private WalletLedger walletLedger;
+
+    @Mock
+    private WalletShards walletShards;
+
+    @Mock
+    private WalletRollups walletRollups;
+
     private WalletService walletService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        walletService = new WalletService(walletRepository, transactionRepository, walletConfig);
-
-        when(walletConfig.getMinAddAmount()).thenReturn(new BigDecimal("1.00"));
-        when(walletConfig.getMaxAddAmount()).thenReturn(new BigDecimal("1000.00"));
-        when(walletConfig.getMinWithdrawAmount()).thenReturn(new BigDecimal("1.00"));
-        when(walletConfig.getMaxWithdrawAmount()).thenReturn(new BigDecimal("500.00"));
+        walletService = new WalletService(walletRepository, transactionRepository, walletConfig,
+                new WalletBalanceCache(new WalletConfig(), new SimpleMeterRegistry()),
+                new IdempotencyStore(idempotencyRecordRepository, new WalletConfig(), new SimpleMeterRegistry()), walletLedger, walletShards, walletRollups);
+
+        when(walletConfig.getMinAddAmount()).thenReturn(Money.valueOf("1.00"));
+        when(walletConfig.getMaxAddAmount()).thenReturn(Money.valueOf("1000.00"));
+        when(walletConfig.getMinWithdrawAmount()).thenReturn(Money.valueOf("1.00"));
+        when(walletConfig.getMaxWithdrawAmount()).thenReturn(Money.valueOf("500.00"));
     }
 
     @Test
     void addFunds_newWallet_success() {
         String customerId = "customer1";
         BigDecimal amount = new BigDecimal("100.00");
-        Wallet newWallet = new Wallet(customerId, BigDecimal.ZERO);
-        Wallet updatedWallet = new Wallet(customerId, amount);
+        Wallet newWallet = new Wallet(customerId, Money.ZERO);
+        Wallet updatedWallet = new Wallet(customerId, Money.of(amount));
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.empty());
-        when(walletRepository.save(any(Wallet.class))).thenReturn(newWallet).thenReturn(updatedWallet);
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenReturn(newWallet);
+        when(walletRepository.save(any(Wallet.class))).thenReturn(updatedWallet);
 
         WalletDTO result = walletService.addFunds(customerId, amount);
 
         assertEquals(customerId, result.getCustomerId());
         assertEquals(amount, result.getBalance());
-        verify(walletRepository, times(2)).save(any(Wallet.class));
+        verify(walletRepository).saveAndFlush(any(Wallet.class));
+        verify(walletRepository).save(any(Wallet.class));
         verify(transactionRepository).save(any(Transaction.class));
     }
 
@@ -72,7 +96,7 @@ class WalletServiceTest {
         String customerId = "customer1";
         BigDecimal initialBalance = new BigDecimal("50.00");
         BigDecimal amount = new BigDecimal("100.00");
-        Wallet existingWallet = new Wallet(customerId, initialBalance);
+        Wallet existingWallet = new Wallet(customerId, Money.of(initialBalance));
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(existingWallet));
         when(walletRepository.save(any(Wallet.class))).thenReturn(existingWallet);
@@ -81,6 +105,7 @@ class WalletServiceTest {
 
         assertEquals(customerId, result.getCustomerId());
         assertEquals(initialBalance.add(amount), result.getBalance());
+        assertEquals(1, existingWallet.getTransactionCount());
         verify(walletRepository).save(any(Wallet.class));
         verify(transactionRepository).save(any(Transaction.class));
     }
@@ -98,7 +123,7 @@ class WalletServiceTest {
         String customerId = "customer1";
         BigDecimal initialBalance = new BigDecimal("200.00");
         BigDecimal amount = new BigDecimal("50.00");
-        Wallet existingWallet = new Wallet(customerId, initialBalance);
+        Wallet existingWallet = new Wallet(customerId, Money.of(initialBalance));
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(existingWallet));
         when(walletRepository.save(any(Wallet.class))).thenReturn(existingWallet);
@@ -116,13 +141,29 @@ class WalletServiceTest {
         String customerId = "customer1";
         BigDecimal initialBalance = new BigDecimal("50.00");
         BigDecimal amount = new BigDecimal("100.00");
-        Wallet existingWallet = new Wallet(customerId, initialBalance);
+        Wallet existingWallet = new Wallet(customerId, Money.of(initialBalance));
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(existingWallet));
 
         assertThrows(IllegalStateException.class, () -> walletService.withdrawFunds(customerId, amount));
     }
 
+    @Test
+    void withdrawFunds_withUsedIdempotencyKey_replaysWithoutTouchingWallet() {
+        String customerId = "customer1";
+        BigDecimal amount = new BigDecimal("100.00");
+        IdempotencyRecord record = new IdempotencyRecord(customerId, "key-1", Transaction.TransactionType.DEBIT,
+                Money.of(amount), Money.valueOf("400.00"));
+
+        when(idempotencyRecordRepository.findById(new IdempotencyRecord.Key(customerId, "key-1"))).thenReturn(Optional.of(record));
+
+        WalletDTO result = walletService.withdrawFunds(customerId, amount, "key-1");
+
+        assertEquals(new BigDecimal("400.00"), result.getBalance());
+        verifyNoInteractions(walletRepository, transactionRepository);
+        assertThrows(IllegalArgumentException.class, () -> walletService.withdrawFunds(customerId, new BigDecimal("50.00"), "key-1"));
+    }
+
     @Test
     void withdrawFunds_walletNotFound_throwsException() {
         String customerId = "customer1";
@@ -133,33 +174,141 @@ class WalletServiceTest {
         assertThrows(RuntimeException.class, () -> walletService.withdrawFunds(customerId, amount));
     }
 
+    @Test
+    void applyOperations_partialFailures_appliesValidOperations() {
+        Wallet existingWallet = new Wallet("customer1", Money.valueOf("100.00"));
+        List<FundsOperation> operations = List.of(
+                FundsOperation.add("customer1", new BigDecimal("50.00")),
+                FundsOperation.withdraw("customer1", new BigDecimal("500.00")),
+                FundsOperation.withdraw("customer2", new BigDecimal("10.00")),
+                FundsOperation.add("customer3", new BigDecimal("0.50")),
+                FundsOperation.add("customer3", new BigDecimal("20.00")),
+                FundsOperation.withdraw("customer1", new BigDecimal("30.00"))
+        );
+
+        when(walletRepository.findByCustomerIdIn(anyCollection())).thenReturn(List.of(existingWallet));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<FundsOperationResult> results = walletService.applyOperations(operations);
+
+        assertEquals(6, results.size());
+        assertEquals(new BigDecimal("150.00"), results.get(0).getWallet().getBalance());
+        assertInstanceOf(IllegalStateException.class, results.get(1).getError());
+        assertInstanceOf(WalletNotFoundException.class, results.get(2).getError());
+        assertInstanceOf(IllegalArgumentException.class, results.get(3).getError());
+        assertEquals(new BigDecimal("20.00"), results.get(4).getWallet().getBalance());
+        assertEquals(new BigDecimal("120.00"), results.get(5).getWallet().getBalance());
+        assertEquals(Money.valueOf("120.00"), existingWallet.getBalance());
+
+        verify(walletRepository, times(1)).findByCustomerIdIn(anyCollection());
+        verify(transactionRepository).saveAll(argThat((List<Transaction> transactions) -> transactions.size() == 3));
+    }
+
+    @Test
+    void applyOperations_walletCreatedConcurrently_throwsRetryableConflict() {
+        List<FundsOperation> operations = List.of(FundsOperation.add("customer1", new BigDecimal("50.00")));
+
+        when(walletRepository.findByCustomerIdIn(anyCollection())).thenReturn(List.of());
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenThrow(new DataIntegrityViolationException("duplicate customer_id"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> walletService.applyOperations(operations));
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void withdrawFunds_conditionalUpdate_success() {
+        String customerId = "customer1";
+        BigDecimal amount = new BigDecimal("50.00");
+        WalletRepository.BalanceUpdate update = mock(WalletRepository.BalanceUpdate.class);
+        when(update.getId()).thenReturn(7L);
+        when(update.getBalance()).thenReturn(new BigDecimal("150.00"));
+        when(update.getVersion()).thenReturn(3L);
+
+        when(walletConfig.getEngine()).thenReturn(WalletConfig.Engine.CONDITIONAL_UPDATE);
+        when(walletRepository.debitBalanceIfSufficient(customerId, amount)).thenReturn(Optional.of(update));
+        when(walletRepository.getReferenceById(7L)).thenReturn(new Wallet(customerId, Money.ZERO));
+
+        WalletDTO result = walletService.withdrawFunds(customerId, amount);
+
+        assertEquals(new BigDecimal("150.00"), result.getBalance());
+        verify(walletRepository, never()).findByCustomerId(customerId);
+        verify(transactionRepository).save(any(Transaction.class));
+    }
+
+    @Test
+    void withdrawFunds_conditionalUpdate_insufficientFunds_throwsException() {
+        String customerId = "customer1";
+        BigDecimal amount = new BigDecimal("50.00");
+
+        when(walletConfig.getEngine()).thenReturn(WalletConfig.Engine.CONDITIONAL_UPDATE);
+        when(walletRepository.debitBalanceIfSufficient(customerId, amount)).thenReturn(Optional.empty());
+        when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(new Wallet(customerId, Money.valueOf("10.00"))));
+
+        assertThrows(IllegalStateException.class, () -> walletService.withdrawFunds(customerId, amount));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void withdrawFunds_conditionalUpdate_walletNotFound_throwsException() {
+        String customerId = "customer1";
+        BigDecimal amount = new BigDecimal("50.00");
+
+        when(walletConfig.getEngine()).thenReturn(WalletConfig.Engine.CONDITIONAL_UPDATE);
+        when(walletRepository.debitBalanceIfSufficient(customerId, amount)).thenReturn(Optional.empty());
+        when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.empty());
+
+        assertThrows(WalletNotFoundException.class, () -> walletService.withdrawFunds(customerId, amount));
+    }
+
+    @Test
+    void addFunds_conditionalUpdate_shardedWallet_creditsShard() {
+        String customerId = "customer1";
+        BigDecimal amount = new BigDecimal("50.00");
+        Wallet wallet = new Wallet(customerId, Money.ZERO);
+        wallet.setShardCount(4);
+
+        when(walletConfig.getEngine()).thenReturn(WalletConfig.Engine.CONDITIONAL_UPDATE);
+        when(walletRepository.creditBalance(customerId, amount)).thenReturn(Optional.empty());
+        when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(wallet));
+        when(walletShards.totals(wallet)).thenReturn(new WalletShards.Totals(Money.valueOf("250.00"), 5));
+
+        WalletDTO result = walletService.addFunds(customerId, amount);
+
+        assertEquals(new BigDecimal("250.00"), result.getBalance());
+        verify(walletShards).credit(wallet, Money.of(amount));
+        verify(walletRepository, never()).saveAndFlush(any(Wallet.class));
+        verify(transactionRepository).save(any(Transaction.class));
+    }
+
     @Test
     void getTransactions_success() {
         String customerId = "customer1";
-        Wallet wallet = new Wallet(customerId, new BigDecimal("100.00"));
+        Wallet wallet = new Wallet(customerId, Money.valueOf("100.00"));
         Pageable pageable = PageRequest.of(0, 10);
         LocalDateTime now = LocalDateTime.now();
 
-        Transaction transaction1 = new Transaction(wallet, new BigDecimal("50.00"), Transaction.TransactionType.CREDIT);
+        Transaction transaction1 = new Transaction(wallet, Money.valueOf("50.00"), Transaction.TransactionType.CREDIT);
         transaction1.setId(1L);
         transaction1.setTimestamp(now.minusDays(1));
 
-        Transaction transaction2 = new Transaction(wallet, new BigDecimal("25.00"), Transaction.TransactionType.DEBIT);
+        Transaction transaction2 = new Transaction(wallet, Money.valueOf("25.00"), Transaction.TransactionType.DEBIT);
         transaction2.setId(2L);
         transaction2.setTimestamp(now);
 
-        Page<Transaction> transactionPage = new PageImpl<>(Arrays.asList(transaction1, transaction2));
+        wallet.setTransactionCount(2);
+        Slice<Transaction> transactionSlice = new SliceImpl<>(Arrays.asList(transaction1, transaction2), pageable, false);
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWallet(wallet, pageable)).thenReturn(transactionPage);
+        when(transactionRepository.findSliceByWallet(wallet, pageable)).thenReturn(transactionSlice);
 
         PageDTO<TransactionDTO> result = walletService.getTransactions(customerId, pageable);
 
         assertEquals(2, result.getContent().size());
         assertEquals(0, result.getPageNumber());
-        assertEquals(2, result.getPageSize());
+        assertEquals(10, result.getPageSize());
         assertEquals(2, result.getTotalElements());
         assertEquals(1, result.getTotalPages());
+        verify(transactionRepository, never()).findByWallet(any(), any());
 
         TransactionDTO firstTransaction = result.getContent().get(0);
         assertEquals(1L, firstTransaction.getId());
@@ -178,7 +327,7 @@ class WalletServiceTest {
     void getWallet_success() {
         String customerId = "customer1";
         BigDecimal balance = new BigDecimal("100.00");
-        Wallet wallet = new Wallet(customerId, balance);
+        Wallet wallet = new Wallet(customerId, Money.of(balance));
 
         when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(wallet));
 
@@ -188,6 +337,37 @@ class WalletServiceTest {
         assertEquals(balance, result.getBalance());
     }
 
+    @Test
+    void getWallet_cached_skipsRepository() {
+        String customerId = "customer1";
+        Wallet wallet = new Wallet(customerId, Money.valueOf("100.00"));
+        wallet.setVersion(1L);
+
+        when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(wallet));
+
+        walletService.getWallet(customerId);
+        WalletDTO result = walletService.getWallet(customerId);
+
+        assertEquals(new BigDecimal("100.00"), result.getBalance());
+        verify(walletRepository, times(1)).findByCustomerId(customerId);
+    }
+
+    @Test
+    void withdrawFunds_updatesCachedBalance() {
+        String customerId = "customer1";
+        Wallet wallet = new Wallet(customerId, Money.valueOf("200.00"));
+        wallet.setVersion(1L);
+
+        when(walletRepository.findByCustomerId(customerId)).thenReturn(Optional.of(wallet));
+        walletService.getWallet(customerId);
+
+        wallet.setVersion(2L);
+        walletService.withdrawFunds(customerId, new BigDecimal("50.00"));
+
+        assertEquals(new BigDecimal("150.00"), walletService.getWallet(customerId).getBalance());
+        verify(walletRepository, times(2)).findByCustomerId(customerId);
+    }
+
     @Test
     void getWallet_notFound_throwsException() {
         String customerId = "customer1";